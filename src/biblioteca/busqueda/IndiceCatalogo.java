@@ -0,0 +1,631 @@
+package biblioteca.busqueda;
+
+import biblioteca.datos.OyenteBiblioteca;
+import biblioteca.datos.RepositorioBiblioteca;
+import biblioteca.models.Libro;
+import biblioteca.models.Prestamo;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import javafx.application.Platform;
+
+/**
+ * Índices secundarios del catálogo para filtrar y contar libros por género, sucursal, autor,
+ * año de publicación y disponibilidad sin recorrer todos los libros.
+ *
+ * Cada libro recibe un número de fila denso, y cada valor de género, sucursal, autor y año
+ * apunta a un {@link MapaBits} con las filas de sus libros; otro mapa de bits guarda las filas
+ * de los libros disponibles. El género, la sucursal y el autor se indexan normalizados por
+ * {@link Normalizador}, de modo que "Ficción" y "ficcion" son el mismo género, y los años en un
+ * mapa ordenado, donde un rango de años es un submapa contiguo y una década, un rango de diez.
+ *
+ * Un filtro combinado es una intersección de mapas de bits. Se empieza por el más pequeño y se
+ * sigue en orden de tamaño, así el resultado parcial se achica lo antes posible. El rango de
+ * años entra en su turno según su tamaño; si al llegar el resultado parcial ya es mucho más
+ * chico que el rango, en lugar de unir los años se comprueba el año de cada libro que queda. Las cuentas por grupo se hacen contando intersecciones, sin crearlas.
+ *
+ * Se mantiene al día con los eventos de {@link RepositorioBiblioteca}, que se entregan en el
+ * hilo de JavaFX, y se consulta desde ese mismo hilo. Los libros cargados se indexan en un
+ * hilo aparte, en otra instancia armada con una copia de sus valores, y los índices se pasan a
+ * esta en el hilo de JavaFX, igual que en {@link IndiceTexto}.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public final class IndiceCatalogo implements OyenteBiblioteca {
+
+    private static final int COSTO_COMPROBAR_ANIO = 32; // Costo de comprobar el año de un libro, en filas unidas
+
+    private static IndiceCatalogo instancia; // Instancia única del índice
+
+    private Map<String, MapaBits> porGenero = new HashMap<>(); // Género normalizado -> filas
+    private Map<String, String> nombresGenero = new HashMap<>(); // Género normalizado -> nombre a mostrar
+    private Map<String, MapaBits> porSucursal = new HashMap<>(); // Sucursal normalizada -> filas
+    private Map<String, String> nombresSucursal = new HashMap<>(); // Sucursal normalizada -> nombre a mostrar
+    private Map<String, MapaBits> porAutor = new HashMap<>(); // Autor normalizado -> filas
+    private TreeMap<Integer, MapaBits> porAnio = new TreeMap<>(); // Año de publicación -> filas
+    private MapaBits disponibles = new MapaBits(); // Filas de los libros disponibles
+    private Map<Libro, Integer> filas = new HashMap<>(); // Libro -> su número de fila
+    private Libro[] libros = new Libro[0]; // Número de fila -> libro, o null si la fila está libre
+    private int[] libres = new int[0]; // Filas liberadas por libros eliminados
+    private int cantidadLibres; // Cantidad de filas liberadas
+    private int siguienteFila; // Primera fila nunca usada
+    private final List<Runnable> oyentesCambio = new ArrayList<>(); // Vistas a avisar tras cada cambio
+    private boolean cargado; // Indica si ya se indexaron los libros cargados
+    private List<Runnable> pendientes; // Cambios recibidos durante la indexación inicial, o null si no hay una en curso
+    private int construccion; // Número de la última indexación inicial, para descartar las reemplazadas
+
+    /**
+     * Crea un índice vacío que no recibe los eventos del repositorio. La aplicación debe usar
+     * {@link #getInstancia()}; las pruebas lo alimentan con los eventos directamente.
+     */
+    IndiceCatalogo() {
+    }
+
+    /**
+     * Obtiene la instancia única del índice, registrándola en el repositorio la primera vez.
+     *
+     * @return El índice compartido por toda la aplicación.
+     */
+    public static synchronized IndiceCatalogo getInstancia() {
+        if (instancia == null) {
+            instancia = new IndiceCatalogo();
+            RepositorioBiblioteca.getInstancia().agregarOyente(instancia);
+        }
+        return instancia;
+    }
+
+    /**
+     * Registra una acción que se ejecuta después de cada cambio en el índice, para que las
+     * vistas repitan el filtro.
+     *
+     * @param oyente La acción a ejecutar.
+     */
+    public void agregarOyenteCambio(Runnable oyente) {
+        oyentesCambio.add(oyente);
+    }
+
+    // ----- Eventos del repositorio -----
+
+    /**
+     * Indexa todos los libros cargados en un hilo aparte. Se copian aquí los valores indexados
+     * de cada libro, porque el hilo de JavaFX puede modificarlos mientras se indexan; los
+     * cambios que lleguen antes de publicar el índice se guardan en {@link #pendientes}.
+     *
+     * @param repositorio El repositorio con los datos cargados.
+     */
+    @Override
+    public void datosCargados(RepositorioBiblioteca repositorio) {
+        cargado = false;
+        pendientes = new ArrayList<>();
+        int numeroConstruccion = ++construccion;
+        Libro[] copia = repositorio.getLibros().toArray(new Libro[0]);
+        String[][] textos = new String[copia.length][];
+        int[] anios = new int[copia.length];
+        boolean[] disponiblesCopia = new boolean[copia.length];
+        for (int i = 0; i < copia.length; i++) {
+            Libro libro = copia[i];
+            textos[i] = new String[]{libro.getGeneroValor(), libro.getSucursalValor(), libro.getAutorValor()};
+            anios[i] = libro.getAnioPublicacionValor();
+            disponiblesCopia[i] = libro.isDisponible();
+        }
+
+        Thread hilo = new Thread(() -> {
+            IndiceCatalogo nuevo = new IndiceCatalogo();
+            nuevo.libros = new Libro[Math.max(copia.length, 16)];
+            // Los géneros, sucursales y autores se repiten mucho; cada valor distinto se normaliza una sola vez
+            Map<String, String> claves = new HashMap<>();
+            for (int i = 0; i < copia.length; i++) {
+                int fila = nuevo.asignarFila(copia[i]);
+                String genero = textos[i][0];
+                String sucursal = textos[i][1];
+                nuevo.indexar(fila, claves.computeIfAbsent(genero, IndiceCatalogo::clave), genero,
+                        claves.computeIfAbsent(sucursal, IndiceCatalogo::clave), sucursal,
+                        claves.computeIfAbsent(textos[i][2], IndiceCatalogo::clave), anios[i]);
+                if (disponiblesCopia[i]) {
+                    nuevo.disponibles.agregar(fila);
+                }
+            }
+            Platform.runLater(() -> publicar(numeroConstruccion, nuevo));
+        }, "indice-catalogo");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Indexa un libro nuevo.
+     *
+     * @param libro El libro agregado.
+     */
+    @Override
+    public void libroAgregado(Libro libro) {
+        Libro valores = copiaValores(libro);
+        boolean disponible = libro.isDisponible();
+        aplicar(() -> {
+            int fila = asignarFila(libro);
+            indexar(fila, valores);
+            if (disponible) {
+                disponibles.agregar(fila);
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Reindexa un libro modificado con sus nuevos valores.
+     *
+     * @param libro    El libro, ya con los valores nuevos.
+     * @param anterior Copia del libro con los valores previos.
+     */
+    @Override
+    public void libroModificado(Libro libro, Libro anterior) {
+        Libro valores = copiaValores(libro);
+        aplicar(() -> {
+            Integer fila = filas.get(libro);
+            if (fila == null) {
+                return false;
+            }
+            desindexar(fila, anterior);
+            indexar(fila, valores);
+            return true;
+        });
+    }
+
+    /**
+     * Quita un libro eliminado del índice y libera su fila.
+     *
+     * @param libro El libro eliminado.
+     */
+    @Override
+    public void libroEliminado(Libro libro) {
+        Libro valores = copiaValores(libro);
+        aplicar(() -> {
+            Integer fila = filas.remove(libro);
+            if (fila == null) {
+                return false;
+            }
+            desindexar(fila, valores);
+            disponibles.quitar(fila);
+            libros[fila] = null;
+            if (cantidadLibres == libres.length) {
+                libres = Arrays.copyOf(libres, Math.max(16, libres.length * 2));
+            }
+            libres[cantidadLibres++] = fila;
+            return true;
+        });
+    }
+
+    /**
+     * Marca como no disponible el libro prestado.
+     *
+     * @param prestamo El préstamo registrado.
+     */
+    @Override
+    public void prestamoRegistrado(Prestamo prestamo) {
+        actualizarDisponibilidad(prestamo.getLibro());
+    }
+
+    /**
+     * Marca como disponible el libro devuelto.
+     *
+     * @param prestamo El préstamo devuelto.
+     */
+    @Override
+    public void prestamoDevuelto(Prestamo prestamo) {
+        actualizarDisponibilidad(prestamo.getLibro());
+    }
+
+    // ----- Consultas -----
+
+    /**
+     * Indica si el índice ya tiene los libros cargados.
+     *
+     * @return true si ya se indexaron los libros.
+     */
+    public boolean isCargado() {
+        return cargado;
+    }
+
+    /**
+     * Obtiene los géneros del catálogo, tal como se escribieron la primera vez que aparecieron.
+     *
+     * @return Los nombres de los géneros, en orden alfabético.
+     */
+    public List<String> getGeneros() {
+        return ordenados(nombresGenero);
+    }
+
+    /**
+     * Obtiene las sucursales que tienen libros, tal como se escribieron la primera vez que
+     * aparecieron. Los libros sin sucursal aparecen con el nombre vacío.
+     *
+     * @return Los nombres de las sucursales, en orden alfabético.
+     */
+    public List<String> getSucursales() {
+        return ordenados(nombresSucursal);
+    }
+
+    /**
+     * Cuenta los libros disponibles.
+     *
+     * @return La cantidad de libros disponibles.
+     */
+    public int getTotalDisponibles() {
+        return disponibles.cardinalidad();
+    }
+
+    /**
+     * Cuenta los libros y los disponibles de cada sucursal.
+     *
+     * @return Por nombre de sucursal, en orden alfabético, {libros, disponibles}.
+     */
+    public Map<String, int[]> getDisponiblesPorSucursal() {
+        Map<String, int[]> resultado = new LinkedHashMap<>();
+        for (String nombre : getSucursales()) {
+            MapaBits sucursal = porSucursal.get(clave(nombre));
+            resultado.put(nombre, new int[]{sucursal.cardinalidad(), MapaBits.contarY(sucursal, disponibles)});
+        }
+        return resultado;
+    }
+
+    /**
+     * Cuenta los libros y los disponibles de cada década de publicación.
+     *
+     * @return Por primer año de la década, en orden cronológico, {libros, disponibles}.
+     */
+    public Map<Integer, int[]> getDisponiblesPorDecada() {
+        Map<Integer, int[]> resultado = new LinkedHashMap<>();
+        for (Map.Entry<Integer, MapaBits> anio : porAnio.entrySet()) {
+            int[] cuentas = resultado.computeIfAbsent(Math.floorDiv(anio.getKey(), 10) * 10, k -> new int[2]);
+            cuentas[0] += anio.getValue().cardinalidad();
+            cuentas[1] += MapaBits.contarY(anio.getValue(), disponibles);
+        }
+        return resultado;
+    }
+
+    /**
+     * Busca los libros que cumplen todas las condiciones dadas. Las condiciones null no filtran.
+     *
+     * @param genero          Género del libro, sin distinguir mayúsculas ni acentos.
+     * @param sucursal        Sucursal del libro, sin distinguir mayúsculas ni acentos.
+     * @param autor           Autor del libro, completo y sin distinguir mayúsculas ni acentos.
+     * @param desde           Primer año de publicación aceptado.
+     * @param hasta           Último año de publicación aceptado.
+     * @param soloDisponibles Indica si solo se aceptan libros disponibles.
+     * @return Los libros que cumplen las condiciones, o null si no se dio ninguna.
+     */
+    public Resultado filtrar(String genero, String sucursal, String autor, Integer desde, Integer hasta,
+            boolean soloDisponibles) {
+        List<MapaBits> condiciones = new ArrayList<>(); // Condiciones por igualdad
+        if (genero != null) {
+            condiciones.add(porGenero.getOrDefault(clave(genero), new MapaBits()));
+        }
+        if (sucursal != null) {
+            condiciones.add(porSucursal.getOrDefault(clave(sucursal), new MapaBits()));
+        }
+        if (autor != null) {
+            condiciones.add(porAutor.getOrDefault(clave(autor), new MapaBits()));
+        }
+        if (soloDisponibles) {
+            condiciones.add(disponibles);
+        }
+        NavigableMap<Integer, MapaBits> anios = null; // Condición por rango
+        int cantidadAnios = 0;
+        if (desde != null || hasta != null) {
+            int primero = desde != null ? desde : Integer.MIN_VALUE;
+            int ultimo = hasta != null ? hasta : Integer.MAX_VALUE;
+            anios = primero <= ultimo ? porAnio.subMap(primero, true, ultimo, true) : new TreeMap<>();
+            for (MapaBits filasAnio : anios.values()) {
+                cantidadAnios += filasAnio.cardinalidad();
+            }
+        }
+        if (condiciones.isEmpty() && anios == null) {
+            return null;
+        }
+
+        // Intersección de la condición más pequeña a la más grande; el rango de años entra en
+        // su turno como una condición más, unido solo si hace falta
+        Map<MapaBits, Integer> cantidades = new HashMap<>();
+        for (MapaBits condicion : condiciones) {
+            cantidades.put(condicion, condicion.cardinalidad());
+        }
+        condiciones.sort((a, b) -> Integer.compare(cantidades.get(a), cantidades.get(b)));
+        MapaBits resultado = null;
+        boolean aniosPendientes = anios != null;
+        for (MapaBits condicion : condiciones) {
+            if (aniosPendientes && cantidadAnios <= cantidades.get(condicion)) {
+                resultado = resultado == null ? unir(anios) : MapaBits.y(resultado, unir(anios));
+                aniosPendientes = false;
+            }
+            resultado = resultado == null ? condicion.copia() : MapaBits.y(resultado, condicion);
+        }
+        if (aniosPendientes) {
+            if (resultado == null) {
+                resultado = unir(anios);
+            } else if ((long) resultado.cardinalidad() * COSTO_COMPROBAR_ANIO > cantidadAnios) {
+                resultado = MapaBits.y(resultado, unir(anios));
+            } else {
+                // El resultado parcial es mucho más chico que el rango: se comprueba el año de cada libro
+                MapaBits enRango = new MapaBits();
+                NavigableMap<Integer, MapaBits> aceptados = anios;
+                resultado.recorrer(fila -> {
+                    if (aceptados.containsKey(libros[fila].getAnioPublicacionValor())) {
+                        enRango.agregar(fila);
+                    }
+                });
+                resultado = enRango;
+            }
+        }
+        return new Resultado(resultado);
+    }
+
+    // ----- Auxiliares -----
+
+    /**
+     * Une los mapas de bits de un rango de años.
+     *
+     * @param anios Los años del rango y sus filas.
+     * @return Las filas de todos los años del rango.
+     */
+    private static MapaBits unir(NavigableMap<Integer, MapaBits> anios) {
+        return MapaBits.o(anios.values());
+    }
+
+    /**
+     * Actualiza la disponibilidad de un libro en el índice según su valor actual.
+     *
+     * @param libro El libro.
+     */
+    private void actualizarDisponibilidad(Libro libro) {
+        boolean disponible = libro.isDisponible();
+        aplicar(() -> {
+            Integer fila = filas.get(libro);
+            if (fila == null) {
+                return false;
+            }
+            return disponible ? disponibles.agregar(fila) : disponibles.quitar(fila);
+        });
+    }
+
+    /**
+     * Pasa a esta instancia los índices armados en segundo plano y les aplica los cambios
+     * recibidos mientras se armaban. Se ejecuta en el hilo de JavaFX.
+     *
+     * @param numeroConstruccion Número de la indexación que terminó.
+     * @param nuevo              Instancia con los índices de los libros cargados.
+     */
+    private void publicar(int numeroConstruccion, IndiceCatalogo nuevo) {
+        if (numeroConstruccion != construccion) {
+            return;
+        }
+        porGenero = nuevo.porGenero;
+        nombresGenero = nuevo.nombresGenero;
+        porSucursal = nuevo.porSucursal;
+        nombresSucursal = nuevo.nombresSucursal;
+        porAutor = nuevo.porAutor;
+        porAnio = nuevo.porAnio;
+        disponibles = nuevo.disponibles;
+        filas = nuevo.filas;
+        libros = nuevo.libros;
+        cantidadLibres = 0;
+        siguienteFila = nuevo.siguienteFila;
+
+        List<Runnable> recibidos = pendientes;
+        pendientes = null;
+        for (Runnable cambio : recibidos) {
+            cambio.run();
+        }
+        cargado = true;
+        avisarCambio();
+    }
+
+    /**
+     * Aplica un cambio al índice y avisa a las vistas si hubo cambios, o lo guarda si la
+     * indexación inicial está en curso.
+     *
+     * @param cambio El cambio, con los valores que tenía el libro al recibir el evento;
+     *               devuelve true si modificó el índice.
+     */
+    private void aplicar(Cambio cambio) {
+        if (pendientes != null) {
+            pendientes.add(cambio::aplicar);
+            return;
+        }
+        if (cambio.aplicar()) {
+            avisarCambio();
+        }
+    }
+
+    /**
+     * Copia los valores indexados de un libro, para indexarlo más tarde con los que tenía al
+     * recibir el evento.
+     *
+     * @param libro El libro.
+     * @return Una copia con el género, la sucursal, el autor y el año del libro.
+     */
+    private static Libro copiaValores(Libro libro) {
+        return new Libro(libro.getISBNValor(), libro.getTituloValor(), libro.getAutorValor(),
+                libro.getAnioPublicacionValor(), libro.getGeneroValor(), libro.getSucursalValor());
+    }
+
+    /**
+     * Asigna una fila a un libro, reutilizando las de libros eliminados.
+     *
+     * @param libro El libro.
+     * @return La fila asignada.
+     */
+    private int asignarFila(Libro libro) {
+        int fila = cantidadLibres > 0 ? libres[--cantidadLibres] : siguienteFila++;
+        if (fila >= libros.length) {
+            libros = Arrays.copyOf(libros, Math.max(16, libros.length * 2));
+        }
+        libros[fila] = libro;
+        filas.put(libro, fila);
+        return fila;
+    }
+
+    /**
+     * Agrega la fila de un libro a los índices con sus valores actuales.
+     *
+     * @param fila  La fila del libro.
+     * @param libro El libro.
+     */
+    private void indexar(int fila, Libro libro) {
+        indexar(fila, clave(libro.getGeneroValor()), libro.getGeneroValor(), clave(libro.getSucursalValor()),
+                libro.getSucursalValor(), clave(libro.getAutorValor()), libro.getAnioPublicacionValor());
+    }
+
+    /**
+     * Agrega una fila a los índices con los valores dados.
+     *
+     * @param fila          La fila del libro.
+     * @param claveGenero   El género normalizado.
+     * @param genero        El género tal como está escrito.
+     * @param claveSucursal La sucursal normalizada.
+     * @param sucursal      La sucursal tal como está escrita.
+     * @param claveAutor    El autor normalizado.
+     * @param anio          El año de publicación.
+     */
+    private void indexar(int fila, String claveGenero, String genero, String claveSucursal, String sucursal,
+            String claveAutor, int anio) {
+        porGenero.computeIfAbsent(claveGenero, k -> new MapaBits()).agregar(fila);
+        nombresGenero.putIfAbsent(claveGenero, genero != null ? genero.trim() : "");
+        porSucursal.computeIfAbsent(claveSucursal, k -> new MapaBits()).agregar(fila);
+        nombresSucursal.putIfAbsent(claveSucursal, sucursal != null ? sucursal.trim() : "");
+        porAutor.computeIfAbsent(claveAutor, k -> new MapaBits()).agregar(fila);
+        porAnio.computeIfAbsent(anio, k -> new MapaBits()).agregar(fila);
+    }
+
+    /**
+     * Quita una fila de los índices, buscándola con los valores con que se indexó.
+     *
+     * @param fila  La fila del libro.
+     * @param libro El libro, o una copia, con los valores con que se indexó.
+     */
+    private void desindexar(int fila, Libro libro) {
+        String claveGenero = clave(libro.getGeneroValor());
+        if (quitar(porGenero, claveGenero, fila)) {
+            nombresGenero.remove(claveGenero);
+        }
+        String claveSucursal = clave(libro.getSucursalValor());
+        if (quitar(porSucursal, claveSucursal, fila)) {
+            nombresSucursal.remove(claveSucursal);
+        }
+        quitar(porAutor, clave(libro.getAutorValor()), fila);
+        quitar(porAnio, libro.getAnioPublicacionValor(), fila);
+    }
+
+    /**
+     * Quita una fila del mapa de bits de una clave, y la clave si su mapa queda vacío.
+     *
+     * @param <K>    Tipo de la clave.
+     * @param indice El índice.
+     * @param clave  La clave.
+     * @param fila   La fila.
+     * @return true si la clave quedó sin filas y se quitó.
+     */
+    private static <K> boolean quitar(Map<K, MapaBits> indice, K clave, int fila) {
+        MapaBits filasClave = indice.get(clave);
+        if (filasClave == null) {
+            return false;
+        }
+        filasClave.quitar(fila);
+        if (filasClave.estaVacio()) {
+            indice.remove(clave);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Obtiene los nombres a mostrar de un índice, ordenados.
+     *
+     * @param nombres Clave normalizada -> nombre a mostrar.
+     * @return Los nombres, en orden alfabético.
+     */
+    private static List<String> ordenados(Map<String, String> nombres) {
+        List<String> lista = new ArrayList<>(nombres.values());
+        lista.sort(String.CASE_INSENSITIVE_ORDER);
+        return lista;
+    }
+
+    /**
+     * Normaliza un género, sucursal o autor para usarlo como clave.
+     *
+     * @param valor El valor; puede ser null.
+     * @return El valor sin espacios en los extremos, en minúsculas y sin acentos.
+     */
+    private static String clave(String valor) {
+        return Normalizador.normalizar(valor != null ? valor.trim() : null);
+    }
+
+    /**
+     * Avisa a las vistas que el índice cambió, una vez indexados los libros cargados.
+     */
+    private void avisarCambio() {
+        if (!cargado) {
+            return;
+        }
+        for (Runnable oyente : oyentesCambio) {
+            oyente.run();
+        }
+    }
+
+    /**
+     * Cambio en el índice por un evento del repositorio.
+     */
+    private interface Cambio {
+
+        /**
+         * Aplica el cambio.
+         *
+         * @return true si el índice cambió.
+         */
+        boolean aplicar();
+    }
+
+    /**
+     * Resultado de un filtro: las filas de los libros que cumplen las condiciones, tomadas en
+     * el momento del filtro.
+     */
+    public final class Resultado {
+
+        private final MapaBits filasResultado; // Filas de los libros que cumplen
+
+        /**
+         * Crea el resultado de un filtro.
+         *
+         * @param filasResultado Filas de los libros que cumplen.
+         */
+        private Resultado(MapaBits filasResultado) {
+            this.filasResultado = filasResultado;
+        }
+
+        /**
+         * Indica si un libro cumple el filtro.
+         *
+         * @param libro El libro.
+         * @return true si el libro está en el resultado.
+         */
+        public boolean contiene(Libro libro) {
+            Integer fila = filas.get(libro);
+            return fila != null && filasResultado.contiene(fila);
+        }
+
+        /**
+         * Cuenta los libros que cumplen el filtro.
+         *
+         * @return La cantidad de libros.
+         */
+        public int getCantidad() {
+            return filasResultado.cardinalidad();
+        }
+    }
+}
@@ -0,0 +1,594 @@
+package biblioteca.busqueda;
+
+import biblioteca.datos.OyenteBiblioteca;
+import biblioteca.datos.RepositorioBiblioteca;
+import biblioteca.models.Miembro;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javafx.application.Platform;
+
+/**
+ * Índice para encontrar miembros por nombre, correo o ID aunque el texto tenga errores de
+ * tipeo.
+ *
+ * Se indexan los trigramas (grupos de tres caracteres consecutivos) de cada palabra del nombre,
+ * de la parte del correo antes de la arroba y del ID, normalizadas con {@link Normalizador} y
+ * marcadas con {@code $} al inicio y al final. El dominio del correo no se indexa: lo comparten
+ * demasiados miembros para ayudar a distinguirlos.
+ *
+ * Una consulta cuenta cuántos de sus trigramas tiene cada miembro. Como cada error de tipeo
+ * cambia como mucho tres trigramas, un miembro que coincide con los errores permitidos debe
+ * compartir al menos {@code trigramas - 3 * errores}; los demás se descartan sin mirarlos. De
+ * los que quedan se revisan los que más trigramas comparten, calculando la distancia de edición
+ * de cada palabra de la consulta contra las palabras del miembro. La última palabra se compara
+ * como prefijo, para sugerir mientras se escribe.
+ *
+ * Los trigramas se codifican en un número para guardar las apariciones en un arreglo, sin
+ * tablas de dispersión, y los miembros reciben un número denso como en {@link IndiceTexto}.
+ *
+ * Se mantiene al día con los eventos de {@link RepositorioBiblioteca}, que se entregan en el
+ * hilo de JavaFX, y se consulta desde ese mismo hilo. Los miembros cargados se indexan en un
+ * hilo aparte y se publican en el hilo de JavaFX, igual que en {@link IndiceTexto}.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public final class IndiceMiembros implements OyenteBiblioteca {
+
+    private static final char MARCA = '$'; // Marca de inicio y fin de palabra
+    private static final int SIMBOLOS = 38; // Letras, dígitos, la marca y "otro"
+    private static final int CANDIDATOS_POR_RESULTADO = 32; // Candidatos revisados por cada resultado pedido
+
+    private static IndiceMiembros instancia; // Instancia única del índice
+
+    private final Lista[] porTrigrama = new Lista[SIMBOLOS * SIMBOLOS * SIMBOLOS]; // Trigrama -> miembros que lo tienen
+    private Map<Miembro, Integer> numeros = new HashMap<>(); // Miembro -> su número en el índice
+    private Miembro[] miembros = new Miembro[0]; // Número -> miembro, o null si el número está libre
+    private int[] libres = new int[0]; // Números liberados por miembros eliminados
+    private int cantidadLibres; // Cantidad de números liberados
+    private int siguienteNumero; // Primer número nunca usado
+    private List<Runnable> pendientes; // Cambios recibidos durante la indexación inicial, o null si no hay una en curso
+    private int construccion; // Número de la última indexación inicial, para descartar las reemplazadas
+
+    // Estado de trabajo de una consulta, por número de miembro; entre consultas conteo vale 0
+    private int[] conteo = new int[0]; // Trigramas de la consulta que tiene el miembro
+    private int[] tocados = new int[0]; // Miembros con algún trigrama de la consulta
+    private int cantidadTocados; // Cantidad de números en tocados
+
+    /**
+     * Crea un índice vacío que no recibe los eventos del repositorio. La aplicación debe usar
+     * {@link #getInstancia()}; las pruebas lo alimentan con los eventos directamente.
+     */
+    IndiceMiembros() {
+    }
+
+    /**
+     * Obtiene la instancia única del índice, registrándola en el repositorio la primera vez.
+     *
+     * @return El índice compartido por toda la aplicación.
+     */
+    public static synchronized IndiceMiembros getInstancia() {
+        if (instancia == null) {
+            instancia = new IndiceMiembros();
+            RepositorioBiblioteca.getInstancia().agregarOyente(instancia);
+        }
+        return instancia;
+    }
+
+    // ----- Eventos del repositorio -----
+
+    /**
+     * Indexa todos los miembros cargados en un hilo aparte. Se copian aquí el nombre, el correo
+     * y el ID de cada uno, porque el hilo de JavaFX puede modificarlos mientras se indexan; los
+     * cambios que lleguen antes de publicar el índice se guardan en {@link #pendientes}.
+     *
+     * @param repositorio El repositorio con los datos cargados.
+     */
+    @Override
+    public void datosCargados(RepositorioBiblioteca repositorio) {
+        pendientes = new ArrayList<>();
+        int numeroConstruccion = ++construccion;
+        Miembro[] copia = repositorio.getMiembros().toArray(new Miembro[0]);
+        String[][] datos = new String[copia.length][];
+        for (int i = 0; i < copia.length; i++) {
+            datos[i] = new String[]{copia[i].getNombreValor(), copia[i].getEmailValor(), copia[i].getIdValor()};
+        }
+
+        Thread hilo = new Thread(() -> {
+            Lista[] indice = new Lista[porTrigrama.length];
+            Map<Miembro, Integer> numerosCopia = new HashMap<>(copia.length * 2);
+            for (int numero = 0; numero < datos.length; numero++) {
+                indexar(indice, numero, palabrasDe(datos[numero][0], datos[numero][1], datos[numero][2]));
+                numerosCopia.put(copia[numero], numero);
+            }
+            Platform.runLater(() -> publicar(numeroConstruccion, copia, indice, numerosCopia));
+        }, "indice-miembros");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Indexa un miembro nuevo.
+     *
+     * @param miembro El miembro agregado.
+     */
+    @Override
+    public void miembroAgregado(Miembro miembro) {
+        List<String> palabras = palabrasDe(miembro);
+        aplicar(() -> indexar(porTrigrama, asignarNumero(miembro), palabras));
+    }
+
+    /**
+     * Reindexa un miembro modificado con sus nuevos datos.
+     *
+     * @param miembro  El miembro, ya con los valores nuevos.
+     * @param anterior Copia del miembro con los valores previos.
+     */
+    @Override
+    public void miembroModificado(Miembro miembro, Miembro anterior) {
+        List<String> palabras = palabrasDe(miembro);
+        aplicar(() -> {
+            Integer numero = numeros.get(miembro);
+            if (numero != null) {
+                desindexar(numero, palabrasDe(anterior));
+                indexar(porTrigrama, numero, palabras);
+            }
+        });
+    }
+
+    /**
+     * Quita un miembro eliminado del índice y libera su número.
+     *
+     * @param miembro El miembro eliminado.
+     */
+    @Override
+    public void miembroEliminado(Miembro miembro) {
+        List<String> palabras = palabrasDe(miembro);
+        aplicar(() -> {
+            Integer numero = numeros.remove(miembro);
+            if (numero != null) {
+                desindexar(numero, palabras);
+                miembros[numero] = null;
+                if (cantidadLibres == libres.length) {
+                    libres = Arrays.copyOf(libres, Math.max(16, libres.length * 2));
+                }
+                libres[cantidadLibres++] = numero;
+            }
+        });
+    }
+
+    // ----- Consultas -----
+
+    /**
+     * Busca los miembros cuyo nombre, correo o ID se parece al texto, tolerando errores de
+     * tipeo: ninguno en palabras de hasta 3 letras, uno hasta 6 y dos en las más largas.
+     *
+     * @param consulta El texto escrito.
+     * @param limite   Cantidad máxima de miembros a devolver.
+     * @return Los miembros encontrados, primero los de menor distancia de edición; ninguno si
+     *         la consulta es una sola letra, que no alcanza a formar un trigrama.
+     */
+    public List<Miembro> buscar(String consulta, int limite) {
+        List<String> palabras = Normalizador.palabras(consulta);
+        if (palabras.isEmpty() || limite <= 0) {
+            return Collections.emptyList();
+        }
+
+        // Trigramas distintos de la consulta; la última palabra no lleva marca final por ser prefijo
+        List<Integer> trigramas = new ArrayList<>();
+        int errores = 0;
+        for (int i = 0; i < palabras.size(); i++) {
+            String palabra = palabras.get(i);
+            errores += erroresPermitidos(palabra);
+            for (int trigrama : trigramas(palabra, i < palabras.size() - 1)) {
+                if (!trigramas.contains(trigrama)) {
+                    trigramas.add(trigrama);
+                }
+            }
+        }
+        int minimo = Math.max(1, trigramas.size() - 3 * errores);
+
+        cantidadTocados = 0;
+        try {
+            for (int trigrama : trigramas) {
+                Lista lista = porTrigrama[trigrama];
+                for (int i = 0; lista != null && i < lista.tamanio; i++) {
+                    int numero = lista.numeros[i];
+                    if (conteo[numero]++ == 0) {
+                        tocados[cantidadTocados++] = numero;
+                    }
+                }
+            }
+            return revisar(palabras, minimo, limite);
+        } finally {
+            for (int i = 0; i < cantidadTocados; i++) {
+                conteo[tocados[i]] = 0;
+            }
+        }
+    }
+
+    // ----- Auxiliares -----
+
+    /**
+     * Revisa los candidatos que más trigramas comparten con la consulta y ordena los que
+     * coinciden por distancia de edición.
+     *
+     * @param palabras Palabras normalizadas de la consulta.
+     * @param minimo   Trigramas compartidos por debajo de los cuales se descarta un candidato.
+     * @param limite   Cantidad máxima de miembros a devolver.
+     * @return Los miembros que coinciden, ordenados.
+     */
+    private List<Miembro> revisar(List<String> palabras, int minimo, int limite) {
+        // Montículo con el candidato de menos trigramas en la raíz
+        int maximo = limite * CANDIDATOS_POR_RESULTADO;
+        long[] elegidos = new long[maximo];
+        int cantidad = 0;
+        for (int i = 0; i < cantidadTocados; i++) {
+            int numero = tocados[i];
+            if (conteo[numero] < minimo) {
+                continue;
+            }
+            long clave = ((long) conteo[numero] << 32) | (Integer.MAX_VALUE - numero);
+            if (cantidad < maximo) {
+                elegidos[cantidad] = clave;
+                subir(elegidos, cantidad++);
+            } else if (clave > elegidos[0]) {
+                elegidos[0] = clave;
+                bajar(elegidos, cantidad, 0);
+            }
+        }
+
+        Map<Miembro, long[]> coincidencias = new HashMap<>(); // Miembro -> {distancia, trigramas}
+        for (int i = 0; i < cantidad; i++) {
+            int numero = Integer.MAX_VALUE - (int) elegidos[i];
+            int distancia = distancia(palabras, palabrasDe(miembros[numero]));
+            if (distancia >= 0) {
+                coincidencias.put(miembros[numero], new long[]{distancia, elegidos[i] >>> 32});
+            }
+        }
+        List<Miembro> resultado = new ArrayList<>(coincidencias.keySet());
+        resultado.sort(Comparator.<Miembro>comparingLong(miembro -> coincidencias.get(miembro)[0])
+                .thenComparingLong(miembro -> -coincidencias.get(miembro)[1])
+                .thenComparing(Miembro::getNombreValor, Comparator.nullsLast(Comparator.<String>naturalOrder())));
+        return resultado.size() > limite ? resultado.subList(0, limite) : resultado;
+    }
+
+    /**
+     * Calcula la distancia de una consulta a un miembro: la suma, por cada palabra de la
+     * consulta, de la menor distancia a alguna palabra del miembro. Se devuelve duplicada y se
+     * suma uno si la última palabra solo coincide como prefijo, para que "S12" ponga al miembro
+     * "S12" antes que a "S120".
+     *
+     * @param consulta Palabras de la consulta; la última se compara como prefijo.
+     * @param miembro  Palabras del miembro.
+     * @return La distancia así calculada, o -1 si alguna palabra supera los errores permitidos.
+     */
+    private static int distancia(List<String> consulta, List<String> miembro) {
+        int total = 0;
+        boolean completa = true;
+        for (int i = 0; i < consulta.size(); i++) {
+            String palabra = consulta.get(i);
+            boolean ultima = i == consulta.size() - 1;
+            int permitidos = erroresPermitidos(palabra);
+            int mejor = permitidos + 1;
+            for (String candidata : miembro) {
+                int prefijo = levenshtein(palabra, candidata, permitidos, ultima);
+                if (prefijo < mejor) {
+                    mejor = prefijo;
+                    completa = !ultima || levenshtein(palabra, candidata, permitidos, false) == prefijo;
+                } else if (ultima && prefijo == mejor && !completa) {
+                    completa = levenshtein(palabra, candidata, permitidos, false) == prefijo;
+                }
+            }
+            if (mejor > permitidos) {
+                return -1;
+            }
+            total += mejor;
+        }
+        return total * 2 + (completa ? 0 : 1);
+    }
+
+    /**
+     * Calcula la distancia de Levenshtein acotada entre dos palabras.
+     *
+     * @param a       La palabra de la consulta.
+     * @param b       La palabra del miembro.
+     * @param maximo  Distancia máxima de interés.
+     * @param prefijo Indica si se compara {@code a} contra el mejor prefijo de {@code b}.
+     * @return La distancia, o {@code maximo + 1} si la supera.
+     */
+    private static int levenshtein(String a, String b, int maximo, boolean prefijo) {
+        if (!prefijo && Math.abs(a.length() - b.length()) > maximo) {
+            return maximo + 1;
+        }
+        // Filas de la tabla: distancia entre los primeros i caracteres de a y los primeros j de b
+        int[] anterior = new int[b.length() + 1];
+        int[] actual = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            anterior[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            actual[0] = i;
+            int menorFila = actual[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int costo = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                actual[j] = Math.min(Math.min(actual[j - 1] + 1, anterior[j] + 1), anterior[j - 1] + costo);
+                menorFila = Math.min(menorFila, actual[j]);
+            }
+            if (menorFila > maximo) {
+                return maximo + 1;
+            }
+            int[] temporal = anterior;
+            anterior = actual;
+            actual = temporal;
+        }
+        int distancia = anterior[b.length()];
+        if (prefijo) {
+            // Como prefijo vale la mejor distancia contra cualquier inicio de b
+            for (int valor : anterior) {
+                distancia = Math.min(distancia, valor);
+            }
+        }
+        return Math.min(distancia, maximo + 1);
+    }
+
+    /**
+     * Obtiene los errores de tipeo que se toleran en una palabra de la consulta.
+     *
+     * @param palabra La palabra.
+     * @return 0 hasta 3 caracteres, 1 hasta 6 y 2 en las más largas.
+     */
+    private static int erroresPermitidos(String palabra) {
+        return palabra.length() <= 3 ? 0 : palabra.length() <= 6 ? 1 : 2;
+    }
+
+    /**
+     * Obtiene las palabras indexadas de un miembro: las del nombre, las del correo antes de la
+     * arroba y las del ID.
+     *
+     * @param miembro El miembro.
+     * @return Las palabras normalizadas.
+     */
+    private static List<String> palabrasDe(Miembro miembro) {
+        return palabrasDe(miembro.getNombreValor(), miembro.getEmailValor(), miembro.getIdValor());
+    }
+
+    /**
+     * Obtiene las palabras indexadas a partir del nombre, el correo y el ID de un miembro.
+     *
+     * @param nombre El nombre.
+     * @param email  El correo; solo se toma la parte antes de la arroba.
+     * @param id     El ID.
+     * @return Las palabras normalizadas.
+     */
+    private static List<String> palabrasDe(String nombre, String email, String id) {
+        List<String> palabras = Normalizador.palabras(nombre);
+        if (email != null) {
+            int arroba = email.indexOf('@');
+            palabras.addAll(Normalizador.palabras(arroba >= 0 ? email.substring(0, arroba) : email));
+        }
+        palabras.addAll(Normalizador.palabras(id));
+        return palabras;
+    }
+
+    /**
+     * Obtiene los trigramas de una palabra, con la marca de inicio y, si se pide, la de fin.
+     * Una palabra de un solo carácter sin marca de fin no tiene trigramas.
+     *
+     * @param palabra   La palabra normalizada.
+     * @param marcaFin  Indica si se agrega la marca de fin.
+     * @return Los códigos de los trigramas, en orden y con repeticiones.
+     */
+    private static int[] trigramas(String palabra, boolean marcaFin) {
+        String marcada = MARCA + palabra + (marcaFin ? String.valueOf(MARCA) : "");
+        int[] codigos = new int[Math.max(0, marcada.length() - 2)];
+        for (int i = 0; i < codigos.length; i++) {
+            codigos[i] = (simbolo(marcada.charAt(i)) * SIMBOLOS + simbolo(marcada.charAt(i + 1))) * SIMBOLOS
+                    + simbolo(marcada.charAt(i + 2));
+        }
+        return codigos;
+    }
+
+    /**
+     * Codifica un carácter normalizado. Los caracteres que no son letras latinas ni dígitos
+     * comparten un código; eso solo agrega candidatos, que la distancia de edición descarta.
+     *
+     * @param c El carácter.
+     * @return El código, entre 0 y {@value #SIMBOLOS} - 1.
+     */
+    private static int simbolo(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a' + 1;
+        }
+        if (c >= '0' && c <= '9') {
+            return c - '0' + 27;
+        }
+        return c == MARCA ? 37 : 0;
+    }
+
+    /**
+     * Asigna un número a un miembro, reutilizando los de miembros eliminados, y amplía los
+     * arreglos de trabajo si hace falta.
+     *
+     * @param miembro El miembro.
+     * @return El número asignado.
+     */
+    private int asignarNumero(Miembro miembro) {
+        int numero = cantidadLibres > 0 ? libres[--cantidadLibres] : siguienteNumero++;
+        if (numero >= miembros.length) {
+            int longitud = Math.max(16, miembros.length * 2);
+            miembros = Arrays.copyOf(miembros, longitud);
+            conteo = Arrays.copyOf(conteo, longitud);
+            tocados = Arrays.copyOf(tocados, longitud);
+        }
+        miembros[numero] = miembro;
+        numeros.put(miembro, numero);
+        return numero;
+    }
+
+    /**
+     * Reemplaza el índice por uno armado en segundo plano y le aplica los cambios recibidos
+     * mientras se armaba. Se ejecuta en el hilo de JavaFX.
+     *
+     * @param numeroConstruccion Número de la indexación que terminó.
+     * @param copia              Miembros indexados, por número.
+     * @param indice             Las apariciones de cada trigrama.
+     * @param numerosCopia       Número de cada miembro indexado.
+     */
+    private void publicar(int numeroConstruccion, Miembro[] copia, Lista[] indice, Map<Miembro, Integer> numerosCopia) {
+        if (numeroConstruccion != construccion) {
+            return;
+        }
+        System.arraycopy(indice, 0, porTrigrama, 0, porTrigrama.length);
+        numeros = numerosCopia;
+        cantidadLibres = 0;
+        siguienteNumero = copia.length;
+        miembros = Arrays.copyOf(copia, Math.max(copia.length, 16));
+        conteo = new int[miembros.length];
+        tocados = new int[miembros.length];
+
+        List<Runnable> recibidos = pendientes;
+        pendientes = null;
+        for (Runnable cambio : recibidos) {
+            cambio.run();
+        }
+    }
+
+    /**
+     * Aplica un cambio al índice, o lo guarda si la indexación inicial está en curso.
+     *
+     * @param cambio El cambio, con los datos que tenía el miembro al recibir el evento.
+     */
+    private void aplicar(Runnable cambio) {
+        if (pendientes != null) {
+            pendientes.add(cambio);
+        } else {
+            cambio.run();
+        }
+    }
+
+    /**
+     * Agrega un miembro a las apariciones de sus trigramas.
+     *
+     * @param indice   Apariciones por trigrama en que se agrega.
+     * @param numero   Número del miembro.
+     * @param palabras Palabras con que se indexa.
+     */
+    private static void indexar(Lista[] indice, int numero, List<String> palabras) {
+        for (String palabra : palabras) {
+            for (int trigrama : trigramas(palabra, true)) {
+                if (indice[trigrama] == null) {
+                    indice[trigrama] = new Lista();
+                }
+                indice[trigrama].agregar(numero);
+            }
+        }
+    }
+
+    /**
+     * Quita un miembro de las apariciones de sus trigramas.
+     *
+     * @param numero   Número del miembro.
+     * @param palabras Palabras con que se había indexado.
+     */
+    private void desindexar(int numero, List<String> palabras) {
+        for (String palabra : palabras) {
+            for (int trigrama : trigramas(palabra, true)) {
+                if (porTrigrama[trigrama] != null) {
+                    porTrigrama[trigrama].quitar(numero);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sube una clave en un montículo de mínimos mientras sea menor que su padre.
+     *
+     * @param monticulo El montículo.
+     * @param posicion  Posición de la clave.
+     */
+    private static void subir(long[] monticulo, int posicion) {
+        while (posicion > 0) {
+            int padre = (posicion - 1) / 2;
+            if (monticulo[padre] <= monticulo[posicion]) {
+                return;
+            }
+            long temporal = monticulo[padre];
+            monticulo[padre] = monticulo[posicion];
+            monticulo[posicion] = temporal;
+            posicion = padre;
+        }
+    }
+
+    /**
+     * Baja una clave en un montículo de mínimos mientras sea mayor que alguno de sus hijos.
+     *
+     * @param monticulo El montículo.
+     * @param tamanio   Cantidad de claves del montículo.
+     * @param posicion  Posición de la clave.
+     */
+    private static void bajar(long[] monticulo, int tamanio, int posicion) {
+        while (true) {
+            int menor = posicion;
+            int izquierdo = 2 * posicion + 1;
+            if (izquierdo < tamanio && monticulo[izquierdo] < monticulo[menor]) {
+                menor = izquierdo;
+            }
+            if (izquierdo + 1 < tamanio && monticulo[izquierdo + 1] < monticulo[menor]) {
+                menor = izquierdo + 1;
+            }
+            if (menor == posicion) {
+                return;
+            }
+            long temporal = monticulo[menor];
+            monticulo[menor] = monticulo[posicion];
+            monticulo[posicion] = temporal;
+            posicion = menor;
+        }
+    }
+
+    /**
+     * Miembros que tienen un trigrama, en un arreglo que crece al agregar.
+     */
+    private static final class Lista {
+
+        private int[] numeros = new int[2]; // Números de los miembros
+        private int tamanio; // Cantidad de miembros
+
+        /**
+         * Agrega un miembro al final, salvo que ya sea el último por repetirse el trigrama.
+         *
+         * @param numero Número del miembro.
+         */
+        private void agregar(int numero) {
+            if (tamanio > 0 && numeros[tamanio - 1] == numero) {
+                return;
+            }
+            if (tamanio == numeros.length) {
+                numeros = Arrays.copyOf(numeros, tamanio * 2);
+            }
+            numeros[tamanio++] = numero;
+        }
+
+        /**
+         * Quita un miembro, moviendo el último a su lugar.
+         *
+         * @param numero Número del miembro.
+         */
+        private void quitar(int numero) {
+            for (int i = 0; i < tamanio; i++) {
+                if (numeros[i] == numero) {
+                    numeros[i] = numeros[--tamanio];
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,705 @@
+package biblioteca.busqueda;
+
+import biblioteca.datos.OyenteBiblioteca;
+import biblioteca.datos.RepositorioBiblioteca;
+import biblioteca.models.Libro;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import javafx.application.Platform;
+
+/**
+ * Índice invertido sobre el título y el autor de los libros, con búsqueda por prefijo.
+ *
+ * Cada palabra normalizada con {@link Normalizador} apunta a los libros en cuyo título o autor
+ * aparece. Las palabras se guardan ordenadas, de modo que las que empiezan con un prefijo forman
+ * un rango contiguo que se recorre sin revisar el resto. Una consulta se separa en palabras y
+ * cada una se toma como prefijo; un libro coincide si tiene todas ellas. Se empieza por la
+ * palabra con menos apariciones y las demás solo filtran esos candidatos, ya sea recorriendo
+ * sus apariciones o, si los candidatos son pocos, revisando el texto de cada uno.
+ *
+ * Las coincidencias se ordenan por puntaje: cada palabra de la consulta suma más si coincide
+ * completa que si solo es prefijo, y más en el título que en el autor. Entre las de igual
+ * puntaje se eligen las primeras del catálogo.
+ *
+ * Cada libro indexado recibe un número denso, y las apariciones guardan esos números en
+ * arreglos de enteros. Así, el estado de una consulta se lleva en arreglos indexados por
+ * número, sin crear objetos por candidato aunque coincidan cientos de miles de libros.
+ *
+ * Se mantiene al día con los eventos de {@link RepositorioBiblioteca}, que se entregan en el
+ * hilo de JavaFX, y se consulta desde ese mismo hilo. Los libros cargados se indexan en un
+ * hilo aparte sobre una copia de sus títulos y autores, y el índice armado se publica en el
+ * hilo de JavaFX; los eventos que llegan mientras tanto se guardan con los valores que tenían
+ * y se aplican al publicarlo.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public final class IndiceTexto implements OyenteBiblioteca {
+
+    private static final byte EN_TITULO = 1; // La palabra aparece en el título
+    private static final byte EN_AUTOR = 2; // La palabra aparece en el autor
+    private static final int PESO_TITULO = 2; // Puntaje de una coincidencia en el título
+    private static final int PESO_AUTOR = 1; // Puntaje de una coincidencia en el autor
+    private static final int FACTOR_COMPLETA = 2; // Multiplicador si la palabra coincide completa
+    private static final int COSTO_VERIFICAR = 64; // Costo de revisar el texto de un candidato, en apariciones recorridas
+
+    private static IndiceTexto instancia; // Instancia única del índice
+
+    private TreeMap<String, Apariciones> palabras = new TreeMap<>(); // Palabra -> libros en que aparece
+    private Map<Libro, Integer> numeros = new HashMap<>(); // Libro -> su número en el índice
+    private final List<Runnable> oyentesCambio = new ArrayList<>(); // Vistas a avisar tras cada cambio
+    private Libro[] libros = new Libro[0]; // Número -> libro, o null si el número está libre
+    private int[] libres = new int[0]; // Números liberados por libros eliminados
+    private int cantidadLibres; // Cantidad de números liberados
+    private int siguienteNumero; // Primer número nunca usado
+    private boolean cargado; // Indica si ya se indexaron los libros cargados
+    private List<Runnable> pendientes; // Cambios recibidos durante la indexación inicial, o null si no hay una en curso
+    private int construccion; // Número de la última indexación inicial, para descartar las reemplazadas
+
+    // Estado de trabajo de una consulta, por número de libro; entre consultas etapa vale 0
+    private int[] etapa = new int[0]; // Cantidad de palabras de la consulta con que coincide
+    private int[] puntos = new int[0]; // Puntaje acumulado
+    private int[] ultimo = new int[0]; // Puntaje sumado por la última palabra
+    private int[] tocados = new int[0]; // Números que coincidieron con la primera palabra
+    private int cantidadTocados; // Cantidad de números en tocados
+
+    /**
+     * Crea un índice vacío que no recibe los eventos del repositorio. La aplicación debe usar
+     * {@link #getInstancia()}; las pruebas lo alimentan con los eventos directamente.
+     */
+    IndiceTexto() {
+    }
+
+    /**
+     * Obtiene la instancia única del índice, registrándola en el repositorio la primera vez.
+     *
+     * @return El índice compartido por toda la aplicación.
+     */
+    public static synchronized IndiceTexto getInstancia() {
+        if (instancia == null) {
+            instancia = new IndiceTexto();
+            RepositorioBiblioteca.getInstancia().agregarOyente(instancia);
+        }
+        return instancia;
+    }
+
+    /**
+     * Registra una acción que se ejecuta después de cada cambio en el índice, para que las
+     * vistas repitan la búsqueda.
+     *
+     * @param oyente La acción a ejecutar.
+     */
+    public void agregarOyenteCambio(Runnable oyente) {
+        oyentesCambio.add(oyente);
+    }
+
+    // ----- Eventos del repositorio -----
+
+    /**
+     * Indexa todos los libros cargados en un hilo aparte. Se copian aquí los títulos y autores,
+     * porque el hilo de JavaFX puede modificarlos mientras se indexan; los cambios que lleguen
+     * antes de publicar el índice se guardan en {@link #pendientes}.
+     *
+     * @param repositorio El repositorio con los datos cargados.
+     */
+    @Override
+    public void datosCargados(RepositorioBiblioteca repositorio) {
+        cargado = false;
+        pendientes = new ArrayList<>();
+        int numeroConstruccion = ++construccion;
+        Libro[] copia = repositorio.getLibros().toArray(new Libro[0]);
+        String[] titulos = new String[copia.length];
+        String[] autores = new String[copia.length];
+        for (int i = 0; i < copia.length; i++) {
+            titulos[i] = copia[i].getTituloValor();
+            autores[i] = copia[i].getAutorValor();
+        }
+
+        Thread hilo = new Thread(() -> {
+            TreeMap<String, Apariciones> indice = construir(titulos, autores);
+            Map<Libro, Integer> numerosCopia = new HashMap<>(copia.length * 2);
+            for (int numero = 0; numero < copia.length; numero++) {
+                numerosCopia.put(copia[numero], numero);
+            }
+            Platform.runLater(() -> publicar(numeroConstruccion, copia, indice, numerosCopia));
+        }, "indice-texto");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Indexa un libro nuevo.
+     *
+     * @param libro El libro agregado.
+     */
+    @Override
+    public void libroAgregado(Libro libro) {
+        String titulo = libro.getTituloValor();
+        String autor = libro.getAutorValor();
+        aplicar(() -> indexar(asignarNumero(libro), titulo, autor));
+    }
+
+    /**
+     * Reindexa un libro modificado con su nuevo título y autor.
+     *
+     * @param libro    El libro, ya con los valores nuevos.
+     * @param anterior Copia del libro con los valores previos.
+     */
+    @Override
+    public void libroModificado(Libro libro, Libro anterior) {
+        String titulo = libro.getTituloValor();
+        String autor = libro.getAutorValor();
+        aplicar(() -> {
+            Integer numero = numeros.get(libro);
+            if (numero != null) {
+                desindexar(numero, anterior.getTituloValor(), anterior.getAutorValor());
+                indexar(numero, titulo, autor);
+            }
+        });
+    }
+
+    /**
+     * Quita un libro eliminado del índice y libera su número.
+     *
+     * @param libro El libro eliminado.
+     */
+    @Override
+    public void libroEliminado(Libro libro) {
+        String titulo = libro.getTituloValor();
+        String autor = libro.getAutorValor();
+        aplicar(() -> {
+            Integer numero = numeros.remove(libro);
+            if (numero != null) {
+                desindexar(numero, titulo, autor);
+                libros[numero] = null;
+                if (cantidadLibres == libres.length) {
+                    libres = Arrays.copyOf(libres, Math.max(16, libres.length * 2));
+                }
+                libres[cantidadLibres++] = numero;
+            }
+        });
+    }
+
+    // ----- Consultas -----
+
+    /**
+     * Indica si el índice ya tiene los libros cargados.
+     *
+     * @return true si ya se indexaron los libros.
+     */
+    public boolean isCargado() {
+        return cargado;
+    }
+
+    /**
+     * Busca los libros cuyo título o autor contiene palabras que empiezan con cada palabra de
+     * la consulta, sin distinguir mayúsculas ni acentos.
+     *
+     * @param consulta El texto buscado.
+     * @param limite   Cantidad máxima de libros a devolver.
+     * @return Los libros con mayor puntaje, de mayor a menor, y la cantidad total de coincidencias.
+     */
+    public Resultado buscar(String consulta, int limite) {
+        return buscar(consulta, limite, null);
+    }
+
+    /**
+     * Busca como {@link #buscar(String, int)}, pero solo entre los libros que cumplen un
+     * filtro, por ejemplo el de {@link IndiceCatalogo}. El filtro se aplica a todas las
+     * coincidencias antes de elegir las mejores, así que el límite y la cantidad de
+     * coincidencias se refieren solo a los libros que lo cumplen.
+     *
+     * @param consulta El texto buscado.
+     * @param limite   Cantidad máxima de libros a devolver.
+     * @param filtro   Condición que deben cumplir los libros, o null para no filtrar.
+     * @return Los libros con mayor puntaje, de mayor a menor, y la cantidad total de coincidencias.
+     */
+    public Resultado buscar(String consulta, int limite, Predicate<Libro> filtro) {
+        List<String> prefijos = new ArrayList<>(new LinkedHashSet<>(Normalizador.palabras(consulta)));
+        if (prefijos.isEmpty()) {
+            return new Resultado(Collections.emptyList(), 0);
+        }
+
+        // Empezar por el prefijo con menos apariciones, que deja menos candidatos
+        Map<String, Long> apariciones = new HashMap<>();
+        for (String prefijo : prefijos) {
+            long total = 0;
+            for (Apariciones lista : rango(prefijo).values()) {
+                total += lista.tamanio;
+            }
+            apariciones.put(prefijo, total);
+        }
+        prefijos.sort(Comparator.comparing(apariciones::get));
+
+        cantidadTocados = 0;
+        try {
+            int coincidencias = 0;
+            for (int k = 0; k < prefijos.size(); k++) {
+                String prefijo = prefijos.get(k);
+                if (k == 0 || (long) coincidencias * COSTO_VERIFICAR >= apariciones.get(prefijo)) {
+                    coincidencias = recorrer(prefijo, k);
+                } else {
+                    coincidencias = verificar(prefijo, k);
+                }
+                if (coincidencias == 0) {
+                    return new Resultado(Collections.emptyList(), 0);
+                }
+            }
+            if (filtro != null) {
+                coincidencias = filtrar(prefijos.size(), filtro);
+            }
+            return new Resultado(mejores(prefijos.size(), limite), coincidencias);
+        } finally {
+            for (int i = 0; i < cantidadTocados; i++) {
+                etapa[tocados[i]] = 0;
+            }
+        }
+    }
+
+    // ----- Auxiliares -----
+
+    /**
+     * Pasa a la etapa siguiente los candidatos que tienen una palabra con el prefijo,
+     * recorriendo las apariciones del prefijo. En la primera etapa todos los libros son
+     * candidatos.
+     *
+     * @param prefijo El prefijo a exigir.
+     * @param k       Cantidad de prefijos ya exigidos.
+     * @return Cantidad de candidatos que pasan.
+     */
+    private int recorrer(String prefijo, int k) {
+        int coincidencias = 0;
+        for (Map.Entry<String, Apariciones> palabra : rango(prefijo).entrySet()) {
+            boolean completa = palabra.getKey().length() == prefijo.length();
+            Apariciones lista = palabra.getValue();
+            for (int i = 0; i < lista.tamanio; i++) {
+                int numero = lista.numeros[i];
+                int puntaje = puntaje(completa, lista.campos[i]);
+                if (etapa[numero] == k) {
+                    etapa[numero] = k + 1;
+                    puntos[numero] = k == 0 ? puntaje : puntos[numero] + puntaje;
+                    ultimo[numero] = puntaje;
+                    if (k == 0) {
+                        tocados[cantidadTocados++] = numero;
+                    }
+                    coincidencias++;
+                } else if (etapa[numero] == k + 1 && puntaje > ultimo[numero]) {
+                    // Otra palabra con el mismo prefijo puntúa mejor; se queda la mejor
+                    puntos[numero] += puntaje - ultimo[numero];
+                    ultimo[numero] = puntaje;
+                }
+            }
+        }
+        return coincidencias;
+    }
+
+    /**
+     * Pasa a la etapa siguiente los candidatos que tienen una palabra con el prefijo,
+     * revisando el texto de cada uno; conviene cuando son pocos y el prefijo aparece en
+     * muchos libros.
+     *
+     * @param prefijo El prefijo a exigir.
+     * @param k       Cantidad de prefijos ya exigidos.
+     * @return Cantidad de candidatos que pasan.
+     */
+    private int verificar(String prefijo, int k) {
+        int coincidencias = 0;
+        for (int i = 0; i < cantidadTocados; i++) {
+            int numero = tocados[i];
+            if (etapa[numero] == k) {
+                int mejor = Math.max(mejorPuntaje(libros[numero].getTituloValor(), prefijo, EN_TITULO),
+                        mejorPuntaje(libros[numero].getAutorValor(), prefijo, EN_AUTOR));
+                if (mejor > 0) {
+                    etapa[numero] = k + 1;
+                    puntos[numero] += mejor;
+                    coincidencias++;
+                }
+            }
+        }
+        return coincidencias;
+    }
+
+    /**
+     * Saca de la última etapa a los candidatos que no cumplen un filtro.
+     *
+     * @param etapas Cantidad de prefijos de la consulta.
+     * @param filtro Condición que deben cumplir los libros.
+     * @return Cantidad de candidatos que siguen en la última etapa.
+     */
+    private int filtrar(int etapas, Predicate<Libro> filtro) {
+        int coincidencias = 0;
+        for (int i = 0; i < cantidadTocados; i++) {
+            int numero = tocados[i];
+            if (etapa[numero] == etapas) {
+                if (filtro.test(libros[numero])) {
+                    coincidencias++;
+                } else {
+                    etapa[numero] = 0;
+                }
+            }
+        }
+        return coincidencias;
+    }
+
+    /**
+     * Calcula el mejor puntaje de las palabras de un texto que empiezan con un prefijo.
+     *
+     * @param texto   El texto.
+     * @param prefijo El prefijo normalizado.
+     * @param campo   Campo al que pertenece el texto.
+     * @return El mejor puntaje, o 0 si ninguna palabra empieza con el prefijo.
+     */
+    private static int mejorPuntaje(String texto, String prefijo, byte campo) {
+        int mejor = 0;
+        for (String palabra : Normalizador.palabras(texto)) {
+            if (palabra.startsWith(prefijo)) {
+                mejor = Math.max(mejor, puntaje(palabra.length() == prefijo.length(), campo));
+            }
+        }
+        return mejor;
+    }
+
+    /**
+     * Elige los candidatos que pasaron todas las etapas con mayor puntaje; entre los de igual
+     * puntaje, los de menor número. El resultado se ordena por puntaje y luego por título.
+     *
+     * @param etapas Cantidad de prefijos de la consulta.
+     * @param limite Cantidad máxima de libros.
+     * @return Los mejores libros, de mayor a menor puntaje.
+     */
+    private List<Libro> mejores(int etapas, int limite) {
+        // Montículo de mínimos con el peor de los elegidos en la raíz; la clave combina el
+        // puntaje con el número invertido para que a igual puntaje gane el menor número
+        long[] elegidos = new long[Math.max(0, limite)];
+        int cantidad = 0;
+        for (int i = 0; i < cantidadTocados && limite > 0; i++) {
+            int numero = tocados[i];
+            if (etapa[numero] != etapas) {
+                continue;
+            }
+            long clave = ((long) puntos[numero] << 32) | (Integer.MAX_VALUE - numero);
+            if (cantidad < limite) {
+                elegidos[cantidad] = clave;
+                subir(elegidos, cantidad++);
+            } else if (clave > elegidos[0]) {
+                elegidos[0] = clave;
+                bajar(elegidos, cantidad, 0);
+            }
+        }
+
+        List<Libro> resultado = new ArrayList<>(cantidad);
+        Map<Libro, Integer> puntajes = new HashMap<>();
+        for (int i = 0; i < cantidad; i++) {
+            int numero = Integer.MAX_VALUE - (int) elegidos[i];
+            resultado.add(libros[numero]);
+            puntajes.put(libros[numero], (int) (elegidos[i] >>> 32));
+        }
+        resultado.sort(Comparator.<Libro>comparingInt(libro -> -puntajes.get(libro))
+                .thenComparing(Libro::getTituloValor, Comparator.nullsLast(Comparator.<String>naturalOrder())));
+        return resultado;
+    }
+
+    /**
+     * Sube una clave en un montículo de mínimos mientras sea menor que su padre.
+     *
+     * @param monticulo El montículo.
+     * @param posicion  Posición de la clave.
+     */
+    private static void subir(long[] monticulo, int posicion) {
+        while (posicion > 0) {
+            int padre = (posicion - 1) / 2;
+            if (monticulo[padre] <= monticulo[posicion]) {
+                return;
+            }
+            long temporal = monticulo[padre];
+            monticulo[padre] = monticulo[posicion];
+            monticulo[posicion] = temporal;
+            posicion = padre;
+        }
+    }
+
+    /**
+     * Baja una clave en un montículo de mínimos mientras sea mayor que alguno de sus hijos.
+     *
+     * @param monticulo El montículo.
+     * @param tamanio   Cantidad de claves del montículo.
+     * @param posicion  Posición de la clave.
+     */
+    private static void bajar(long[] monticulo, int tamanio, int posicion) {
+        while (true) {
+            int menor = posicion;
+            int izquierdo = 2 * posicion + 1;
+            if (izquierdo < tamanio && monticulo[izquierdo] < monticulo[menor]) {
+                menor = izquierdo;
+            }
+            if (izquierdo + 1 < tamanio && monticulo[izquierdo + 1] < monticulo[menor]) {
+                menor = izquierdo + 1;
+            }
+            if (menor == posicion) {
+                return;
+            }
+            long temporal = monticulo[menor];
+            monticulo[menor] = monticulo[posicion];
+            monticulo[posicion] = temporal;
+            posicion = menor;
+        }
+    }
+
+    /**
+     * Obtiene las palabras que empiezan con un prefijo.
+     *
+     * @param prefijo El prefijo normalizado.
+     * @return Vista del rango de palabras con ese prefijo.
+     */
+    private NavigableMap<String, Apariciones> rango(String prefijo) {
+        return palabras.subMap(prefijo, true, prefijo + Character.MAX_VALUE, false);
+    }
+
+    /**
+     * Calcula el puntaje de una palabra del índice que empieza con un prefijo de la consulta.
+     *
+     * @param completa Indica si la palabra es igual al prefijo.
+     * @param campos   Campos en que aparece la palabra.
+     * @return El puntaje de la coincidencia.
+     */
+    private static int puntaje(boolean completa, byte campos) {
+        int peso = (campos & EN_TITULO) != 0 ? PESO_TITULO : PESO_AUTOR;
+        return completa ? peso * FACTOR_COMPLETA : peso;
+    }
+
+    /**
+     * Arma el índice de palabras de los libros cargados; se ejecuta fuera del hilo de JavaFX y
+     * solo lee las copias recibidas. Cada libro recibe como número su posición.
+     *
+     * @param titulos Títulos de los libros, por número.
+     * @param autores Autores de los libros, por número.
+     * @return Las palabras con sus apariciones, ordenadas.
+     */
+    private static TreeMap<String, Apariciones> construir(String[] titulos, String[] autores) {
+        // Se agrupa primero en un mapa de dispersión y luego se ordena de una vez
+        Map<String, Apariciones> porPalabra = new HashMap<>();
+        for (int numero = 0; numero < titulos.length; numero++) {
+            for (String palabra : Normalizador.palabras(titulos[numero])) {
+                porPalabra.computeIfAbsent(palabra, clave -> new Apariciones()).agregar(numero, EN_TITULO);
+            }
+            for (String palabra : Normalizador.palabras(autores[numero])) {
+                porPalabra.computeIfAbsent(palabra, clave -> new Apariciones()).agregar(numero, EN_AUTOR);
+            }
+        }
+        return new TreeMap<>(porPalabra);
+    }
+
+    /**
+     * Reemplaza el índice por uno armado en segundo plano y le aplica los cambios recibidos
+     * mientras se armaba. Se ejecuta en el hilo de JavaFX.
+     *
+     * @param numeroConstruccion Número de la indexación que terminó.
+     * @param copia              Libros indexados, por número.
+     * @param indice             Las palabras con sus apariciones.
+     * @param numerosCopia       Número de cada libro indexado.
+     */
+    private void publicar(int numeroConstruccion, Libro[] copia, TreeMap<String, Apariciones> indice,
+            Map<Libro, Integer> numerosCopia) {
+        if (numeroConstruccion != construccion) {
+            return;
+        }
+        palabras = indice;
+        numeros = numerosCopia;
+        cantidadLibres = 0;
+        siguienteNumero = copia.length;
+        libros = Arrays.copyOf(copia, Math.max(copia.length, 16));
+        etapa = new int[libros.length];
+        puntos = new int[libros.length];
+        ultimo = new int[libros.length];
+        tocados = new int[libros.length];
+
+        List<Runnable> recibidos = pendientes;
+        pendientes = null;
+        for (Runnable cambio : recibidos) {
+            cambio.run();
+        }
+        cargado = true;
+        avisarCambio();
+    }
+
+    /**
+     * Aplica un cambio al índice y avisa a las vistas, o lo guarda si la indexación inicial
+     * está en curso.
+     *
+     * @param cambio El cambio, con los valores que tenía el libro al recibir el evento.
+     */
+    private void aplicar(Runnable cambio) {
+        if (pendientes != null) {
+            pendientes.add(cambio);
+            return;
+        }
+        cambio.run();
+        avisarCambio();
+    }
+
+    /**
+     * Asigna un número a un libro, reutilizando los de libros eliminados, y amplía los
+     * arreglos de trabajo si hace falta.
+     *
+     * @param libro El libro.
+     * @return El número asignado.
+     */
+    private int asignarNumero(Libro libro) {
+        int numero = cantidadLibres > 0 ? libres[--cantidadLibres] : siguienteNumero++;
+        if (numero >= libros.length) {
+            int longitud = Math.max(16, libros.length * 2);
+            libros = Arrays.copyOf(libros, longitud);
+            etapa = Arrays.copyOf(etapa, longitud);
+            puntos = Arrays.copyOf(puntos, longitud);
+            ultimo = Arrays.copyOf(ultimo, longitud);
+            tocados = Arrays.copyOf(tocados, longitud);
+        }
+        libros[numero] = libro;
+        numeros.put(libro, numero);
+        return numero;
+    }
+
+    /**
+     * Agrega un libro a las apariciones de sus palabras.
+     *
+     * @param numero Número del libro.
+     * @param titulo Título con que se indexa.
+     * @param autor  Autor con que se indexa.
+     */
+    private void indexar(int numero, String titulo, String autor) {
+        for (String palabra : Normalizador.palabras(titulo)) {
+            palabras.computeIfAbsent(palabra, clave -> new Apariciones()).agregar(numero, EN_TITULO);
+        }
+        for (String palabra : Normalizador.palabras(autor)) {
+            palabras.computeIfAbsent(palabra, clave -> new Apariciones()).agregar(numero, EN_AUTOR);
+        }
+    }
+
+    /**
+     * Quita un libro de las apariciones de sus palabras, y las palabras que quedan sin libros.
+     *
+     * @param numero Número del libro.
+     * @param titulo Título con que se había indexado.
+     * @param autor  Autor con que se había indexado.
+     */
+    private void desindexar(int numero, String titulo, String autor) {
+        List<String> todas = Normalizador.palabras(titulo);
+        todas.addAll(Normalizador.palabras(autor));
+        for (String palabra : todas) {
+            Apariciones lista = palabras.get(palabra);
+            if (lista != null && lista.quitar(numero) && lista.tamanio == 0) {
+                palabras.remove(palabra);
+            }
+        }
+    }
+
+    /**
+     * Avisa a las vistas que el índice cambió, una vez indexados los libros cargados.
+     */
+    private void avisarCambio() {
+        if (!cargado) {
+            return;
+        }
+        for (Runnable oyente : oyentesCambio) {
+            oyente.run();
+        }
+    }
+
+    /**
+     * Libros en que aparece una palabra, en arreglos paralelos que crecen al agregar.
+     */
+    private static final class Apariciones {
+
+        private int[] numeros = new int[2]; // Números de los libros en que aparece la palabra
+        private byte[] campos = new byte[2]; // Campos en que aparece, por libro
+        private int tamanio; // Cantidad de libros
+
+        /**
+         * Agrega un libro al final. Si el último es el mismo libro, porque la palabra se repite
+         * en su texto, solo se suma el campo.
+         *
+         * @param numero Número del libro.
+         * @param campo  Campo en que aparece la palabra.
+         */
+        private void agregar(int numero, byte campo) {
+            if (tamanio > 0 && numeros[tamanio - 1] == numero) {
+                campos[tamanio - 1] |= campo;
+                return;
+            }
+            if (tamanio == numeros.length) {
+                numeros = Arrays.copyOf(numeros, tamanio * 2);
+                campos = Arrays.copyOf(campos, tamanio * 2);
+            }
+            numeros[tamanio] = numero;
+            campos[tamanio] = campo;
+            tamanio++;
+        }
+
+        /**
+         * Quita un libro, moviendo el último a su lugar.
+         *
+         * @param numero Número del libro.
+         * @return true si el libro estaba.
+         */
+        private boolean quitar(int numero) {
+            for (int i = 0; i < tamanio; i++) {
+                if (numeros[i] == numero) {
+                    tamanio--;
+                    numeros[i] = numeros[tamanio];
+                    campos[i] = campos[tamanio];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Resultado de una búsqueda.
+     */
+    public static final class Resultado {
+
+        private final List<Libro> libros; // Mejores coincidencias, de mayor a menor puntaje
+        private final int coincidencias; // Total de libros que coinciden
+
+        /**
+         * Crea un resultado.
+         *
+         * @param libros        Mejores coincidencias, de mayor a menor puntaje.
+         * @param coincidencias Total de libros que coinciden.
+         */
+        private Resultado(List<Libro> libros, int coincidencias) {
+            this.libros = libros;
+            this.coincidencias = coincidencias;
+        }
+
+        /**
+         * Obtiene las mejores coincidencias.
+         *
+         * @return Los libros, de mayor a menor puntaje.
+         */
+        public List<Libro> getLibros() {
+            return libros;
+        }
+
+        /**
+         * Obtiene el total de libros que coinciden, incluidos los que no se devolvieron.
+         *
+         * @return La cantidad de coincidencias.
+         */
+        public int getCoincidencias() {
+            return coincidencias;
+        }
+    }
+}
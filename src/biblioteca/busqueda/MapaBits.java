@@ -0,0 +1,786 @@
+package biblioteca.busqueda;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+
+/**
+ * Conjunto comprimido de enteros no negativos, al estilo de los mapas de bits Roaring.
+ *
+ * Los valores se agrupan por sus 16 bits altos en contenedores de hasta 65536 valores. Un
+ * contenedor con pocos valores los guarda en un arreglo ordenado de 16 bits; al pasar de
+ * {@value #MAXIMO_ARREGLO} se convierte en un mapa de bits de 8 KB, y vuelve a ser arreglo si
+ * baja de ese tamaño. Así un conjunto pequeño ocupa dos bytes por valor y uno denso un bit.
+ *
+ * La intersección, la unión y la diferencia se hacen contenedor por contenedor: entre dos mapas
+ * de bits son operaciones sobre palabras de 64 bits, y entre arreglos, mezclas ordenadas. Contar
+ * la intersección no crea el conjunto resultante.
+ *
+ * No es seguro para usarlo desde varios hilos a la vez.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public final class MapaBits {
+
+    private static final int MAXIMO_ARREGLO = 4096; // Valores por encima de los cuales un contenedor es mapa de bits
+    private static final int PALABRAS = 1024; // Palabras de 64 bits de un contenedor mapa de bits
+
+    private char[] claves = new char[4]; // 16 bits altos de cada contenedor, en orden
+    private Contenedor[] contenedores = new Contenedor[4]; // Contenedores, en el orden de sus claves
+    private int cantidad; // Cantidad de contenedores
+
+    /**
+     * Agrega un valor al conjunto.
+     *
+     * @param valor El valor; no debe ser negativo.
+     * @return true si el valor no estaba.
+     */
+    public boolean agregar(int valor) {
+        char clave = (char) (valor >>> 16);
+        int posicion = buscar(clave);
+        if (posicion < 0) {
+            posicion = -posicion - 1;
+            insertar(posicion, clave, new Arreglo(new char[4], 0));
+        }
+        Contenedor contenedor = contenedores[posicion];
+        int antes = contenedor.cardinalidad();
+        contenedores[posicion] = contenedor.agregar((char) valor);
+        return contenedores[posicion].cardinalidad() > antes;
+    }
+
+    /**
+     * Quita un valor del conjunto.
+     *
+     * @param valor El valor.
+     * @return true si el valor estaba.
+     */
+    public boolean quitar(int valor) {
+        int posicion = buscar((char) (valor >>> 16));
+        if (posicion < 0) {
+            return false;
+        }
+        Contenedor contenedor = contenedores[posicion];
+        int antes = contenedor.cardinalidad();
+        contenedores[posicion] = contenedor.quitar((char) valor);
+        if (contenedores[posicion].cardinalidad() == 0) {
+            System.arraycopy(claves, posicion + 1, claves, posicion, cantidad - posicion - 1);
+            System.arraycopy(contenedores, posicion + 1, contenedores, posicion, cantidad - posicion - 1);
+            contenedores[--cantidad] = null;
+            return true;
+        }
+        return contenedores[posicion].cardinalidad() < antes;
+    }
+
+    /**
+     * Indica si un valor está en el conjunto.
+     *
+     * @param valor El valor.
+     * @return true si el valor está.
+     */
+    public boolean contiene(int valor) {
+        int posicion = buscar((char) (valor >>> 16));
+        return posicion >= 0 && contenedores[posicion].contiene((char) valor);
+    }
+
+    /**
+     * Cuenta los valores del conjunto.
+     *
+     * @return La cantidad de valores.
+     */
+    public int cardinalidad() {
+        int total = 0;
+        for (int i = 0; i < cantidad; i++) {
+            total += contenedores[i].cardinalidad();
+        }
+        return total;
+    }
+
+    /**
+     * Indica si el conjunto no tiene valores.
+     *
+     * @return true si está vacío.
+     */
+    public boolean estaVacio() {
+        return cantidad == 0;
+    }
+
+    /**
+     * Crea una copia independiente del conjunto.
+     *
+     * @return La copia.
+     */
+    public MapaBits copia() {
+        MapaBits copia = new MapaBits();
+        for (int i = 0; i < cantidad; i++) {
+            copia.anexar(claves[i], contenedores[i].copia());
+        }
+        return copia;
+    }
+
+    /**
+     * Ejecuta una acción con cada valor del conjunto, en orden creciente.
+     *
+     * @param accion La acción.
+     */
+    public void recorrer(IntConsumer accion) {
+        for (int i = 0; i < cantidad; i++) {
+            contenedores[i].recorrer(claves[i] << 16, accion);
+        }
+    }
+
+    /**
+     * Calcula la intersección de dos conjuntos.
+     *
+     * @param a Un conjunto.
+     * @param b El otro conjunto.
+     * @return Un conjunto nuevo con los valores que están en ambos.
+     */
+    public static MapaBits y(MapaBits a, MapaBits b) {
+        MapaBits resultado = new MapaBits();
+        int i = 0;
+        int j = 0;
+        while (i < a.cantidad && j < b.cantidad) {
+            if (a.claves[i] < b.claves[j]) {
+                i++;
+            } else if (a.claves[i] > b.claves[j]) {
+                j++;
+            } else {
+                resultado.anexar(a.claves[i], Contenedor.y(a.contenedores[i++], b.contenedores[j++]));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Calcula la unión de dos conjuntos.
+     *
+     * @param a Un conjunto.
+     * @param b El otro conjunto.
+     * @return Un conjunto nuevo con los valores que están en alguno de los dos.
+     */
+    public static MapaBits o(MapaBits a, MapaBits b) {
+        MapaBits resultado = new MapaBits();
+        int i = 0;
+        int j = 0;
+        while (i < a.cantidad || j < b.cantidad) {
+            if (j == b.cantidad || (i < a.cantidad && a.claves[i] < b.claves[j])) {
+                resultado.anexar(a.claves[i], a.contenedores[i++].copia());
+            } else if (i == a.cantidad || a.claves[i] > b.claves[j]) {
+                resultado.anexar(b.claves[j], b.contenedores[j++].copia());
+            } else {
+                resultado.anexar(a.claves[i], Contenedor.o(a.contenedores[i++], b.contenedores[j++]));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Calcula la unión de varios conjuntos de una vez. Cada contenedor del resultado se arma en
+     * un solo mapa de bits, en lugar de copiarse en cada unión de a pares.
+     *
+     * @param conjuntos Los conjuntos.
+     * @return Un conjunto nuevo con los valores que están en alguno de ellos.
+     */
+    public static MapaBits o(Collection<MapaBits> conjuntos) {
+        Map<Character, long[]> palabrasPorClave = new TreeMap<>();
+        for (MapaBits conjunto : conjuntos) {
+            for (int i = 0; i < conjunto.cantidad; i++) {
+                long[] palabras = palabrasPorClave.computeIfAbsent(conjunto.claves[i], clave -> new long[PALABRAS]);
+                conjunto.contenedores[i].marcar(palabras);
+            }
+        }
+        MapaBits resultado = new MapaBits();
+        for (Map.Entry<Character, long[]> entrada : palabrasPorClave.entrySet()) {
+            resultado.anexar(entrada.getKey(), Bits.compactar(entrada.getValue()));
+        }
+        return resultado;
+    }
+
+    /**
+     * Calcula la diferencia de dos conjuntos.
+     *
+     * @param a El conjunto del que se quitan valores.
+     * @param b Los valores a quitar.
+     * @return Un conjunto nuevo con los valores de {@code a} que no están en {@code b}.
+     */
+    public static MapaBits yNo(MapaBits a, MapaBits b) {
+        MapaBits resultado = new MapaBits();
+        int j = 0;
+        for (int i = 0; i < a.cantidad; i++) {
+            while (j < b.cantidad && b.claves[j] < a.claves[i]) {
+                j++;
+            }
+            if (j < b.cantidad && b.claves[j] == a.claves[i]) {
+                resultado.anexar(a.claves[i], Contenedor.yNo(a.contenedores[i], b.contenedores[j]));
+            } else {
+                resultado.anexar(a.claves[i], a.contenedores[i].copia());
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Cuenta los valores que están en dos conjuntos, sin crear la intersección.
+     *
+     * @param a Un conjunto.
+     * @param b El otro conjunto.
+     * @return La cantidad de valores comunes.
+     */
+    public static int contarY(MapaBits a, MapaBits b) {
+        int total = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.cantidad && j < b.cantidad) {
+            if (a.claves[i] < b.claves[j]) {
+                i++;
+            } else if (a.claves[i] > b.claves[j]) {
+                j++;
+            } else {
+                total += Contenedor.contarY(a.contenedores[i++], b.contenedores[j++]);
+            }
+        }
+        return total;
+    }
+
+    // ----- Auxiliares -----
+
+    /**
+     * Busca la posición del contenedor de una clave.
+     *
+     * @param clave Los 16 bits altos.
+     * @return La posición, o {@code -(posición de inserción) - 1} si no hay contenedor.
+     */
+    private int buscar(char clave) {
+        return Arrays.binarySearch(claves, 0, cantidad, clave);
+    }
+
+    /**
+     * Inserta un contenedor en una posición.
+     *
+     * @param posicion   La posición.
+     * @param clave      Los 16 bits altos de sus valores.
+     * @param contenedor El contenedor.
+     */
+    private void insertar(int posicion, char clave, Contenedor contenedor) {
+        if (cantidad == claves.length) {
+            claves = Arrays.copyOf(claves, cantidad * 2);
+            contenedores = Arrays.copyOf(contenedores, cantidad * 2);
+        }
+        System.arraycopy(claves, posicion, claves, posicion + 1, cantidad - posicion);
+        System.arraycopy(contenedores, posicion, contenedores, posicion + 1, cantidad - posicion);
+        claves[posicion] = clave;
+        contenedores[posicion] = contenedor;
+        cantidad++;
+    }
+
+    /**
+     * Agrega un contenedor al final, si no está vacío. Las claves deben llegar en orden.
+     *
+     * @param clave      Los 16 bits altos de sus valores.
+     * @param contenedor El contenedor.
+     */
+    private void anexar(char clave, Contenedor contenedor) {
+        if (contenedor.cardinalidad() > 0) {
+            insertar(cantidad, clave, contenedor);
+        }
+    }
+
+    /**
+     * Valores que comparten sus 16 bits altos; se guardan solo los 16 bits bajos.
+     */
+    private abstract static class Contenedor {
+
+        /**
+         * Agrega un valor.
+         *
+         * @param valor Los 16 bits bajos.
+         * @return El contenedor con el valor; puede ser otro si cambió de representación.
+         */
+        abstract Contenedor agregar(char valor);
+
+        /**
+         * Quita un valor.
+         *
+         * @param valor Los 16 bits bajos.
+         * @return El contenedor sin el valor; puede ser otro si cambió de representación.
+         */
+        abstract Contenedor quitar(char valor);
+
+        /**
+         * Indica si un valor está en el contenedor.
+         *
+         * @param valor Los 16 bits bajos.
+         * @return true si está.
+         */
+        abstract boolean contiene(char valor);
+
+        /**
+         * Cuenta los valores del contenedor.
+         *
+         * @return La cantidad de valores.
+         */
+        abstract int cardinalidad();
+
+        /**
+         * Ejecuta una acción con cada valor, en orden creciente.
+         *
+         * @param alto   Los 16 bits altos, ya desplazados.
+         * @param accion La acción.
+         */
+        abstract void recorrer(int alto, IntConsumer accion);
+
+        /**
+         * Crea una copia independiente del contenedor.
+         *
+         * @return La copia.
+         */
+        abstract Contenedor copia();
+
+        /**
+         * Enciende en un mapa de bits los bits de los valores del contenedor.
+         *
+         * @param palabras Las palabras del mapa de bits.
+         */
+        abstract void marcar(long[] palabras);
+
+        /**
+         * Calcula la intersección de dos contenedores.
+         *
+         * @param a Un contenedor.
+         * @param b El otro contenedor.
+         * @return Un contenedor nuevo con los valores comunes.
+         */
+        static Contenedor y(Contenedor a, Contenedor b) {
+            if (a instanceof Bits && b instanceof Bits) {
+                long[] palabras = new long[PALABRAS];
+                for (int i = 0; i < PALABRAS; i++) {
+                    palabras[i] = ((Bits) a).palabras[i] & ((Bits) b).palabras[i];
+                }
+                return Bits.compactar(palabras);
+            }
+            if (a instanceof Bits) {
+                return filtrar((Arreglo) b, a, true);
+            }
+            if (b instanceof Bits) {
+                return filtrar((Arreglo) a, b, true);
+            }
+            Arreglo x = (Arreglo) a;
+            Arreglo y = (Arreglo) b;
+            char[] valores = new char[Math.min(x.cantidad, y.cantidad)];
+            int cantidad = 0;
+            int i = 0;
+            int j = 0;
+            while (i < x.cantidad && j < y.cantidad) {
+                if (x.valores[i] < y.valores[j]) {
+                    i++;
+                } else if (x.valores[i] > y.valores[j]) {
+                    j++;
+                } else {
+                    valores[cantidad++] = x.valores[i++];
+                    j++;
+                }
+            }
+            return new Arreglo(valores, cantidad);
+        }
+
+        /**
+         * Calcula la unión de dos contenedores.
+         *
+         * @param a Un contenedor.
+         * @param b El otro contenedor.
+         * @return Un contenedor nuevo con los valores de ambos.
+         */
+        static Contenedor o(Contenedor a, Contenedor b) {
+            if (a instanceof Arreglo && b instanceof Arreglo
+                    && ((Arreglo) a).cantidad + ((Arreglo) b).cantidad <= MAXIMO_ARREGLO) {
+                Arreglo x = (Arreglo) a;
+                Arreglo y = (Arreglo) b;
+                char[] valores = new char[x.cantidad + y.cantidad];
+                int cantidad = 0;
+                int i = 0;
+                int j = 0;
+                while (i < x.cantidad || j < y.cantidad) {
+                    if (j == y.cantidad || (i < x.cantidad && x.valores[i] < y.valores[j])) {
+                        valores[cantidad++] = x.valores[i++];
+                    } else if (i == x.cantidad || x.valores[i] > y.valores[j]) {
+                        valores[cantidad++] = y.valores[j++];
+                    } else {
+                        valores[cantidad++] = x.valores[i++];
+                        j++;
+                    }
+                }
+                return new Arreglo(valores, cantidad);
+            }
+            long[] palabras = a.aPalabras();
+            b.marcar(palabras);
+            return Bits.compactar(palabras);
+        }
+
+        /**
+         * Calcula la diferencia de dos contenedores.
+         *
+         * @param a El contenedor del que se quitan valores.
+         * @param b Los valores a quitar.
+         * @return Un contenedor nuevo con los valores de {@code a} que no están en {@code b}.
+         */
+        static Contenedor yNo(Contenedor a, Contenedor b) {
+            if (a instanceof Arreglo) {
+                return filtrar((Arreglo) a, b, false);
+            }
+            long[] palabras = a.aPalabras();
+            if (b instanceof Bits) {
+                for (int i = 0; i < PALABRAS; i++) {
+                    palabras[i] &= ~((Bits) b).palabras[i];
+                }
+            } else {
+                Arreglo y = (Arreglo) b;
+                for (int j = 0; j < y.cantidad; j++) {
+                    palabras[y.valores[j] >>> 6] &= ~(1L << y.valores[j]);
+                }
+            }
+            return Bits.compactar(palabras);
+        }
+
+        /**
+         * Cuenta los valores comunes de dos contenedores.
+         *
+         * @param a Un contenedor.
+         * @param b El otro contenedor.
+         * @return La cantidad de valores comunes.
+         */
+        static int contarY(Contenedor a, Contenedor b) {
+            if (a instanceof Bits && b instanceof Bits) {
+                int total = 0;
+                for (int i = 0; i < PALABRAS; i++) {
+                    total += Long.bitCount(((Bits) a).palabras[i] & ((Bits) b).palabras[i]);
+                }
+                return total;
+            }
+            Arreglo menor = (Arreglo) (a instanceof Arreglo ? a : b);
+            Contenedor otro = menor == a ? b : a;
+            int total = 0;
+            for (int i = 0; i < menor.cantidad; i++) {
+                if (otro.contiene(menor.valores[i])) {
+                    total++;
+                }
+            }
+            return total;
+        }
+
+        /**
+         * Filtra un arreglo según la pertenencia de sus valores a otro contenedor.
+         *
+         * @param a       El arreglo.
+         * @param b       El otro contenedor.
+         * @param incluir true para quedarse con los valores que están en {@code b}, false para
+         *                quedarse con los que no están.
+         * @return Un arreglo nuevo con los valores elegidos.
+         */
+        private static Arreglo filtrar(Arreglo a, Contenedor b, boolean incluir) {
+            char[] valores = new char[a.cantidad];
+            int cantidad = 0;
+            for (int i = 0; i < a.cantidad; i++) {
+                if (b.contiene(a.valores[i]) == incluir) {
+                    valores[cantidad++] = a.valores[i];
+                }
+            }
+            return new Arreglo(valores, cantidad);
+        }
+
+        /**
+         * Obtiene los valores como un mapa de bits nuevo.
+         *
+         * @return Las palabras del mapa de bits.
+         */
+        abstract long[] aPalabras();
+    }
+
+    /**
+     * Contenedor con pocos valores, guardados en un arreglo ordenado.
+     */
+    private static final class Arreglo extends Contenedor {
+
+        private char[] valores; // Valores en orden creciente
+        private int cantidad; // Cantidad de valores
+
+        /**
+         * Crea un arreglo con los valores dados.
+         *
+         * @param valores  Valores en orden creciente; el arreglo puede tener lugar libre al final.
+         * @param cantidad Cantidad de valores.
+         */
+        Arreglo(char[] valores, int cantidad) {
+            this.valores = valores;
+            this.cantidad = cantidad;
+        }
+
+        /**
+         * Agrega un valor en su lugar, o pasa a mapa de bits si el arreglo ya está lleno.
+         *
+         * @param valor Los 16 bits bajos.
+         * @return Este arreglo, o un mapa de bits nuevo con los valores.
+         */
+        @Override
+        Contenedor agregar(char valor) {
+            int posicion = Arrays.binarySearch(valores, 0, cantidad, valor);
+            if (posicion >= 0) {
+                return this;
+            }
+            if (cantidad == MAXIMO_ARREGLO) {
+                return new Bits(aPalabras(), cantidad).agregar(valor);
+            }
+            posicion = -posicion - 1;
+            if (cantidad == valores.length) {
+                valores = Arrays.copyOf(valores, Math.min(MAXIMO_ARREGLO, Math.max(4, cantidad * 2)));
+            }
+            System.arraycopy(valores, posicion, valores, posicion + 1, cantidad - posicion);
+            valores[posicion] = valor;
+            cantidad++;
+            return this;
+        }
+
+        /**
+         * Quita un valor, corriendo los siguientes.
+         *
+         * @param valor Los 16 bits bajos.
+         * @return Este arreglo.
+         */
+        @Override
+        Contenedor quitar(char valor) {
+            int posicion = Arrays.binarySearch(valores, 0, cantidad, valor);
+            if (posicion >= 0) {
+                System.arraycopy(valores, posicion + 1, valores, posicion, cantidad - posicion - 1);
+                cantidad--;
+            }
+            return this;
+        }
+
+        /**
+         * Busca un valor con búsqueda binaria.
+         *
+         * @param valor Los 16 bits bajos.
+         * @return true si está.
+         */
+        @Override
+        boolean contiene(char valor) {
+            return Arrays.binarySearch(valores, 0, cantidad, valor) >= 0;
+        }
+
+        /**
+         * Cuenta los valores del arreglo.
+         *
+         * @return La cantidad de valores.
+         */
+        @Override
+        int cardinalidad() {
+            return cantidad;
+        }
+
+        /**
+         * Ejecuta una acción con cada valor del arreglo, en orden.
+         *
+         * @param alto   Los 16 bits altos, ya desplazados.
+         * @param accion La acción.
+         */
+        @Override
+        void recorrer(int alto, IntConsumer accion) {
+            for (int i = 0; i < cantidad; i++) {
+                accion.accept(alto | valores[i]);
+            }
+        }
+
+        /**
+         * Copia el arreglo, sin el lugar libre.
+         *
+         * @return La copia.
+         */
+        @Override
+        Contenedor copia() {
+            return new Arreglo(Arrays.copyOf(valores, cantidad), cantidad);
+        }
+
+        /**
+         * Marca los valores del arreglo en un mapa de bits nuevo.
+         *
+         * @return Las palabras del mapa de bits.
+         */
+        @Override
+        long[] aPalabras() {
+            long[] palabras = new long[PALABRAS];
+            marcar(palabras);
+            return palabras;
+        }
+
+        /**
+         * Enciende en un mapa de bits los bits de los valores del arreglo.
+         *
+         * @param palabras Las palabras del mapa de bits.
+         */
+        @Override
+        void marcar(long[] palabras) {
+            for (int i = 0; i < cantidad; i++) {
+                palabras[valores[i] >>> 6] |= 1L << valores[i];
+            }
+        }
+    }
+
+    /**
+     * Contenedor con muchos valores, guardados como un mapa de 65536 bits.
+     */
+    private static final class Bits extends Contenedor {
+
+        private final long[] palabras; // Un bit por valor posible
+        private int cantidad; // Cantidad de bits en uno
+
+        /**
+         * Crea un mapa de bits con las palabras dadas.
+         *
+         * @param palabras Las palabras.
+         * @param cantidad Cantidad de bits en uno.
+         */
+        Bits(long[] palabras, int cantidad) {
+            this.palabras = palabras;
+            this.cantidad = cantidad;
+        }
+
+        /**
+         * Crea el contenedor adecuado para un mapa de bits: un arreglo si tiene pocos valores.
+         *
+         * @param palabras Las palabras del mapa de bits.
+         * @return El contenedor.
+         */
+        static Contenedor compactar(long[] palabras) {
+            int cantidad = 0;
+            for (long palabra : palabras) {
+                cantidad += Long.bitCount(palabra);
+            }
+            Bits bits = new Bits(palabras, cantidad);
+            return cantidad > MAXIMO_ARREGLO ? bits : bits.aArreglo();
+        }
+
+        /**
+         * Enciende el bit de un valor.
+         *
+         * @param valor Los 16 bits bajos.
+         * @return Este mapa de bits.
+         */
+        @Override
+        Contenedor agregar(char valor) {
+            long mascara = 1L << valor;
+            if ((palabras[valor >>> 6] & mascara) == 0) {
+                palabras[valor >>> 6] |= mascara;
+                cantidad++;
+            }
+            return this;
+        }
+
+        /**
+         * Apaga el bit de un valor, y pasa a arreglo si quedan pocos valores.
+         *
+         * @param valor Los 16 bits bajos.
+         * @return Este mapa de bits, o un arreglo nuevo con los valores.
+         */
+        @Override
+        Contenedor quitar(char valor) {
+            long mascara = 1L << valor;
+            if ((palabras[valor >>> 6] & mascara) != 0) {
+                palabras[valor >>> 6] &= ~mascara;
+                cantidad--;
+            }
+            return cantidad > MAXIMO_ARREGLO ? this : aArreglo();
+        }
+
+        /**
+         * Consulta el bit de un valor.
+         *
+         * @param valor Los 16 bits bajos.
+         * @return true si está encendido.
+         */
+        @Override
+        boolean contiene(char valor) {
+            return (palabras[valor >>> 6] & (1L << valor)) != 0;
+        }
+
+        /**
+         * Cuenta los bits encendidos.
+         *
+         * @return La cantidad de valores.
+         */
+        @Override
+        int cardinalidad() {
+            return cantidad;
+        }
+
+        /**
+         * Ejecuta una acción con cada bit encendido, en orden.
+         *
+         * @param alto   Los 16 bits altos, ya desplazados.
+         * @param accion La acción.
+         */
+        @Override
+        void recorrer(int alto, IntConsumer accion) {
+            for (int i = 0; i < PALABRAS; i++) {
+                long palabra = palabras[i];
+                while (palabra != 0) {
+                    accion.accept(alto | (i << 6) | Long.numberOfTrailingZeros(palabra));
+                    palabra &= palabra - 1;
+                }
+            }
+        }
+
+        /**
+         * Copia el mapa de bits.
+         *
+         * @return La copia.
+         */
+        @Override
+        Contenedor copia() {
+            return new Bits(palabras.clone(), cantidad);
+        }
+
+        /**
+         * Copia las palabras del mapa de bits.
+         *
+         * @return Las palabras copiadas.
+         */
+        @Override
+        long[] aPalabras() {
+            return palabras.clone();
+        }
+
+        /**
+         * Suma los bits de este mapa de bits a otro.
+         *
+         * @param destino Las palabras del otro mapa de bits.
+         */
+        @Override
+        void marcar(long[] destino) {
+            for (int i = 0; i < PALABRAS; i++) {
+                destino[i] |= palabras[i];
+            }
+        }
+
+        /**
+         * Convierte el mapa de bits en un arreglo ordenado.
+         *
+         * @return El arreglo con los mismos valores.
+         */
+        Arreglo aArreglo() {
+            char[] valores = new char[cantidad];
+            int posicion = 0;
+            for (int i = 0; i < PALABRAS; i++) {
+                long palabra = palabras[i];
+                while (palabra != 0) {
+                    valores[posicion++] = (char) ((i << 6) | Long.numberOfTrailingZeros(palabra));
+                    palabra &= palabra - 1;
+                }
+            }
+            return new Arreglo(valores, cantidad);
+        }
+    }
+}
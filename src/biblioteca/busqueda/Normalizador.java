@@ -0,0 +1,92 @@
+package biblioteca.busqueda;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normaliza textos para las búsquedas: pasa a minúsculas, quita los acentos y demás marcas
+ * diacríticas ("Pérez" queda "perez", "Núñez" queda "nunez") y separa el texto en palabras.
+ *
+ * Los caracteres latinos se pliegan con una tabla calculada al iniciar; solo los textos con
+ * otros caracteres pasan por {@link Normalizer}.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public final class Normalizador {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+"); // Marcas diacríticas tras descomponer
+    private static final char[] PLEGADO = new char[0x250]; // Carácter plegado, o 0 si no se pliega a uno solo
+
+    static {
+        for (char c = 0; c < PLEGADO.length; c++) {
+            String plegado = plegarLento(String.valueOf(c));
+            PLEGADO[c] = plegado.length() == 1 ? plegado.charAt(0) : 0;
+        }
+    }
+
+    /**
+     * Constructor privado; la clase solo tiene métodos estáticos.
+     */
+    private Normalizador() {
+    }
+
+    /**
+     * Normaliza un texto para compararlo sin distinguir mayúsculas ni acentos.
+     *
+     * @param texto El texto; puede ser null.
+     * @return El texto en minúsculas y sin marcas diacríticas, o una cadena vacía si es null.
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        char[] plegado = new char[texto.length()];
+        for (int i = 0; i < plegado.length; i++) {
+            char c = texto.charAt(i);
+            plegado[i] = c < PLEGADO.length ? PLEGADO[c] : 0;
+            if (plegado[i] == 0) {
+                return plegarLento(texto);
+            }
+        }
+        return new String(plegado);
+    }
+
+    /**
+     * Separa un texto en palabras normalizadas. Se consideran separadores todos los caracteres
+     * que no son letras ni dígitos.
+     *
+     * @param texto El texto; puede ser null.
+     * @return Las palabras normalizadas, en el orden en que aparecen.
+     */
+    public static List<String> palabras(String texto) {
+        String normalizado = normalizar(texto);
+        List<String> palabras = new ArrayList<>();
+        int inicio = -1;
+        for (int i = 0; i <= normalizado.length(); i++) {
+            boolean letra = i < normalizado.length() && Character.isLetterOrDigit(normalizado.charAt(i));
+            if (letra && inicio < 0) {
+                inicio = i;
+            } else if (!letra && inicio >= 0) {
+                palabras.add(normalizado.substring(inicio, i));
+                inicio = -1;
+            }
+        }
+        return palabras;
+    }
+
+    /**
+     * Normaliza un texto descomponiéndolo y quitando las marcas diacríticas.
+     *
+     * @param texto El texto.
+     * @return El texto en minúsculas y sin marcas diacríticas.
+     */
+    private static String plegarLento(String texto) {
+        return MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
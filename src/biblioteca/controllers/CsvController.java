@@ -2,13 +2,32 @@ package biblioteca.controllers;
 
 import java.io.*;
 import java.util.*;
+import biblioteca.datos.CargadorCsv;
+import biblioteca.datos.DiccionarioCadenas;
+import biblioteca.datos.InstantaneaBinaria;
+import biblioteca.datos.LectorCsv;
 import biblioteca.models.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Clase para manejar la lectura y escritura de archivos CSV relacionados con la biblioteca.
  * 
  * Esta clase proporciona métodos para guardar y cargar datos de libros, miembros, préstamos y sucursales en archivos CSV.
+ * La lectura usa {@link LectorCsv}, que procesa el archivo por flujo siguiendo el formato RFC 4180, a
+ * través de {@link CargadorCsv}, que analiza en paralelo los archivos grandes. La escritura pone entre
+ * comillas los campos que contienen comas, comillas o saltos de línea.
+ * 
+ * Junto a cada CSV se guarda una {@link InstantaneaBinaria}. Al cargar, si la instantánea es al menos
+ * tan reciente como el CSV se usa en su lugar; si no, se analiza el CSV y se vuelve a generar la
+ * instantánea. El CSV sigue siendo el formato editable.
+ * 
+ * Los autores, géneros y fechas se cargan a través de un {@link DiccionarioCadenas}, de modo que
+ * cada valor distinto ocupa una sola instancia en memoria.
  * 
  * @author Angel Sanabria, Javier Alvarado
  * @version 1.0
@@ -25,14 +44,15 @@ public class CsvController {
      * @throws IOException Si ocurre un error al escribir en el archivo.
      */
     public static void guardarLibrosEnCSV(List<Libro> libros, String archivo) throws IOException {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(archivo))) {
-            writer.println("ISBN,Titulo,Autor,Año de Publicación,Genero"); // Agregar encabezado
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(archivo, StandardCharsets.UTF_8)))) {
+            writer.println("ISBN,Titulo,Autor,Año de Publicación,Genero,Sucursal"); // Agregar encabezado
             for (Libro libro : libros) {
-                writer.println(libro.getISBN().get() + ","
-                        + libro.getTitulo().get() + ","
-                        + libro.getAutor().get() + ","
-                        + libro.getAnioPublicacion().get() + ","
-                        + libro.getGenero().get());
+                writer.println(escaparCampo(libro.getISBNValor()) + ","
+                        + escaparCampo(libro.getTituloValor()) + ","
+                        + escaparCampo(libro.getAutorValor()) + ","
+                        + libro.getAnioPublicacionValor() + ","
+                        + escaparCampo(libro.getGeneroValor()) + ","
+                        + escaparCampo(libro.getSucursalValor()));
             }
         } catch (IOException e) {
             System.out.println("Error al guardar libros: " + e.getMessage());
@@ -41,37 +61,46 @@ public class CsvController {
     }
 
     /**
-     * Carga una lista de libros desde un archivo CSV.
+     * Carga una lista de libros desde un archivo CSV. La columna de sucursal es opcional, de
+     * modo que también se aceptan archivos anteriores con solo cinco columnas.
      * 
      * @param archivo Ruta del archivo CSV desde el cual se cargarán los datos.
      * @return Lista de objetos {@link Libro} cargados desde el archivo.
      * @throws IOException Si ocurre un error al leer el archivo.
      */
     public static List<Libro> cargarLibrosDesdeCSV(String archivo) throws IOException {
-        List<Libro> libros = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(archivo))) {
-            String linea;
-            reader.readLine(); // Saltar la línea de encabezado
-            while ((linea = reader.readLine()) != null) {
-                String[] partes = linea.split(",");
-                if (partes.length == 5) {
+        List<Libro> instantanea = leerInstantanea(archivo, InstantaneaBinaria::cargarLibros);
+        if (instantanea != null) {
+            return instantanea;
+        }
+        AtomicInteger descartadas = new AtomicInteger(); // Filas que no se pudieron cargar
+        DiccionarioCadenas diccionario = new DiccionarioCadenas(); // Autores y géneros compartidos
+        List<Libro> resultado;
+        try {
+            resultado = CargadorCsv.cargar(archivo, (fila, libros) -> {
+                if (fila.getCantidadCampos() == 5 || fila.getCantidadCampos() == 6) {
                     try {
                         // Convertir el año de publicación a entero
-                        int anoPublicacion = Integer.parseInt(partes[3].trim());
-                        Libro libro = new Libro(partes[0].trim(), partes[1].trim(), partes[2].trim(), anoPublicacion, partes[4].trim());
-                        libros.add(libro);
+                        int anoPublicacion = fila.entero(3);
+                        String sucursal = fila.getCantidadCampos() == 6 ? fila.texto(5, diccionario) : "";
+                        libros.add(new Libro(fila.texto(0), fila.texto(1), fila.texto(2, diccionario), anoPublicacion,
+                                fila.texto(4, diccionario), sucursal));
                     } catch (NumberFormatException e) {
-                        System.out.println("Error al convertir el año de publicación: " + partes[3]);
+                        System.out.println("Error al convertir el año de publicación: " + fila.texto(3));
+                        descartadas.incrementAndGet();
                     }
                 } else {
-                    System.out.println("Formato incorrecto en la línea: " + linea);
+                    System.out.println("Formato incorrecto en la línea: " + fila);
+                    descartadas.incrementAndGet();
                 }
-            }
+            });
         } catch (IOException e) {
             System.out.println("Error al cargar libros: " + e.getMessage());
             throw e;
         }
-        return libros;
+        System.out.println("Deduplicación al cargar libros: " + diccionario);
+        escribirInstantanea(resultado, archivo, descartadas.get(), InstantaneaBinaria::guardarLibros);
+        return resultado;
     }
 
     /**
@@ -82,13 +111,13 @@ public class CsvController {
      * @throws IOException Si ocurre un error al escribir en el archivo.
      */
     public static void guardarMiembrosEnCSV(List<Miembro> miembros, String archivo) throws IOException {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(archivo))) {
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(archivo, StandardCharsets.UTF_8)))) {
             writer.println("ID,Nombre,Email,Telefono"); // Agregar encabezado
             for (Miembro miembro : miembros) {
-                writer.println(miembro.getId().get() + ","
-                        + miembro.getNombre().get() + ","
-                        + miembro.getEmail().get() + ","
-                        + miembro.getTelefono().get());
+                writer.println(escaparCampo(miembro.getIdValor()) + ","
+                        + escaparCampo(miembro.getNombreValor()) + ","
+                        + escaparCampo(miembro.getEmailValor()) + ","
+                        + escaparCampo(miembro.getTelefonoValor()));
             }
         } catch (IOException e) {
             System.out.println("Error al guardar miembros: " + e.getMessage());
@@ -104,24 +133,27 @@ public class CsvController {
      * @throws IOException Si ocurre un error al leer el archivo.
      */
     public static List<Miembro> cargarMiembrosDesdeCSV(String archivo) throws IOException {
-        List<Miembro> miembros = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(archivo))) {
-            String linea;
-            reader.readLine(); // Saltar la línea de encabezado
-            while ((linea = reader.readLine()) != null) {
-                String[] partes = linea.split(",");
-                if (partes.length == 4) {
-                    Miembro miembro = new Miembro(partes[0].trim(), partes[1].trim(), partes[2].trim(), partes[3].trim());
-                    miembros.add(miembro);
+        List<Miembro> instantanea = leerInstantanea(archivo, InstantaneaBinaria::cargarMiembros);
+        if (instantanea != null) {
+            return instantanea;
+        }
+        AtomicInteger descartadas = new AtomicInteger(); // Filas que no se pudieron cargar
+        List<Miembro> resultado;
+        try {
+            resultado = CargadorCsv.cargar(archivo, (fila, miembros) -> {
+                if (fila.getCantidadCampos() == 4) {
+                    miembros.add(new Miembro(fila.texto(0), fila.texto(1), fila.texto(2), fila.texto(3)));
                 } else {
-                    System.out.println("Formato incorrecto en la línea: " + linea);
+                    System.out.println("Formato incorrecto en la línea: " + fila);
+                    descartadas.incrementAndGet();
                 }
-            }
+            });
         } catch (IOException e) {
             System.out.println("Error al cargar miembros: " + e.getMessage());
             throw e;
         }
-        return miembros;
+        escribirInstantanea(resultado, archivo, descartadas.get(), InstantaneaBinaria::guardarMiembros);
+        return resultado;
     }
 
     /**
@@ -132,14 +164,14 @@ public class CsvController {
      * @throws IOException Si ocurre un error al escribir en el archivo.
      */
     public static void guardarPrestamosEnCSV(List<Prestamo> prestamos, String archivo) throws IOException {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(archivo))) {
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(archivo, StandardCharsets.UTF_8)))) {
             writer.println("ISBN,MiembroID,FechaPrestamo,FechaDevolucionEsperada,FechaDevolucionReal"); // Agregar encabezado
             for (Prestamo prestamo : prestamos) {
-                writer.println(prestamo.getLibro().getISBN().get() + ","
-                        + prestamo.getMiembro().getId().get() + ","
-                        + prestamo.getFechaPrestamo().get() + ","
-                        + prestamo.getFechaDevolucionEsperada().get() + ","
-                        + (prestamo.getFechaDevolucionReal().get() != null ? prestamo.getFechaDevolucionReal().get() : ""));
+                writer.println(escaparCampo(prestamo.getLibro().getISBNValor()) + ","
+                        + escaparCampo(prestamo.getMiembro().getIdValor()) + ","
+                        + prestamo.getFechaPrestamoValor() + ","
+                        + prestamo.getFechaDevolucionEsperadaValor() + ","
+                        + (prestamo.getFechaDevolucionRealValor() != null ? prestamo.getFechaDevolucionRealValor() : ""));
             }
         } catch (IOException e) {
             System.out.println("Error al guardar préstamos: " + e.getMessage());
@@ -157,36 +189,62 @@ public class CsvController {
      * @throws IOException Si ocurre un error al leer el archivo.
      */
     public static List<Prestamo> cargarPrestamosDesdeCSV(String archivo, List<Libro> libros, List<Miembro> miembros) throws IOException {
-        List<Prestamo> prestamos = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(archivo))) {
-            String linea;
-            reader.readLine(); // Saltar la línea de encabezado
-            while ((linea = reader.readLine()) != null) {
-                String[] partes = linea.split(",");
-                if (partes != null) {
+        return cargarPrestamosDesdeCSV(archivo, indexarLibros(libros), indexarMiembros(miembros));
+    }
+
+    /**
+     * Carga una lista de préstamos desde un archivo CSV usando índices por clave para
+     * resolver el libro y el miembro de cada fila en tiempo constante.
+     * 
+     * @param archivo Ruta del archivo CSV desde el cual se cargarán los datos.
+     * @param librosPorISBN Índice de libros por ISBN.
+     * @param miembrosPorId Índice de miembros por ID.
+     * @return Lista de objetos {@link Prestamo} cargados desde el archivo.
+     * @throws IOException Si ocurre un error al leer el archivo.
+     */
+    public static List<Prestamo> cargarPrestamosDesdeCSV(String archivo, Map<String, Libro> librosPorISBN, Map<String, Miembro> miembrosPorId) throws IOException {
+        List<Prestamo> instantanea = leerInstantanea(archivo, ruta -> InstantaneaBinaria.cargarPrestamos(ruta, librosPorISBN, miembrosPorId));
+        if (instantanea != null) {
+            return instantanea;
+        }
+        AtomicInteger descartadas = new AtomicInteger(); // Filas que no se pudieron cargar
+        DiccionarioCadenas diccionario = new DiccionarioCadenas(); // Fechas compartidas
+        List<Prestamo> resultado;
+        try {
+            // Los índices solo se leen, por lo que pueden compartirse entre los hilos de carga
+            resultado = CargadorCsv.cargar(archivo, (fila, prestamos) -> {
+                if (fila.getCantidadCampos() >= 4) {
                     // Buscar libro y miembro
-                    Libro libro = buscarLibroPorISBN(partes[0].trim(), libros);
-                    Miembro miembro = buscarMiembroPorID(partes[1].trim(), miembros);
+                    Libro libro = librosPorISBN.get(fila.texto(0));
+                    Miembro miembro = miembrosPorId.get(fila.texto(1));
                     if (libro != null && miembro != null) {
-                        LocalDate fechaPrestamo = parseFecha(partes[2].trim());
-                        LocalDate fechaDevolucionEsperada = parseFecha(partes[3].trim());
-                        LocalDate fechaDevolucionReal = parseFecha(partes.length > 4 ? partes[4].trim() : "");
+                        LocalDate fechaPrestamo = fila.fecha(2, diccionario);
+                        LocalDate fechaDevolucionEsperada = fila.fecha(3, diccionario);
+                        LocalDate fechaDevolucionReal = fila.fecha(4, diccionario);
+                        if (fechaPrestamo == null || fechaDevolucionEsperada == null || (fechaDevolucionReal == null && !fila.esVacio(4))) {
+                            System.out.println("Error al analizar la fecha en la línea: " + fila);
+                            descartadas.incrementAndGet();
+                            return;
+                        }
 
                         // Crear el préstamo
-                        Prestamo prestamo = new Prestamo(libro, miembro, fechaPrestamo, fechaDevolucionEsperada, fechaDevolucionReal);
-                        prestamos.add(prestamo);
+                        prestamos.add(new Prestamo(libro, miembro, fechaPrestamo, fechaDevolucionEsperada, fechaDevolucionReal));
                     } else {
-                        System.out.println("Libro o miembro no encontrado para la línea: " + linea);
+                        System.out.println("Libro o miembro no encontrado para la línea: " + fila);
+                        descartadas.incrementAndGet();
                     }
                 } else {
-                    System.out.println("Formato incorrecto en la línea: " + linea);
+                    System.out.println("Formato incorrecto en la línea: " + fila);
+                    descartadas.incrementAndGet();
                 }
-            }
+            });
         } catch (IOException e) {
             System.out.println("Error al cargar préstamos: " + e.getMessage());
             throw e;
         }
-        return prestamos;
+        System.out.println("Deduplicación al cargar préstamos: " + diccionario);
+        escribirInstantanea(resultado, archivo, descartadas.get(), InstantaneaBinaria::guardarPrestamos);
+        return resultado;
     }
 
     /**
@@ -197,10 +255,10 @@ public class CsvController {
      * @throws IOException Si ocurre un error al escribir en el archivo.
      */
     public static void guardarSucursalesEnCSV(List<Sucursal> sucursales, String archivo) throws IOException {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(archivo))) {
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(archivo, StandardCharsets.UTF_8)))) {
             writer.println("Nombre,Direccion"); // Agregar encabezado
             for (Sucursal sucursal : sucursales) {
-                writer.println(sucursal.getNombre().get() + "," + sucursal.getDireccion().get());
+                writer.println(escaparCampo(sucursal.getNombre().get()) + "," + escaparCampo(sucursal.getDireccion().get()));
             }
         } catch (IOException e) {
             System.out.println("Error al guardar sucursales: " + e.getMessage());
@@ -216,70 +274,142 @@ public class CsvController {
      * @throws IOException Si ocurre un error al leer el archivo.
      */
     public static List<Sucursal> cargarSucursalesDesdeCSV(String archivo) throws IOException {
-        List<Sucursal> sucursales = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(archivo))) {
-            String linea;
-            reader.readLine(); // Saltar la línea de encabezado
-            while ((linea = reader.readLine()) != null) {
-                String[] partes = linea.split(",");
-                if (partes.length == 2) {
-                    Sucursal sucursal = new Sucursal(partes[0].trim(), partes[1].trim());
-                    sucursales.add(sucursal);
+        List<Sucursal> instantanea = leerInstantanea(archivo, InstantaneaBinaria::cargarSucursales);
+        if (instantanea != null) {
+            return instantanea;
+        }
+        AtomicInteger descartadas = new AtomicInteger(); // Filas que no se pudieron cargar
+        List<Sucursal> resultado;
+        try {
+            resultado = CargadorCsv.cargar(archivo, (fila, sucursales) -> {
+                if (fila.getCantidadCampos() == 2) {
+                    sucursales.add(new Sucursal(fila.texto(0), fila.texto(1)));
                 } else {
-                    System.out.println("Formato incorrecto en la línea: " + linea);
+                    System.out.println("Formato incorrecto en la línea: " + fila);
+                    descartadas.incrementAndGet();
                 }
-            }
+            });
         } catch (IOException e) {
             System.out.println("Error al cargar sucursales: " + e.getMessage());
             throw e;
         }
-        return sucursales;
+        escribirInstantanea(resultado, archivo, descartadas.get(), InstantaneaBinaria::guardarSucursales);
+        return resultado;
     }
 
     /**
-     * Analiza una cadena de texto y la convierte en un objeto {@link LocalDate}.
+     * Prepara un valor para escribirlo como campo CSV. Si contiene comas, comillas, saltos de
+     * línea o espacios al inicio o al final, se encierra entre comillas y las comillas internas
+     * se duplican, según el formato RFC 4180.
      * 
-     * @param fecha Cadena de texto que representa una fecha en formato "yyyy-MM-dd".
-     * @return Objeto {@link LocalDate} correspondiente a la fecha proporcionada.
+     * @param valor Valor a escribir (null se escribe como campo vacío).
+     * @return El campo listo para escribirse.
      */
-    private static LocalDate parseFecha(String fecha) {
-        try {
-            return LocalDate.parse(fecha);
-        } catch (Exception e) {
-            System.out.println("Error al analizar la fecha: " + fecha);
-            return null;
+    public static String escaparCampo(String valor) {
+        if (valor == null || valor.isEmpty()) {
+            return "";
+        }
+        boolean requiereComillas = Character.isWhitespace(valor.charAt(0))
+                || Character.isWhitespace(valor.charAt(valor.length() - 1));
+        for (int i = 0; i < valor.length() && !requiereComillas; i++) {
+            char c = valor.charAt(i);
+            requiereComillas = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!requiereComillas) {
+            return valor;
         }
+        return "\"" + valor.replace("\"", "\"\"") + "\"";
     }
 
     /**
-     * Busca un libro por su ISBN en una lista de libros.
+     * Construye un índice de libros por ISBN. Si hay ISBN repetidos se conserva el primero.
      * 
-     * @param isbn ISBN del libro que se busca.
-     * @param libros Lista de objetos {@link Libro} donde se realizará la búsqueda.
-     * @return Objeto {@link Libro} correspondiente al ISBN proporcionado, o null si no se encuentra.
+     * @param libros Lista de objetos {@link Libro} a indexar.
+     * @return Mapa de ISBN a {@link Libro}.
      */
-    private static Libro buscarLibroPorISBN(String isbn, List<Libro> libros) {
+    public static Map<String, Libro> indexarLibros(List<Libro> libros) {
+        Map<String, Libro> indice = new HashMap<>(libros.size() * 2);
         for (Libro libro : libros) {
-            if (libro.getISBN().get().equals(isbn)) {
-                return libro;
-            }
+            indice.putIfAbsent(libro.getISBNValor(), libro);
         }
-        return null;
+        return indice;
     }
 
     /**
-     * Busca un miembro por su ID en una lista de miembros.
+     * Construye un índice de miembros por ID. Si hay IDs repetidos se conserva el primero.
      * 
-     * @param id ID del miembro que se busca.
-     * @param miembros Lista de objetos {@link Miembro} donde se realizará la búsqueda.
-     * @return Objeto {@link Miembro} correspondiente al ID proporcionado, o null si no se encuentra.
+     * @param miembros Lista de objetos {@link Miembro} a indexar.
+     * @return Mapa de ID a {@link Miembro}.
      */
-    private static Miembro buscarMiembroPorID(String id, List<Miembro> miembros) {
+    public static Map<String, Miembro> indexarMiembros(List<Miembro> miembros) {
+        Map<String, Miembro> indice = new HashMap<>(miembros.size() * 2);
         for (Miembro miembro : miembros) {
-            if (miembro.getId().get().equals(id)) {
-                return miembro;
-            }
+            indice.putIfAbsent(miembro.getIdValor(), miembro);
         }
-        return null;
+        return indice;
+    }
+
+    /**
+     * Carga la instantánea binaria de un CSV si existe y es al menos tan reciente como el CSV.
+     * Si la instantánea está dañada o no es compatible se ignora y se usa el CSV.
+     * 
+     * @param <T> Tipo de los elementos de la tabla.
+     * @param archivo Ruta del archivo CSV.
+     * @param lector Carga de la instantánea desde su ruta.
+     * @return Los elementos de la instantánea, o null si hay que cargar el CSV.
+     */
+    private static <T> List<T> leerInstantanea(String archivo, LectorInstantanea<T> lector) {
+        if (!InstantaneaBinaria.estaVigente(archivo)) {
+            return null;
+        }
+        try {
+            return lector.leer(InstantaneaBinaria.rutaPara(archivo));
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Instantánea ignorada, se carga el CSV " + archivo + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Vuelve a generar la instantánea binaria de un CSV recién cargado, para que el próximo
+     * inicio no tenga que analizarlo. Si alguna fila se descartó, la instantánea no se escribe:
+     * el CSV sigue siendo la referencia hasta que se corrija. Un error al escribir no impide la carga.
+     * 
+     * @param <T> Tipo de los elementos de la tabla.
+     * @param datos Elementos cargados desde el CSV.
+     * @param archivo Ruta del archivo CSV.
+     * @param descartadas Cantidad de filas del CSV que no se pudieron cargar.
+     * @param escritor Escritura de la instantánea en una ruta.
+     */
+    private static <T> void escribirInstantanea(List<T> datos, String archivo, int descartadas, EscritorInstantanea<T> escritor) {
+        if (descartadas > 0) {
+            return;
+        }
+        String destino = InstantaneaBinaria.rutaPara(archivo);
+        String temporal = destino + ".tmp";
+        try {
+            escritor.escribir(datos, temporal);
+            Files.move(Paths.get(temporal), Paths.get(destino), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("No se pudo escribir la instantánea de " + archivo + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Carga una tabla desde su instantánea binaria.
+     * 
+     * @param <T> Tipo de los elementos de la tabla.
+     */
+    private interface LectorInstantanea<T> {
+        List<T> leer(String archivo) throws IOException;
+    }
+
+    /**
+     * Escribe una tabla en una instantánea binaria.
+     * 
+     * @param <T> Tipo de los elementos de la tabla.
+     */
+    private interface EscritorInstantanea<T> {
+        void escribir(List<T> datos, String archivo) throws IOException;
     }
 }
@@ -1,17 +1,31 @@
 package biblioteca.controllers;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
+import biblioteca.busqueda.IndiceCatalogo;
+import biblioteca.datos.RepositorioBiblioteca;
+import biblioteca.estadisticas.BocetoCuantiles;
+import biblioteca.estadisticas.Clasificacion;
+import biblioteca.estadisticas.ConsultaHistorial;
+import biblioteca.estadisticas.ContadorFrecuentes;
+import biblioteca.estadisticas.Granularidad;
+import biblioteca.estadisticas.MotorEstadisticas;
+import biblioteca.estadisticas.SerieTemporalPrestamos;
+import biblioteca.models.Libro;
+import biblioteca.models.Miembro;
+import biblioteca.models.Prestamo;
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
+import javafx.scene.Node;
 import javafx.scene.chart.BarChart;
+import javafx.scene.chart.LineChart;
 import javafx.scene.chart.PieChart;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.cell.PropertyValueFactory;
@@ -21,6 +35,9 @@ import javafx.scene.layout.VBox;
  * Controlador para la vista de estadísticas de la aplicación de biblioteca.
  * Maneja la visualización de gráficos y tablas que muestran estadísticas sobre
  * libros y préstamos.
+ *
+ * Los valores provienen de {@link MotorEstadisticas}, que los mantiene al día con los
+ * eventos del repositorio, por lo que mostrar un gráfico no lee ningún archivo.
  * 
  * @author Angel Sanabria, Javier Alvarado
  * @version 1.0
@@ -39,8 +56,23 @@ public class EstadisticasController {
     private VBox panelTabla; // Contenedor para la tabla de estadísticas
     
     @FXML
-    private BarChart<String, Number> barChartPrestamos; // Gráfico de barras para préstamos
+    private BarChart<String, Number> barChartPrestamos; // Gráfico de barras con los más prestados
+
+    @FXML
+    private ChoiceBox<Clasificacion> selectorClasificacion; // Criterio del gráfico de más prestados
     
+    @FXML
+    private BarChart<String, Number> graficoConsulta; // Gráfico de barras con el resultado de una consulta
+
+    @FXML
+    private ChoiceBox<ConsultaHistorial> selectorConsulta; // Consulta sobre el historial completo
+
+    @FXML
+    private LineChart<String, Number> graficoTendencia; // Gráfico de líneas con la tendencia de préstamos por periodo
+
+    @FXML
+    private ChoiceBox<Granularidad> selectorGranularidad; // Tamaño de los periodos del gráfico de tendencia
+
     @FXML
     private TableView<Estadistica> tablaEstadisticas; // Tabla para mostrar estadísticas detalladas
     
@@ -50,52 +82,77 @@ public class EstadisticasController {
     @FXML
     private TableColumn<Estadistica, String> columnaValor; // Columna para valores en la tabla
 
-    // Mapas para almacenar datos sobre libros, géneros, títulos y préstamos
-    private Map<String, String> generos = new HashMap<>();
-    private Map<String, LocalDate> prestamos = new HashMap<>();
-    private Map<String, LocalDate> libros = new HashMap<>();
-    private Map<String, String> titulos = new HashMap<>();
-    private Map<String, Long> prestamosDuracion = new HashMap<>();
+    private static final int LIMITE_TABLA = 20; // Préstamos más antiguos que se listan en la tabla
+    private static final int LIMITE_GRAFICO = 10; // Préstamos más antiguos que se muestran en el gráfico
+    private static final int MAXIMO_PERIODOS = 400; // Periodos más recientes del gráfico de tendencia
+    private static final int LIMITE_MAS_PRESTADOS = 10; // Elementos del gráfico de más prestados
+    private static final int LIMITE_CONSULTA = 15; // Grupos del gráfico de consulta
 
-    /**
-     * Constructor que carga los datos iniciales.
-     */
-    public EstadisticasController() {
-        cargarDatos();
-    }
+    private final MotorEstadisticas motor = MotorEstadisticas.getInstancia(); // Agregados precalculados
+    private final IndiceCatalogo indiceCatalogo = IndiceCatalogo.getInstancia(); // Disponibilidad por sucursal y década
+    private Runnable graficoActual; // Gráfico visible, para redibujarlo cuando cambian los datos
+    private Task<Map<String, Long>> consultaEnCurso; // Consulta del historial en ejecución, si hay una
 
     /**
-     * Inicializa el controlador. Configura las columnas de la tabla y carga los datos.
+     * Inicializa el controlador. Configura las columnas de la tabla, muestra las estadísticas
+     * y se suscribe a los cambios del motor para mantener la tabla y el gráfico al día.
      */
     @FXML
     public void initialize() {
         columnaDescripcion.setCellValueFactory(new PropertyValueFactory<>("descripcion"));
         columnaValor.setCellValueFactory(new PropertyValueFactory<>("valor"));
 
+        // Los gráficos ocultos no ocupan espacio, para que el visible use el del panel
+        pieChart.managedProperty().bind(pieChart.visibleProperty());
+        graficoTendencia.managedProperty().bind(graficoTendencia.visibleProperty());
+        barChartPrestamos.managedProperty().bind(barChartPrestamos.visibleProperty());
+        graficoConsulta.managedProperty().bind(graficoConsulta.visibleProperty());
+        selectorGranularidad.getItems().setAll(Granularidad.values());
+        selectorGranularidad.setValue(Granularidad.MES);
+        selectorGranularidad.valueProperty().addListener((observable, anterior, nueva) -> {
+            if (graficoTendencia.isVisible()) {
+                mostrarGraficoTendencia();
+            }
+        });
+        selectorClasificacion.getItems().setAll(Clasificacion.values());
+        selectorClasificacion.setValue(Clasificacion.TITULO);
+        selectorClasificacion.valueProperty().addListener((observable, anterior, nueva) -> {
+            if (barChartPrestamos.isVisible()) {
+                mostrarGraficoMasPrestados();
+            }
+        });
+        selectorConsulta.getItems().setAll(ConsultaHistorial.values());
+        selectorConsulta.setValue(ConsultaHistorial.DECADA_PUBLICACION);
+        selectorConsulta.valueProperty().addListener((observable, anterior, nueva) -> {
+            if (graficoConsulta.isVisible()) {
+                mostrarGraficoConsulta();
+            }
+        });
+
         // Mostrar la tabla de estadísticas inicialmente
         cargarTablaEstadisticas();
-        cargarDatos();
+        motor.agregarOyenteCambio(() -> {
+            cargarTablaEstadisticas();
+            if (graficoActual != null) {
+                graficoActual.run();
+            }
+        });
+        // Las cuentas de disponibilidad vienen del índice del catálogo, que puede actualizarse después del motor
+        indiceCatalogo.agregarOyenteCambio(this::cargarTablaEstadisticas);
     }
 
     /**
      * Muestra el gráfico de géneros en el PieChart.
-     * Este método cuenta la cantidad de libros por género y actualiza el PieChart.
+     * Usa la cantidad de libros por género que mantiene el motor de estadísticas.
      */
     @FXML
     public void mostrarGraficoGeneros() {
-        cargarDatos();
-        pieChart.setVisible(true);
-        pieChart.getData().clear(); // Limpiar los datos anteriores
-
-        // Contar la cantidad de libros por género
-        Map<String, Integer> generoCount = new HashMap<>();
-        for (String genero : generos.values()) {
-            generoCount.put(genero, generoCount.getOrDefault(genero, 0) + 1);
-        }
+        graficoActual = this::mostrarGraficoGeneros;
+        mostrarSolo(pieChart);
 
         // Preparar los datos para el PieChart
         ObservableList<PieChart.Data> pieChartData = FXCollections.observableArrayList();
-        for (Map.Entry<String, Integer> entry : generoCount.entrySet()) {
+        for (Map.Entry<String, Integer> entry : motor.getLibrosPorGenero().entrySet()) {
             pieChartData.add(new PieChart.Data(entry.getKey(), entry.getValue()));
         }
 
@@ -104,19 +161,17 @@ public class EstadisticasController {
 
     /**
      * Muestra el gráfico de duración de préstamos en el PieChart.
-     * Este método utiliza la duración de los préstamos para actualizar el PieChart.
+     * Muestra los {@value #LIMITE_GRAFICO} préstamos activos que llevan más días prestados.
      */
     @FXML
     public void mostrarGraficoPrestamos() {
-        cargarDatos();
-        pieChart.setVisible(true);
-        pieChart.getData().clear(); // Limpiar los datos anteriores
+        graficoActual = this::mostrarGraficoPrestamos;
+        mostrarSolo(pieChart);
 
         // Preparar los datos para el PieChart con duración de préstamos
         ObservableList<PieChart.Data> pieChartData = FXCollections.observableArrayList();
-        for (Map.Entry<String, Long> entry : prestamosDuracion.entrySet()) {
-            String isbn = entry.getKey();
-            String titulo = titulos.get(isbn); // Obtener el título usando el ISBN
+        for (Map.Entry<Libro, Long> entry : motor.getDiasPrestadoMasAntiguos(LIMITE_GRAFICO).entrySet()) {
+            String titulo = entry.getKey().getTituloValor();
             Long dias = entry.getValue();
             pieChartData.add(new PieChart.Data(titulo + " - " + dias + " días", dias));
         }
@@ -125,85 +180,249 @@ public class EstadisticasController {
     }
 
     /**
-     * Muestra la tabla de estadísticas y oculta los gráficos.
-     * Este método oculta el panel de gráficos y muestra el panel de la tabla.
+     * Muestra en el LineChart la cantidad de préstamos, devoluciones y vencidos por periodo,
+     * con la granularidad elegida. Se dibujan como mucho los {@value #MAXIMO_PERIODOS}
+     * periodos más recientes; cada punto sale de una cubeta ya agregada de la serie temporal.
      */
     @FXML
-    public void mostrarTabla() {
-        // Oculta el gráfico de barras y muestra la tabla
-        panelGraficas.setVisible(false);
-        panelTabla.setVisible(true);
+    public void mostrarGraficoTendencia() {
+        graficoActual = this::mostrarGraficoTendencia;
+        mostrarSolo(graficoTendencia);
+
+        SerieTemporalPrestamos serie = motor.getSerie();
+        Granularidad granularidad = selectorGranularidad.getValue();
+        XYChart.Series<String, Number> seriePrestamos = new XYChart.Series<>();
+        XYChart.Series<String, Number> serieDevoluciones = new XYChart.Series<>();
+        XYChart.Series<String, Number> serieVencidos = new XYChart.Series<>();
+        seriePrestamos.setName("Préstamos");
+        serieDevoluciones.setName("Devoluciones");
+        serieVencidos.setName("Vencidos");
+        if (serie.getPrimeraFecha() != null) {
+            LocalDate hasta = serie.getUltimaFecha();
+            LocalDate desde = granularidad.retroceder(granularidad.inicio(hasta), MAXIMO_PERIODOS - 1);
+            if (desde.isBefore(serie.getPrimeraFecha())) {
+                desde = serie.getPrimeraFecha();
+            }
+            for (Map.Entry<LocalDate, SerieTemporalPrestamos.Cubeta> entry : serie.serie(granularidad, desde, hasta).entrySet()) {
+                String periodo = granularidad.etiqueta(entry.getKey());
+                SerieTemporalPrestamos.Cubeta cubeta = entry.getValue();
+                seriePrestamos.getData().add(new XYChart.Data<>(periodo, cubeta.getPrestamos()));
+                serieDevoluciones.getData().add(new XYChart.Data<>(periodo, cubeta.getDevoluciones()));
+                serieVencidos.getData().add(new XYChart.Data<>(periodo, cubeta.getVencidos()));
+            }
+        }
+
+        graficoTendencia.getData().setAll(Arrays.asList(seriePrestamos, serieDevoluciones, serieVencidos));
     }
 
     /**
-     * Carga los datos desde archivos CSV y los almacena en las estructuras de datos.
-     * Este método lee los datos de libros y préstamos desde los archivos correspondientes
-     * y actualiza los mapas internos.
+     * Muestra en el BarChart los {@value #LIMITE_MAS_PRESTADOS} títulos, autores, géneros o
+     * miembros con más préstamos, según el criterio elegido.
      */
-    public void cargarDatos() {
-        // Cargar datos de libros desde archivo CSV
-        try (BufferedReader br = new BufferedReader(new FileReader("src/biblioteca/db/libros.csv"))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] datos = line.split(",");
-                if (datos.length >= 5 && !"ISBN".equals(datos[0])) { // Verificar que hay suficientes columnas y no es el encabezado
-                    libros.put(datos[0], LocalDate.now()); // Suponemos que los libros están disponibles
-                    titulos.put(datos[0], datos[1]); // Guardar el título del libro
-                    generos.put(datos[0], datos[4]);
-                }
+    @FXML
+    public void mostrarGraficoMasPrestados() {
+        graficoActual = this::mostrarGraficoMasPrestados;
+        mostrarSolo(barChartPrestamos);
+
+        Clasificacion clasificacion = selectorClasificacion.getValue();
+        XYChart.Series<String, Number> serie = new XYChart.Series<>();
+        for (ContadorFrecuentes.Entrada<String> entrada : motor.getMasPrestados(clasificacion, LIMITE_MAS_PRESTADOS)) {
+            String etiqueta = entrada.getClave();
+            if (clasificacion == Clasificacion.MIEMBRO) {
+                Miembro miembro = RepositorioBiblioteca.getInstancia().buscarMiembroPorID(etiqueta);
+                etiqueta = miembro != null ? miembro.getNombreValor() + " (" + etiqueta + ")" : etiqueta;
+            }
+            serie.getData().add(new XYChart.Data<>(etiqueta, entrada.getCuenta()));
+        }
+
+        barChartPrestamos.getData().setAll(Arrays.asList(serie));
+    }
+
+    /**
+     * Muestra en un BarChart el resultado de la consulta elegida sobre el historial completo de
+     * préstamos, con como mucho {@value #LIMITE_CONSULTA} grupos.
+     *
+     * La consulta recorre el historial en paralelo cada vez que se pide, por lo que el gráfico
+     * no se redibuja con cada cambio de los datos, a diferencia de los demás. Se ejecuta en una
+     * tarea en segundo plano sobre una copia del historial, para que la interfaz siga
+     * respondiendo; mientras tanto el selector de consulta queda deshabilitado.
+     */
+    @FXML
+    public void mostrarGraficoConsulta() {
+        graficoActual = null;
+        mostrarSolo(graficoConsulta);
+        if (!motor.isCargado()) {
+            dibujarConsulta(Map.of());
+            return;
+        }
+        if (consultaEnCurso != null) {
+            return;
+        }
+
+        ConsultaHistorial consulta = selectorConsulta.getValue();
+        // Se recorre una copia, porque el hilo de JavaFX puede agregar préstamos mientras tanto
+        List<Prestamo> prestamos = Arrays.asList(RepositorioBiblioteca.getInstancia().getPrestamos().toArray(new Prestamo[0]));
+        Task<Map<String, Long>> tarea = new Task<>() {
+            @Override
+            protected Map<String, Long> call() {
+                return consulta.ejecutar(prestamos);
             }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
-        // Cargar datos de préstamos desde archivo CSV
-        try (BufferedReader br = new BufferedReader(new FileReader("src/biblioteca/db/prestamos.csv"))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] datos = line.split(",");
-                if (datos.length >= 3 && !"ISBN".equals(datos[0])) { // Verificar que hay suficientes columnas y no es el encabezado
-                    prestamos.put(datos[0], LocalDate.parse(datos[2]));
-                    calcularDuracionPrestamo(datos[0], LocalDate.parse(datos[2]));
-                }
+        };
+        tarea.setOnSucceeded(evento -> {
+            terminarConsulta();
+            dibujarConsulta(tarea.getValue());
+        });
+        tarea.setOnFailed(evento -> {
+            terminarConsulta();
+            System.out.println("Error al consultar el historial: " + tarea.getException().getMessage());
+        });
+        consultaEnCurso = tarea;
+        selectorConsulta.setDisable(true);
+        Thread hilo = new Thread(tarea, "consulta-historial");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Dibuja en el BarChart de consultas los primeros {@value #LIMITE_CONSULTA} grupos de un
+     * resultado.
+     *
+     * @param resultado Cantidad de préstamos por grupo, en el orden en que se muestran.
+     */
+    private void dibujarConsulta(Map<String, Long> resultado) {
+        XYChart.Series<String, Number> serie = new XYChart.Series<>();
+        for (Map.Entry<String, Long> grupo : resultado.entrySet()) {
+            if (serie.getData().size() == LIMITE_CONSULTA) {
+                break;
             }
-        } catch (IOException e) {
-            e.printStackTrace();
+            serie.getData().add(new XYChart.Data<>(grupo.getKey(), grupo.getValue()));
         }
+
+        graficoConsulta.getData().setAll(Arrays.asList(serie));
     }
 
     /**
-     * Calcula la duración del préstamo en días desde la fecha de préstamo hasta la fecha actual.
-     * 
-     * @param isbn ISBN del libro prestado.
-     * @param fechaPrestamo Fecha en la que se realizó el préstamo.
+     * Marca la consulta en curso como terminada y vuelve a habilitar el selector.
      */
-    private void calcularDuracionPrestamo(String isbn, LocalDate fechaPrestamo) {
-        LocalDate fechaHoy = LocalDate.now();
-        long diasPrestado = ChronoUnit.DAYS.between(fechaPrestamo, fechaHoy);
-        prestamosDuracion.put(isbn, diasPrestado);
+    private void terminarConsulta() {
+        consultaEnCurso = null;
+        selectorConsulta.setDisable(false);
     }
 
     /**
-     * Carga los datos en la tabla de estadísticas, mostrando la duración de los préstamos.
-     * Este método calcula los días prestados para cada libro y actualiza la tabla con esta información.
+     * Hace visible un gráfico y oculta los demás.
+     *
+     * @param grafico El gráfico a mostrar.
+     */
+    private void mostrarSolo(Node grafico) {
+        pieChart.setVisible(grafico == pieChart);
+        graficoTendencia.setVisible(grafico == graficoTendencia);
+        barChartPrestamos.setVisible(grafico == barChartPrestamos);
+        graficoConsulta.setVisible(grafico == graficoConsulta);
+    }
+
+    /**
+     * Muestra la tabla de estadísticas y oculta los gráficos.
+     * Este método oculta el panel de gráficos y muestra el panel de la tabla.
+     */
+    @FXML
+    public void mostrarTabla() {
+        // Oculta el gráfico de barras y muestra la tabla
+        panelGraficas.setVisible(false);
+        panelTabla.setVisible(true);
+    }
+
+    /**
+     * Carga los datos en la tabla de estadísticas a partir de los agregados del motor y del
+     * índice del catálogo: totales del catálogo y de préstamos, libros y préstamos activos por
+     * género, libros disponibles por sucursal y por década, y los
+     * {@value #LIMITE_TABLA} préstamos activos más antiguos con los días que llevan prestados.
      */
     public void cargarTablaEstadisticas() {
-        cargarDatos();
         ObservableList<Estadistica> estadisticas = FXCollections.observableArrayList();
+        if (!motor.isCargado() || !indiceCatalogo.isCargado()) {
+            estadisticas.add(new Estadistica("Cargando datos...", ""));
+            tablaEstadisticas.setItems(estadisticas);
+            return;
+        }
+
+        estadisticas.add(new Estadistica("Libros en el catálogo", String.valueOf(motor.getTotalLibros())));
+        estadisticas.add(new Estadistica("Libros disponibles", String.valueOf(indiceCatalogo.getTotalDisponibles())));
+        estadisticas.add(new Estadistica("Préstamos registrados", String.valueOf(motor.getTotalPrestamos())));
+        estadisticas.add(new Estadistica("Préstamos activos", String.valueOf(motor.getPrestamosActivos())));
+        estadisticas.add(new Estadistica("Préstamos devueltos", String.valueOf(motor.getPrestamosDevueltos())));
+        estadisticas.add(new Estadistica("Duración promedio de devolución",
+                String.format("%.1f días", motor.getDuracionPromedioDevueltos())));
+
+        Map<String, Integer> activosPorGenero = motor.getActivosPorGenero();
+        for (Map.Entry<String, Integer> entry : motor.getLibrosPorGenero().entrySet()) {
+            estadisticas.add(new Estadistica("Género " + entry.getKey(), entry.getValue() + " libros, "
+                    + activosPorGenero.getOrDefault(entry.getKey(), 0) + " prestados"));
+        }
 
-        // Calcular y agregar estadísticas sobre libros prestados y disponibles
-        for (String isbn : prestamos.keySet()) {
-            LocalDate fechaPrestamo = prestamos.get(isbn);
-            LocalDate fechaHoy = LocalDate.now();
+        // Disponibilidad por sucursal y por década de publicación, contada sobre los mapas de bits del catálogo
+        for (Map.Entry<String, int[]> entry : indiceCatalogo.getDisponiblesPorSucursal().entrySet()) {
+            String nombre = entry.getKey().isEmpty() ? "Libros sin sucursal" : "Sucursal " + entry.getKey();
+            estadisticas.add(new Estadistica(nombre, entry.getValue()[0] + " libros, " + entry.getValue()[1] + " disponibles"));
+        }
+        for (Map.Entry<Integer, int[]> entry : indiceCatalogo.getDisponiblesPorDecada().entrySet()) {
+            estadisticas.add(new Estadistica("Década " + entry.getKey() + "s",
+                    entry.getValue()[0] + " libros, " + entry.getValue()[1] + " disponibles"));
+        }
+
+        // Percentiles de la duración de los préstamos devueltos, combinando los bocetos por grupo
+        agregarPercentiles(estadisticas, "todos los préstamos", BocetoCuantiles.combinar(motor.getDuracionPorGenero().values()));
+        for (Map.Entry<String, BocetoCuantiles> entry : motor.getDuracionPorGenero().entrySet()) {
+            agregarPercentiles(estadisticas, "género " + entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<String, BocetoCuantiles> entry : motor.getDuracionPorSucursal().entrySet()) {
+            String nombre = entry.getKey().isEmpty() ? "libros sin sucursal" : "sucursal " + entry.getKey();
+            agregarPercentiles(estadisticas, nombre, entry.getValue());
+        }
 
-            long diasPrestado = ChronoUnit.DAYS.between(fechaPrestamo, fechaHoy);
+        // Resúmenes de periodos recientes, calculados con las cubetas de la serie temporal
+        LocalDate hoy = LocalDate.now();
+        agregarResumen(estadisticas, "últimos 30 días", motor.getSerie().resumen(hoy.minusDays(29), hoy));
+        agregarResumen(estadisticas, "últimos 12 meses", motor.getSerie().resumen(hoy.minusYears(1).plusDays(1), hoy));
 
-            // Agregar a la tabla los días que lleva prestado
-            estadisticas.add(new Estadistica("Libro ISBN " + isbn, "Días: " + diasPrestado));
+        // Agregar a la tabla los días que llevan prestados los préstamos más antiguos
+        for (Map.Entry<Libro, Long> entry : motor.getDiasPrestadoMasAntiguos(LIMITE_TABLA).entrySet()) {
+            estadisticas.add(new Estadistica("Libro ISBN " + entry.getKey().getISBNValor(), "Días: " + entry.getValue()));
         }
         tablaEstadisticas.setItems(estadisticas);
     }
 
+    /**
+     * Agrega a la tabla las filas con los totales de un periodo.
+     *
+     * @param estadisticas Filas de la tabla.
+     * @param periodo      Nombre del periodo.
+     * @param resumen      Totales del periodo.
+     */
+    private void agregarResumen(ObservableList<Estadistica> estadisticas, String periodo, SerieTemporalPrestamos.Cubeta resumen) {
+        estadisticas.add(new Estadistica("Préstamos, " + periodo, String.valueOf(resumen.getPrestamos())));
+        estadisticas.add(new Estadistica("Devoluciones, " + periodo, String.valueOf(resumen.getDevoluciones())));
+        estadisticas.add(new Estadistica("Vencidos, " + periodo, String.valueOf(resumen.getVencidos())));
+        estadisticas.add(new Estadistica("Duración promedio, " + periodo,
+                String.format("%.1f días", resumen.getDuracionPromedio())));
+    }
+
+    /**
+     * Agrega a la tabla una fila con los percentiles 50, 90 y 99 de la duración de los préstamos
+     * de un grupo.
+     *
+     * @param estadisticas Filas de la tabla.
+     * @param grupo        Nombre del grupo.
+     * @param boceto       Boceto de duraciones del grupo.
+     */
+    private void agregarPercentiles(ObservableList<Estadistica> estadisticas, String grupo, BocetoCuantiles boceto) {
+        if (boceto.getCantidad() == 0) {
+            return;
+        }
+        estadisticas.add(new Estadistica("Devolución p50/p90/p99, " + grupo, String.format("%.0f / %.0f / %.0f días",
+                boceto.cuantil(0.5), boceto.cuantil(0.9), boceto.cuantil(0.99))));
+    }
+
     /**
      * Clase interna para representar una estadística con descripción y valor.
      */
@@ -1,16 +1,28 @@
 package biblioteca.controllers;
 
-import biblioteca.controllers.CsvController;
+import biblioteca.busqueda.IndiceCatalogo;
+import biblioteca.busqueda.IndiceTexto;
+import biblioteca.datos.RepositorioBiblioteca;
 import biblioteca.models.Libro;
 import biblioteca.models.Sucursal;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
 import javafx.fxml.FXML;
 import javafx.scene.control.Alert;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
 import javafx.scene.control.TextInputDialog;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -43,23 +55,61 @@ public class LibroController {
     @FXML
     private TableColumn<Libro, String> columnaGenero; // Columna para el género del libro
 
+    @FXML
+    private TableColumn<Libro, String> columnaSucursal; // Columna para la sucursal del libro
+
+    @FXML
+    private TextField campoBusqueda; // Texto a buscar en el título y el autor
+
+    @FXML
+    private Label etiquetaBusqueda; // Cantidad de coincidencias de la búsqueda
+
+    @FXML
+    private ComboBox<String> filtroGenero; // Género de los libros a mostrar
+
+    @FXML
+    private ComboBox<String> filtroSucursal; // Sucursal de los libros a mostrar
+
+    @FXML
+    private TextField filtroAutor; // Autor de los libros a mostrar
+
+    @FXML
+    private TextField filtroAnioDesde; // Primer año de publicación a mostrar
+
+    @FXML
+    private TextField filtroAnioHasta; // Último año de publicación a mostrar
+
+    @FXML
+    private CheckBox filtroDisponibles; // Indica si solo se muestran los libros disponibles
+
+    @FXML
+    private Label etiquetaFiltro; // Cantidad de libros que cumplen los filtros
+
+    private static final int LIMITE_BUSQUEDA = 500; // Coincidencias que se muestran en la tabla
+    private static final String TODOS_LOS_GENEROS = "Todos los géneros"; // Opción del filtro que no filtra por género
+    private static final String TODAS_LAS_SUCURSALES = "Todas las sucursales"; // Opción del filtro que no filtra por sucursal
+    private static final String SIN_SUCURSAL = "Sin sucursal"; // Opción del filtro para los libros sin sucursal
+
     private ObservableList<Libro> listaLibros; // Lista de libros que se muestra en la tabla
+    private final ObservableList<Libro> resultadosBusqueda = FXCollections.observableArrayList(); // Coincidencias de la búsqueda
+    private FilteredList<Libro> librosFiltrados; // Vista de los libros que cumplen los filtros
+    private SortedList<Libro> librosOrdenados; // Libros filtrados, en el orden elegido en la tabla
+    private SortedList<Libro> busquedaOrdenada; // Coincidencias filtradas, en el orden elegido en la tabla
+    private IndiceCatalogo.Resultado librosQueCumplen; // Libros que cumplen los filtros, o null si no hay filtros
+    private final IndiceTexto indice = IndiceTexto.getInstancia(); // Índice de títulos y autores
+    private final IndiceCatalogo indiceCatalogo = IndiceCatalogo.getInstancia(); // Índices de género, autor y año
     private Sucursal sucursal; // Sucursal asociada a los libros
-    
-    private static final String RUTA_LIBROS = "src/biblioteca/db/libros.csv"; // Ruta del archivo CSV
+    private final RepositorioBiblioteca repositorio = RepositorioBiblioteca.getInstancia(); // Repositorio compartido
 
     /**
-     * Inicializa el controlador. Carga los libros desde el archivo CSV y configura las columnas de la tabla.
+     * Inicializa el controlador. Obtiene los libros del repositorio compartido y configura las columnas de la tabla.
      */
     @FXML
     public void initialize() {
         sucursal = new Sucursal("Sucursal Central", "Calle Principal 123");
-        try {
-            listaLibros = FXCollections.observableArrayList(CsvController.cargarLibrosDesdeCSV(RUTA_LIBROS));
-        } catch (IOException e) {
-            System.out.println(e);
-            mostrarAlertaError("Error de Carga", "No se pudieron cargar los libros desde el archivo CSV.");
-        }
+        listaLibros = repositorio.getLibros();
+        // La carga se hace en segundo plano; la tabla muestra los libros a medida que llegan
+        repositorio.iniciarCarga();
 
         // Configura las columnas de la tabla con las propiedades del libro
         columnaISBN.setCellValueFactory(cellData -> cellData.getValue().ISBNProperty());
@@ -67,8 +117,148 @@ public class LibroController {
         columnaAutor.setCellValueFactory(cellData -> cellData.getValue().autorProperty());
         columnaAnio.setCellValueFactory(cellData -> cellData.getValue().anioPublicacionProperty().asObject());
         columnaGenero.setCellValueFactory(cellData -> cellData.getValue().generoProperty());
+        columnaSucursal.setCellValueFactory(cellData -> cellData.getValue().sucursalProperty());
+
+        // Vistas filtradas y ordenadas sobre las listas, sin copiar los libros; con la tabla sin
+        // ordenar por columna se conserva el orden del catálogo o el de relevancia
+        librosFiltrados = new FilteredList<>(listaLibros);
+        librosOrdenados = new SortedList<>(librosFiltrados);
+        librosOrdenados.comparatorProperty().bind(tablaLibros.comparatorProperty());
+        busquedaOrdenada = new SortedList<>(resultadosBusqueda);
+        busquedaOrdenada.comparatorProperty().bind(tablaLibros.comparatorProperty());
+        tablaLibros.setItems(librosOrdenados);
+
+        // La tabla se filtra a medida que se escribe y se repite la búsqueda si cambian los libros
+        campoBusqueda.textProperty().addListener((observable, anterior, texto) -> buscarLibros());
+        indice.agregarOyenteCambio(this::buscarLibros);
+
+        // Los filtros se aplican al cambiar y se repiten si cambian los libros
+        actualizarOpciones();
+        filtroGenero.valueProperty().addListener((observable, anterior, genero) -> filtrarLibros());
+        filtroSucursal.valueProperty().addListener((observable, anterior, sucursal) -> filtrarLibros());
+        filtroAutor.textProperty().addListener((observable, anterior, texto) -> filtrarLibros());
+        filtroAnioDesde.textProperty().addListener((observable, anterior, texto) -> filtrarLibros());
+        filtroAnioHasta.textProperty().addListener((observable, anterior, texto) -> filtrarLibros());
+        filtroDisponibles.selectedProperty().addListener((observable, anterior, marcado) -> filtrarLibros());
+        indiceCatalogo.agregarOyenteCambio(() -> {
+            actualizarOpciones();
+            filtrarLibros();
+        });
+    }
+
+    /**
+     * Aplica los filtros de género, sucursal, autor, años y disponibilidad a la tabla,
+     * consultando los índices del catálogo. Los filtros vacíos o con años no numéricos no filtran.
+     */
+    private void filtrarLibros() {
+        String genero = filtroGenero.getValue();
+        String sucursalElegida = filtroSucursal.getValue();
+        String autor = filtroAutor.getText();
+        Integer desde = leerAnio(filtroAnioDesde);
+        Integer hasta = leerAnio(filtroAnioHasta);
+        IndiceCatalogo.Resultado cumplen = indiceCatalogo.filtrar(
+                genero == null || genero.equals(TODOS_LOS_GENEROS) ? null : genero,
+                sucursalElegida == null || sucursalElegida.equals(TODAS_LAS_SUCURSALES) ? null
+                        : sucursalElegida.equals(SIN_SUCURSAL) ? "" : sucursalElegida,
+                autor == null || autor.isBlank() ? null : autor, desde, hasta, filtroDisponibles.isSelected());
+        if (cumplen == null && librosQueCumplen == null) {
+            etiquetaFiltro.setText("");
+            return; // Sin filtros antes ni ahora, las vistas ya muestran todo
+        }
+
+        librosQueCumplen = cumplen;
+        librosFiltrados.setPredicate(cumplen == null ? null : cumplen::contiene);
+        if (cumplen == null) {
+            etiquetaFiltro.setText("");
+        } else {
+            etiquetaFiltro.setText(cumplen.getCantidad() + (cumplen.getCantidad() == 1 ? " libro" : " libros"));
+        }
+        buscarLibros(); // La búsqueda elige sus mejores coincidencias entre los libros que cumplen
+    }
 
-        tablaLibros.setItems(listaLibros);
+    /**
+     * Lee un año de un campo de filtro.
+     *
+     * @param campo El campo.
+     * @return El año escrito, o null si el campo está vacío o no es un número.
+     */
+    private Integer leerAnio(TextField campo) {
+        String texto = campo.getText();
+        if (texto == null || texto.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(texto.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Actualiza las opciones de los filtros de género y sucursal con las del catálogo.
+     */
+    private void actualizarOpciones() {
+        actualizarOpciones(filtroGenero, TODOS_LOS_GENEROS, indiceCatalogo.getGeneros());
+        List<String> sucursales = new ArrayList<>(indiceCatalogo.getSucursales());
+        sucursales.replaceAll(nombre -> nombre.isEmpty() ? SIN_SUCURSAL : nombre);
+        actualizarOpciones(filtroSucursal, TODAS_LAS_SUCURSALES, sucursales);
+    }
+
+    /**
+     * Actualiza las opciones de un filtro, conservando la opción elegida si sigue existiendo.
+     *
+     * @param filtro  El filtro.
+     * @param todos   Opción que no filtra, que va primero.
+     * @param valores Valores que puede elegir el filtro.
+     */
+    private void actualizarOpciones(ComboBox<String> filtro, String todos, List<String> valores) {
+        List<String> opciones = new ArrayList<>();
+        opciones.add(todos);
+        opciones.addAll(valores);
+        if (opciones.equals(filtro.getItems())) {
+            return;
+        }
+        String elegido = filtro.getValue();
+        filtro.getItems().setAll(opciones);
+        filtro.setValue(elegido != null && opciones.contains(elegido) ? elegido : todos);
+    }
+
+    /**
+     * Quita todos los filtros de la tabla.
+     */
+    @FXML
+    private void limpiarFiltros() {
+        filtroGenero.setValue(TODOS_LOS_GENEROS);
+        filtroSucursal.setValue(TODAS_LAS_SUCURSALES);
+        filtroAutor.clear();
+        filtroAnioDesde.clear();
+        filtroAnioHasta.clear();
+        filtroDisponibles.setSelected(false);
+    }
+
+    /**
+     * Filtra la tabla con los libros cuyo título o autor coincide con el texto de búsqueda y
+     * que cumplen los filtros, ordenados por relevancia. Con el campo vacío se muestran todos
+     * los libros que cumplen los filtros.
+     */
+    private void buscarLibros() {
+        String consulta = campoBusqueda.getText();
+        if (consulta == null || consulta.isBlank()) {
+            tablaLibros.setItems(librosOrdenados);
+            etiquetaBusqueda.setText("");
+            return;
+        }
+        IndiceCatalogo.Resultado cumplen = librosQueCumplen;
+        IndiceTexto.Resultado resultado = indice.buscar(consulta, LIMITE_BUSQUEDA, cumplen == null ? null : cumplen::contiene);
+        resultadosBusqueda.setAll(resultado.getLibros());
+        tablaLibros.setItems(busquedaOrdenada);
+        if (!indice.isCargado()) {
+            etiquetaBusqueda.setText("Cargando libros...");
+        } else if (resultado.getCoincidencias() > LIMITE_BUSQUEDA) {
+            etiquetaBusqueda.setText(resultado.getCoincidencias() + " coincidencias; se muestran las " + LIMITE_BUSQUEDA + " más relevantes");
+        } else {
+            etiquetaBusqueda.setText(resultado.getCoincidencias() + (resultado.getCoincidencias() == 1 ? " coincidencia" : " coincidencias"));
+        }
     }
 
     /**
@@ -88,14 +278,15 @@ public class LibroController {
             String autor = obtenerEntrada("Autor:");
             int anio = Integer.parseInt(obtenerEntrada("Año de Publicación:"));
             String genero = obtenerEntrada("Género:");
+            String nombreSucursal = obtenerEntrada("Sucursal (opcional):").trim();
 
-            Libro libro = new Libro(isbn.get(), titulo, autor, anio, genero);
-            listaLibros.add(libro);
-            tablaLibros.setItems(listaLibros);
+            Libro libro = new Libro(isbn.get(), titulo, autor, anio, genero, nombreSucursal);
             try {
-                CsvController.guardarLibrosEnCSV(listaLibros, RUTA_LIBROS);
+                avisarSiFalla(repositorio.agregarLibro(libro), "No se pudo guardar el libro en el archivo CSV.");
             } catch (IOException e) {
                 mostrarAlertaError("Error de Guardado", "No se pudo guardar el libro en el archivo CSV.");
+            } catch (IllegalArgumentException e) {
+                mostrarAlertaError("Libro duplicado", "Ya existe un libro con ese ISBN.");
             }
         }
     }
@@ -122,20 +313,23 @@ public class LibroController {
     private void editarLibro() {
         Libro libroSeleccionado = tablaLibros.getSelectionModel().getSelectedItem();
         if (libroSeleccionado != null) {
-            TextInputDialog dialog = new TextInputDialog(libroSeleccionado.getTitulo().get());
+            TextInputDialog dialog = new TextInputDialog(libroSeleccionado.getTituloValor());
             dialog.setTitle("Editar Libro");
             dialog.setHeaderText("Editar datos del libro seleccionado:");
-            dialog.setContentText("Formato: Titulo,Autor,Año,Genero");
+            dialog.setContentText("Formato: Titulo,Autor,Año,Genero[,Sucursal]");
 
             Optional<String> result = dialog.showAndWait();
             result.ifPresent(datos -> {
                 String[] partes = datos.split(",");
-                if (partes.length == 4) {
-                    libroSeleccionado.getTitulo().set(partes[0]);
-                    libroSeleccionado.getAutor().set(partes[1]);
-                    libroSeleccionado.getAnioPublicacion().set(Integer.parseInt(partes[2]));
-                    libroSeleccionado.getGenero().set(partes[3]);
-                    tablaLibros.refresh(); // Refresca la tabla para mostrar los cambios
+                if (partes.length == 4 || partes.length == 5) {
+                    // Sin la sucursal se conserva la que ya tenía el libro
+                    String nombreSucursal = partes.length == 5 ? partes[4].trim() : libroSeleccionado.getSucursalValor();
+                    try {
+                        avisarSiFalla(repositorio.actualizarLibro(libroSeleccionado, partes[0], partes[1], Integer.parseInt(partes[2]),
+                                partes[3], nombreSucursal), "No se pudieron guardar los libros en el archivo CSV.");
+                    } catch (IOException e) {
+                        mostrarAlertaError("Error de Guardado", "No se pudieron guardar los libros en el archivo CSV.");
+                    }
                 } else {
                     mostrarAlertaError("Datos incorrectos", "Formato incorrecto. Debe ingresar todos los campos.");
                 }
@@ -154,9 +348,8 @@ public class LibroController {
         Libro libroSeleccionado = tablaLibros.getSelectionModel().getSelectedItem();
         if (libroSeleccionado != null) {
             sucursal.getLibros().remove(libroSeleccionado);
-            listaLibros.remove(libroSeleccionado);
             try {
-                CsvController.guardarLibrosEnCSV(listaLibros, RUTA_LIBROS);
+                avisarSiFalla(repositorio.eliminarLibro(libroSeleccionado), "No se pudieron guardar los libros en el archivo CSV.");
             } catch (IOException e) {
                 mostrarAlertaError("Error de Guardado", "No se pudieron guardar los libros en el archivo CSV.");
             }
@@ -165,6 +358,21 @@ public class LibroController {
         }
     }
 
+    /**
+     * Muestra un error si el cambio no se puede escribir en el diario. La escritura se hace en
+     * segundo plano, así que el aviso llega después de que la tabla ya muestra el cambio.
+     *
+     * @param guardado Tarea que termina cuando el cambio queda escrito.
+     * @param mensaje  El mensaje de la alerta si la escritura falla.
+     */
+    private void avisarSiFalla(CompletableFuture<Void> guardado, String mensaje) {
+        guardado.whenComplete((resultado, error) -> {
+            if (error != null) {
+                Platform.runLater(() -> mostrarAlertaError("Error de Guardado", mensaje));
+            }
+        });
+    }
+
     /**
      * Muestra una alerta de error con el título y mensaje proporcionados.
      * 
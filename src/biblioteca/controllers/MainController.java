@@ -1,15 +1,44 @@
 package biblioteca.controllers;
 
+import biblioteca.datos.RepositorioBiblioteca;
 import biblioteca.models.Sucursal;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+import javafx.concurrent.Worker;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
+import javafx.scene.layout.AnchorPane;
+import javafx.scene.layout.HBox;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 /**
  * Controlador principal para la aplicación de biblioteca. Maneja la navegación entre diferentes vistas a través de las pestañas del TabPane.
  * 
+ * El contenido de cada pestaña se carga desde su archivo FXML (indicado en el {@code userData} de la pestaña)
+ * la primera vez que se selecciona, de modo que al iniciar solo se construye la vista visible. Después de
+ * la primera pintura, un hilo en segundo plano analiza los archivos FXML restantes y carga las clases que
+ * usan, para que abrir una pestaña nueva sea rápido. La precarga se desactiva con
+ * {@code -Dbiblioteca.precargarVistas=false}.
+ * 
  * @author Angel Sanabria, Javier Alvarado
  * @version 1.0
  * @since 2024-09-04
@@ -20,46 +49,215 @@ public class MainController {
     @FXML
     private TabPane mainTabPane; // TabPane que contiene las diferentes vistas de la aplicación
 
+    @FXML
+    private HBox barraEstado; // Barra de estado de la carga
+
+    @FXML
+    private ProgressBar barraProgreso; // Progreso de la carga en segundo plano
+
+    @FXML
+    private Label etiquetaEstado; // Paso actual de la carga
+
+    @FXML
+    private URL location; // Ubicación de MainView.fxml, asignada por el FXMLLoader
+
     private Sucursal sucursalActual; // Sucursal actualmente seleccionada
 
+    private final Map<String, Object> controladores = new HashMap<>(); // Controladores de las vistas ya cargadas, por archivo FXML
+
+    private static final String PROPIEDAD_PRECARGA = "biblioteca.precargarVistas"; // Propiedad del sistema que activa la precarga
+    private static final String PAQUETE_SKINS = "javafx.scene.control.skin."; // Paquete de las skins de los controles
+
     /**
-     * Inicializa el controlador. Configura un listener para el cambio de pestañas.
+     * Inicializa el controlador. Configura un listener para el cambio de pestañas y muestra
+     * el progreso de la carga de datos, que se hace en segundo plano.
      */
     @FXML
     public void initialize() {
+        Task<Void> carga = RepositorioBiblioteca.getInstancia().iniciarCarga();
+        barraProgreso.progressProperty().bind(carga.progressProperty());
+        etiquetaEstado.textProperty().bind(carga.messageProperty());
+        if (carga.getState() == Worker.State.SUCCEEDED) {
+            barraEstado.setVisible(false);
+        }
+        carga.setOnSucceeded(evento -> barraEstado.setVisible(false));
+        carga.setOnFailed(evento -> {
+            etiquetaEstado.textProperty().unbind();
+            etiquetaEstado.setText("Error al cargar los datos");
+            System.out.println("Error al cargar los datos: " + carga.getException());
+            mostrarAlertaError("Error de Carga", "No se pudieron cargar los datos desde los archivos CSV.");
+        });
+
         mainTabPane.getSelectionModel().selectedItemProperty().addListener((observable, oldTab, newTab) -> {
             if (newTab != null) {
-                // Acción a realizar cuando se cambia de pestaña
+                cargarPestania(newTab);
             }
         });
+        cargarPestania(mainTabPane.getSelectionModel().getSelectedItem());
+
+        if (Boolean.parseBoolean(System.getProperty(PROPIEDAD_PRECARGA, "true"))) {
+            mainTabPane.sceneProperty().addListener((observable, anterior, escena) -> {
+                if (escena != null && anterior == null) {
+                    programarPrecarga(escena);
+                }
+            });
+        }
+    }
+
+    /**
+     * Carga el contenido de una pestaña si todavía no se ha cargado.
+     * 
+     * @param pestania La pestaña seleccionada.
+     */
+    private void cargarPestania(Tab pestania) {
+        if (pestania != null && pestania.getUserData() instanceof String) {
+            getController((String) pestania.getUserData());
+        }
+    }
+
+    /**
+     * Selecciona la pestaña que muestra la vista indicada.
+     * 
+     * @param fxmlFile El archivo FXML de la vista.
+     */
+    private void seleccionarPestania(String fxmlFile) {
+        for (Tab pestania : mainTabPane.getTabs()) {
+            if (fxmlFile.equals(pestania.getUserData())) {
+                mainTabPane.getSelectionModel().select(pestania);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Inicia la precarga de las vistas restantes justo después del primer pulso de la escena,
+     * cuando la ventana ya se pintó.
+     * 
+     * @param escena La escena de la ventana principal.
+     */
+    private void programarPrecarga(Scene escena) {
+        Runnable[] despuesDelPulso = new Runnable[1];
+        despuesDelPulso[0] = () -> {
+            // No se puede quitar el listener mientras se recorren los listeners del pulso
+            Platform.runLater(() -> escena.removePostLayoutPulseListener(despuesDelPulso[0]));
+            List<URL> pendientes = new ArrayList<>();
+            for (Tab pestania : mainTabPane.getTabs()) {
+                Object fxmlFile = pestania.getUserData();
+                if (fxmlFile instanceof String && !controladores.containsKey(fxmlFile)) {
+                    pendientes.add(resolver((String) fxmlFile));
+                }
+            }
+            Thread hilo = new Thread(() -> precargarVistas(pendientes), "precarga-vistas");
+            hilo.setDaemon(true);
+            hilo.setPriority(Thread.MIN_PRIORITY);
+            hilo.start();
+        };
+        escena.addPostLayoutPulseListener(despuesDelPulso[0]);
+    }
+
+    /**
+     * Analiza los archivos FXML indicados y carga las clases que declaran (controles, contenedores,
+     * sus skins y el controlador). No crea nodos, por lo que es seguro fuera del hilo de JavaFX;
+     * cuando luego se abre la pestaña, el FXMLLoader ya encuentra las clases cargadas.
+     * 
+     * @param vistas Ubicaciones de los archivos FXML a precargar.
+     */
+    private static void precargarVistas(List<URL> vistas) {
+        XMLInputFactory fabrica = XMLInputFactory.newInstance();
+        ClassLoader cargador = MainController.class.getClassLoader();
+        for (URL vista : vistas) {
+            try (InputStream entrada = vista.openStream()) {
+                XMLStreamReader lector = fabrica.createXMLStreamReader(entrada);
+                Map<String, String> importadas = new HashMap<>(); // Nombre simple -> nombre completo
+                while (lector.hasNext()) {
+                    int evento = lector.next();
+                    if (evento == XMLStreamConstants.PROCESSING_INSTRUCTION && "import".equals(lector.getPITarget())) {
+                        String clase = lector.getPIData().trim();
+                        importadas.put(clase.substring(clase.lastIndexOf('.') + 1), clase);
+                    } else if (evento == XMLStreamConstants.START_ELEMENT) {
+                        String clase = importadas.get(lector.getLocalName());
+                        if (clase != null) {
+                            precargarClase(clase, cargador);
+                            precargarClase(PAQUETE_SKINS + lector.getLocalName() + "Skin", cargador);
+                        }
+                        for (int i = 0; i < lector.getAttributeCount(); i++) {
+                            if (FXMLLoader.FX_NAMESPACE_PREFIX.equals(lector.getAttributePrefix(i))
+                                    && FXMLLoader.FX_CONTROLLER_ATTRIBUTE.equals(lector.getAttributeLocalName(i))) {
+                                precargarClase(lector.getAttributeValue(i), cargador);
+                            }
+                        }
+                    }
+                }
+                lector.close();
+            } catch (IOException | XMLStreamException e) {
+                System.out.println("No se pudo precargar la vista " + vista + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Carga e inicializa una clase si existe.
+     * 
+     * @param nombre Nombre completo de la clase.
+     * @param cargador Cargador de clases a usar.
+     */
+    private static void precargarClase(String nombre, ClassLoader cargador) {
+        try {
+            Class.forName(nombre, true, cargador);
+        } catch (ClassNotFoundException | LinkageError e) {
+            // No todas las clases tienen skin propia; se ignora
+        }
+    }
+
+    /**
+     * Resuelve un archivo FXML relativo a la ubicación de la vista principal. Dentro de un JAR
+     * la ubicación es una URI opaca ({@code jar:file:...!/ruta}), que se resuelve sobre la ruta
+     * de la entrada.
+     * 
+     * @param fxmlFile El archivo FXML.
+     * @return La ubicación del archivo.
+     */
+    private URL resolver(String fxmlFile) {
+        try {
+            URI base = location.toURI();
+            if (base.isOpaque()) {
+                String texto = base.toString();
+                int separador = texto.indexOf("!/") + 1;
+                URI entrada = new URI(texto.substring(separador)).resolve(fxmlFile);
+                return new URI(texto.substring(0, separador) + entrada).toURL();
+            }
+            return base.resolve(fxmlFile).toURL();
+        } catch (URISyntaxException | IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Vista inválida: " + fxmlFile, e);
+        }
     }
 
     /**
-     * Muestra la vista de libros seleccionando la primera pestaña del TabPane.
+     * Muestra la vista de libros seleccionando su pestaña del TabPane.
      */
     public void mostrarVistaLibros() {
-        mainTabPane.getSelectionModel().select(0);  // Asume que la primera pestaña es la de libros
+        seleccionarPestania("LibroView.fxml");
     }
 
     /**
-     * Muestra la vista de miembros seleccionando la segunda pestaña del TabPane.
+     * Muestra la vista de miembros seleccionando su pestaña del TabPane.
      */
     public void mostrarVistaMiembros() {
-        mainTabPane.getSelectionModel().select(1);  // Asume que la segunda pestaña es la de miembros
+        seleccionarPestania("MiembroView.fxml");
     }
 
     /**
-     * Muestra la vista de préstamos seleccionando la tercera pestaña del TabPane.
+     * Muestra la vista de préstamos seleccionando su pestaña del TabPane.
      */
     public void mostrarVistaPrestamos() {
-        mainTabPane.getSelectionModel().select(2);  // Asume que la tercera pestaña es la de préstamos
+        seleccionarPestania("PrestamoView.fxml");
     }
 
     /**
-     * Muestra la vista de estadísticas seleccionando la cuarta pestaña del TabPane.
+     * Muestra la vista de estadísticas seleccionando su pestaña del TabPane.
      */
     public void mostrarVistaEstadisticas() {
-        mainTabPane.getSelectionModel().select(3);  // Asume que la cuarta pestaña es la de estadísticas
+        seleccionarPestania("EstadisticasView.fxml");
     }
 
     /**
@@ -72,18 +270,45 @@ public class MainController {
     }
 
     /**
-     * Carga un controlador de una vista FXML especificada.
+     * Muestra una alerta de error con el título y mensaje especificados.
+     * 
+     * @param titulo El título de la alerta de error.
+     * @param mensaje El mensaje de la alerta de error.
+     */
+    private void mostrarAlertaError(String titulo, String mensaje) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle(titulo);
+        alert.setHeaderText(null);
+        alert.setContentText(mensaje);
+        alert.showAndWait();
+    }
+
+    /**
+     * Obtiene el controlador de una vista FXML. Si la vista todavía no se ha cargado, se carga
+     * y se coloca en la pestaña correspondiente.
      * 
-     * @param fxmlFile El archivo FXML que contiene la vista.
+     * @param fxmlFile El archivo FXML que contiene la vista, relativo a la vista principal.
      * @return El controlador de la vista cargada, o null si ocurre un error.
      */
     private Object getController(String fxmlFile) {
+        Object controlador = controladores.get(fxmlFile);
+        if (controlador != null) {
+            return controlador;
+        }
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlFile));
+            FXMLLoader loader = new FXMLLoader(resolver(fxmlFile));
             Parent root = loader.load();
-            return loader.getController();
+            controlador = loader.getController();
+            controladores.put(fxmlFile, controlador);
+            for (Tab pestania : mainTabPane.getTabs()) {
+                if (fxmlFile.equals(pestania.getUserData()) && pestania.getContent() instanceof AnchorPane) {
+                    ((AnchorPane) pestania.getContent()).getChildren().setAll(root);
+                }
+            }
+            return controlador;
         } catch (IOException e) {
-            e.printStackTrace(); // Manejo de errores, puedes mostrar una alerta o loguear el error
+            System.out.println("Error al cargar la vista " + fxmlFile + ": " + e.getMessage());
+            mostrarAlertaError("Error de Carga", "No se pudo cargar la vista " + fxmlFile + ".");
             return null;
         }
     }
@@ -1,9 +1,11 @@
 package biblioteca.controllers;
 
+import biblioteca.datos.RepositorioBiblioteca;
 import biblioteca.models.Miembro;
 import biblioteca.models.Sucursal;
 import java.io.IOException;
-import javafx.collections.FXCollections;
+import java.util.concurrent.CompletableFuture;
+import javafx.application.Platform;
 import javafx.collections.ObservableList;
 import javafx.scene.control.TextInputDialog;
 import javafx.fxml.FXML;
@@ -54,25 +56,22 @@ public class MiembroController {
 
     private ObservableList<Miembro> listaMiembros; // Lista observable de miembros
     private Sucursal sucursal; // Sucursal asociada
-
-    private static final String RUTA_MIEMBROS = "src/biblioteca/db/miembros.csv"; // Ruta del archivo CSV
+    private final RepositorioBiblioteca repositorio = RepositorioBiblioteca.getInstancia(); // Repositorio compartido
 
     /**
-     * Inicializa el controlador. Carga los miembros desde el archivo CSV y configura las columnas de la tabla.
+     * Inicializa el controlador. Obtiene los miembros del repositorio compartido y configura las columnas de la tabla.
      */
     @FXML
     public void initialize() {
         sucursal = new Sucursal("Sucursal Central", "Calle Principal 123");
-        try {
-            listaMiembros = FXCollections.observableArrayList(CsvController.cargarMiembrosDesdeCSV(RUTA_MIEMBROS));
-        } catch (IOException e) {
-            mostrarAlertaError("Error de Carga", "No se pudieron cargar los miembros desde el archivo CSV.");
-        }
+        listaMiembros = repositorio.getMiembros();
+        // La carga se hace en segundo plano; la tabla muestra los miembros a medida que llegan
+        repositorio.iniciarCarga();
 
-        columnaID.setCellValueFactory(cellData -> cellData.getValue().getId());
-        columnaNombre.setCellValueFactory(cellData -> cellData.getValue().getNombre());
-        columnaEmail.setCellValueFactory(cellData -> cellData.getValue().getEmail());
-        columnaTelefono.setCellValueFactory(cellData -> cellData.getValue().getTelefono());
+        columnaID.setCellValueFactory(cellData -> cellData.getValue().idProperty());
+        columnaNombre.setCellValueFactory(cellData -> cellData.getValue().nombreProperty());
+        columnaEmail.setCellValueFactory(cellData -> cellData.getValue().emailProperty());
+        columnaTelefono.setCellValueFactory(cellData -> cellData.getValue().telefonoProperty());
 
         tablaMiembros.setItems(listaMiembros);
     }
@@ -84,10 +83,10 @@ public class MiembroController {
      */
     private void cargarDatosEnCampos(Miembro miembro) {
         if (miembro != null) {
-            textFieldId.setText(miembro.getId().get());
-            textFieldNombre.setText(miembro.getNombre().get());
-            textFieldEmail.setText(miembro.getEmail().get());
-            textFieldTelefono.setText(miembro.getTelefono().get());
+            textFieldId.setText(miembro.getIdValor());
+            textFieldNombre.setText(miembro.getNombreValor());
+            textFieldEmail.setText(miembro.getEmailValor());
+            textFieldTelefono.setText(miembro.getTelefonoValor());
         } else {
             // Limpiar campos si no hay miembro seleccionado
             textFieldId.clear();
@@ -104,12 +103,9 @@ public class MiembroController {
     private void editarMiembro() {
         Miembro miembroSeleccionado = tablaMiembros.getSelectionModel().getSelectedItem();
         if (miembroSeleccionado != null) {
-            miembroSeleccionado.getNombre().set(textFieldNombre.getText());
-            miembroSeleccionado.getEmail().set(textFieldEmail.getText());
-            miembroSeleccionado.getTelefono().set(textFieldTelefono.getText());
-            tablaMiembros.refresh();
             try {
-                CsvController.guardarMiembrosEnCSV(listaMiembros, RUTA_MIEMBROS);
+                avisarSiFalla(repositorio.actualizarMiembro(miembroSeleccionado, textFieldNombre.getText(), textFieldEmail.getText(),
+                        textFieldTelefono.getText()), "No se pudieron guardar los miembros en el archivo CSV.");
             } catch (IOException e) {
                 mostrarAlertaError("Error de Guardado", "No se pudieron guardar los miembros en el archivo CSV.");
             }
@@ -134,11 +130,13 @@ public class MiembroController {
         }
 
         Miembro nuevoMiembro = new Miembro(id, nombre, email, telefono);
-        listaMiembros.add(nuevoMiembro);
         try {
-            CsvController.guardarMiembrosEnCSV(listaMiembros, RUTA_MIEMBROS);
+            avisarSiFalla(repositorio.agregarMiembro(nuevoMiembro), "No se pudieron guardar los miembros en el archivo CSV.");
         } catch (IOException e) {
             mostrarAlertaError("Error de Guardado", "No se pudieron guardar los miembros en el archivo CSV.");
+        } catch (IllegalArgumentException e) {
+            mostrarAlertaError("Miembro duplicado", "Ya existe un miembro con ese ID.");
+            return;
         }
         // Limpiar campos después de agregar el miembro
         textFieldId.clear();
@@ -147,6 +145,21 @@ public class MiembroController {
         textFieldTelefono.clear();
     }
 
+    /**
+     * Muestra un error si el cambio no se puede escribir en el diario. La escritura se hace en
+     * segundo plano, así que el aviso llega después de que la tabla ya muestra el cambio.
+     *
+     * @param guardado Tarea que termina cuando el cambio queda escrito.
+     * @param mensaje  El mensaje de la alerta si la escritura falla.
+     */
+    private void avisarSiFalla(CompletableFuture<Void> guardado, String mensaje) {
+        guardado.whenComplete((resultado, error) -> {
+            if (error != null) {
+                Platform.runLater(() -> mostrarAlertaError("Error de Guardado", mensaje));
+            }
+        });
+    }
+
     /**
      * Muestra una alerta de error con el título y mensaje proporcionados.
      * 
@@ -168,9 +181,8 @@ public class MiembroController {
     private void eliminarMiembro() {
         Miembro miembroSeleccionado = tablaMiembros.getSelectionModel().getSelectedItem();
         if (miembroSeleccionado != null) {
-            listaMiembros.remove(miembroSeleccionado);
             try {
-                CsvController.guardarMiembrosEnCSV(listaMiembros, RUTA_MIEMBROS);
+                avisarSiFalla(repositorio.eliminarMiembro(miembroSeleccionado), "No se pudieron guardar los miembros en el archivo CSV.");
             } catch (IOException e) {
                 mostrarAlertaError("Error de Guardado", "No se pudieron guardar los miembros en el archivo CSV.");
             }
@@ -1,28 +1,35 @@
 package biblioteca.controllers;
 
+import biblioteca.busqueda.IndiceMiembros;
+import biblioteca.datos.FilaPrestamo;
+import biblioteca.datos.ListaPaginadaPrestamos;
+import biblioteca.datos.RepositorioBiblioteca;
 import biblioteca.models.Libro;
 import biblioteca.models.Miembro;
 import biblioteca.models.Prestamo;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
+import javafx.geometry.Side;
 import javafx.scene.control.Alert;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.MenuItem;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableRow;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
-import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.StringProperty;
 
 import java.io.IOException;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controlador para la gestión de préstamos de libros en la biblioteca.
  * 
- * Este controlador se encarga de cargar datos desde archivos CSV, mostrar la lista de préstamos en una tabla,
+ * Este controlador obtiene los datos del repositorio compartido, muestra la lista de préstamos en una tabla,
  * y manejar las acciones de registro y devolución de préstamos.
  * 
  * Autores: Angel Sanabria y Javier Alvarado
@@ -32,22 +39,22 @@ import java.util.List;
 public class PrestamoController {
 
     @FXML
-    private TableView<Prestamo> tablaPrestamos;
+    private TableView<FilaPrestamo> tablaPrestamos;
 
     @FXML
-    private TableColumn<Prestamo, String> columnaLibro;
+    private TableColumn<FilaPrestamo, String> columnaLibro;
 
     @FXML
-    private TableColumn<Prestamo, String> columnaMiembro;
+    private TableColumn<FilaPrestamo, String> columnaMiembro;
 
     @FXML
-    private TableColumn<Prestamo, String> columnaFechaPrestamo;
+    private TableColumn<FilaPrestamo, String> columnaFechaPrestamo;
 
     @FXML
-    private TableColumn<Prestamo, String> columnaFechaDevolucion;
+    private TableColumn<FilaPrestamo, String> columnaFechaDevolucion;
 
     @FXML
-    private TableColumn<Prestamo, String> columnaFechaDevolucionReal;
+    private TableColumn<FilaPrestamo, String> columnaFechaDevolucionReal;
 
     @FXML
     private TextField textFieldISBN;
@@ -58,87 +65,87 @@ public class PrestamoController {
     @FXML
     private TextField textFieldDias;
 
-    private ObservableList<Prestamo> listaPrestamos;
-    private ObservableList<Miembro> listaMiembros;
-    private ObservableList<Libro> listaLibros;
+    private ListaPaginadaPrestamos listaPrestamos; // Préstamos del repositorio, con filas creadas por páginas
+    private final RepositorioBiblioteca repositorio = RepositorioBiblioteca.getInstancia(); // Repositorio compartido
+    private final IndiceMiembros indiceMiembros = IndiceMiembros.getInstancia(); // Índice de nombres, correos e IDs
+    private final ContextMenu sugerenciasMiembro = new ContextMenu(); // Miembros sugeridos mientras se escribe
 
-    // Ruta a los archivos CSV
-    private static final String RUTA_LIBROS = "src/biblioteca/db/libros.csv";
-    private static final String RUTA_MIEMBROS = "src/biblioteca/db/miembros.csv";
-    private static final String RUTA_PRESTAMOS = "src/biblioteca/db/prestamos.csv";
+    private static final int LIMITE_SUGERENCIAS = 8; // Cantidad máxima de miembros sugeridos
 
     /**
-     * Inicializa el controlador. Carga los datos desde los archivos CSV y configura las columnas de la tabla.
+     * Inicializa el controlador. Obtiene los datos del repositorio compartido y configura las columnas de la tabla.
      */
     @FXML
     public void initialize() {
         cargarDatos();
-        try {
-            // Cargar los libros, miembros y préstamos desde los archivos CSV
-            List<Libro> libros = CsvController.cargarLibrosDesdeCSV(RUTA_LIBROS);
-            listaMiembros = FXCollections.observableArrayList(CsvController.cargarMiembrosDesdeCSV(RUTA_MIEMBROS));
-            listaPrestamos = FXCollections.observableArrayList(CsvController.cargarPrestamosDesdeCSV(RUTA_PRESTAMOS, libros, listaMiembros));
-            listaLibros = FXCollections.observableArrayList(libros);
-
-            // Configurar las columnas de la tabla
-            columnaLibro.setCellValueFactory(cellData -> {
-                Libro libro = cellData.getValue().getLibro();
-                return libro != null ? libro.getTitulo() : new SimpleStringProperty("");
-            });
 
-            columnaMiembro.setCellValueFactory(cellData -> {
-                Miembro miembro = cellData.getValue().getMiembro();
-                return miembro != null ? miembro.getNombre() : new SimpleStringProperty("");
-            });
-
-            columnaFechaPrestamo.setCellValueFactory(cellData -> {
-                LocalDate fechaPrestamo = cellData.getValue().getFechaPrestamo().get();
-                return fechaPrestamo != null ? new SimpleStringProperty(fechaPrestamo.toString()) : new SimpleStringProperty("");
-            });
+        // Configurar las columnas de la tabla; las filas ya tienen los textos calculados
+        columnaLibro.setCellValueFactory(cellData -> cellData.getValue().libroProperty());
+        columnaMiembro.setCellValueFactory(cellData -> cellData.getValue().miembroProperty());
+        columnaFechaPrestamo.setCellValueFactory(cellData -> cellData.getValue().fechaPrestamoProperty());
+        columnaFechaDevolucion.setCellValueFactory(cellData -> cellData.getValue().fechaDevolucionProperty());
+        columnaFechaDevolucionReal.setCellValueFactory(cellData -> cellData.getValue().fechaDevolucionRealProperty());
+
+        // Sugerir miembros por nombre, correo o ID mientras se escribe, tolerando errores de tipeo
+        textFieldMiembroID.textProperty().addListener((observable, anterior, texto) -> sugerirMiembros());
+        textFieldMiembroID.focusedProperty().addListener((observable, anterior, enfocado) -> {
+            if (!enfocado) {
+                sugerenciasMiembro.hide();
+            }
+        });
+    }
 
-            columnaFechaDevolucion.setCellValueFactory(cellData -> {
-                LocalDate fechaDevolucion = cellData.getValue().getFechaDevolucionEsperada().get();
-                return fechaDevolucion != null ? new SimpleStringProperty(fechaDevolucion.toString()) : new SimpleStringProperty("");
-            });
+    /**
+     * Muestra debajo del campo de miembro los miembros que se parecen al texto escrito. Al
+     * elegir uno, el campo queda con su ID. No se sugiere nada si el texto ya es un ID existente.
+     */
+    private void sugerirMiembros() {
+        String texto = textFieldMiembroID.getText().trim();
+        List<Miembro> miembros = texto.isEmpty() || repositorio.buscarMiembroPorID(texto) != null
+                ? List.of() : indiceMiembros.buscar(texto, LIMITE_SUGERENCIAS);
+        if (miembros.isEmpty()) {
+            sugerenciasMiembro.getItems().clear();
+            sugerenciasMiembro.hide();
+            return;
+        }
 
-            columnaFechaDevolucionReal.setCellValueFactory(cellData -> {
-                LocalDate fechaDevolucionReal = cellData.getValue().getFechaDevolucionReal().get();
-                return fechaDevolucionReal != null ? new SimpleStringProperty(fechaDevolucionReal.toString()) : new SimpleStringProperty("");
+        List<MenuItem> opciones = new ArrayList<>();
+        for (Miembro miembro : miembros) {
+            MenuItem opcion = new MenuItem(miembro.getNombreValor() + " <" + miembro.getEmailValor() + "> ("
+                    + miembro.getIdValor() + ")");
+            opcion.setOnAction(evento -> {
+                textFieldMiembroID.setText(miembro.getIdValor());
+                textFieldMiembroID.positionCaret(miembro.getIdValor().length());
             });
-
-            // Añadir los préstamos a la tabla
-            tablaPrestamos.setItems(listaPrestamos);
-
-        } catch (IOException e) {
-            mostrarAlertaError("Error al cargar datos", "No se pudieron cargar los datos desde los archivos CSV.");
+            opciones.add(opcion);
+        }
+        sugerenciasMiembro.getItems().setAll(opciones);
+        if (!sugerenciasMiembro.isShowing() && textFieldMiembroID.getScene() != null
+                && textFieldMiembroID.getScene().getWindow() != null
+                && textFieldMiembroID.getScene().getWindow().isShowing()) {
+            sugerenciasMiembro.show(textFieldMiembroID, Side.BOTTOM, 0, 0);
         }
     }
 
     /**
-     * Carga los datos desde los archivos CSV y actualiza la tabla de préstamos.
+     * Inicia la carga del repositorio en segundo plano (si no se ha iniciado) y enlaza la tabla con la
+     * vista paginada de los préstamos compartidos, que se llena a medida que llegan los datos. Solo
+     * se crean las filas de las páginas que la tabla muestra.
+     * Los datos solo se leen de los archivos CSV la primera vez.
      */
     public void cargarDatos() {
-        try {
-            // Cargar los libros, miembros y préstamos desde los archivos CSV
-            List<Libro> libros = CsvController.cargarLibrosDesdeCSV(RUTA_LIBROS);
-            listaMiembros = FXCollections.observableArrayList(CsvController.cargarMiembrosDesdeCSV(RUTA_MIEMBROS));
-            listaPrestamos = FXCollections.observableArrayList(CsvController.cargarPrestamosDesdeCSV(RUTA_PRESTAMOS, libros, listaMiembros));
-            listaLibros = FXCollections.observableArrayList(libros);
-            // Actualizar la tabla con los préstamos
-            tablaPrestamos.setItems(listaPrestamos);
-
-        } catch (IOException e) {
-            mostrarAlertaError("Error al cargar datos", "No se pudieron cargar los datos desde los archivos CSV.");
-        }
+        repositorio.iniciarCarga();
+        listaPrestamos = ListaPaginadaPrestamos.getInstancia();
+        tablaPrestamos.setItems(listaPrestamos);
     }
 
     /**
      * Registra un nuevo préstamo de libro.
      * Valida los campos de entrada, verifica la disponibilidad del libro, y guarda el préstamo en el archivo CSV.
+     * La confirmación se muestra cuando el préstamo ya quedó escrito en disco.
      */
     @FXML
     private void registrarPrestamo() {
-        cargarDatos();
         String isbn = textFieldISBN.getText().trim();
         String miembroID = textFieldMiembroID.getText().trim();
         String diasPrestamoTexto = textFieldDias.getText().trim();
@@ -151,7 +158,7 @@ public class PrestamoController {
             int diasPrestamo = Integer.parseInt(diasPrestamoTexto);
             Libro libro = buscarLibroPorISBN(isbn);
             Miembro miembro = buscarMiembroPorID(miembroID);
-            if (libro != null && miembro != null && libro.isDisponible()) {
+            if (libro != null && miembro != null) {
                 // Verificar si el libro ya está prestado y no ha sido devuelto
                 if (esLibroEnPrestamo(libro)) {
                     mostrarAlertaError("Libro ya prestado", "El libro ya está en préstamo y no ha sido devuelto.");
@@ -160,11 +167,10 @@ public class PrestamoController {
                 LocalDate fechaPrestamo = LocalDate.now();
                 LocalDate fechaDevolucionEsperada = fechaPrestamo.plusDays(diasPrestamo);
                 Prestamo nuevoPrestamo = new Prestamo(libro, miembro, fechaPrestamo, fechaDevolucionEsperada);
-                listaPrestamos.add(nuevoPrestamo);
-                EstadisticasController estadisticas = new EstadisticasController();
-                estadisticas.cargarDatos();
                 try {
-                    CsvController.guardarPrestamosEnCSV(listaPrestamos, RUTA_PRESTAMOS);
+                    confirmarGuardado(repositorio.registrarPrestamo(nuevoPrestamo),
+                            "Préstamo registrado", "El préstamo ha sido registrado correctamente.",
+                            "No se pudo guardar el préstamo en el archivo CSV.");
                 } catch (IOException e) {
                     mostrarAlertaError("Error al guardar", "No se pudo guardar el préstamo en el archivo CSV.");
                 }
@@ -185,7 +191,6 @@ public class PrestamoController {
      */
     @FXML
     private void devolverLibro() {
-        cargarDatos();
         String isbn = textFieldISBN.getText().trim();
         if (isbn.isEmpty()) {
             mostrarAlertaError("Campo vacío", "Por favor, complete el campo ISBN.");
@@ -194,19 +199,16 @@ public class PrestamoController {
 
         Libro libro = buscarLibroPorISBN(isbn);
         if (libro != null) {
-            for (Prestamo prestamo : listaPrestamos) {
-                if (prestamo.getLibro().equals(libro) && prestamo.getFechaDevolucionReal().get() == null) {
-                    prestamo.setFechaDevolucionReal(LocalDate.now());
-                    libro.setDisponible(true);
-                    try {
-                        CsvController.guardarPrestamosEnCSV(listaPrestamos, RUTA_PRESTAMOS);
-                        CsvController.guardarLibrosEnCSV(listaLibros, RUTA_LIBROS);
-                    } catch (IOException e) {
-                        mostrarAlertaError("Error al guardar", "No se pudo actualizar el archivo CSV.");
-                    }
-                    mostrarAlertaInformacion("Préstamo devuelto", "El libro ha sido devuelto correctamente.");
-                    return;
+            Prestamo prestamo = repositorio.getPrestamoActivo(libro);
+            if (prestamo != null) {
+                try {
+                    confirmarGuardado(repositorio.devolverPrestamo(prestamo, LocalDate.now()),
+                            "Préstamo devuelto", "El libro ha sido devuelto correctamente.",
+                            "No se pudo actualizar el archivo CSV.");
+                } catch (IOException e) {
+                    mostrarAlertaError("Error al guardar", "No se pudo actualizar el archivo CSV.");
                 }
+                return;
             }
             mostrarAlertaError("Préstamo no encontrado", "No se encontró un préstamo activo para el libro con el ISBN proporcionado.");
         } else {
@@ -221,42 +223,46 @@ public class PrestamoController {
      * @return true si el libro está en préstamo; false en caso contrario.
      */
     private boolean esLibroEnPrestamo(Libro libro) {
-        for (Prestamo prestamo : listaPrestamos) {
-            if (prestamo.getLibro().equals(libro) && prestamo.getFechaDevolucionReal().get() == null) {
-                return true;
-            }
-        }
-        return false;
+        return repositorio.estaEnPrestamo(libro);
     }
 
     /**
-     * Busca un libro por su ISBN en la lista de libros.
+     * Busca un libro por su ISBN en el repositorio compartido.
      *
      * @param isbn El ISBN del libro a buscar.
      * @return El libro correspondiente al ISBN proporcionado, o null si no se encuentra.
      */
     private Libro buscarLibroPorISBN(String isbn) {
-        for (Libro libro : listaLibros) {
-            if (libro.getISBN().get().equals(isbn)) {
-                return libro;
-            }
-        }
-        return null;
+        return repositorio.buscarLibroPorISBN(isbn);
     }
 
     /**
-     * Busca un miembro por su ID en la lista de miembros.
+     * Busca un miembro por su ID en el repositorio compartido.
      *
      * @param id El ID del miembro a buscar.
      * @return El miembro correspondiente al ID proporcionado, o null si no se encuentra.
      */
     private Miembro buscarMiembroPorID(String id) {
-        for (Miembro miembro : listaMiembros) {
-            if (miembro.getId().get().equals(id)) {
-                return miembro;
+        return repositorio.buscarMiembroPorID(id);
+    }
+
+    /**
+     * Muestra la confirmación de una operación cuando su registro ya está escrito en disco, o un
+     * error si la escritura falla. La tabla muestra el cambio desde antes.
+     *
+     * @param guardado     Tarea que termina cuando el registro queda escrito.
+     * @param titulo       El título de la confirmación.
+     * @param mensaje      El mensaje de la confirmación.
+     * @param mensajeError El mensaje de la alerta si la escritura falla.
+     */
+    private void confirmarGuardado(CompletableFuture<Void> guardado, String titulo, String mensaje, String mensajeError) {
+        guardado.whenComplete((resultado, error) -> Platform.runLater(() -> {
+            if (error == null) {
+                mostrarAlertaInformacion(titulo, mensaje);
+            } else {
+                mostrarAlertaError("Error al guardar", mensajeError);
             }
-        }
-        return null;
+        }));
     }
 
     /**
@@ -294,5 +300,6 @@ public class PrestamoController {
         textFieldISBN.clear();
         textFieldMiembroID.clear();
         textFieldDias.clear();
+        sugerenciasMiembro.hide();
     }
 }
@@ -1,7 +1,7 @@
 package biblioteca.controllers;
 
+import biblioteca.datos.RepositorioBiblioteca;
 import biblioteca.models.Sucursal;
-import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.Alert;
@@ -11,6 +11,8 @@ import javafx.scene.control.TextField;
 import javafx.scene.control.Alert.AlertType;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import javafx.application.Platform;
 
 /**
  * Controlador para la gestión de sucursales en la biblioteca.
@@ -41,18 +43,16 @@ public class SucursalController {
 
     private ObservableList<Sucursal> listaSucursales;
 
-    private static final String RUTA_SUCURSALES = "src/biblioteca/db/sucursales.csv";
+    private final RepositorioBiblioteca repositorio = RepositorioBiblioteca.getInstancia();
 
     /**
-     * Inicializa el controlador. Carga los datos desde el archivo CSV y configura las columnas de la tabla.
+     * Inicializa el controlador. Obtiene las sucursales del repositorio compartido y configura las columnas de la tabla.
      */
     @FXML
     public void initialize() {
-        try {
-            listaSucursales = FXCollections.observableArrayList(CsvController.cargarSucursalesDesdeCSV(RUTA_SUCURSALES));
-        } catch (IOException e) {
-            mostrarAlertaError("Error de Carga", "No se pudieron cargar las sucursales desde el archivo CSV.");
-        }
+        listaSucursales = repositorio.getSucursales();
+        // La carga se hace en segundo plano; la tabla muestra las sucursales a medida que llegan
+        repositorio.iniciarCarga();
 
         columnaNombre.setCellValueFactory(cellData -> cellData.getValue().getNombre());
         columnaDireccion.setCellValueFactory(cellData -> cellData.getValue().getDireccion());
@@ -76,12 +76,14 @@ public class SucursalController {
         }
 
         Sucursal nuevaSucursal = new Sucursal(nombre, direccion);
-        listaSucursales.add(nuevaSucursal);
 
         try {
-            CsvController.guardarSucursalesEnCSV(listaSucursales, RUTA_SUCURSALES);
+            avisarSiFalla(repositorio.agregarSucursal(nuevaSucursal), "No se pudieron guardar las sucursales en el archivo CSV.");
         } catch (IOException e) {
             mostrarAlertaError("Error de Guardado", "No se pudieron guardar las sucursales en el archivo CSV.");
+        } catch (IllegalArgumentException e) {
+            mostrarAlertaError("Sucursal duplicada", "Ya existe una sucursal con ese nombre.");
+            return;
         }
 
         // Limpiar campos después de agregar la sucursal
@@ -98,9 +100,8 @@ public class SucursalController {
     private void eliminarSucursal() {
         Sucursal sucursalSeleccionada = tablaSucursales.getSelectionModel().getSelectedItem();
         if (sucursalSeleccionada != null) {
-            listaSucursales.remove(sucursalSeleccionada);
             try {
-                CsvController.guardarSucursalesEnCSV(listaSucursales, RUTA_SUCURSALES);
+                avisarSiFalla(repositorio.eliminarSucursal(sucursalSeleccionada), "No se pudieron guardar las sucursales en el archivo CSV.");
             } catch (IOException e) {
                 mostrarAlertaError("Error de Guardado", "No se pudieron guardar las sucursales en el archivo CSV.");
             }
@@ -109,6 +110,21 @@ public class SucursalController {
         }
     }
 
+    /**
+     * Muestra un error si el cambio no se puede escribir en el diario. La escritura se hace en
+     * segundo plano, así que el aviso llega después de que la tabla ya muestra el cambio.
+     *
+     * @param guardado Tarea que termina cuando el cambio queda escrito.
+     * @param mensaje  El mensaje de la alerta si la escritura falla.
+     */
+    private void avisarSiFalla(CompletableFuture<Void> guardado, String mensaje) {
+        guardado.whenComplete((resultado, error) -> {
+            if (error != null) {
+                Platform.runLater(() -> mostrarAlertaError("Error de Guardado", mensaje));
+            }
+        });
+    }
+
     /**
      * Muestra un mensaje de alerta de error.
      * 
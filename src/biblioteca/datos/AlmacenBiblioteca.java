@@ -0,0 +1,184 @@
+package biblioteca.datos;
+
+import biblioteca.models.Libro;
+import biblioteca.models.Miembro;
+import biblioteca.models.Prestamo;
+import biblioteca.models.Sucursal;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Almacenamiento de las tablas de la biblioteca: libros, miembros, préstamos y sucursales.
+ *
+ * {@link RepositorioBiblioteca} carga las tablas completas para la interfaz, anota cada cambio
+ * en su diario y, al compactar, entrega al almacén los segmentos modificados
+ * ({@link TablaSegmentada}). Las consultas de este almacén (por clave, por rango y por filtro)
+ * se resuelven en el propio almacén, sin cargar las tablas en memoria, y ven los datos tal como
+ * quedaron en la última compactación: los cambios más recientes solo están en el diario.
+ *
+ * Hay dos implementaciones: {@link AlmacenCsv}, con un CSV por segmento, y {@link AlmacenJdbc},
+ * una base de datos SQL embebida con índices. Se elige con {@link #abrir(String)}.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public interface AlmacenBiblioteca extends Closeable {
+
+    /** Propiedad con el tipo de almacén: {@code csv} (por omisión) o {@code jdbc}. */
+    String PROPIEDAD_TIPO = "biblioteca.almacen";
+    /** Propiedad con la URL JDBC de la base de datos, por ejemplo {@code jdbc:h2:file:...} o {@code jdbc:sqlite:...}. */
+    String PROPIEDAD_URL = "biblioteca.almacen.url";
+    /** Propiedad con el usuario de la base de datos. */
+    String PROPIEDAD_USUARIO = "biblioteca.almacen.usuario";
+    /** Propiedad con la contraseña de la base de datos. */
+    String PROPIEDAD_CLAVE = "biblioteca.almacen.clave";
+    /** Archivo de configuración opcional, dentro del directorio de datos. */
+    String ARCHIVO_CONFIGURACION = "almacen.properties";
+
+    /**
+     * Abre el almacén configurado. La configuración se lee del archivo
+     * {@value #ARCHIVO_CONFIGURACION} del directorio de datos, si existe, y las propiedades del
+     * sistema con el mismo nombre tienen prioridad. Sin configuración se usa el almacén CSV.
+     *
+     * @param directorio Directorio de los datos.
+     * @return El almacén abierto.
+     * @throws IOException Si la configuración no es válida o no se puede abrir el almacén.
+     */
+    static AlmacenBiblioteca abrir(String directorio) throws IOException {
+        Properties configuracion = new Properties();
+        Path archivo = Paths.get(directorio, ARCHIVO_CONFIGURACION);
+        if (Files.exists(archivo)) {
+            try (Reader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+                configuracion.load(lector);
+            }
+        }
+        for (String propiedad : new String[] {PROPIEDAD_TIPO, PROPIEDAD_URL, PROPIEDAD_USUARIO, PROPIEDAD_CLAVE}) {
+            String valor = System.getProperty(propiedad);
+            if (valor != null) {
+                configuracion.setProperty(propiedad, valor);
+            }
+        }
+
+        String tipo = configuracion.getProperty(PROPIEDAD_TIPO, "csv").trim();
+        switch (tipo) {
+            case "csv":
+                return new AlmacenCsv(directorio);
+            case "jdbc": {
+                String url = configuracion.getProperty(PROPIEDAD_URL,
+                        "jdbc:h2:file:" + Paths.get(directorio, "biblioteca").toAbsolutePath());
+                // Una base de datos vacía se llena con los CSV del mismo directorio
+                return new AlmacenJdbc(url, configuracion.getProperty(PROPIEDAD_USUARIO, ""),
+                        configuracion.getProperty(PROPIEDAD_CLAVE, ""), new AlmacenCsv(directorio));
+            }
+            default:
+                throw new IOException("Tipo de almacén desconocido en " + PROPIEDAD_TIPO + ": " + tipo);
+        }
+    }
+
+    // ----- Carga completa -----
+
+    /**
+     * Carga todos los libros y prepara sus segmentos tal como están guardados.
+     *
+     * @param segmentos Reparto en segmentos de la tabla, que se prepara con los datos cargados.
+     * @return Los libros, en orden.
+     * @throws IOException Si ocurre un error al leer el almacén.
+     */
+    List<Libro> cargarLibros(TablaSegmentada<Libro> segmentos) throws IOException;
+
+    /**
+     * Carga todos los miembros y prepara sus segmentos tal como están guardados.
+     *
+     * @param segmentos Reparto en segmentos de la tabla, que se prepara con los datos cargados.
+     * @return Los miembros, en orden.
+     * @throws IOException Si ocurre un error al leer el almacén.
+     */
+    List<Miembro> cargarMiembros(TablaSegmentada<Miembro> segmentos) throws IOException;
+
+    /**
+     * Carga todos los préstamos y prepara sus segmentos tal como están guardados. Los préstamos
+     * cuyo libro o miembro no existe se omiten.
+     *
+     * @param segmentos     Reparto en segmentos de la tabla, que se prepara con los datos cargados.
+     * @param librosPorISBN Índice de los libros cargados, por ISBN.
+     * @param miembrosPorId Índice de los miembros cargados, por ID.
+     * @return Los préstamos, en orden.
+     * @throws IOException Si ocurre un error al leer el almacén.
+     */
+    List<Prestamo> cargarPrestamos(TablaSegmentada<Prestamo> segmentos, Map<String, Libro> librosPorISBN,
+            Map<String, Miembro> miembrosPorId) throws IOException;
+
+    /**
+     * Carga todas las sucursales y prepara sus segmentos tal como están guardados.
+     *
+     * @param segmentos Reparto en segmentos de la tabla, que se prepara con los datos cargados.
+     * @return Las sucursales, en orden.
+     * @throws IOException Si ocurre un error al leer el almacén.
+     */
+    List<Sucursal> cargarSucursales(TablaSegmentada<Sucursal> segmentos) throws IOException;
+
+    // ----- Guardado -----
+
+    /**
+     * Guarda los segmentos modificados de las cuatro tablas. Se llama en segundo plano durante
+     * la compactación; si falla, ningún segmento se da por guardado.
+     *
+     * @param libros     Segmentos modificados de libros.
+     * @param miembros   Segmentos modificados de miembros.
+     * @param prestamos  Segmentos modificados de préstamos.
+     * @param sucursales Segmentos modificados de sucursales.
+     * @throws IOException Si ocurre un error al escribir en el almacén.
+     */
+    void guardar(TablaSegmentada.Guardado<Libro> libros, TablaSegmentada.Guardado<Miembro> miembros,
+            TablaSegmentada.Guardado<Prestamo> prestamos, TablaSegmentada.Guardado<Sucursal> sucursales) throws IOException;
+
+    // ----- Consultas -----
+
+    /**
+     * Busca un libro por su ISBN.
+     *
+     * @param isbn El ISBN.
+     * @return El libro guardado, o null si no existe.
+     * @throws IOException Si ocurre un error al leer el almacén.
+     */
+    Libro buscarLibro(String isbn) throws IOException;
+
+    /**
+     * Busca los libros que cumplen un filtro.
+     *
+     * @param filtro Las condiciones de la búsqueda.
+     * @return Los libros que cumplen el filtro, en el orden de la tabla.
+     * @throws IOException Si ocurre un error al leer el almacén.
+     */
+    List<Libro> buscarLibros(FiltroLibros filtro) throws IOException;
+
+    /**
+     * Busca un miembro por su ID.
+     *
+     * @param id El ID.
+     * @return El miembro guardado, o null si no existe.
+     * @throws IOException Si ocurre un error al leer el almacén.
+     */
+    Miembro buscarMiembro(String id) throws IOException;
+
+    /**
+     * Busca los préstamos hechos en un rango de fechas, con su libro y su miembro.
+     *
+     * @param desde Primera fecha de préstamo aceptada.
+     * @param hasta Última fecha de préstamo aceptada.
+     * @return Los préstamos del rango, en el orden de la tabla.
+     * @throws IOException Si ocurre un error al leer el almacén.
+     */
+    List<Prestamo> buscarPrestamos(LocalDate desde, LocalDate hasta) throws IOException;
+}
@@ -0,0 +1,530 @@
+package biblioteca.datos;
+
+import biblioteca.controllers.CsvController;
+import biblioteca.models.Libro;
+import biblioteca.models.Miembro;
+import biblioteca.models.Prestamo;
+import biblioteca.models.Sucursal;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Almacén de la biblioteca en archivos CSV, uno por segmento de cada tabla.
+ *
+ * Cada tabla tiene un directorio (por ejemplo {@code db/libros/}) con un archivo CSV por
+ * segmento, su {@link InstantaneaBinaria} y un manifiesto que lista los segmentos vigentes en
+ * orden. Cada archivo se escribe en uno temporal que luego reemplaza al definitivo, y el
+ * manifiesto se escribe después de los segmentos. Si el directorio no tiene manifiesto, la
+ * tabla se carga del CSV único de versiones anteriores ({@code db/libros.csv}); se convierte en
+ * segmentos en el primer guardado y entonces se borra ese CSV.
+ *
+ * Las consultas recorren los segmentos de a uno, usando su instantánea binaria si está vigente,
+ * así que solo tienen en memoria un segmento por hilo y los resultados. Las búsquedas por clave
+ * de libros y miembros leen solo el segmento de la clave, que dan un índice de claves en memoria:
+ * se arma en la primera búsqueda de la tabla, recorriendo sus segmentos una vez, y cada guardado
+ * lo actualiza con las claves de los segmentos que escribe.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public final class AlmacenCsv implements AlmacenBiblioteca {
+
+    private static final String MANIFIESTO = "manifiesto"; // Archivo con los segmentos vigentes, en orden
+
+    private final ArchivosTabla libros; // Archivos de la tabla de libros
+    private final ArchivosTabla miembros; // Archivos de la tabla de miembros
+    private final ArchivosTabla prestamos; // Archivos de la tabla de préstamos
+    private final ArchivosTabla sucursales; // Archivos de la tabla de sucursales
+
+    /**
+     * Crea el almacén sobre un directorio de datos.
+     *
+     * @param directorio Directorio de los datos.
+     */
+    public AlmacenCsv(String directorio) {
+        libros = new ArchivosTabla(directorio, "libros");
+        miembros = new ArchivosTabla(directorio, "miembros");
+        prestamos = new ArchivosTabla(directorio, "prestamos");
+        sucursales = new ArchivosTabla(directorio, "sucursales");
+    }
+
+    // ----- Carga completa -----
+
+    /**
+     * Carga todos los libros de los segmentos del manifiesto, o del CSV anterior.
+     *
+     * @param segmentos Reparto en segmentos de la tabla, que se prepara con los datos cargados.
+     * @return Los libros, en orden.
+     * @throws IOException Si ocurre un error al leer algún archivo.
+     */
+    @Override
+    public List<Libro> cargarLibros(TablaSegmentada<Libro> segmentos) throws IOException {
+        return libros.cargar(segmentos, CsvController::cargarLibrosDesdeCSV);
+    }
+
+    /**
+     * Carga todos los miembros de los segmentos del manifiesto, o del CSV anterior.
+     *
+     * @param segmentos Reparto en segmentos de la tabla, que se prepara con los datos cargados.
+     * @return Los miembros, en orden.
+     * @throws IOException Si ocurre un error al leer algún archivo.
+     */
+    @Override
+    public List<Miembro> cargarMiembros(TablaSegmentada<Miembro> segmentos) throws IOException {
+        return miembros.cargar(segmentos, CsvController::cargarMiembrosDesdeCSV);
+    }
+
+    /**
+     * Carga todos los préstamos de los segmentos del manifiesto, o del CSV anterior.
+     *
+     * @param segmentos     Reparto en segmentos de la tabla, que se prepara con los datos cargados.
+     * @param librosPorISBN Índice de los libros cargados, por ISBN.
+     * @param miembrosPorId Índice de los miembros cargados, por ID.
+     * @return Los préstamos, en orden.
+     * @throws IOException Si ocurre un error al leer algún archivo.
+     */
+    @Override
+    public List<Prestamo> cargarPrestamos(TablaSegmentada<Prestamo> segmentos, Map<String, Libro> librosPorISBN,
+            Map<String, Miembro> miembrosPorId) throws IOException {
+        return prestamos.cargar(segmentos, archivo -> CsvController.cargarPrestamosDesdeCSV(archivo, librosPorISBN, miembrosPorId));
+    }
+
+    /**
+     * Carga todas las sucursales de los segmentos del manifiesto, o del CSV anterior.
+     *
+     * @param segmentos Reparto en segmentos de la tabla, que se prepara con los datos cargados.
+     * @return Las sucursales, en orden.
+     * @throws IOException Si ocurre un error al leer algún archivo.
+     */
+    @Override
+    public List<Sucursal> cargarSucursales(TablaSegmentada<Sucursal> segmentos) throws IOException {
+        return sucursales.cargar(segmentos, CsvController::cargarSucursalesDesdeCSV);
+    }
+
+    // ----- Guardado -----
+
+    /**
+     * Escribe los segmentos modificados de cada tabla y luego su manifiesto. Las tablas se
+     * escriben una tras otra; si una falla, las anteriores ya quedaron escritas, lo que no
+     * cambia nada porque el diario rotado se vuelve a reproducir sobre ellas.
+     *
+     * @param libros     Segmentos modificados de libros.
+     * @param miembros   Segmentos modificados de miembros.
+     * @param prestamos  Segmentos modificados de préstamos.
+     * @param sucursales Segmentos modificados de sucursales.
+     * @throws IOException Si ocurre un error al escribir algún archivo.
+     */
+    @Override
+    public void guardar(TablaSegmentada.Guardado<Libro> libros, TablaSegmentada.Guardado<Miembro> miembros,
+            TablaSegmentada.Guardado<Prestamo> prestamos, TablaSegmentada.Guardado<Sucursal> sucursales) throws IOException {
+        this.libros.escribir(libros, CsvController::guardarLibrosEnCSV, InstantaneaBinaria::guardarLibros, Libro::getISBNValor);
+        this.miembros.escribir(miembros, CsvController::guardarMiembrosEnCSV, InstantaneaBinaria::guardarMiembros, Miembro::getIdValor);
+        this.prestamos.escribir(prestamos, CsvController::guardarPrestamosEnCSV, InstantaneaBinaria::guardarPrestamos, null);
+        this.sucursales.escribir(sucursales, CsvController::guardarSucursalesEnCSV, InstantaneaBinaria::guardarSucursales, null);
+    }
+
+    // ----- Consultas -----
+
+    /**
+     * Busca un libro por su ISBN leyendo solo el segmento que lo tiene.
+     *
+     * @param isbn El ISBN.
+     * @return El libro guardado, o null si no existe.
+     * @throws IOException Si ocurre un error al leer algún archivo.
+     */
+    @Override
+    public Libro buscarLibro(String isbn) throws IOException {
+        return libros.buscar(isbn, CsvController::cargarLibrosDesdeCSV, Libro::getISBNValor);
+    }
+
+    /**
+     * Busca los libros que cumplen un filtro, recorriendo los segmentos en paralelo.
+     *
+     * @param filtro Las condiciones de la búsqueda.
+     * @return Los libros que cumplen el filtro, en el orden de la tabla.
+     * @throws IOException Si ocurre un error al leer algún archivo.
+     */
+    @Override
+    public List<Libro> buscarLibros(FiltroLibros filtro) throws IOException {
+        return libros.filtrar(CsvController::cargarLibrosDesdeCSV, filtro::acepta);
+    }
+
+    /**
+     * Busca un miembro por su ID leyendo solo el segmento que lo tiene.
+     *
+     * @param id El ID.
+     * @return El miembro guardado, o null si no existe.
+     * @throws IOException Si ocurre un error al leer algún archivo.
+     */
+    @Override
+    public Miembro buscarMiembro(String id) throws IOException {
+        return miembros.buscar(id, CsvController::cargarMiembrosDesdeCSV, Miembro::getIdValor);
+    }
+
+    /**
+     * Busca los préstamos hechos en un rango de fechas. Primero se recorren los segmentos de
+     * préstamos quedándose solo con las filas del rango, y después los de libros y miembros
+     * quedándose solo con los que esas filas necesitan.
+     *
+     * @param desde Primera fecha de préstamo aceptada.
+     * @param hasta Última fecha de préstamo aceptada.
+     * @return Los préstamos del rango, en el orden de la tabla.
+     * @throws IOException Si ocurre un error al leer algún archivo.
+     */
+    @Override
+    public List<Prestamo> buscarPrestamos(LocalDate desde, LocalDate hasta) throws IOException {
+        // Cada fila del rango queda como {ISBN, ID, préstamo, devolución esperada, devolución real}
+        List<Object[]> filas = new ArrayList<>();
+        for (List<Object[]> parte : ArchivosTabla.<Object[]>leerEnParalelo(prestamos.archivos(), archivo -> CargadorCsv.cargar(archivo, (fila, salida) -> {
+            LocalDate fecha = fila.fecha(2);
+            if (fila.getCantidadCampos() >= 4 && fecha != null && !fecha.isBefore(desde) && !fecha.isAfter(hasta)) {
+                salida.add(new Object[] {fila.texto(0), fila.texto(1), fecha, fila.fecha(3), fila.fecha(4)});
+            }
+        }))) {
+            filas.addAll(parte);
+        }
+        Set<String> isbns = new HashSet<>();
+        Set<String> ids = new HashSet<>();
+        for (Object[] fila : filas) {
+            isbns.add((String) fila[0]);
+            ids.add((String) fila[1]);
+        }
+        Map<String, Libro> librosPorISBN = new HashMap<>();
+        for (Libro libro : libros.filtrar(CsvController::cargarLibrosDesdeCSV, libro -> isbns.contains(libro.getISBNValor()))) {
+            librosPorISBN.putIfAbsent(libro.getISBNValor(), libro);
+        }
+        Map<String, Miembro> miembrosPorId = new HashMap<>();
+        for (Miembro miembro : miembros.filtrar(CsvController::cargarMiembrosDesdeCSV, miembro -> ids.contains(miembro.getIdValor()))) {
+            miembrosPorId.putIfAbsent(miembro.getIdValor(), miembro);
+        }
+
+        List<Prestamo> resultado = new ArrayList<>(filas.size());
+        for (Object[] fila : filas) {
+            Libro libro = librosPorISBN.get((String) fila[0]);
+            Miembro miembro = miembrosPorId.get((String) fila[1]);
+            if (libro != null && miembro != null) {
+                resultado.add(new Prestamo(libro, miembro, (LocalDate) fila[2], (LocalDate) fila[3], (LocalDate) fila[4]));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * El almacén CSV no mantiene archivos abiertos entre operaciones.
+     */
+    @Override
+    public void close() {
+        // Nada que cerrar
+    }
+
+    /**
+     * Carga las filas de un archivo CSV de una tabla.
+     *
+     * @param <T> Tipo de las filas.
+     */
+    private interface Lector<T> {
+        List<T> leer(String archivo) throws IOException;
+    }
+
+    /**
+     * Escribe filas de una tabla en un archivo.
+     *
+     * @param <T> Tipo de las filas.
+     */
+    private interface Escritor<T> {
+        void escribir(List<T> datos, String archivo) throws IOException;
+    }
+
+    /**
+     * Archivos de una tabla: su directorio de segmentos con el manifiesto y el CSV único de
+     * versiones anteriores.
+     */
+    private static final class ArchivosTabla {
+
+        private final Path directorio; // Directorio de los segmentos y del manifiesto
+        private final String nombre; // Nombre de la tabla, prefijo de los archivos de segmento
+        private final String archivoAnterior; // CSV único de versiones anteriores
+        private Map<String, String> archivoPorClave; // Clave -> archivo que la tiene; null hasta la primera búsqueda por clave
+
+        /**
+         * Crea los archivos de una tabla.
+         *
+         * @param directorio Directorio de los datos.
+         * @param nombre     Nombre de la tabla.
+         */
+        private ArchivosTabla(String directorio, String nombre) {
+            this.directorio = Paths.get(directorio, nombre);
+            this.nombre = nombre;
+            this.archivoAnterior = Paths.get(directorio, nombre + ".csv").toString();
+        }
+
+        /**
+         * Obtiene las rutas de los archivos con las filas de la tabla.
+         *
+         * @return Los segmentos del manifiesto en orden, o solo el CSV anterior si no hay manifiesto.
+         * @throws IOException Si ocurre un error al leer el manifiesto.
+         */
+        private List<String> archivos() throws IOException {
+            Path manifiesto = directorio.resolve(MANIFIESTO);
+            if (!Files.exists(manifiesto)) {
+                return List.of(archivoAnterior);
+            }
+            List<String> archivos = new ArrayList<>();
+            for (String linea : Files.readAllLines(manifiesto, StandardCharsets.UTF_8)) {
+                if (!linea.isBlank()) {
+                    archivos.add(directorio.resolve(linea.trim()).toString());
+                }
+            }
+            return archivos;
+        }
+
+        /**
+         * Carga las filas de todos los segmentos del manifiesto, leyendo los segmentos en
+         * paralelo, y prepara el reparto en segmentos. Si no hay manifiesto, carga el CSV
+         * anterior y reparte sus filas en segmentos por escribir.
+         *
+         * @param <T>       Tipo de las filas.
+         * @param segmentos Reparto en segmentos de la tabla.
+         * @param lector    Carga de las filas de un archivo CSV.
+         * @return Las filas de la tabla, en orden.
+         * @throws IOException Si ocurre un error al leer el manifiesto o algún segmento.
+         */
+        private <T> List<T> cargar(TablaSegmentada<T> segmentos, Lector<T> lector) throws IOException {
+            if (!Files.exists(directorio.resolve(MANIFIESTO))) {
+                List<T> datos = lector.leer(archivoAnterior);
+                segmentos.iniciarPendiente(datos.size());
+                return datos;
+            }
+            List<String> archivos = archivos();
+            List<List<T>> partes = leerEnParalelo(archivos, lector);
+            List<Integer> numeros = new ArrayList<>(archivos.size());
+            List<Integer> filas = new ArrayList<>(archivos.size());
+            int total = 0;
+            for (int i = 0; i < archivos.size(); i++) {
+                numeros.add(numero(Paths.get(archivos.get(i)).getFileName().toString()));
+                filas.add(partes.get(i).size());
+                total += partes.get(i).size();
+            }
+            List<T> datos = new ArrayList<>(total);
+            for (List<T> parte : partes) {
+                datos.addAll(parte);
+            }
+            segmentos.iniciar(numeros, filas);
+            return datos;
+        }
+
+        /**
+         * Busca una fila por su clave, leyendo solo el archivo que la tiene según el índice de
+         * claves. La primera búsqueda arma el índice recorriendo todos los archivos; si una clave
+         * se repite, vale la primera fila de la tabla.
+         *
+         * @param <T>     Tipo de las filas.
+         * @param clave   La clave buscada.
+         * @param lector  Carga de las filas de un archivo CSV.
+         * @param claveDe Clave de una fila.
+         * @return La fila con esa clave, o null si no existe.
+         * @throws IOException Si ocurre un error al leer algún archivo.
+         */
+        private synchronized <T> T buscar(String clave, Lector<T> lector, Function<T, String> claveDe) throws IOException {
+            if (archivoPorClave == null) {
+                List<String> archivos = archivos();
+                List<List<String>> claves = leerEnParalelo(archivos, archivo ->
+                        lector.leer(archivo).stream().map(claveDe).collect(Collectors.toList()));
+                Map<String, String> indice = new HashMap<>();
+                for (int i = 0; i < archivos.size(); i++) {
+                    for (String deArchivo : claves.get(i)) {
+                        indice.putIfAbsent(deArchivo, archivos.get(i));
+                    }
+                }
+                archivoPorClave = indice;
+            }
+            String archivo = archivoPorClave.get(clave);
+            if (archivo == null || !Files.exists(Paths.get(archivo))) {
+                return null; // Una clave eliminada puede apuntar a un segmento ya borrado
+            }
+            for (T fila : lector.leer(archivo)) {
+                if (claveDe.apply(fila).equals(clave)) {
+                    return fila;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Actualiza el índice de claves, si ya está armado, con las claves de un archivo recién
+         * escrito. Las claves que el archivo ya no tiene siguen apuntando a él y la búsqueda no
+         * las encuentra; una clave que vuelve a agregarse va a un archivo escrito después.
+         *
+         * @param <T>     Tipo de las filas.
+         * @param archivo Ruta del archivo escrito.
+         * @param datos   Filas del archivo.
+         * @param claveDe Clave de una fila.
+         */
+        private synchronized <T> void indexar(String archivo, List<T> datos, Function<T, String> claveDe) {
+            if (archivoPorClave != null) {
+                for (T fila : datos) {
+                    archivoPorClave.put(claveDe.apply(fila), archivo);
+                }
+            }
+        }
+
+        /**
+         * Recorre los archivos de la tabla en paralelo y se queda con las filas que cumplen una
+         * condición.
+         *
+         * @param <T>       Tipo de las filas.
+         * @param lector    Carga de las filas de un archivo CSV.
+         * @param condicion Condición que deben cumplir las filas.
+         * @return Las filas que cumplen la condición, en el orden de la tabla.
+         * @throws IOException Si ocurre un error al leer algún archivo.
+         */
+        private <T> List<T> filtrar(Lector<T> lector, Predicate<T> condicion) throws IOException {
+            List<T> resultado = new ArrayList<>();
+            for (List<T> parte : leerEnParalelo(archivos(), archivo ->
+                    lector.leer(archivo).stream().filter(condicion).collect(Collectors.toList()))) {
+                resultado.addAll(parte);
+            }
+            return resultado;
+        }
+
+        /**
+         * Lee varios archivos en paralelo.
+         *
+         * @param <T>      Tipo de las filas.
+         * @param archivos Rutas de los archivos.
+         * @param lector   Carga de las filas de un archivo.
+         * @return Las filas de cada archivo, en el orden de las rutas.
+         * @throws IOException Si ocurre un error al leer algún archivo.
+         */
+        private static <T> List<List<T>> leerEnParalelo(List<String> archivos, Lector<T> lector) throws IOException {
+            try {
+                return archivos.parallelStream().map(archivo -> {
+                    try {
+                        return lector.leer(archivo);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }).collect(Collectors.toList());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        /**
+         * Escribe los segmentos de un guardado y su instantánea binaria, luego el manifiesto, y
+         * por último borra los archivos que ya no están en el manifiesto.
+         *
+         * @param <T>      Tipo de las filas.
+         * @param guardado Los segmentos modificados de la tabla.
+         * @param csv      Escritura de las filas en CSV.
+         * @param binario  Escritura de las filas en una instantánea binaria.
+         * @param claveDe  Clave de una fila para el índice de claves, o null si la tabla no se busca por clave.
+         * @throws IOException Si ocurre un error al escribir algún archivo.
+         */
+        private <T> void escribir(TablaSegmentada.Guardado<T> guardado, Escritor<T> csv, Escritor<T> binario,
+                Function<T, String> claveDe) throws IOException {
+            if (guardado.estaVacio()) {
+                return;
+            }
+            Files.createDirectories(directorio);
+            for (int i = 0; i < guardado.getNumeros().size(); i++) {
+                String ruta = ruta(guardado.getNumeros().get(i));
+                List<T> datos = guardado.getDatos().get(i);
+                reemplazar(ruta, datos, csv);
+                // La instantánea binaria se escribe después del CSV para quedar más reciente
+                reemplazar(InstantaneaBinaria.rutaPara(ruta), datos, binario);
+                if (claveDe != null) {
+                    indexar(ruta, datos, claveDe);
+                }
+            }
+            List<String> manifiesto = new ArrayList<>();
+            for (int numero : guardado.getVigentes()) {
+                manifiesto.add(archivo(numero));
+            }
+            reemplazar(directorio.resolve(MANIFIESTO).toString(), manifiesto,
+                    (lineas, archivo) -> Files.write(Paths.get(archivo), lineas, StandardCharsets.UTF_8));
+            for (int obsoleto : guardado.getObsoletos()) {
+                Files.deleteIfExists(Paths.get(ruta(obsoleto)));
+                Files.deleteIfExists(Paths.get(InstantaneaBinaria.rutaPara(ruta(obsoleto))));
+            }
+            if (guardado.isCompleto()) {
+                Files.deleteIfExists(Paths.get(archivoAnterior));
+                Files.deleteIfExists(Paths.get(InstantaneaBinaria.rutaPara(archivoAnterior)));
+            }
+        }
+
+        /**
+         * Obtiene el nombre del archivo de un segmento.
+         *
+         * @param numero El número del segmento.
+         * @return El nombre, con la forma tabla-número.csv.
+         */
+        private String archivo(int numero) {
+            return String.format("%s-%06d.csv", nombre, numero);
+        }
+
+        /**
+         * Obtiene la ruta del archivo de un segmento.
+         *
+         * @param numero El número del segmento.
+         * @return La ruta dentro del directorio de la tabla.
+         */
+        private String ruta(int numero) {
+            return directorio.resolve(archivo(numero)).toString();
+        }
+
+        /**
+         * Obtiene el número de un archivo de segmento.
+         *
+         * @param archivo El nombre del archivo, con la forma tabla-número.csv.
+         * @return El número, o -1 si el nombre no tiene esa forma.
+         */
+        private static int numero(String archivo) {
+            int guion = archivo.lastIndexOf('-');
+            int punto = archivo.lastIndexOf('.');
+            try {
+                return Integer.parseInt(archivo.substring(guion + 1, punto > guion ? punto : archivo.length()));
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+
+        /**
+         * Escribe un archivo en uno temporal y lo reemplaza atómicamente por el definitivo.
+         *
+         * @param <E>      Tipo de los datos.
+         * @param ruta     Ruta del archivo definitivo.
+         * @param datos    Datos a escribir.
+         * @param escritor Escritura de los datos en la ruta temporal recibida.
+         * @throws IOException Si ocurre un error al escribir o mover el archivo.
+         */
+        private static <E> void reemplazar(String ruta, List<E> datos, Escritor<E> escritor) throws IOException {
+            Path destino = Paths.get(ruta);
+            Path temporal = Paths.get(ruta + ".tmp");
+            escritor.escribir(datos, temporal.toString());
+            try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.WRITE)) {
+                canal.force(true);
+            }
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+}
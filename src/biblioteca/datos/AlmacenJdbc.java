@@ -0,0 +1,637 @@
+package biblioteca.datos;
+
+import biblioteca.models.Libro;
+import biblioteca.models.Miembro;
+import biblioteca.models.Prestamo;
+import biblioteca.models.Sucursal;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Almacén de la biblioteca en una base de datos SQL embebida (por ejemplo H2 o SQLite), a la
+ * que se accede por JDBC. El controlador JDBC de la base de datos debe estar en el classpath.
+ *
+ * Cada tabla guarda, además de sus campos, el número de segmento ({@link TablaSegmentada}) y la
+ * posición de la fila dentro de él, que juntos forman la clave primaria y dan el orden de la
+ * tabla. Guardar un segmento modificado es borrar sus filas e insertarlas de nuevo, y todas las
+ * tablas de una compactación se guardan en una sola transacción.
+ *
+ * La carga y el guardado usan una conexión y las consultas otra, así que una consulta no espera
+ * a que termine una compactación: ve los datos de la última transacción confirmada. Con SQLite
+ * esto requiere el modo WAL ({@code journal_mode=WAL}) para que la lectura no se bloquee.
+ *
+ * Los campos por los que se consulta tienen índices: ISBN, género con año, autor y año en
+ * libros; ID en miembros; fecha de préstamo, ISBN y miembro en préstamos. Las claves no son
+ * únicas en la base de datos porque la aplicación tampoco las impone al cargar: si hay filas
+ * repetidas, las búsquedas por clave devuelven la primera en el orden de la tabla, igual que
+ * los índices del repositorio.
+ *
+ * Si una tabla todavía no se guardó nunca en la base de datos, se carga del almacén de
+ * importación (los CSV) y el primer guardado la escribe completa.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public final class AlmacenJdbc implements AlmacenBiblioteca {
+
+    // Esquema de la base de datos; las fechas se guardan como texto ISO (aaaa-mm-dd), que ordena igual que las fechas
+    private static final String[] ESQUEMA = {
+        "CREATE TABLE IF NOT EXISTS almacen_tablas (nombre VARCHAR(32) NOT NULL PRIMARY KEY)",
+        "CREATE TABLE IF NOT EXISTS libros (segmento INTEGER NOT NULL, orden INTEGER NOT NULL, isbn VARCHAR(64) NOT NULL,"
+                + " titulo VARCHAR(1000) NOT NULL, autor VARCHAR(1000) NOT NULL, anio INTEGER NOT NULL,"
+                + " genero VARCHAR(1000) NOT NULL, sucursal VARCHAR(1000) NOT NULL, PRIMARY KEY (segmento, orden))",
+        "CREATE INDEX IF NOT EXISTS libros_isbn ON libros (isbn)",
+        "CREATE INDEX IF NOT EXISTS libros_genero_anio ON libros (genero, anio)",
+        "CREATE INDEX IF NOT EXISTS libros_autor ON libros (autor)",
+        "CREATE INDEX IF NOT EXISTS libros_anio ON libros (anio)",
+        "CREATE TABLE IF NOT EXISTS miembros (segmento INTEGER NOT NULL, orden INTEGER NOT NULL, id VARCHAR(64) NOT NULL,"
+                + " nombre VARCHAR(1000) NOT NULL, email VARCHAR(1000) NOT NULL, telefono VARCHAR(1000) NOT NULL,"
+                + " PRIMARY KEY (segmento, orden))",
+        "CREATE INDEX IF NOT EXISTS miembros_id ON miembros (id)",
+        "CREATE TABLE IF NOT EXISTS prestamos (segmento INTEGER NOT NULL, orden INTEGER NOT NULL, isbn VARCHAR(64) NOT NULL,"
+                + " miembro VARCHAR(64) NOT NULL, fecha_prestamo VARCHAR(10), fecha_devolucion VARCHAR(10),"
+                + " fecha_devolucion_real VARCHAR(10), PRIMARY KEY (segmento, orden))",
+        "CREATE INDEX IF NOT EXISTS prestamos_fecha ON prestamos (fecha_prestamo)",
+        "CREATE INDEX IF NOT EXISTS prestamos_isbn ON prestamos (isbn)",
+        "CREATE INDEX IF NOT EXISTS prestamos_miembro ON prestamos (miembro)",
+        "CREATE TABLE IF NOT EXISTS sucursales (segmento INTEGER NOT NULL, orden INTEGER NOT NULL,"
+                + " nombre VARCHAR(1000) NOT NULL, direccion VARCHAR(1000) NOT NULL, PRIMARY KEY (segmento, orden))",
+        "CREATE INDEX IF NOT EXISTS sucursales_nombre ON sucursales (nombre)"
+    };
+
+    private static final String COLUMNAS_LIBROS = "isbn, titulo, autor, anio, genero, sucursal"; // Columnas leídas de libros
+    private static final String COLUMNAS_MIEMBROS = "id, nombre, email, telefono"; // Columnas leídas de miembros
+    private static final String COLUMNAS_PRESTAMOS = "isbn, miembro, fecha_prestamo, fecha_devolucion, fecha_devolucion_real"; // Columnas leídas de préstamos
+    private static final int TAMANIO_LOTE = 1000; // Filas por lote de inserciones
+
+    // Préstamos de un rango de fechas con su libro y su miembro; de cada clave repetida, solo la primera fila
+    private static final String CONSULTA_PRESTAMOS_RANGO = "SELECT p.isbn, p.miembro, p.fecha_prestamo,"
+            + " p.fecha_devolucion, p.fecha_devolucion_real,"
+            + " l.isbn, l.titulo, l.autor, l.anio, l.genero, l.sucursal, m.id, m.nombre, m.email, m.telefono"
+            + " FROM prestamos p"
+            + " JOIN libros l ON l.isbn = p.isbn AND NOT EXISTS (SELECT 1 FROM libros o WHERE o.isbn = l.isbn"
+            + " AND (o.segmento < l.segmento OR o.segmento = l.segmento AND o.orden < l.orden))"
+            + " JOIN miembros m ON m.id = p.miembro AND NOT EXISTS (SELECT 1 FROM miembros o WHERE o.id = m.id"
+            + " AND (o.segmento < m.segmento OR o.segmento = m.segmento AND o.orden < m.orden))"
+            + " WHERE p.fecha_prestamo >= ? AND p.fecha_prestamo <= ? ORDER BY p.segmento, p.orden";
+
+    private final Connection conexion; // Conexión de carga y guardado, usada bajo el monitor de esta instancia
+    private final Connection lectura; // Conexión de las consultas, usada bajo su propio monitor
+    private final AlmacenBiblioteca importacion; // Almacén del que se cargan las tablas nunca guardadas aquí
+
+    /**
+     * Abre la base de datos y crea las tablas y los índices que falten.
+     *
+     * @param url         URL JDBC de la base de datos.
+     * @param usuario     Usuario de la base de datos.
+     * @param clave       Contraseña de la base de datos.
+     * @param importacion Almacén del que se cargan las tablas que todavía no están en la base de datos.
+     * @throws IOException Si no se puede abrir la base de datos o crear el esquema.
+     */
+    public AlmacenJdbc(String url, String usuario, String clave, AlmacenBiblioteca importacion) throws IOException {
+        this.importacion = importacion;
+        try {
+            conexion = DriverManager.getConnection(url, usuario, clave);
+        } catch (SQLException e) {
+            throw new IOException("No se pudo abrir la base de datos " + url + ": " + e.getMessage(), e);
+        }
+        try (Statement sentencia = conexion.createStatement()) {
+            conexion.setAutoCommit(false);
+            for (String instruccion : ESQUEMA) {
+                sentencia.execute(instruccion);
+            }
+            conexion.commit();
+            lectura = DriverManager.getConnection(url, usuario, clave);
+        } catch (SQLException e) {
+            cerrarSinError(conexion);
+            throw new IOException("No se pudo crear el esquema de la base de datos: " + e.getMessage(), e);
+        }
+    }
+
+    // ----- Carga completa -----
+
+    /**
+     * Carga todos los libros, o los importa si la tabla nunca se guardó en la base de datos.
+     *
+     * @param segmentos Reparto en segmentos de la tabla, que se prepara con los datos cargados.
+     * @return Los libros, en orden.
+     * @throws IOException Si ocurre un error al leer la base de datos o el almacén de importación.
+     */
+    @Override
+    public synchronized List<Libro> cargarLibros(TablaSegmentada<Libro> segmentos) throws IOException {
+        if (!estaGuardada("libros")) {
+            List<Libro> datos = importacion.cargarLibros(segmentos);
+            segmentos.iniciarPendiente(datos.size());
+            return datos;
+        }
+        DiccionarioCadenas diccionario = new DiccionarioCadenas(); // Autores, géneros y sucursales compartidos
+        return cargar("libros", COLUMNAS_LIBROS, segmentos, fila -> leerLibro(fila, 1, diccionario));
+    }
+
+    /**
+     * Carga todos los miembros, o los importa si la tabla nunca se guardó en la base de datos.
+     *
+     * @param segmentos Reparto en segmentos de la tabla, que se prepara con los datos cargados.
+     * @return Los miembros, en orden.
+     * @throws IOException Si ocurre un error al leer la base de datos o el almacén de importación.
+     */
+    @Override
+    public synchronized List<Miembro> cargarMiembros(TablaSegmentada<Miembro> segmentos) throws IOException {
+        if (!estaGuardada("miembros")) {
+            List<Miembro> datos = importacion.cargarMiembros(segmentos);
+            segmentos.iniciarPendiente(datos.size());
+            return datos;
+        }
+        return cargar("miembros", COLUMNAS_MIEMBROS, segmentos, fila -> leerMiembro(fila, 1));
+    }
+
+    /**
+     * Carga todos los préstamos, o los importa si la tabla nunca se guardó en la base de datos.
+     *
+     * @param segmentos     Reparto en segmentos de la tabla, que se prepara con los datos cargados.
+     * @param librosPorISBN Índice de los libros cargados, por ISBN.
+     * @param miembrosPorId Índice de los miembros cargados, por ID.
+     * @return Los préstamos, en orden.
+     * @throws IOException Si ocurre un error al leer la base de datos o el almacén de importación.
+     */
+    @Override
+    public synchronized List<Prestamo> cargarPrestamos(TablaSegmentada<Prestamo> segmentos, Map<String, Libro> librosPorISBN,
+            Map<String, Miembro> miembrosPorId) throws IOException {
+        if (!estaGuardada("prestamos")) {
+            List<Prestamo> datos = importacion.cargarPrestamos(segmentos, librosPorISBN, miembrosPorId);
+            segmentos.iniciarPendiente(datos.size());
+            return datos;
+        }
+        DiccionarioCadenas diccionario = new DiccionarioCadenas(); // Fechas compartidas
+        return cargar("prestamos", COLUMNAS_PRESTAMOS, segmentos, fila -> {
+            Libro libro = librosPorISBN.get(fila.getString(1));
+            Miembro miembro = miembrosPorId.get(fila.getString(2));
+            if (libro == null || miembro == null) {
+                System.out.println("Libro o miembro no encontrado para el préstamo: " + fila.getString(1) + ", " + fila.getString(2));
+                return null;
+            }
+            return new Prestamo(libro, miembro, leerFecha(fila, 3, diccionario), leerFecha(fila, 4, diccionario),
+                    leerFecha(fila, 5, diccionario));
+        });
+    }
+
+    /**
+     * Carga todas las sucursales, o las importa si la tabla nunca se guardó en la base de datos.
+     *
+     * @param segmentos Reparto en segmentos de la tabla, que se prepara con los datos cargados.
+     * @return Las sucursales, en orden.
+     * @throws IOException Si ocurre un error al leer la base de datos o el almacén de importación.
+     */
+    @Override
+    public synchronized List<Sucursal> cargarSucursales(TablaSegmentada<Sucursal> segmentos) throws IOException {
+        if (!estaGuardada("sucursales")) {
+            List<Sucursal> datos = importacion.cargarSucursales(segmentos);
+            segmentos.iniciarPendiente(datos.size());
+            return datos;
+        }
+        return cargar("sucursales", "nombre, direccion", segmentos,
+                fila -> new Sucursal(fila.getString(1), fila.getString(2)));
+    }
+
+    /**
+     * Indica si una tabla ya se guardó alguna vez en la base de datos. Una tabla guardada puede
+     * estar vacía; una que nunca se guardó se importa.
+     *
+     * @param tabla Nombre de la tabla.
+     * @return true si la tabla ya se guardó.
+     * @throws IOException Si ocurre un error al consultar la base de datos.
+     */
+    private boolean estaGuardada(String tabla) throws IOException {
+        try {
+            return estaMarcada(tabla);
+        } catch (SQLException e) {
+            throw new IOException("Error al consultar la tabla " + tabla + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Lee todas las filas de una tabla en el orden de sus segmentos y prepara el reparto en
+     * segmentos con las filas leídas de cada uno.
+     *
+     * @param <T>       Tipo de las filas.
+     * @param tabla     Nombre de la tabla.
+     * @param columnas  Columnas que se leen, en el orden que espera el lector.
+     * @param segmentos Reparto en segmentos de la tabla.
+     * @param lector    Conversión de una fila del resultado; null si la fila se omite.
+     * @return Las filas de la tabla, en orden.
+     * @throws IOException Si ocurre un error al leer la base de datos.
+     */
+    private <T> List<T> cargar(String tabla, String columnas, TablaSegmentada<T> segmentos, LectorFila<T> lector) throws IOException {
+        List<T> datos = new ArrayList<>();
+        List<Integer> numeros = new ArrayList<>();
+        List<Integer> filas = new ArrayList<>();
+        try (Statement sentencia = conexion.createStatement();
+                ResultSet resultado = sentencia.executeQuery("SELECT " + columnas + ", segmento FROM " + tabla
+                        + " ORDER BY segmento, orden")) {
+            int columnaSegmento = columnas.split(",").length + 1;
+            while (resultado.next()) {
+                int segmento = resultado.getInt(columnaSegmento);
+                if (numeros.isEmpty() || numeros.get(numeros.size() - 1) != segmento) {
+                    numeros.add(segmento);
+                    filas.add(0);
+                }
+                T fila = lector.leer(resultado);
+                if (fila != null) {
+                    datos.add(fila);
+                    filas.set(filas.size() - 1, filas.get(filas.size() - 1) + 1);
+                }
+            }
+            conexion.commit(); // Termina la transacción de lectura
+        } catch (SQLException e) {
+            System.out.println("Error al cargar " + tabla + ": " + e.getMessage());
+            throw new IOException("Error al cargar " + tabla + ": " + e.getMessage(), e);
+        }
+        segmentos.iniciar(numeros, filas);
+        return datos;
+    }
+
+    // ----- Guardado -----
+
+    /**
+     * Guarda los segmentos modificados de las cuatro tablas en una sola transacción: borra las
+     * filas de cada segmento modificado u obsoleto e inserta las nuevas. Si algo falla, la
+     * transacción se deshace y la base de datos queda como estaba.
+     *
+     * @param libros     Segmentos modificados de libros.
+     * @param miembros   Segmentos modificados de miembros.
+     * @param prestamos  Segmentos modificados de préstamos.
+     * @param sucursales Segmentos modificados de sucursales.
+     * @throws IOException Si ocurre un error al escribir en la base de datos.
+     */
+    @Override
+    public synchronized void guardar(TablaSegmentada.Guardado<Libro> libros, TablaSegmentada.Guardado<Miembro> miembros,
+            TablaSegmentada.Guardado<Prestamo> prestamos, TablaSegmentada.Guardado<Sucursal> sucursales) throws IOException {
+        try {
+            guardarTabla("libros", "isbn, titulo, autor, anio, genero, sucursal", libros, (insercion, libro) -> {
+                insercion.setString(3, libro.getISBNValor());
+                insercion.setString(4, libro.getTituloValor());
+                insercion.setString(5, libro.getAutorValor());
+                insercion.setInt(6, libro.getAnioPublicacionValor());
+                insercion.setString(7, libro.getGeneroValor());
+                insercion.setString(8, libro.getSucursalValor() == null ? "" : libro.getSucursalValor());
+            });
+            guardarTabla("miembros", "id, nombre, email, telefono", miembros, (insercion, miembro) -> {
+                insercion.setString(3, miembro.getIdValor());
+                insercion.setString(4, miembro.getNombreValor());
+                insercion.setString(5, miembro.getEmailValor());
+                insercion.setString(6, miembro.getTelefonoValor());
+            });
+            guardarTabla("prestamos", "isbn, miembro, fecha_prestamo, fecha_devolucion, fecha_devolucion_real", prestamos,
+                    (insercion, prestamo) -> {
+                insercion.setString(3, prestamo.getLibro().getISBNValor());
+                insercion.setString(4, prestamo.getMiembro().getIdValor());
+                insercion.setString(5, textoFecha(prestamo.getFechaPrestamoValor()));
+                insercion.setString(6, textoFecha(prestamo.getFechaDevolucionEsperadaValor()));
+                insercion.setString(7, textoFecha(prestamo.getFechaDevolucionRealValor()));
+            });
+            guardarTabla("sucursales", "nombre, direccion", sucursales, (insercion, sucursal) -> {
+                insercion.setString(3, sucursal.getNombre().get());
+                insercion.setString(4, sucursal.getDireccion().get());
+            });
+            conexion.commit();
+        } catch (SQLException e) {
+            try {
+                conexion.rollback();
+            } catch (SQLException ex) {
+                System.out.println("Error al deshacer el guardado: " + ex.getMessage());
+            }
+            throw new IOException("Error al guardar en la base de datos: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Escribe, dentro de la transacción en curso, los segmentos de un guardado de una tabla.
+     *
+     * @param <T>      Tipo de las filas.
+     * @param tabla    Nombre de la tabla.
+     * @param columnas Columnas de datos, que se insertan después del segmento y la posición.
+     * @param guardado Los segmentos modificados de la tabla.
+     * @param escritor Asignación de los parámetros de datos de la inserción, desde el tercero.
+     * @throws SQLException Si ocurre un error en la base de datos.
+     */
+    private <T> void guardarTabla(String tabla, String columnas, TablaSegmentada.Guardado<T> guardado,
+            EscritorFila<T> escritor) throws SQLException {
+        if (guardado.estaVacio()) {
+            return;
+        }
+        if (guardado.isCompleto()) {
+            try (Statement sentencia = conexion.createStatement()) {
+                sentencia.executeUpdate("DELETE FROM " + tabla);
+            }
+            try (PreparedStatement marca = conexion.prepareStatement("INSERT INTO almacen_tablas (nombre) VALUES (?)")) {
+                if (!estaMarcada(tabla)) {
+                    marca.setString(1, tabla);
+                    marca.executeUpdate();
+                }
+            }
+        } else {
+            try (PreparedStatement borrado = conexion.prepareStatement("DELETE FROM " + tabla + " WHERE segmento = ?")) {
+                for (int numero : guardado.getNumeros()) {
+                    borrado.setInt(1, numero);
+                    borrado.addBatch();
+                }
+                for (int numero : guardado.getObsoletos()) {
+                    borrado.setInt(1, numero);
+                    borrado.addBatch();
+                }
+                borrado.executeBatch();
+            }
+        }
+
+        String parametros = "?, ?" + ", ?".repeat(columnas.split(",").length);
+        try (PreparedStatement insercion = conexion.prepareStatement("INSERT INTO " + tabla + " (segmento, orden, "
+                + columnas + ") VALUES (" + parametros + ")")) {
+            int enLote = 0;
+            for (int i = 0; i < guardado.getNumeros().size(); i++) {
+                int orden = 0;
+                for (T fila : guardado.getDatos().get(i)) {
+                    insercion.setInt(1, guardado.getNumeros().get(i));
+                    insercion.setInt(2, orden++);
+                    escritor.escribir(insercion, fila);
+                    insercion.addBatch();
+                    if (++enLote == TAMANIO_LOTE) {
+                        insercion.executeBatch();
+                        enLote = 0;
+                    }
+                }
+            }
+            if (enLote > 0) {
+                insercion.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * Indica si una tabla está marcada como guardada, dentro de la transacción en curso.
+     *
+     * @param tabla Nombre de la tabla.
+     * @return true si la tabla está marcada.
+     * @throws SQLException Si ocurre un error en la base de datos.
+     */
+    private boolean estaMarcada(String tabla) throws SQLException {
+        try (PreparedStatement consulta = conexion.prepareStatement("SELECT nombre FROM almacen_tablas WHERE nombre = ?")) {
+            consulta.setString(1, tabla);
+            try (ResultSet resultado = consulta.executeQuery()) {
+                return resultado.next();
+            }
+        }
+    }
+
+    // ----- Consultas -----
+
+    /**
+     * Busca un libro por su ISBN con el índice de ISBN.
+     *
+     * @param isbn El ISBN.
+     * @return El libro guardado, o null si no existe.
+     * @throws IOException Si ocurre un error al consultar la base de datos.
+     */
+    @Override
+    public Libro buscarLibro(String isbn) throws IOException {
+        List<Libro> resultado = consultar("SELECT " + COLUMNAS_LIBROS + " FROM libros WHERE isbn = ? ORDER BY segmento, orden",
+                List.of(isbn), 1, fila -> leerLibro(fila, 1, null));
+        return resultado.isEmpty() ? null : resultado.get(0);
+    }
+
+    /**
+     * Busca los libros que cumplen un filtro. Solo las condiciones del filtro forman parte de
+     * la consulta, así que la base de datos elige el índice que corresponda.
+     *
+     * @param filtro Las condiciones de la búsqueda.
+     * @return Los libros que cumplen el filtro, en el orden de la tabla.
+     * @throws IOException Si ocurre un error al consultar la base de datos.
+     */
+    @Override
+    public List<Libro> buscarLibros(FiltroLibros filtro) throws IOException {
+        StringBuilder sql = new StringBuilder("SELECT " + COLUMNAS_LIBROS + " FROM libros WHERE 1 = 1");
+        List<Object> parametros = new ArrayList<>();
+        if (filtro.getGenero() != null) {
+            sql.append(" AND genero = ?");
+            parametros.add(filtro.getGenero());
+        }
+        if (filtro.getAutor() != null) {
+            sql.append(" AND autor = ?");
+            parametros.add(filtro.getAutor());
+        }
+        if (filtro.getSucursal() != null) {
+            sql.append(" AND sucursal = ?");
+            parametros.add(filtro.getSucursal());
+        }
+        if (filtro.getDesde() != null) {
+            sql.append(" AND anio >= ?");
+            parametros.add(filtro.getDesde());
+        }
+        if (filtro.getHasta() != null) {
+            sql.append(" AND anio <= ?");
+            parametros.add(filtro.getHasta());
+        }
+        sql.append(" ORDER BY segmento, orden");
+        DiccionarioCadenas diccionario = new DiccionarioCadenas(); // Autores y géneros compartidos
+        return consultar(sql.toString(), parametros, 0, fila -> leerLibro(fila, 1, diccionario));
+    }
+
+    /**
+     * Busca un miembro por su ID con el índice de ID.
+     *
+     * @param id El ID.
+     * @return El miembro guardado, o null si no existe.
+     * @throws IOException Si ocurre un error al consultar la base de datos.
+     */
+    @Override
+    public Miembro buscarMiembro(String id) throws IOException {
+        List<Miembro> resultado = consultar("SELECT " + COLUMNAS_MIEMBROS + " FROM miembros WHERE id = ? ORDER BY segmento, orden",
+                List.of(id), 1, fila -> leerMiembro(fila, 1));
+        return resultado.isEmpty() ? null : resultado.get(0);
+    }
+
+    /**
+     * Busca los préstamos hechos en un rango de fechas con el índice de fecha de préstamo, en una
+     * sola consulta que trae también su libro y su miembro. Si una clave se repite, se usa la
+     * primera fila de la tabla, como en {@link #buscarLibro} y {@link #buscarMiembro}; los
+     * préstamos de un mismo libro o miembro comparten la misma instancia.
+     *
+     * @param desde Primera fecha de préstamo aceptada.
+     * @param hasta Última fecha de préstamo aceptada.
+     * @return Los préstamos del rango, en el orden de la tabla.
+     * @throws IOException Si ocurre un error al consultar la base de datos.
+     */
+    @Override
+    public List<Prestamo> buscarPrestamos(LocalDate desde, LocalDate hasta) throws IOException {
+        Map<String, Libro> libros = new HashMap<>(); // Libros ya leídos, por ISBN
+        Map<String, Miembro> miembros = new HashMap<>(); // Miembros ya leídos, por ID
+        DiccionarioCadenas diccionario = new DiccionarioCadenas(); // Fechas, autores y géneros compartidos
+        return consultar(CONSULTA_PRESTAMOS_RANGO, List.of(textoFecha(desde), textoFecha(hasta)), 0, fila -> {
+            Libro libro = libros.get(fila.getString(1));
+            if (libro == null) {
+                libro = leerLibro(fila, 6, diccionario);
+                libros.put(libro.getISBNValor(), libro);
+            }
+            Miembro miembro = miembros.get(fila.getString(2));
+            if (miembro == null) {
+                miembro = leerMiembro(fila, 12);
+                miembros.put(miembro.getIdValor(), miembro);
+            }
+            return new Prestamo(libro, miembro, leerFecha(fila, 3, diccionario), leerFecha(fila, 4, diccionario),
+                    leerFecha(fila, 5, diccionario));
+        });
+    }
+
+    /**
+     * Ejecuta una consulta con parámetros y convierte sus filas.
+     *
+     * @param <T>        Tipo de las filas convertidas.
+     * @param sql        La consulta.
+     * @param parametros Valores de los parámetros, en orden.
+     * @param maximo     Cantidad máxima de filas, o 0 para todas.
+     * @param lector     Conversión de una fila del resultado.
+     * @return Las filas convertidas, en el orden de la consulta.
+     * @throws IOException Si ocurre un error al consultar la base de datos.
+     */
+    private <T> List<T> consultar(String sql, List<?> parametros, int maximo, LectorFila<T> lector) throws IOException {
+        List<T> filas = new ArrayList<>();
+        synchronized (lectura) {
+            try (PreparedStatement consulta = lectura.prepareStatement(sql)) {
+                for (int i = 0; i < parametros.size(); i++) {
+                    consulta.setObject(i + 1, parametros.get(i));
+                }
+                consulta.setMaxRows(maximo);
+                try (ResultSet resultado = consulta.executeQuery()) {
+                    while (resultado.next()) {
+                        filas.add(lector.leer(resultado));
+                    }
+                }
+            } catch (SQLException e) {
+                throw new IOException("Error al consultar la base de datos: " + e.getMessage(), e);
+            }
+        }
+        return filas;
+    }
+
+    /**
+     * Cierra las conexiones con la base de datos.
+     *
+     * @throws IOException Si ocurre un error al cerrar la conexión de carga y guardado.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        synchronized (lectura) {
+            cerrarSinError(lectura);
+        }
+        try {
+            conexion.close();
+        } catch (SQLException e) {
+            throw new IOException("Error al cerrar la base de datos: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Cierra una conexión sin propagar el error, por ejemplo para no ocultar un error anterior.
+     *
+     * @param conexion La conexión a cerrar.
+     */
+    private static void cerrarSinError(Connection conexion) {
+        try {
+            conexion.close();
+        } catch (SQLException e) {
+            System.out.println("Error al cerrar la base de datos: " + e.getMessage());
+        }
+    }
+
+    // ----- Conversión de filas -----
+
+    /**
+     * Crea un libro a partir de las columnas {@link #COLUMNAS_LIBROS} de una fila.
+     *
+     * @param fila        La fila del resultado.
+     * @param primera     Número de la columna del ISBN; las demás la siguen en orden.
+     * @param diccionario Diccionario para compartir autores, géneros y sucursales, o null.
+     * @return El libro.
+     * @throws SQLException Si ocurre un error al leer la fila.
+     */
+    private static Libro leerLibro(ResultSet fila, int primera, DiccionarioCadenas diccionario) throws SQLException {
+        String autor = fila.getString(primera + 2);
+        String genero = fila.getString(primera + 4);
+        String sucursal = fila.getString(primera + 5);
+        if (diccionario != null) {
+            autor = diccionario.internar(autor);
+            genero = diccionario.internar(genero);
+            sucursal = diccionario.internar(sucursal);
+        }
+        return new Libro(fila.getString(primera), fila.getString(primera + 1), autor, fila.getInt(primera + 3), genero, sucursal);
+    }
+
+    /**
+     * Crea un miembro a partir de las columnas {@link #COLUMNAS_MIEMBROS} de una fila.
+     *
+     * @param fila    La fila del resultado.
+     * @param primera Número de la columna del ID; las demás la siguen en orden.
+     * @return El miembro.
+     * @throws SQLException Si ocurre un error al leer la fila.
+     */
+    private static Miembro leerMiembro(ResultSet fila, int primera) throws SQLException {
+        return new Miembro(fila.getString(primera), fila.getString(primera + 1), fila.getString(primera + 2),
+                fila.getString(primera + 3));
+    }
+
+    /**
+     * Lee una fecha guardada como texto ISO.
+     *
+     * @param fila        La fila del resultado.
+     * @param columna     Número de la columna.
+     * @param diccionario Diccionario para compartir las fechas repetidas.
+     * @return La fecha, o null si la columna está vacía.
+     * @throws SQLException Si ocurre un error al leer la fila.
+     */
+    private static LocalDate leerFecha(ResultSet fila, int columna, DiccionarioCadenas diccionario) throws SQLException {
+        String texto = fila.getString(columna);
+        if (texto == null || texto.isEmpty()) {
+            return null;
+        }
+        return diccionario.fechaDesdeDiaEpoca(LocalDate.parse(texto).toEpochDay());
+    }
+
+    /**
+     * Convierte una fecha al texto ISO con que se guarda.
+     *
+     * @param fecha La fecha, o null.
+     * @return El texto, o null si no hay fecha.
+     */
+    private static String textoFecha(LocalDate fecha) {
+        return fecha == null ? null : fecha.toString();
+    }
+
+    /**
+     * Convierte una fila de un resultado.
+     *
+     * @param <T> Tipo de la fila convertida.
+     */
+    private interface LectorFila<T> {
+        T leer(ResultSet fila) throws SQLException;
+    }
+
+    /**
+     * Asigna los parámetros de datos de una inserción.
+     *
+     * @param <T> Tipo de la fila.
+     */
+    private interface EscritorFila<T> {
+        void escribir(PreparedStatement insercion, T fila) throws SQLException;
+    }
+}
@@ -0,0 +1,341 @@
+package biblioteca.datos;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Carga archivos CSV eligiendo entre lectura secuencial y lectura paralela por bloques.
+ *
+ * Los archivos pequeños se leen con un único {@link LectorCsv}. Los archivos grandes se mapean
+ * en memoria con {@link FileChannel#map}, se dividen en bloques que terminan en un salto de
+ * línea y cada bloque se analiza en paralelo en un {@link ForkJoinPool}. Los resultados se
+ * unen respetando el orden del archivo, por lo que ambos modos devuelven lo mismo.
+ *
+ * Si un salto de línea usado como límite resulta estar dentro de un campo entre comillas,
+ * algún bloque termina con comillas sin cerrar. Por eso, antes de convertir las filas, se
+ * revisan en paralelo las comillas de todos los bloques sin decodificarlos; si alguno queda
+ * abierto, el archivo se lee de forma secuencial sin haber llamado al procesador, de modo que
+ * sus efectos (contadores, mensajes, diccionarios) corresponden a una sola lectura.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public final class CargadorCsv {
+
+    /** Tamaño a partir del cual se usa la carga paralela (8 MB). */
+    public static final long UMBRAL_PARALELO = 8L * 1024 * 1024;
+
+    private static final long TAMANIO_MINIMO_BLOQUE = 1024L * 1024; // 1 MB
+    private static final long TAMANIO_MAXIMO_BLOQUE = 64L * 1024 * 1024; // 64 MB
+    private static final int BLOQUES_POR_HILO = 4; // Bloques por hilo para equilibrar la carga
+
+    /**
+     * Convierte una fila del CSV en cero o más elementos del resultado. Debe poder ejecutarse
+     * desde varios hilos a la vez, por lo que solo puede leer estado compartido.
+     *
+     * @param <T> Tipo de los elementos producidos.
+     */
+    public interface ProcesadorFila<T> {
+
+        /**
+         * Procesa una fila y agrega los elementos producidos a la salida.
+         *
+         * @param fila   La fila actual.
+         * @param salida Lista donde se agregan los elementos.
+         */
+        void procesar(LectorCsv.Fila fila, List<T> salida);
+    }
+
+    /**
+     * Constructor privado; la clase solo tiene métodos estáticos.
+     */
+    private CargadorCsv() {
+    }
+
+    /**
+     * Carga un archivo CSV, saltando el encabezado, con el modo adecuado a su tamaño.
+     *
+     * @param <T>        Tipo de los elementos producidos.
+     * @param archivo    Ruta del archivo CSV.
+     * @param procesador Conversión de cada fila.
+     * @return Los elementos producidos, en el orden del archivo.
+     * @throws IOException Si ocurre un error al leer el archivo.
+     */
+    public static <T> List<T> cargar(String archivo, ProcesadorFila<T> procesador) throws IOException {
+        Path ruta = Paths.get(archivo);
+        if (Files.size(ruta) >= UMBRAL_PARALELO && ForkJoinPool.getCommonPoolParallelism() > 1) {
+            List<T> resultado = cargarParalelo(ruta, procesador);
+            if (resultado != null) {
+                return resultado;
+            }
+            System.out.println("Campos con saltos de línea en " + archivo + "; se usa la carga secuencial.");
+        }
+        return cargarSecuencial(ruta, procesador);
+    }
+
+    /**
+     * Carga un archivo CSV con un único lector.
+     *
+     * @param <T>        Tipo de los elementos producidos.
+     * @param ruta       Ruta del archivo CSV.
+     * @param procesador Conversión de cada fila.
+     * @return Los elementos producidos.
+     * @throws IOException Si ocurre un error al leer el archivo.
+     */
+    private static <T> List<T> cargarSecuencial(Path ruta, ProcesadorFila<T> procesador) throws IOException {
+        List<T> resultado = new ArrayList<>();
+        try (Reader reader = new InputStreamReader(Files.newInputStream(ruta), StandardCharsets.UTF_8)) {
+            new LectorCsv(reader).leer(fila -> procesador.procesar(fila, resultado), true);
+        }
+        return resultado;
+    }
+
+    /**
+     * Carga un archivo CSV mapeándolo en memoria y analizando sus bloques en paralelo.
+     *
+     * @param <T>        Tipo de los elementos producidos.
+     * @param ruta       Ruta del archivo CSV.
+     * @param procesador Conversión de cada fila.
+     * @return Los elementos producidos, o null si algún bloque quedó dentro de un campo entre
+     *         comillas; en ese caso no se procesó ninguna fila.
+     * @throws IOException Si ocurre un error al leer el archivo.
+     */
+    private static <T> List<T> cargarParalelo(Path ruta, ProcesadorFila<T> procesador) throws IOException {
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            long[] limites = calcularLimites(canal);
+            int bloques = limites.length - 1;
+            List<Boolean> cerrados = ForkJoinPool.commonPool().invoke(new TareaBloques<>(0, bloques,
+                    bloque -> terminaEntreComillas(canal, limites[bloque], limites[bloque + 1]) ? null : Boolean.TRUE));
+            if (cerrados == null) {
+                return null;
+            }
+            List<List<T>> partes = ForkJoinPool.commonPool().invoke(new TareaBloques<>(0, bloques,
+                    bloque -> analizarBloque(canal, limites[bloque], limites[bloque + 1], bloque == 0, procesador)));
+            int total = 0;
+            for (List<T> parte : partes) {
+                total += parte.size();
+            }
+            List<T> resultado = new ArrayList<>(total);
+            for (List<T> parte : partes) {
+                resultado.addAll(parte);
+            }
+            return resultado;
+        } catch (RuntimeException e) {
+            // El pool puede volver a envolver la excepción; se busca el IOException original
+            for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+                if (causa instanceof IOException) {
+                    throw (IOException) causa;
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Divide el archivo en bloques cuyos límites caen justo después de un salto de línea.
+     *
+     * @param canal Canal del archivo.
+     * @return Posiciones de inicio de cada bloque seguidas de la posición final del archivo.
+     * @throws IOException Si ocurre un error al leer el archivo.
+     */
+    private static long[] calcularLimites(FileChannel canal) throws IOException {
+        long tamanio = canal.size();
+        long objetivo = tamanio / ((long) ForkJoinPool.getCommonPoolParallelism() * BLOQUES_POR_HILO);
+        objetivo = Math.max(TAMANIO_MINIMO_BLOQUE, Math.min(TAMANIO_MAXIMO_BLOQUE, objetivo));
+
+        List<Long> limites = new ArrayList<>();
+        limites.add(0L);
+        ByteBuffer ventana = ByteBuffer.allocate(8192);
+        long posicion = objetivo;
+        while (posicion < tamanio) {
+            long finLinea = buscarSaltoDeLinea(canal, posicion, ventana);
+            if (finLinea < 0) {
+                break;
+            }
+            limites.add(finLinea + 1);
+            posicion = finLinea + 1 + objetivo;
+        }
+        if (limites.get(limites.size() - 1) < tamanio) {
+            limites.add(tamanio);
+        }
+        long[] resultado = new long[limites.size()];
+        for (int i = 0; i < resultado.length; i++) {
+            resultado[i] = limites.get(i);
+        }
+        return resultado;
+    }
+
+    /**
+     * Busca el siguiente salto de línea a partir de una posición del archivo.
+     *
+     * @param canal    Canal del archivo.
+     * @param desde    Posición inicial de la búsqueda.
+     * @param ventana  Buffer reutilizable para la lectura.
+     * @return La posición del salto de línea, o -1 si no hay más.
+     * @throws IOException Si ocurre un error al leer el archivo.
+     */
+    private static long buscarSaltoDeLinea(FileChannel canal, long desde, ByteBuffer ventana) throws IOException {
+        long posicion = desde;
+        while (true) {
+            ventana.clear();
+            int leidos = canal.read(ventana, posicion);
+            if (leidos <= 0) {
+                return -1;
+            }
+            for (int i = 0; i < leidos; i++) {
+                if (ventana.get(i) == '\n') {
+                    return posicion + i;
+                }
+            }
+            posicion += leidos;
+        }
+    }
+
+    /**
+     * Revisa si un bloque del archivo termina dentro de un campo entre comillas, con las mismas
+     * reglas que {@link LectorCsv}: una comilla abre un campo si solo la preceden espacios, y
+     * dentro del campo {@code ""} es una comilla escapada. Recorre los bytes sin decodificarlos,
+     * porque las comillas, comas, espacios y saltos de línea nunca forman parte de un carácter
+     * UTF-8 multibyte.
+     *
+     * @param canal  Canal del archivo.
+     * @param inicio Posición inicial del bloque, al comienzo de una línea.
+     * @param fin    Posición final (exclusiva) del bloque.
+     * @return true si el bloque termina con comillas sin cerrar.
+     * @throws IOException Si ocurre un error al mapear el archivo.
+     */
+    private static boolean terminaEntreComillas(FileChannel canal, long inicio, long fin) throws IOException {
+        MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_ONLY, inicio, fin - inicio);
+        int limite = mapa.limit();
+        boolean entreComillas = false;
+        boolean soloEspacios = true; // El campo actual no tiene caracteres distintos de espacios
+        for (int i = 0; i < limite; i++) {
+            byte b = mapa.get(i);
+            if (entreComillas) {
+                if (b == '"') {
+                    if (i + 1 < limite && mapa.get(i + 1) == '"') {
+                        soloEspacios = false; // Comilla escapada
+                        i++;
+                    } else {
+                        entreComillas = false;
+                    }
+                } else if (b != ' ') {
+                    soloEspacios = false;
+                }
+            } else if (b == ',' || b == '\n' || b == '\r') {
+                soloEspacios = true;
+            } else if (b == '"' && soloEspacios) {
+                entreComillas = true;
+            } else if (b != ' ') {
+                soloEspacios = false;
+            }
+        }
+        return entreComillas;
+    }
+
+    /**
+     * Analiza un bloque del archivo mapeado en memoria.
+     *
+     * @param <T>        Tipo de los elementos producidos.
+     * @param canal      Canal del archivo.
+     * @param inicio     Posición inicial del bloque.
+     * @param fin        Posición final (exclusiva) del bloque.
+     * @param primero    true si es el primer bloque, que contiene el encabezado.
+     * @param procesador Conversión de cada fila.
+     * @return Los elementos del bloque.
+     * @throws IOException Si ocurre un error al mapear el archivo.
+     */
+    private static <T> List<T> analizarBloque(FileChannel canal, long inicio, long fin, boolean primero,
+            ProcesadorFila<T> procesador) throws IOException {
+        MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_ONLY, inicio, fin - inicio);
+        // Los límites están en saltos de línea, que nunca forman parte de un carácter UTF-8 multibyte
+        CharBuffer texto = StandardCharsets.UTF_8.decode(mapa);
+        List<T> resultado = new ArrayList<>();
+        LectorCsv lector = new LectorCsv(texto.array(), texto.arrayOffset() + texto.position(),
+                texto.arrayOffset() + texto.limit());
+        lector.leer(fila -> procesador.procesar(fila, resultado), primero);
+        return resultado;
+    }
+
+    /**
+     * Análisis de un bloque del archivo.
+     *
+     * @param <R> Tipo del resultado de un bloque.
+     */
+    private interface AnalisisBloque<R> {
+
+        /**
+         * Analiza un bloque.
+         *
+         * @param bloque Número del bloque.
+         * @return El resultado del bloque, o null para descartar el de todos.
+         * @throws IOException Si ocurre un error al leer el archivo.
+         */
+        R analizar(int bloque) throws IOException;
+    }
+
+    /**
+     * Tarea que divide recursivamente un rango de bloques y devuelve sus resultados en orden.
+     *
+     * @param <R> Tipo del resultado de un bloque.
+     */
+    private static final class TareaBloques<R> extends RecursiveTask<List<R>> {
+
+        private static final long serialVersionUID = 1L; // Versión de la forma serializada heredada
+
+        private final int desde; // Primer bloque del rango
+        private final int hasta; // Bloque siguiente al último del rango
+        private final transient AnalisisBloque<R> analisis; // Análisis de cada bloque; la tarea nunca se serializa
+
+        TareaBloques(int desde, int hasta, AnalisisBloque<R> analisis) {
+            this.desde = desde;
+            this.hasta = hasta;
+            this.analisis = analisis;
+        }
+
+        @Override
+        protected List<R> compute() {
+            if (hasta - desde == 1) {
+                try {
+                    R bloque = analisis.analizar(desde);
+                    if (bloque == null) {
+                        return null;
+                    }
+                    List<R> resultado = new ArrayList<>(1);
+                    resultado.add(bloque);
+                    return resultado;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            int mitad = (desde + hasta) >>> 1;
+            TareaBloques<R> izquierda = new TareaBloques<>(desde, mitad, analisis);
+            TareaBloques<R> derecha = new TareaBloques<>(mitad, hasta, analisis);
+            izquierda.fork();
+            List<R> resultadoDerecha = derecha.compute();
+            List<R> resultadoIzquierda = izquierda.join();
+            if (resultadoIzquierda == null || resultadoDerecha == null) {
+                return null;
+            }
+            resultadoIzquierda.addAll(resultadoDerecha);
+            return resultadoIzquierda;
+        }
+    }
+}
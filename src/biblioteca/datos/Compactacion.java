@@ -0,0 +1,111 @@
+package biblioteca.datos;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.UnaryOperator;
+
+/**
+ * Una compactación del diario: los segmentos modificados de cada tabla, tomados en el mismo
+ * instante en que se encola la rotación, y su escritura en segundo plano.
+ *
+ * Tomar los cambios marca los segmentos como guardados, así que la compactación recuerda cómo
+ * volver a marcarlos. Si la rotación del diario o la escritura en el almacén fallan, todos los
+ * segmentos tomados vuelven a quedar pendientes antes de permitir otra compactación, para que
+ * ningún cambio quede fuera de la instantánea: en el diario rotado que se conserva, o en el
+ * diario actual si no se pudo rotar.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+final class Compactacion {
+
+    private final Executor hiloInterfaz; // Ejecuta las restauraciones en el hilo dueño de las tablas
+    private final List<Runnable> restauraciones = new ArrayList<>(); // Vuelven a marcar pendientes los segmentos tomados
+
+    /**
+     * Crea una compactación sin cambios tomados.
+     *
+     * @param hiloInterfaz Ejecutor del hilo que modifica las tablas; el de JavaFX en la aplicación.
+     */
+    Compactacion(Executor hiloInterfaz) {
+        this.hiloInterfaz = hiloInterfaz;
+    }
+
+    /**
+     * Toma los segmentos modificados de una tabla (ver {@link TablaSegmentada#tomarCambios}) y
+     * recuerda cómo restaurarlos si la compactación falla. Se llama en el hilo de las tablas.
+     *
+     * @param <T>    Tipo de las filas.
+     * @param tabla  La tabla segmentada.
+     * @param lista  La lista con las filas de la tabla.
+     * @param copiar Copia independiente de una fila, que se pueda escribir desde otro hilo.
+     * @return Los segmentos por escribir.
+     */
+    <T> TablaSegmentada.Guardado<T> tomarCambios(TablaSegmentada<T> tabla, List<T> lista, UnaryOperator<T> copiar) {
+        TablaSegmentada.Guardado<T> guardado = tabla.tomarCambios(lista, copiar);
+        restauraciones.add(() -> tabla.restaurar(guardado));
+        return guardado;
+    }
+
+    /**
+     * Espera la rotación del diario, escribe los cambios tomados y borra el diario rotado. Se
+     * ejecuta en el hilo de la compactación. Si algo falla, el diario rotado se conserva para
+     * reproducirse en el próximo inicio y los segmentos tomados se restauran en el hilo de las
+     * tablas, antes de avisar el final.
+     *
+     * @param rotacion     La tarea de la rotación del diario.
+     * @param escritura    Escritura de los cambios tomados en el almacén.
+     * @param diarioRotado Ruta del diario rotado.
+     * @param alTerminar   Acción al terminar, con éxito o no; permite otra compactación.
+     */
+    void escribir(CompletableFuture<Void> rotacion, Escritura escritura, Path diarioRotado, Runnable alTerminar) {
+        try {
+            esperarRotacion(rotacion);
+            escritura.escribir();
+            Files.deleteIfExists(diarioRotado);
+            alTerminar.run();
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Error al compactar el diario: " + e.getMessage());
+            hiloInterfaz.execute(() -> {
+                // Antes de permitir otra compactación, que borraría el diario rotado
+                for (Runnable restauracion : restauraciones) {
+                    restauracion.run();
+                }
+                alTerminar.run();
+            });
+        }
+    }
+
+    /**
+     * Espera a que el hilo escritor rote el diario.
+     *
+     * @param rotacion La tarea de la rotación.
+     * @throws IOException Si la rotación falló o se interrumpió la espera.
+     */
+    private static void esperarRotacion(CompletableFuture<Void> rotacion) throws IOException {
+        try {
+            rotacion.get();
+        } catch (ExecutionException e) {
+            throw new IOException("No se pudo rotar el diario: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrumpido mientras se rotaba el diario");
+        }
+    }
+
+    /**
+     * Escritura de los cambios tomados en el almacén.
+     */
+    interface Escritura {
+        void escribir() throws IOException;
+    }
+}
@@ -0,0 +1,293 @@
+package biblioteca.datos;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Diario de escritura anticipada (write-ahead log) de solo anexado.
+ *
+ * Cada cambio se guarda como una línea con campos separados por tabuladores y se fuerza
+ * a disco antes de devolver el control, de modo que el costo de guardar depende del tamaño
+ * del cambio y no del tamaño de la tabla. Los tabuladores, saltos de línea y barras
+ * invertidas dentro de los campos se escapan con una barra invertida.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public class Diario implements Closeable {
+
+    private final Path archivo; // Ruta del archivo del diario
+    private FileChannel canal; // Canal abierto en modo de anexado
+    private int registros; // Cantidad de registros en el diario desde la última rotación
+
+    /**
+     * Abre (o crea) el diario en la ruta indicada. Los registros existentes se conservan y
+     * se cuentan, para que el umbral de compactación incluya los de sesiones anteriores.
+     *
+     * @param archivo Ruta del archivo del diario.
+     * @throws IOException Si no se puede abrir o leer el archivo.
+     */
+    public Diario(Path archivo) throws IOException {
+        this.archivo = archivo;
+        abrir();
+        registros = contarRegistros();
+    }
+
+    /**
+     * Abre el canal del diario en modo de anexado.
+     *
+     * @throws IOException Si no se puede abrir el archivo.
+     */
+    private void abrir() throws IOException {
+        canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Cuenta las líneas completas del diario abierto, sin separarlas en campos.
+     *
+     * @return La cantidad de registros.
+     * @throws IOException Si no se puede leer el archivo.
+     */
+    private int contarRegistros() throws IOException {
+        int cantidad = 0;
+        try (FileChannel lectura = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(65536);
+            byte anterior = '\n';
+            while (lectura.read(buffer) != -1) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    byte b = buffer.get();
+                    if (b == '\n' && anterior != '\n') {
+                        cantidad++; // Las líneas vacías no son registros, igual que al reproducir
+                    }
+                    anterior = b;
+                }
+                buffer.clear();
+            }
+        }
+        return cantidad;
+    }
+
+    /**
+     * Anexa un registro al diario y lo fuerza a disco.
+     *
+     * @param campos Campos del registro; el primero es el tipo de operación.
+     * @throws IOException Si ocurre un error al escribir en el archivo.
+     */
+    public synchronized void registrar(String... campos) throws IOException {
+        registrarTodos(List.<String[]>of(campos));
+    }
+
+    /**
+     * Anexa varios registros al diario con una sola escritura y los fuerza a disco juntos.
+     *
+     * @param lote Campos de cada registro; el primero es el tipo de operación.
+     * @throws IOException Si ocurre un error al escribir en el archivo.
+     */
+    public synchronized void registrarTodos(List<String[]> lote) throws IOException {
+        StringBuilder lineas = new StringBuilder();
+        for (String[] campos : lote) {
+            for (int i = 0; i < campos.length; i++) {
+                if (i > 0) {
+                    lineas.append('\t');
+                }
+                escapar(campos[i], lineas);
+            }
+            lineas.append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lineas.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        canal.force(false);
+        registros += lote.size();
+    }
+
+    /**
+     * Obtiene la cantidad de registros del diario: los que ya tenía al abrirse más los escritos
+     * después, o solo los escritos desde la última rotación.
+     *
+     * @return La cantidad de registros.
+     */
+    public synchronized int getRegistros() {
+        return registros;
+    }
+
+    /**
+     * Cierra el diario actual, lo mueve a la ruta indicada y abre un diario vacío en
+     * la ruta original. Se usa al iniciar una compactación: los cambios posteriores van al
+     * diario nuevo mientras el anterior se consolida en la instantánea.
+     *
+     * Si el destino ya existe (una compactación anterior falló), los registros se anexan
+     * al final y se fuerzan a disco antes de borrar el diario actual, para no perderlos ante
+     * un corte de energía. Si no se puede mover el diario, se vuelve a abrir el actual para
+     * seguir anexando registros en él.
+     *
+     * @param destino Ruta a la que se mueve el diario actual.
+     * @throws IOException Si ocurre un error al mover o reabrir el archivo.
+     */
+    public synchronized void rotar(Path destino) throws IOException {
+        canal.close();
+        try {
+            if (Files.exists(destino)) {
+                anexar(destino);
+                Files.delete(archivo);
+            } else {
+                Files.move(archivo, destino, StandardCopyOption.ATOMIC_MOVE);
+            }
+            registros = 0;
+        } finally {
+            abrir();
+        }
+    }
+
+    /**
+     * Anexa el contenido del diario actual a otro archivo y lo fuerza a disco.
+     *
+     * @param destino Archivo al que se anexan los registros.
+     * @throws IOException Si ocurre un error al leer o escribir.
+     */
+    private void anexar(Path destino) throws IOException {
+        try (FileChannel origen = FileChannel.open(archivo, StandardOpenOption.READ);
+                FileChannel salida = FileChannel.open(destino, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            long posicion = 0;
+            long total = origen.size();
+            while (posicion < total) {
+                posicion += origen.transferTo(posicion, total - posicion, salida);
+            }
+            salida.force(true);
+        }
+    }
+
+    /**
+     * Cierra el canal del diario.
+     *
+     * @throws IOException Si ocurre un error al cerrar el archivo.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        canal.close();
+    }
+
+    /**
+     * Lee un diario y entrega cada registro, ya separado en campos, al consumidor indicado.
+     * Una última línea incompleta (por ejemplo, tras una caída durante la escritura) se ignora.
+     *
+     * @param archivo    Ruta del diario a reproducir.
+     * @param aplicador  Consumidor que aplica cada registro.
+     * @return La cantidad de registros reproducidos.
+     * @throws IOException Si ocurre un error al leer el archivo.
+     */
+    public static int reproducir(Path archivo, Consumer<String[]> aplicador) throws IOException {
+        if (!Files.exists(archivo)) {
+            return 0;
+        }
+        String contenido;
+        try (BufferedReader reader = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            StringBuilder texto = new StringBuilder();
+            char[] buffer = new char[8192];
+            int leidos;
+            while ((leidos = reader.read(buffer)) != -1) {
+                texto.append(buffer, 0, leidos);
+            }
+            contenido = texto.toString();
+        }
+        int cantidad = 0;
+        int inicio = 0;
+        int fin;
+        while ((fin = contenido.indexOf('\n', inicio)) != -1) {
+            if (fin > inicio) {
+                aplicador.accept(separar(contenido, inicio, fin));
+                cantidad++;
+            }
+            inicio = fin + 1;
+        }
+        if (inicio < contenido.length()) {
+            System.out.println("Registro incompleto ignorado al final del diario: " + archivo);
+        }
+        return cantidad;
+    }
+
+    /**
+     * Escapa un campo para escribirlo en una línea del diario.
+     *
+     * @param campo  El campo a escapar (null se escribe como cadena vacía).
+     * @param salida Destino del texto escapado.
+     */
+    private static void escapar(String campo, StringBuilder salida) {
+        if (campo == null) {
+            return;
+        }
+        for (int i = 0; i < campo.length(); i++) {
+            char c = campo.charAt(i);
+            switch (c) {
+                case '\\':
+                    salida.append("\\\\");
+                    break;
+                case '\t':
+                    salida.append("\\t");
+                    break;
+                case '\n':
+                    salida.append("\\n");
+                    break;
+                case '\r':
+                    salida.append("\\r");
+                    break;
+                default:
+                    salida.append(c);
+            }
+        }
+    }
+
+    /**
+     * Separa una línea del diario en campos, deshaciendo el escape.
+     *
+     * @param texto  Texto que contiene la línea.
+     * @param inicio Posición inicial de la línea.
+     * @param fin    Posición del salto de línea.
+     * @return Los campos de la línea.
+     */
+    private static String[] separar(String texto, int inicio, int fin) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        for (int i = inicio; i < fin; i++) {
+            char c = texto.charAt(i);
+            if (c == '\\' && i + 1 < fin) {
+                char siguiente = texto.charAt(++i);
+                switch (siguiente) {
+                    case 't':
+                        actual.append('\t');
+                        break;
+                    case 'n':
+                        actual.append('\n');
+                        break;
+                    case 'r':
+                        actual.append('\r');
+                        break;
+                    default:
+                        actual.append(siguiente);
+                }
+            } else if (c == '\t') {
+                campos.add(actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        campos.add(actual.toString());
+        return campos.toArray(new String[0]);
+    }
+}
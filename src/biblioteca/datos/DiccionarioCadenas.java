@@ -0,0 +1,250 @@
+package biblioteca.datos;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Diccionario de valores compartidos que se usa durante la carga de datos.
+ *
+ * Los géneros, autores y fechas se repiten muchas veces en los archivos; en lugar de crear un
+ * {@link String} o un {@link LocalDate} nuevo por cada celda, el diccionario devuelve siempre
+ * la misma instancia para el mismo valor. Las cadenas se buscan directamente a partir de los
+ * caracteres del buffer del lector, de modo que en un acierto no se crea ningún objeto.
+ *
+ * Puede usarse desde varios hilos a la vez (la carga paralela de {@link CargadorCsv}): cada
+ * hilo tiene una caché de acceso directo sin sincronización y, en un fallo, se consulta el
+ * mapa compartido, que garantiza una única instancia por valor.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public final class DiccionarioCadenas {
+
+    private static final int TAMANIO_CACHE = 4096; // Entradas de la caché de cada hilo (potencia de 2)
+    private static final int BYTES_LOCAL_DATE = 24; // Tamaño estimado de un LocalDate
+
+    private final ConcurrentHashMap<String, String> cadenas = new ConcurrentHashMap<>(); // Cadenas compartidas
+    private final ConcurrentHashMap<Integer, LocalDate> fechas = new ConcurrentHashMap<>(); // Fechas por clave año-mes-día
+    private final ThreadLocal<Cache> caches = ThreadLocal.withInitial(Cache::new); // Caché de cada hilo
+    private final LongAdder bytesAhorrados = new LongAdder(); // Estimación de memoria no asignada
+    private final LongAdder aciertos = new LongAdder(); // Valores resueltos con una instancia existente
+
+    /**
+     * Obtiene la instancia compartida de la cadena formada por un rango de caracteres.
+     *
+     * @param datos    Arreglo que contiene los caracteres.
+     * @param inicio   Posición del primer carácter.
+     * @param longitud Cantidad de caracteres.
+     * @return La cadena compartida.
+     */
+    public String internar(char[] datos, int inicio, int longitud) {
+        int hash = 0;
+        for (int i = inicio; i < inicio + longitud; i++) {
+            hash = 31 * hash + datos[i];
+        }
+        Cache cache = caches.get();
+        int indice = mezclar(hash) & (TAMANIO_CACHE - 1);
+        String guardada = cache.cadenas[indice];
+        if (guardada != null && cache.hashes[indice] == hash && iguales(guardada, datos, inicio, longitud)) {
+            registrarAcierto(tamanioCadena(guardada));
+            return guardada;
+        }
+        String compartida = internar(new String(datos, inicio, longitud));
+        cache.cadenas[indice] = compartida;
+        cache.hashes[indice] = hash;
+        return compartida;
+    }
+
+    /**
+     * Obtiene la instancia compartida de una cadena.
+     *
+     * @param texto La cadena (puede ser null).
+     * @return La cadena compartida, o null si el texto es null.
+     */
+    public String internar(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        String existente = cadenas.putIfAbsent(texto, texto);
+        if (existente != null) {
+            registrarAcierto(tamanioCadena(existente));
+            return existente;
+        }
+        return texto;
+    }
+
+    /**
+     * Obtiene la instancia compartida de una fecha.
+     *
+     * @param anio El año.
+     * @param mes  El mes (1 a 12).
+     * @param dia  El día del mes.
+     * @return La fecha compartida, o null si la fecha no es válida.
+     */
+    public LocalDate fecha(int anio, int mes, int dia) {
+        if (anio < 0 || anio > 9999 || mes < 1 || mes > 12 || dia < 1 || dia > 31) {
+            return null;
+        }
+        int clave = (anio << 9) | (mes << 5) | dia;
+        Cache cache = caches.get();
+        int indice = mezclar(clave) & (TAMANIO_CACHE - 1);
+        LocalDate guardada = cache.fechas[indice];
+        if (guardada != null && cache.clavesFecha[indice] == clave) {
+            registrarAcierto(BYTES_LOCAL_DATE);
+            return guardada;
+        }
+        LocalDate compartida = fechas.get(clave);
+        if (compartida != null) {
+            registrarAcierto(BYTES_LOCAL_DATE);
+        } else {
+            try {
+                LocalDate nueva = LocalDate.of(anio, mes, dia);
+                compartida = fechas.putIfAbsent(clave, nueva);
+                if (compartida == null) {
+                    compartida = nueva;
+                } else {
+                    registrarAcierto(BYTES_LOCAL_DATE);
+                }
+            } catch (DateTimeException e) {
+                return null;
+            }
+        }
+        cache.fechas[indice] = compartida;
+        cache.clavesFecha[indice] = clave;
+        return compartida;
+    }
+
+    /**
+     * Obtiene la instancia compartida de una fecha dada como días desde la época.
+     *
+     * @param diaEpoca Días desde el 1970-01-01.
+     * @return La fecha compartida.
+     */
+    public LocalDate fechaDesdeDiaEpoca(long diaEpoca) {
+        LocalDate fecha = LocalDate.ofEpochDay(diaEpoca);
+        LocalDate compartida = fecha(fecha.getYear(), fecha.getMonthValue(), fecha.getDayOfMonth());
+        return compartida != null ? compartida : fecha;
+    }
+
+    /**
+     * Obtiene la cantidad estimada de bytes que no se asignaron gracias a la deduplicación.
+     *
+     * @return Los bytes ahorrados.
+     */
+    public long getBytesAhorrados() {
+        return bytesAhorrados.sum();
+    }
+
+    /**
+     * Obtiene la cantidad de valores que se resolvieron con una instancia ya existente.
+     *
+     * @return La cantidad de aciertos.
+     */
+    public long getAciertos() {
+        return aciertos.sum();
+    }
+
+    /**
+     * Obtiene la cantidad de valores distintos guardados.
+     *
+     * @return La cantidad de cadenas y fechas distintas.
+     */
+    public int getValoresDistintos() {
+        return cadenas.size() + fechas.size();
+    }
+
+    /**
+     * Devuelve un resumen del ahorro para mostrarlo en el registro de la carga.
+     *
+     * @return El resumen.
+     */
+    @Override
+    public String toString() {
+        return getAciertos() + " valores compartidos entre " + getValoresDistintos()
+                + " distintos, " + (getBytesAhorrados() / 1024) + " KB ahorrados";
+    }
+
+    /**
+     * Suma un acierto y los bytes que se habrían asignado sin él.
+     *
+     * @param bytes Tamaño estimado de la instancia evitada.
+     */
+    private void registrarAcierto(long bytes) {
+        aciertos.increment();
+        bytesAhorrados.add(bytes);
+    }
+
+    /**
+     * Estima el tamaño de una cadena: el objeto {@code String} más su arreglo de bytes,
+     * que usa un byte por carácter si todos son Latin-1 y dos en caso contrario.
+     *
+     * @param texto La cadena.
+     * @return El tamaño estimado en bytes.
+     */
+    private static long tamanioCadena(String texto) {
+        int bytesPorCaracter = 1;
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) > 0xFF) {
+                bytesPorCaracter = 2;
+                break;
+            }
+        }
+        return 24 + alinear(16 + (long) texto.length() * bytesPorCaracter);
+    }
+
+    /**
+     * Redondea un tamaño al múltiplo de 8 siguiente, como hace la JVM con los objetos.
+     *
+     * @param bytes El tamaño.
+     * @return El tamaño alineado.
+     */
+    private static long alinear(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * Dispersa los bits de un hash para repartir mejor las entradas de la caché.
+     *
+     * @param hash El hash original.
+     * @return El hash mezclado.
+     */
+    private static int mezclar(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Compara una cadena con un rango de caracteres.
+     *
+     * @param texto    La cadena.
+     * @param datos    Arreglo que contiene los caracteres.
+     * @param inicio   Posición del primer carácter.
+     * @param longitud Cantidad de caracteres.
+     * @return true si son iguales.
+     */
+    private static boolean iguales(String texto, char[] datos, int inicio, int longitud) {
+        if (texto.length() != longitud) {
+            return false;
+        }
+        for (int i = 0; i < longitud; i++) {
+            if (texto.charAt(i) != datos[inicio + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Caché de acceso directo de un hilo. Cada valor ocupa la posición que indica su hash y
+     * reemplaza al anterior en caso de colisión.
+     */
+    private static final class Cache {
+        private final String[] cadenas = new String[TAMANIO_CACHE];
+        private final int[] hashes = new int[TAMANIO_CACHE];
+        private final LocalDate[] fechas = new LocalDate[TAMANIO_CACHE];
+        private final int[] clavesFecha = new int[TAMANIO_CACHE];
+    }
+}
@@ -0,0 +1,118 @@
+package biblioteca.datos;
+
+import biblioteca.models.Libro;
+import biblioteca.models.Miembro;
+import biblioteca.models.Prestamo;
+import java.time.LocalDate;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+
+/**
+ * Fila de la tabla de préstamos con los textos ya calculados: el título del libro, el nombre
+ * del miembro y las fechas formateadas.
+ *
+ * Las celdas muestran directamente las propiedades de la fila, así que dibujar una celda no
+ * crea objetos ni vuelve a formatear fechas. Cuando el préstamo, su libro o su miembro cambian,
+ * {@link #actualizar()} cambia los textos y las celdas visibles se redibujan solas.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public final class FilaPrestamo {
+
+    private final Prestamo prestamo; // Préstamo que se muestra en la fila
+    private final ReadOnlyStringWrapper libro = new ReadOnlyStringWrapper(""); // Título del libro
+    private final ReadOnlyStringWrapper miembro = new ReadOnlyStringWrapper(""); // Nombre del miembro
+    private final ReadOnlyStringWrapper fechaPrestamo = new ReadOnlyStringWrapper(""); // Fecha del préstamo
+    private final ReadOnlyStringWrapper fechaDevolucion = new ReadOnlyStringWrapper(""); // Fecha de devolución esperada
+    private final ReadOnlyStringWrapper fechaDevolucionReal = new ReadOnlyStringWrapper(""); // Fecha de devolución real
+
+    /**
+     * Crea la fila de un préstamo y calcula sus textos.
+     *
+     * @param prestamo El préstamo que se muestra en la fila.
+     */
+    public FilaPrestamo(Prestamo prestamo) {
+        this.prestamo = prestamo;
+        actualizar();
+    }
+
+    /**
+     * Vuelve a calcular los textos a partir de los datos actuales del préstamo.
+     */
+    public void actualizar() {
+        Libro datosLibro = prestamo.getLibro();
+        Miembro datosMiembro = prestamo.getMiembro();
+        libro.set(datosLibro != null ? datosLibro.getTituloValor() : "");
+        miembro.set(datosMiembro != null ? datosMiembro.getNombreValor() : "");
+        fechaPrestamo.set(formatear(prestamo.getFechaPrestamoValor()));
+        fechaDevolucion.set(formatear(prestamo.getFechaDevolucionEsperadaValor()));
+        fechaDevolucionReal.set(formatear(prestamo.getFechaDevolucionRealValor()));
+    }
+
+    /**
+     * Formatea una fecha para mostrarla en la tabla.
+     *
+     * @param fecha La fecha; puede ser null.
+     * @return La fecha en formato ISO, o una cadena vacía si es null.
+     */
+    private static String formatear(LocalDate fecha) {
+        return fecha != null ? fecha.toString() : "";
+    }
+
+    /**
+     * Obtiene el préstamo que se muestra en la fila.
+     *
+     * @return El préstamo.
+     */
+    public Prestamo getPrestamo() {
+        return prestamo;
+    }
+
+    /**
+     * Obtiene el título del libro prestado.
+     *
+     * @return La propiedad con el título, o vacía si el préstamo no tiene libro.
+     */
+    public ReadOnlyStringProperty libroProperty() {
+        return libro.getReadOnlyProperty();
+    }
+
+    /**
+     * Obtiene el nombre del miembro que tomó el préstamo.
+     *
+     * @return La propiedad con el nombre, o vacía si el préstamo no tiene miembro.
+     */
+    public ReadOnlyStringProperty miembroProperty() {
+        return miembro.getReadOnlyProperty();
+    }
+
+    /**
+     * Obtiene la fecha del préstamo formateada.
+     *
+     * @return La propiedad con la fecha.
+     */
+    public ReadOnlyStringProperty fechaPrestamoProperty() {
+        return fechaPrestamo.getReadOnlyProperty();
+    }
+
+    /**
+     * Obtiene la fecha de devolución esperada formateada.
+     *
+     * @return La propiedad con la fecha.
+     */
+    public ReadOnlyStringProperty fechaDevolucionProperty() {
+        return fechaDevolucion.getReadOnlyProperty();
+    }
+
+    /**
+     * Obtiene la fecha de devolución real formateada.
+     *
+     * @return La propiedad con la fecha, o vacía si el libro no se ha devuelto.
+     */
+    public ReadOnlyStringProperty fechaDevolucionRealProperty() {
+        return fechaDevolucionReal.getReadOnlyProperty();
+    }
+}
@@ -0,0 +1,99 @@
+package biblioteca.datos;
+
+import biblioteca.models.Libro;
+
+/**
+ * Condiciones de una búsqueda de libros en el {@link AlmacenBiblioteca}. Las condiciones null no
+ * filtran; las de texto se comparan por igualdad exacta, para que el almacén pueda resolverlas
+ * con sus índices.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public final class FiltroLibros {
+
+    private final String genero; // Género exigido, o null
+    private final String autor; // Autor exigido, o null
+    private final String sucursal; // Sucursal exigida (vacía para los libros sin sucursal), o null
+    private final Integer desde; // Primer año de publicación aceptado, o null
+    private final Integer hasta; // Último año de publicación aceptado, o null
+
+    /**
+     * Crea un filtro de libros.
+     *
+     * @param genero   Género exigido, o null.
+     * @param autor    Autor exigido, o null.
+     * @param sucursal Sucursal exigida (vacía para los libros sin sucursal), o null.
+     * @param desde    Primer año de publicación aceptado, o null.
+     * @param hasta    Último año de publicación aceptado, o null.
+     */
+    public FiltroLibros(String genero, String autor, String sucursal, Integer desde, Integer hasta) {
+        this.genero = genero;
+        this.autor = autor;
+        this.sucursal = sucursal;
+        this.desde = desde;
+        this.hasta = hasta;
+    }
+
+    /**
+     * Verifica si un libro cumple todas las condiciones.
+     *
+     * @param libro El libro a verificar.
+     * @return true si el libro cumple el filtro.
+     */
+    public boolean acepta(Libro libro) {
+        int anio = libro.getAnioPublicacionValor();
+        return (genero == null || genero.equals(libro.getGeneroValor()))
+                && (autor == null || autor.equals(libro.getAutorValor()))
+                && (sucursal == null || sucursal.equals(libro.getSucursalValor()))
+                && (desde == null || anio >= desde)
+                && (hasta == null || anio <= hasta);
+    }
+
+    /**
+     * Obtiene el género exigido.
+     *
+     * @return El género, o null si no se filtra por género.
+     */
+    public String getGenero() {
+        return genero;
+    }
+
+    /**
+     * Obtiene el autor exigido.
+     *
+     * @return El autor, o null si no se filtra por autor.
+     */
+    public String getAutor() {
+        return autor;
+    }
+
+    /**
+     * Obtiene la sucursal exigida.
+     *
+     * @return La sucursal, o null si no se filtra por sucursal.
+     */
+    public String getSucursal() {
+        return sucursal;
+    }
+
+    /**
+     * Obtiene el primer año de publicación aceptado.
+     *
+     * @return El año, o null si no hay límite inferior.
+     */
+    public Integer getDesde() {
+        return desde;
+    }
+
+    /**
+     * Obtiene el último año de publicación aceptado.
+     *
+     * @return El año, o null si no hay límite superior.
+     */
+    public Integer getHasta() {
+        return hasta;
+    }
+}
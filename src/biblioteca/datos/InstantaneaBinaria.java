@@ -0,0 +1,451 @@
+package biblioteca.datos;
+
+import biblioteca.models.Libro;
+import biblioteca.models.Miembro;
+import biblioteca.models.Prestamo;
+import biblioteca.models.Sucursal;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Instantánea binaria de las tablas de la biblioteca para acelerar el arranque.
+ *
+ * Cada tabla se guarda junto a su CSV con la extensión {@value #EXTENSION}. El formato es:
+ * <ul>
+ * <li>encabezado: número mágico, versión del formato y tipo de tabla;</li>
+ * <li>para libros, diccionarios de autores, géneros y sucursales, de modo que cada fila guarda solo un índice
+ * (y al cargar todas las filas comparten la misma instancia de cada valor);</li>
+ * <li>la cantidad de filas y las filas, con cadenas UTF-8 precedidas por su longitud y las fechas
+ * de los préstamos como días desde la época ({@link LocalDate#toEpochDay()});</li>
+ * <li>un CRC32 de todo lo anterior.</li>
+ * </ul>
+ * El CSV sigue siendo el formato editable e intercambiable; la instantánea solo se usa si es
+ * al menos tan reciente como el CSV y su suma de verificación es correcta.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public final class InstantaneaBinaria {
+
+    /** Extensión que se agrega a la ruta del CSV. */
+    public static final String EXTENSION = ".bin";
+
+    private static final int MAGICO = 0x42494231; // "BIB1"
+    private static final int VERSION = 2; // 2: los libros guardan su sucursal
+    private static final int SIN_FECHA = Integer.MIN_VALUE; // Fecha ausente
+
+    // Tipos de tabla
+    private static final byte LIBROS = 1;
+    private static final byte MIEMBROS = 2;
+    private static final byte PRESTAMOS = 3;
+    private static final byte SUCURSALES = 4;
+
+    /**
+     * Constructor privado; la clase solo tiene métodos estáticos.
+     */
+    private InstantaneaBinaria() {
+    }
+
+    /**
+     * Obtiene la ruta de la instantánea que corresponde a un archivo CSV.
+     *
+     * @param archivoCsv Ruta del CSV.
+     * @return Ruta de la instantánea.
+     */
+    public static String rutaPara(String archivoCsv) {
+        return archivoCsv + EXTENSION;
+    }
+
+    /**
+     * Indica si la instantánea de un CSV existe y es al menos tan reciente como el CSV.
+     *
+     * @param archivoCsv Ruta del CSV.
+     * @return true si se puede cargar la instantánea en lugar del CSV.
+     */
+    public static boolean estaVigente(String archivoCsv) {
+        try {
+            Path csv = Paths.get(archivoCsv);
+            Path bin = Paths.get(rutaPara(archivoCsv));
+            return Files.exists(bin)
+                    && Files.getLastModifiedTime(bin).compareTo(Files.getLastModifiedTime(csv)) >= 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // ----- Libros -----
+
+    /**
+     * Guarda una lista de libros en formato binario.
+     *
+     * @param libros  Libros a guardar.
+     * @param archivo Ruta del archivo binario.
+     * @throws IOException Si ocurre un error al escribir.
+     */
+    public static void guardarLibros(List<Libro> libros, String archivo) throws IOException {
+        Map<String, Integer> autores = new HashMap<>();
+        Map<String, Integer> generos = new HashMap<>();
+        List<String> listaAutores = new ArrayList<>();
+        List<String> listaGeneros = new ArrayList<>();
+        Map<String, Integer> sucursales = new HashMap<>();
+        List<String> listaSucursales = new ArrayList<>();
+        for (Libro libro : libros) {
+            registrarEnDiccionario(libro.getAutorValor(), autores, listaAutores);
+            registrarEnDiccionario(libro.getGeneroValor(), generos, listaGeneros);
+            registrarEnDiccionario(libro.getSucursalValor(), sucursales, listaSucursales);
+        }
+        try (Escritor salida = new Escritor(archivo, LIBROS)) {
+            salida.escribirDiccionario(listaAutores);
+            salida.escribirDiccionario(listaGeneros);
+            salida.escribirDiccionario(listaSucursales);
+            salida.datos.writeInt(libros.size());
+            for (Libro libro : libros) {
+                salida.escribirCadena(libro.getISBNValor());
+                salida.escribirCadena(libro.getTituloValor());
+                salida.escribirVarInt(autores.get(valor(libro.getAutorValor())));
+                salida.datos.writeInt(libro.getAnioPublicacionValor());
+                salida.escribirVarInt(generos.get(valor(libro.getGeneroValor())));
+                salida.escribirVarInt(sucursales.get(valor(libro.getSucursalValor())));
+            }
+        }
+    }
+
+    /**
+     * Carga una lista de libros desde un archivo binario.
+     *
+     * @param archivo Ruta del archivo binario.
+     * @return Los libros guardados.
+     * @throws IOException Si el archivo no existe, no es válido o está dañado.
+     */
+    public static List<Libro> cargarLibros(String archivo) throws IOException {
+        try (Lector entrada = new Lector(archivo, LIBROS)) {
+            String[] autores = entrada.leerDiccionario();
+            String[] generos = entrada.leerDiccionario();
+            String[] sucursales = entrada.leerDiccionario();
+            int cantidad = entrada.datos.readInt();
+            List<Libro> libros = new ArrayList<>(cantidad);
+            for (int i = 0; i < cantidad; i++) {
+                String isbn = entrada.leerCadena();
+                String titulo = entrada.leerCadena();
+                String autor = autores[entrada.leerVarInt()];
+                int anio = entrada.datos.readInt();
+                String genero = generos[entrada.leerVarInt()];
+                String sucursal = sucursales[entrada.leerVarInt()];
+                libros.add(new Libro(isbn, titulo, autor, anio, genero, sucursal));
+            }
+            entrada.verificar();
+            return libros;
+        }
+    }
+
+    // ----- Miembros -----
+
+    /**
+     * Guarda una lista de miembros en formato binario.
+     *
+     * @param miembros Miembros a guardar.
+     * @param archivo  Ruta del archivo binario.
+     * @throws IOException Si ocurre un error al escribir.
+     */
+    public static void guardarMiembros(List<Miembro> miembros, String archivo) throws IOException {
+        try (Escritor salida = new Escritor(archivo, MIEMBROS)) {
+            salida.datos.writeInt(miembros.size());
+            for (Miembro miembro : miembros) {
+                salida.escribirCadena(miembro.getIdValor());
+                salida.escribirCadena(miembro.getNombreValor());
+                salida.escribirCadena(miembro.getEmailValor());
+                salida.escribirCadena(miembro.getTelefonoValor());
+            }
+        }
+    }
+
+    /**
+     * Carga una lista de miembros desde un archivo binario.
+     *
+     * @param archivo Ruta del archivo binario.
+     * @return Los miembros guardados.
+     * @throws IOException Si el archivo no existe, no es válido o está dañado.
+     */
+    public static List<Miembro> cargarMiembros(String archivo) throws IOException {
+        try (Lector entrada = new Lector(archivo, MIEMBROS)) {
+            int cantidad = entrada.datos.readInt();
+            List<Miembro> miembros = new ArrayList<>(cantidad);
+            for (int i = 0; i < cantidad; i++) {
+                miembros.add(new Miembro(entrada.leerCadena(), entrada.leerCadena(), entrada.leerCadena(), entrada.leerCadena()));
+            }
+            entrada.verificar();
+            return miembros;
+        }
+    }
+
+    // ----- Préstamos -----
+
+    /**
+     * Guarda una lista de préstamos en formato binario.
+     *
+     * @param prestamos Préstamos a guardar.
+     * @param archivo   Ruta del archivo binario.
+     * @throws IOException Si ocurre un error al escribir.
+     */
+    public static void guardarPrestamos(List<Prestamo> prestamos, String archivo) throws IOException {
+        try (Escritor salida = new Escritor(archivo, PRESTAMOS)) {
+            salida.datos.writeInt(prestamos.size());
+            for (Prestamo prestamo : prestamos) {
+                salida.escribirCadena(prestamo.getLibro().getISBNValor());
+                salida.escribirCadena(prestamo.getMiembro().getIdValor());
+                salida.escribirFecha(prestamo.getFechaPrestamoValor());
+                salida.escribirFecha(prestamo.getFechaDevolucionEsperadaValor());
+                salida.escribirFecha(prestamo.getFechaDevolucionRealValor());
+            }
+        }
+    }
+
+    /**
+     * Carga una lista de préstamos desde un archivo binario, resolviendo el libro y el miembro
+     * de cada préstamo con los índices recibidos. Los préstamos cuyo libro o miembro no existe
+     * se omiten, igual que en la carga desde CSV.
+     *
+     * @param archivo       Ruta del archivo binario.
+     * @param librosPorISBN Índice de libros por ISBN.
+     * @param miembrosPorId Índice de miembros por ID.
+     * @return Los préstamos guardados.
+     * @throws IOException Si el archivo no existe, no es válido o está dañado.
+     */
+    public static List<Prestamo> cargarPrestamos(String archivo, Map<String, Libro> librosPorISBN,
+            Map<String, Miembro> miembrosPorId) throws IOException {
+        try (Lector entrada = new Lector(archivo, PRESTAMOS)) {
+            DiccionarioCadenas diccionario = new DiccionarioCadenas(); // Fechas compartidas
+            int cantidad = entrada.datos.readInt();
+            List<Prestamo> prestamos = new ArrayList<>(cantidad);
+            for (int i = 0; i < cantidad; i++) {
+                String isbn = entrada.leerCadena();
+                String miembroId = entrada.leerCadena();
+                LocalDate fechaPrestamo = entrada.leerFecha(diccionario);
+                LocalDate fechaDevolucionEsperada = entrada.leerFecha(diccionario);
+                LocalDate fechaDevolucionReal = entrada.leerFecha(diccionario);
+                Libro libro = librosPorISBN.get(isbn);
+                Miembro miembro = miembrosPorId.get(miembroId);
+                if (libro != null && miembro != null) {
+                    prestamos.add(new Prestamo(libro, miembro, fechaPrestamo, fechaDevolucionEsperada, fechaDevolucionReal));
+                } else {
+                    System.out.println("Libro o miembro no encontrado para el préstamo: " + isbn + "," + miembroId);
+                }
+            }
+            entrada.verificar();
+            System.out.println("Deduplicación al cargar préstamos: " + diccionario);
+            return prestamos;
+        }
+    }
+
+    // ----- Sucursales -----
+
+    /**
+     * Guarda una lista de sucursales en formato binario.
+     *
+     * @param sucursales Sucursales a guardar.
+     * @param archivo    Ruta del archivo binario.
+     * @throws IOException Si ocurre un error al escribir.
+     */
+    public static void guardarSucursales(List<Sucursal> sucursales, String archivo) throws IOException {
+        try (Escritor salida = new Escritor(archivo, SUCURSALES)) {
+            salida.datos.writeInt(sucursales.size());
+            for (Sucursal sucursal : sucursales) {
+                salida.escribirCadena(sucursal.getNombre().get());
+                salida.escribirCadena(sucursal.getDireccion().get());
+            }
+        }
+    }
+
+    /**
+     * Carga una lista de sucursales desde un archivo binario.
+     *
+     * @param archivo Ruta del archivo binario.
+     * @return Las sucursales guardadas.
+     * @throws IOException Si el archivo no existe, no es válido o está dañado.
+     */
+    public static List<Sucursal> cargarSucursales(String archivo) throws IOException {
+        try (Lector entrada = new Lector(archivo, SUCURSALES)) {
+            int cantidad = entrada.datos.readInt();
+            List<Sucursal> sucursales = new ArrayList<>(cantidad);
+            for (int i = 0; i < cantidad; i++) {
+                sucursales.add(new Sucursal(entrada.leerCadena(), entrada.leerCadena()));
+            }
+            entrada.verificar();
+            return sucursales;
+        }
+    }
+
+    // ----- Utilidades de formato -----
+
+    /**
+     * Agrega un valor al diccionario si todavía no está.
+     *
+     * @param valor       Valor a registrar.
+     * @param indices     Índice de cada valor en la lista.
+     * @param valores     Valores en orden de aparición.
+     */
+    private static void registrarEnDiccionario(String valor, Map<String, Integer> indices, List<String> valores) {
+        String clave = valor(valor);
+        if (!indices.containsKey(clave)) {
+            indices.put(clave, valores.size());
+            valores.add(clave);
+        }
+    }
+
+    /**
+     * Normaliza un valor nulo a cadena vacía.
+     *
+     * @param valor El valor.
+     * @return El valor, o una cadena vacía si es null.
+     */
+    private static String valor(String valor) {
+        return valor != null ? valor : "";
+    }
+
+    /**
+     * Escritura de un archivo binario con encabezado y suma de verificación.
+     */
+    private static final class Escritor implements AutoCloseable {
+
+        private final CRC32 crc = new CRC32();
+        private final DataOutputStream datos;
+
+        Escritor(String archivo, byte tipo) throws IOException {
+            datos = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(archivo), 64 * 1024), crc));
+            datos.writeInt(MAGICO);
+            datos.writeShort(VERSION);
+            datos.writeByte(tipo);
+        }
+
+        void escribirVarInt(int valor) throws IOException {
+            while ((valor & ~0x7F) != 0) {
+                datos.writeByte((valor & 0x7F) | 0x80);
+                valor >>>= 7;
+            }
+            datos.writeByte(valor);
+        }
+
+        void escribirCadena(String texto) throws IOException {
+            byte[] bytes = valor(texto).getBytes(StandardCharsets.UTF_8);
+            escribirVarInt(bytes.length);
+            datos.write(bytes);
+        }
+
+        void escribirDiccionario(List<String> valores) throws IOException {
+            escribirVarInt(valores.size());
+            for (String texto : valores) {
+                escribirCadena(texto);
+            }
+        }
+
+        void escribirFecha(LocalDate fecha) throws IOException {
+            datos.writeInt(fecha != null ? (int) fecha.toEpochDay() : SIN_FECHA);
+        }
+
+        @Override
+        public void close() throws IOException {
+            datos.writeLong(crc.getValue());
+            datos.close();
+        }
+    }
+
+    /**
+     * Lectura de un archivo binario que valida el encabezado y la suma de verificación.
+     */
+    private static final class Lector implements AutoCloseable {
+
+        private final CRC32 crc = new CRC32();
+        private final DataInputStream datos;
+        private byte[] bytes = new byte[64]; // Buffer reutilizable para las cadenas
+
+        Lector(String archivo, byte tipo) throws IOException {
+            datos = new DataInputStream(new CheckedInputStream(
+                    new BufferedInputStream(new FileInputStream(archivo), 64 * 1024), crc));
+            if (datos.readInt() != MAGICO) {
+                datos.close();
+                throw new IOException("No es una instantánea de la biblioteca: " + archivo);
+            }
+            int version = datos.readUnsignedShort();
+            byte tipoLeido = datos.readByte();
+            if (version != VERSION || tipoLeido != tipo) {
+                datos.close();
+                throw new IOException("Versión o tipo de instantánea no compatible en " + archivo);
+            }
+        }
+
+        int leerVarInt() throws IOException {
+            int valor = 0;
+            int desplazamiento = 0;
+            while (true) {
+                int b = datos.readUnsignedByte();
+                valor |= (b & 0x7F) << desplazamiento;
+                if ((b & 0x80) == 0) {
+                    return valor;
+                }
+                desplazamiento += 7;
+                if (desplazamiento > 28) {
+                    throw new IOException("Entero variable inválido");
+                }
+            }
+        }
+
+        String leerCadena() throws IOException {
+            int longitud = leerVarInt();
+            if (longitud > bytes.length) {
+                bytes = new byte[Math.max(longitud, bytes.length * 2)];
+            }
+            datos.readFully(bytes, 0, longitud);
+            return new String(bytes, 0, longitud, StandardCharsets.UTF_8);
+        }
+
+        String[] leerDiccionario() throws IOException {
+            String[] valores = new String[leerVarInt()];
+            for (int i = 0; i < valores.length; i++) {
+                valores[i] = leerCadena();
+            }
+            return valores;
+        }
+
+        LocalDate leerFecha(DiccionarioCadenas diccionario) throws IOException {
+            int dias = datos.readInt();
+            return dias != SIN_FECHA ? diccionario.fechaDesdeDiaEpoca(dias) : null;
+        }
+
+        /**
+         * Compara la suma de verificación calculada con la guardada al final del archivo.
+         *
+         * @throws IOException Si no coinciden.
+         */
+        void verificar() throws IOException {
+            long calculado = crc.getValue();
+            if (datos.readLong() != calculado) {
+                throw new IOException("Suma de verificación incorrecta en la instantánea");
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            datos.close();
+        }
+    }
+}
@@ -0,0 +1,449 @@
+package biblioteca.datos;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Lector de CSV por flujo que sigue el formato RFC 4180.
+ *
+ * Lee el archivo por bloques sobre un buffer de caracteres reutilizable y separa los campos
+ * sin expresiones regulares ni arreglos intermedios de {@code String}. Admite campos entre
+ * comillas (que pueden contener comas, comillas escapadas como {@code ""} y saltos de línea)
+ * y fines de línea {@code \n} o {@code \r\n}. Cada fila se entrega a un {@link ConsumidorFila}
+ * a través de una vista {@link Fila} que convierte los campos directamente desde el buffer.
+ *
+ * Los campos sin comillas se recortan (espacios al inicio y al final), igual que hacía la
+ * carga anterior basada en {@code split} y {@code trim}.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public class LectorCsv {
+
+    private static final int TAMANIO_BUFFER = 64 * 1024;
+
+    /**
+     * Recibe cada fila leída del archivo.
+     */
+    public interface ConsumidorFila {
+
+        /**
+         * Procesa una fila. La vista solo es válida durante la llamada.
+         *
+         * @param fila La fila actual.
+         */
+        void aceptar(Fila fila);
+    }
+
+    private final Reader reader; // Origen de los caracteres
+    private final char[] buffer; // Buffer de lectura reutilizable
+    private int posicion; // Posición actual en el buffer
+    private int limite; // Cantidad de caracteres válidos en el buffer
+    private boolean comillasSinCerrar; // Indica si el texto terminó dentro de un campo entre comillas
+
+    private final Fila fila = new Fila(); // Vista reutilizable de la fila actual
+
+    /**
+     * Crea un lector sobre el origen indicado.
+     *
+     * @param reader Origen de los caracteres; no se cierra al terminar.
+     */
+    public LectorCsv(Reader reader) {
+        this(reader, new char[TAMANIO_BUFFER]);
+    }
+
+    /**
+     * Crea un lector sobre el origen indicado usando el buffer proporcionado.
+     *
+     * @param reader Origen de los caracteres; no se cierra al terminar.
+     * @param buffer Buffer de lectura a reutilizar.
+     */
+    public LectorCsv(Reader reader, char[] buffer) {
+        this.reader = reader;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Crea un lector sobre un rango de caracteres ya disponible en memoria, sin copiarlo.
+     *
+     * @param datos  Arreglo que contiene el texto.
+     * @param inicio Posición inicial del texto.
+     * @param fin    Posición final (exclusiva) del texto.
+     */
+    public LectorCsv(char[] datos, int inicio, int fin) {
+        this.reader = null;
+        this.buffer = datos;
+        this.posicion = inicio;
+        this.limite = fin;
+    }
+
+    /**
+     * Indica si el texto terminó dentro de un campo entre comillas. Cuando el texto es un
+     * bloque de un archivo mayor, significa que el bloque se cortó en medio de un campo.
+     *
+     * @return true si quedaron comillas sin cerrar.
+     */
+    public boolean isComillasSinCerrar() {
+        return comillasSinCerrar;
+    }
+
+    /**
+     * Lee todas las filas y las entrega al consumidor. Las líneas vacías se ignoran.
+     *
+     * @param consumidor       Consumidor de las filas.
+     * @param saltarEncabezado true para ignorar la primera fila.
+     * @return La cantidad de filas entregadas al consumidor.
+     * @throws IOException Si ocurre un error al leer.
+     */
+    public long leer(ConsumidorFila consumidor, boolean saltarEncabezado) throws IOException {
+        long entregadas = 0;
+        boolean encabezado = saltarEncabezado;
+        while (leerFila()) {
+            if (fila.cantidad == 1 && fila.fines[0] == fila.inicios[0] && !fila.conComillas) {
+                continue; // Línea vacía
+            }
+            if (encabezado) {
+                encabezado = false;
+                continue;
+            }
+            consumidor.aceptar(fila);
+            entregadas++;
+        }
+        return entregadas;
+    }
+
+    /**
+     * Lee el siguiente carácter del origen.
+     *
+     * @return El carácter leído, o -1 al final del archivo.
+     * @throws IOException Si ocurre un error al leer.
+     */
+    private int siguiente() throws IOException {
+        if (posicion == limite) {
+            if (reader == null) {
+                return -1;
+            }
+            limite = reader.read(buffer, 0, buffer.length);
+            posicion = 0;
+            if (limite <= 0) {
+                limite = 0;
+                return -1;
+            }
+        }
+        return buffer[posicion++];
+    }
+
+    /**
+     * Lee una fila completa en la vista reutilizable.
+     *
+     * @return false si se llegó al final del archivo sin leer ninguna fila.
+     * @throws IOException Si ocurre un error al leer.
+     */
+    private boolean leerFila() throws IOException {
+        fila.reiniciar();
+        int c = siguiente();
+        if (c == -1) {
+            return false;
+        }
+        fila.numero++;
+        fila.iniciarCampo();
+        boolean entreComillas = false;
+        int finComillas = -1; // Fin del contenido entre comillas del campo actual, o -1 si no usó comillas
+        while (true) {
+            if (entreComillas) {
+                if (c == -1) {
+                    comillasSinCerrar = true; // Comillas sin cerrar al final del archivo
+                    break;
+                }
+                if (c == '"') {
+                    int despues = siguiente();
+                    if (despues == '"') {
+                        fila.agregar('"');
+                    } else {
+                        entreComillas = false;
+                        finComillas = fila.longitud;
+                        c = despues;
+                        continue;
+                    }
+                } else {
+                    fila.agregar((char) c);
+                }
+            } else if (c == -1 || c == '\n') {
+                break;
+            } else if (c == '\r') {
+                int despues = siguiente();
+                if (despues != '\n' && despues != -1) {
+                    posicion--; // Fin de línea con solo \r
+                }
+                break;
+            } else if (c == ',') {
+                fila.terminarCampo(finComillas);
+                fila.iniciarCampo();
+                finComillas = -1;
+            } else if (c == '"' && fila.campoVacio()) {
+                entreComillas = true;
+                finComillas = fila.longitud;
+                fila.conComillas = true;
+            } else {
+                fila.agregar((char) c);
+            }
+            c = siguiente();
+        }
+        fila.terminarCampo(finComillas);
+        return true;
+    }
+
+    /**
+     * Vista de la fila actual. Los campos se guardan uno tras otro en un buffer de
+     * caracteres y se identifican por su posición inicial y final.
+     */
+    public static final class Fila {
+
+        private char[] datos = new char[256]; // Caracteres de todos los campos de la fila
+        private int longitud; // Caracteres usados en datos
+        private int[] inicios = new int[8]; // Inicio de cada campo
+        private int[] fines = new int[8]; // Fin (exclusivo) de cada campo
+        private int cantidad; // Cantidad de campos
+        private boolean conComillas; // Indica si algún campo usó comillas
+        private long numero; // Número de fila en el archivo (comenzando en 1)
+
+        /**
+         * Prepara la vista para una nueva fila.
+         */
+        private void reiniciar() {
+            longitud = 0;
+            cantidad = 0;
+            conComillas = false;
+        }
+
+        /**
+         * Comienza un campo nuevo en la posición actual.
+         */
+        private void iniciarCampo() {
+            if (cantidad == inicios.length) {
+                inicios = Arrays.copyOf(inicios, cantidad * 2);
+                fines = Arrays.copyOf(fines, cantidad * 2);
+            }
+            inicios[cantidad] = longitud;
+        }
+
+        /**
+         * Indica si el campo actual no tiene caracteres distintos de espacios.
+         *
+         * @return true si el campo está vacío.
+         */
+        private boolean campoVacio() {
+            for (int i = inicios[cantidad]; i < longitud; i++) {
+                if (datos[i] != ' ') {
+                    return false;
+                }
+            }
+            longitud = inicios[cantidad]; // Descarta los espacios previos a las comillas
+            return true;
+        }
+
+        /**
+         * Agrega un carácter al campo actual.
+         *
+         * @param c El carácter a agregar.
+         */
+        private void agregar(char c) {
+            if (longitud == datos.length) {
+                datos = Arrays.copyOf(datos, longitud * 2);
+            }
+            datos[longitud++] = c;
+        }
+
+        /**
+         * Cierra el campo actual. Los campos sin comillas se recortan por ambos lados; en los
+         * campos con comillas solo se quitan los espacios que siguen a la comilla de cierre.
+         *
+         * @param finComillas Fin del contenido entre comillas, o -1 si el campo no usó comillas.
+         */
+        private void terminarCampo(int finComillas) {
+            int inicio = inicios[cantidad];
+            int fin = longitud;
+            if (finComillas < 0) {
+                while (inicio < fin && Character.isWhitespace(datos[inicio])) {
+                    inicio++;
+                }
+            }
+            while (fin > Math.max(inicio, finComillas) && Character.isWhitespace(datos[fin - 1])) {
+                fin--;
+            }
+            inicios[cantidad] = inicio;
+            fines[cantidad] = fin;
+            cantidad++;
+        }
+
+        /**
+         * Obtiene la cantidad de campos de la fila.
+         *
+         * @return La cantidad de campos.
+         */
+        public int getCantidadCampos() {
+            return cantidad;
+        }
+
+        /**
+         * Obtiene el número de fila dentro del archivo.
+         *
+         * @return El número de fila, comenzando en 1.
+         */
+        public long getNumero() {
+            return numero;
+        }
+
+        /**
+         * Indica si un campo está vacío o no existe.
+         *
+         * @param campo Índice del campo.
+         * @return true si el campo no tiene contenido.
+         */
+        public boolean esVacio(int campo) {
+            return campo >= cantidad || inicios[campo] == fines[campo];
+        }
+
+        /**
+         * Obtiene un campo como texto.
+         *
+         * @param campo Índice del campo.
+         * @return El contenido del campo, o una cadena vacía si no existe.
+         */
+        public String texto(int campo) {
+            if (campo >= cantidad) {
+                return "";
+            }
+            return new String(datos, inicios[campo], fines[campo] - inicios[campo]);
+        }
+
+        /**
+         * Obtiene un campo como texto usando la instancia compartida del diccionario, sin crear
+         * una cadena nueva si el valor ya apareció antes.
+         *
+         * @param campo       Índice del campo.
+         * @param diccionario Diccionario de valores compartidos.
+         * @return El contenido del campo, o una cadena vacía si no existe.
+         */
+        public String texto(int campo, DiccionarioCadenas diccionario) {
+            if (campo >= cantidad) {
+                return "";
+            }
+            return diccionario.internar(datos, inicios[campo], fines[campo] - inicios[campo]);
+        }
+
+        /**
+         * Convierte un campo a entero directamente desde el buffer.
+         *
+         * @param campo Índice del campo.
+         * @return El valor entero del campo.
+         * @throws NumberFormatException Si el campo no es un entero válido.
+         */
+        public int entero(int campo) {
+            if (esVacio(campo)) {
+                throw new NumberFormatException("Campo vacío");
+            }
+            int i = inicios[campo];
+            int fin = fines[campo];
+            boolean negativo = datos[i] == '-';
+            if (negativo || datos[i] == '+') {
+                i++;
+            }
+            if (i == fin || fin - i > 9) {
+                return Integer.parseInt(texto(campo)); // Casos raros: se delega en el JDK
+            }
+            int valor = 0;
+            for (; i < fin; i++) {
+                int digito = datos[i] - '0';
+                if (digito < 0 || digito > 9) {
+                    throw new NumberFormatException("Entero inválido: " + texto(campo));
+                }
+                valor = valor * 10 + digito;
+            }
+            return negativo ? -valor : valor;
+        }
+
+        /**
+         * Convierte un campo con formato {@code yyyy-MM-dd} a fecha directamente desde el buffer.
+         *
+         * @param campo Índice del campo.
+         * @return La fecha, o null si el campo está vacío o no es una fecha válida.
+         */
+        public LocalDate fecha(int campo) {
+            return fecha(campo, null);
+        }
+
+        /**
+         * Convierte un campo con formato {@code yyyy-MM-dd} a fecha, usando la instancia
+         * compartida del diccionario si se indica uno.
+         *
+         * @param campo       Índice del campo.
+         * @param diccionario Diccionario de valores compartidos, o null para crear una fecha nueva.
+         * @return La fecha, o null si el campo está vacío o no es una fecha válida.
+         */
+        public LocalDate fecha(int campo, DiccionarioCadenas diccionario) {
+            if (esVacio(campo)) {
+                return null;
+            }
+            int i = inicios[campo];
+            if (fines[campo] - i != 10 || datos[i + 4] != '-' || datos[i + 7] != '-') {
+                return null;
+            }
+            int anio = digitos(i, 4);
+            int mes = digitos(i + 5, 2);
+            int dia = digitos(i + 8, 2);
+            if (anio < 0 || mes < 0 || dia < 0) {
+                return null;
+            }
+            if (diccionario != null) {
+                return diccionario.fecha(anio, mes, dia);
+            }
+            try {
+                return LocalDate.of(anio, mes, dia);
+            } catch (DateTimeException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Convierte una secuencia de dígitos del buffer en un número.
+         *
+         * @param desde    Posición del primer dígito.
+         * @param cantidad Cantidad de dígitos.
+         * @return El número, o -1 si algún carácter no es un dígito.
+         */
+        private int digitos(int desde, int cantidad) {
+            int valor = 0;
+            for (int i = desde; i < desde + cantidad; i++) {
+                int digito = datos[i] - '0';
+                if (digito < 0 || digito > 9) {
+                    return -1;
+                }
+                valor = valor * 10 + digito;
+            }
+            return valor;
+        }
+
+        /**
+         * Devuelve la fila reconstruida como texto, útil para mensajes de error.
+         *
+         * @return Los campos separados por comas.
+         */
+        @Override
+        public String toString() {
+            StringBuilder texto = new StringBuilder();
+            for (int i = 0; i < cantidad; i++) {
+                if (i > 0) {
+                    texto.append(',');
+                }
+                texto.append(datos, inicios[i], fines[i] - inicios[i]);
+            }
+            return texto.toString();
+        }
+    }
+}
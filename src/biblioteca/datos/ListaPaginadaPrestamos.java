@@ -0,0 +1,211 @@
+package biblioteca.datos;
+
+import biblioteca.models.Libro;
+import biblioteca.models.Miembro;
+import biblioteca.models.Prestamo;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.ObservableListBase;
+
+/**
+ * Vista paginada de los préstamos del repositorio para la tabla de préstamos.
+ *
+ * La lista tiene un elemento por préstamo, pero las filas ({@link FilaPrestamo}) solo se crean
+ * por páginas a medida que la tabla pide las posiciones visibles. Al pedir una posición cerca
+ * del borde de su página se prepara también la página vecina, para que el desplazamiento no
+ * tenga que formatear filas. Se guardan como mucho {@link #MAXIMO_PAGINAS} páginas y se
+ * descartan las usadas hace más tiempo, así que la memoria que ocupan las filas no depende de
+ * la cantidad de préstamos del historial.
+ *
+ * Los cambios en la lista de préstamos, incluidas las devoluciones, se reenvían como cambios de
+ * esta lista. Los cambios de libros o miembros, que no modifican la lista, se aplican sobre las
+ * filas que están en memoria; las demás tomarán los datos nuevos al crearse.
+ *
+ * Como la lista del repositorio, solo se usa desde el hilo de JavaFX.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public final class ListaPaginadaPrestamos extends ObservableListBase<FilaPrestamo> implements OyenteBiblioteca {
+
+    private static final int TAMANIO_PAGINA = 128; // Filas por página
+    private static final int MARGEN = 32; // Distancia al borde de la página a la que se prepara la vecina
+    private static final int MAXIMO_PAGINAS = 16; // Páginas que se guardan en memoria
+
+    private static ListaPaginadaPrestamos instancia; // Instancia única de la lista
+
+    private final ObservableList<Prestamo> prestamos; // Préstamos del repositorio
+    private final Map<Integer, FilaPrestamo[]> paginas = new LinkedHashMap<>(MAXIMO_PAGINAS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, FilaPrestamo[]> mayor) {
+            return size() > MAXIMO_PAGINAS;
+        }
+    }; // Número de página -> sus filas, de la usada hace más tiempo a la más reciente
+
+    /**
+     * Crea la lista sobre los préstamos del repositorio.
+     *
+     * @param prestamos La lista de préstamos del repositorio.
+     */
+    private ListaPaginadaPrestamos(ObservableList<Prestamo> prestamos) {
+        this.prestamos = prestamos;
+        prestamos.addListener(this::prestamosCambiados);
+    }
+
+    /**
+     * Obtiene la instancia única de la lista, registrándola en el repositorio la primera vez.
+     *
+     * @return La lista compartida por toda la aplicación.
+     */
+    public static synchronized ListaPaginadaPrestamos getInstancia() {
+        if (instancia == null) {
+            RepositorioBiblioteca repositorio = RepositorioBiblioteca.getInstancia();
+            instancia = new ListaPaginadaPrestamos(repositorio.getPrestamos());
+            repositorio.agregarOyente(instancia);
+        }
+        return instancia;
+    }
+
+    /**
+     * Obtiene la fila de una posición, creando su página si no está en memoria.
+     *
+     * @param indice La posición de la fila.
+     * @return La fila del préstamo en esa posición.
+     * @throws IndexOutOfBoundsException Si la posición está fuera de la lista.
+     */
+    @Override
+    public FilaPrestamo get(int indice) {
+        Objects.checkIndex(indice, prestamos.size());
+        int numero = indice / TAMANIO_PAGINA;
+        int posicion = indice % TAMANIO_PAGINA;
+        FilaPrestamo fila = pagina(numero)[posicion];
+        if (posicion < MARGEN && numero > 0) {
+            pagina(numero - 1);
+        } else if (posicion >= TAMANIO_PAGINA - MARGEN && (numero + 1) * TAMANIO_PAGINA < prestamos.size()) {
+            pagina(numero + 1);
+        }
+        return fila;
+    }
+
+    /**
+     * Obtiene la cantidad de préstamos.
+     *
+     * @return La cantidad de préstamos del repositorio.
+     */
+    @Override
+    public int size() {
+        return prestamos.size();
+    }
+
+    /**
+     * Obtiene las filas de una página, creándolas si la página no está en memoria.
+     *
+     * @param numero El número de la página.
+     * @return Las filas de la página; la última página puede tener menos filas.
+     */
+    private FilaPrestamo[] pagina(int numero) {
+        FilaPrestamo[] pagina = paginas.get(numero);
+        if (pagina == null) {
+            int desde = numero * TAMANIO_PAGINA;
+            pagina = new FilaPrestamo[Math.min(TAMANIO_PAGINA, prestamos.size() - desde)];
+            for (int i = 0; i < pagina.length; i++) {
+                pagina[i] = new FilaPrestamo(prestamos.get(desde + i));
+            }
+            paginas.put(numero, pagina);
+        }
+        return pagina;
+    }
+
+    /**
+     * Reenvía los cambios de la lista de préstamos. Las páginas desde la primera posición
+     * cambiada se descartan, porque sus filas pueden haberse movido.
+     *
+     * @param cambio El cambio de la lista de préstamos.
+     */
+    private void prestamosCambiados(ListChangeListener.Change<? extends Prestamo> cambio) {
+        beginChange();
+        try {
+            while (cambio.next()) {
+                int desde = cambio.getFrom();
+                if (cambio.wasUpdated()) {
+                    for (int i = desde; i < cambio.getTo(); i++) {
+                        FilaPrestamo[] pagina = paginas.get(i / TAMANIO_PAGINA);
+                        if (pagina != null) {
+                            pagina[i % TAMANIO_PAGINA].actualizar();
+                        }
+                        nextUpdate(i);
+                    }
+                    continue;
+                }
+                paginas.keySet().removeIf(numero -> numero >= desde / TAMANIO_PAGINA);
+                if (cambio.wasPermutated()) {
+                    int[] permutacion = new int[cambio.getTo() - desde];
+                    for (int i = desde; i < cambio.getTo(); i++) {
+                        permutacion[i - desde] = cambio.getPermutation(i);
+                    }
+                    nextPermutation(desde, cambio.getTo(), permutacion);
+                    continue;
+                }
+                if (cambio.wasRemoved()) {
+                    List<FilaPrestamo> quitadas = new ArrayList<>(cambio.getRemovedSize());
+                    for (Prestamo prestamo : cambio.getRemoved()) {
+                        quitadas.add(new FilaPrestamo(prestamo));
+                    }
+                    nextRemove(desde, quitadas);
+                }
+                if (cambio.wasAdded()) {
+                    nextAdd(desde, cambio.getTo());
+                }
+            }
+        } finally {
+            endChange();
+        }
+    }
+
+    /**
+     * Vuelve a calcular los textos de las filas en memoria que cumplen una condición.
+     *
+     * @param condicion La condición que deben cumplir las filas.
+     */
+    private void actualizarFilas(Predicate<FilaPrestamo> condicion) {
+        for (FilaPrestamo[] pagina : paginas.values()) {
+            for (FilaPrestamo fila : pagina) {
+                if (condicion.test(fila)) {
+                    fila.actualizar();
+                }
+            }
+        }
+    }
+
+    // ----- Eventos del repositorio -----
+
+    /**
+     * Muestra el título nuevo en las filas en memoria de los préstamos del libro.
+     *
+     * @param libro    El libro, ya con los valores nuevos.
+     * @param anterior Copia del libro con los valores previos.
+     */
+    @Override
+    public void libroModificado(Libro libro, Libro anterior) {
+        actualizarFilas(fila -> fila.getPrestamo().getLibro() == libro);
+    }
+
+    /**
+     * Muestra el nombre nuevo en las filas en memoria de los préstamos del miembro.
+     *
+     * @param miembro  El miembro, ya con los valores nuevos.
+     * @param anterior Copia del miembro con los valores previos.
+     */
+    @Override
+    public void miembroModificado(Miembro miembro, Miembro anterior) {
+        actualizarFilas(fila -> fila.getPrestamo().getMiembro() == miembro);
+    }
+}
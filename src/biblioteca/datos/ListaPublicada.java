@@ -0,0 +1,281 @@
+package biblioteca.datos;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import javafx.collections.ModifiableObservableListBase;
+
+/**
+ * Lista observable del repositorio cuyos avisos de cambio puede agrupar
+ * {@link PublicadorCambios}.
+ *
+ * Los cambios se aplican de inmediato a los elementos, pero mientras el publicador mantiene
+ * abierto un grupo, los oyentes (tablas, listas filtradas y ordenadas) reciben un único aviso
+ * al cerrarlo, con todas las altas, bajas y modificaciones juntas. Las modificaciones de los
+ * datos de un elemento se avisan con {@link #actualizado(Object)} como cambios de actualización,
+ * que solo redibujan la fila del elemento.
+ *
+ * Los índices por clave del repositorio se mantienen con las acciones de alta y baja, que se
+ * ejecutan al modificar la lista y no al avisar, para que estén al día aunque el aviso espere.
+ *
+ * Para avisar la actualización de un elemento hace falta su posición. Quien la conoce puede
+ * indicarla con {@link #actualizado(Object, int)}; si no, la lista la busca en una tabla de
+ * dispersión por identidad, un arreglo de enteros con direccionamiento abierto que no crea
+ * objetos por elemento. La tabla se arma en la primera búsqueda, agregar al final la mantiene
+ * al día y una inserción, reemplazo o baja en otro lugar la descarta, porque desplaza
+ * posiciones; la siguiente búsqueda la vuelve a armar, con un costo del mismo orden que el del
+ * propio cambio. Así una lista que solo crece y siempre recibe la posición no paga la tabla.
+ *
+ * @param <E> Tipo de los elementos.
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public final class ListaPublicada<E> extends ModifiableObservableListBase<E> {
+
+    private final List<E> elementos = new ArrayList<>(); // Elementos de la lista
+    private final Consumer<E> alAgregar; // Acción sobre cada elemento que entra en la lista
+    private final Consumer<E> alQuitar; // Acción sobre cada elemento que sale de la lista
+    private final Map<E, Integer> actualizados = new IdentityHashMap<>(); // Modificados en el grupo abierto -> posición indicada, o -1
+    private int gruposAbiertos; // Grupos abiertos por el publicador
+    private int[] posiciones; // Tabla por identidad: posición + 1 de cada elemento, 0 si la casilla está libre; null si no está armada
+
+    /**
+     * Crea una lista vacía sin acciones de alta ni baja.
+     */
+    public ListaPublicada() {
+        this(elemento -> { }, elemento -> { });
+    }
+
+    /**
+     * Crea una lista vacía con acciones que se ejecutan al agregar y al quitar elementos.
+     *
+     * @param alAgregar Acción sobre cada elemento que entra en la lista.
+     * @param alQuitar  Acción sobre cada elemento que sale de la lista.
+     */
+    public ListaPublicada(Consumer<E> alAgregar, Consumer<E> alQuitar) {
+        this.alAgregar = alAgregar;
+        this.alQuitar = alQuitar;
+    }
+
+    /**
+     * Avisa que cambiaron los datos de un elemento de la lista. Con un grupo abierto el aviso
+     * se envía al cerrarlo, una sola vez aunque el elemento cambie varias veces.
+     *
+     * @param elemento El elemento modificado; si no está en la lista no se avisa nada.
+     */
+    public void actualizado(E elemento) {
+        actualizado(elemento, -1);
+    }
+
+    /**
+     * Avisa que cambiaron los datos de un elemento cuya posición conoce quien llama, sin
+     * buscarla. Si al enviar el aviso el elemento ya no está en esa posición, se busca como en
+     * {@link #actualizado(Object)}.
+     *
+     * @param elemento El elemento modificado; si no está en la lista no se avisa nada.
+     * @param posicion La posición del elemento, o -1 si no se conoce.
+     */
+    public void actualizado(E elemento, int posicion) {
+        beginChange();
+        try {
+            Integer anterior = actualizados.put(elemento, posicion);
+            if (posicion < 0 && anterior != null) {
+                actualizados.put(elemento, anterior);
+            }
+            if (gruposAbiertos == 0) {
+                avisarActualizados();
+            }
+        } finally {
+            endChange();
+        }
+    }
+
+    /**
+     * Abre un grupo de cambios: los avisos se acumulan hasta {@link #cerrarGrupo()}.
+     */
+    void abrirGrupo() {
+        beginChange();
+        gruposAbiertos++;
+    }
+
+    /**
+     * Cierra un grupo de cambios. Al cerrar el último grupo abierto se envía a los oyentes un
+     * único aviso con los cambios acumulados.
+     */
+    void cerrarGrupo() {
+        try {
+            if (--gruposAbiertos == 0) {
+                avisarActualizados();
+            }
+        } finally {
+            endChange();
+        }
+    }
+
+    /**
+     * Agrega al cambio en curso la actualización de cada elemento modificado que sigue en la
+     * lista, en la posición indicada o, si no la hay o ya no es la suya, en la que da la tabla
+     * por identidad.
+     */
+    private void avisarActualizados() {
+        for (Map.Entry<E, Integer> actualizado : actualizados.entrySet()) {
+            E elemento = actualizado.getKey();
+            int posicion = actualizado.getValue();
+            if (posicion < 0 || posicion >= elementos.size() || elementos.get(posicion) != elemento) {
+                posicion = posicion(elemento);
+            }
+            if (posicion >= 0) {
+                nextUpdate(posicion);
+            }
+        }
+        actualizados.clear();
+    }
+
+    /**
+     * Busca la posición de un elemento por identidad, armando antes la tabla si no lo está.
+     *
+     * @param elemento El elemento.
+     * @return Su posición, o -1 si no está en la lista.
+     */
+    private int posicion(E elemento) {
+        if (posiciones == null) {
+            reconstruirPosiciones(16);
+        }
+        int mascara = posiciones.length - 1;
+        for (int casilla = dispersion(elemento) & mascara; ; casilla = (casilla + 1) & mascara) {
+            int valor = posiciones[casilla];
+            if (valor == 0) {
+                return -1;
+            }
+            if (elementos.get(valor - 1) == elemento) {
+                return valor - 1;
+            }
+        }
+    }
+
+    /**
+     * Registra en la tabla la posición de un elemento recién agregado al final, ampliándola si
+     * queda ocupada en más de tres cuartos.
+     *
+     * @param indice La posición del elemento.
+     */
+    private void registrarPosicion(int indice) {
+        if ((long) elementos.size() * 4 > (long) posiciones.length * 3) {
+            reconstruirPosiciones(posiciones.length * 2);
+        } else {
+            insertarPosicion(indice);
+        }
+    }
+
+    /**
+     * Vuelve a llenar la tabla con la posición de todos los elementos.
+     *
+     * @param capacidad Capacidad mínima de la tabla; se amplía si no alcanza para los elementos.
+     */
+    private void reconstruirPosiciones(int capacidad) {
+        while ((long) elementos.size() * 4 > (long) capacidad * 3) {
+            capacidad *= 2;
+        }
+        posiciones = new int[capacidad];
+        for (int i = 0; i < elementos.size(); i++) {
+            insertarPosicion(i);
+        }
+    }
+
+    /**
+     * Guarda la posición de un elemento en la primera casilla libre desde la de su dispersión.
+     *
+     * @param indice La posición del elemento.
+     */
+    private void insertarPosicion(int indice) {
+        int mascara = posiciones.length - 1;
+        int casilla = dispersion(elementos.get(indice)) & mascara;
+        while (posiciones[casilla] != 0) {
+            casilla = (casilla + 1) & mascara;
+        }
+        posiciones[casilla] = indice + 1;
+    }
+
+    /**
+     * Calcula la dispersión de un elemento por identidad, mezclando los bits altos con los bajos.
+     *
+     * @param elemento El elemento.
+     * @return La dispersión.
+     */
+    private static int dispersion(Object elemento) {
+        int h = System.identityHashCode(elemento);
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Obtiene el elemento de una posición.
+     *
+     * @param indice La posición.
+     * @return El elemento en esa posición.
+     */
+    @Override
+    public E get(int indice) {
+        return elementos.get(indice);
+    }
+
+    /**
+     * Obtiene la cantidad de elementos.
+     *
+     * @return La cantidad de elementos de la lista.
+     */
+    @Override
+    public int size() {
+        return elementos.size();
+    }
+
+    /**
+     * Inserta un elemento en una posición.
+     *
+     * @param indice   La posición.
+     * @param elemento El elemento a insertar.
+     */
+    @Override
+    protected void doAdd(int indice, E elemento) {
+        elementos.add(indice, elemento);
+        if (indice != elementos.size() - 1) {
+            posiciones = null;
+        } else if (posiciones != null) {
+            registrarPosicion(indice);
+        }
+        alAgregar.accept(elemento);
+    }
+
+    /**
+     * Reemplaza el elemento de una posición.
+     *
+     * @param indice   La posición.
+     * @param elemento El elemento nuevo.
+     * @return El elemento reemplazado.
+     */
+    @Override
+    protected E doSet(int indice, E elemento) {
+        E anterior = elementos.set(indice, elemento);
+        posiciones = null;
+        alQuitar.accept(anterior);
+        alAgregar.accept(elemento);
+        return anterior;
+    }
+
+    /**
+     * Quita el elemento de una posición.
+     *
+     * @param indice La posición.
+     * @return El elemento quitado.
+     */
+    @Override
+    protected E doRemove(int indice) {
+        E quitado = elementos.remove(indice);
+        posiciones = null;
+        alQuitar.accept(quitado);
+        return quitado;
+    }
+}
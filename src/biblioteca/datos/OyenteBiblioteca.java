@@ -0,0 +1,102 @@
+package biblioteca.datos;
+
+import biblioteca.models.Libro;
+import biblioteca.models.Miembro;
+import biblioteca.models.Prestamo;
+
+/**
+ * Recibe los cambios que se hacen sobre los datos de {@link RepositorioBiblioteca}.
+ *
+ * El repositorio avisa primero con {@link #datosCargados(RepositorioBiblioteca)} cuando los
+ * datos terminan de cargarse y, a partir de ese momento, con un evento por cada operación que
+ * pasa por él. Los registros del diario que se reproducen durante la carga no generan eventos:
+ * ya están incluidos en los datos que se tienen al recibir
+ * {@link #datosCargados(RepositorioBiblioteca)}.
+ *
+ * Los eventos se entregan en el hilo que hizo el cambio, que en la interfaz es el hilo de
+ * JavaFX. Todos los métodos tienen una implementación vacía para que cada oyente atienda
+ * solo los eventos que necesita.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public interface OyenteBiblioteca {
+
+    /**
+     * Se llama cuando los datos terminan de cargarse, o al registrarse el oyente si ya estaban
+     * cargados. El oyente debe calcular su estado a partir de las listas del repositorio.
+     *
+     * @param repositorio El repositorio con los datos cargados.
+     */
+    default void datosCargados(RepositorioBiblioteca repositorio) {
+    }
+
+    /**
+     * Se llama después de agregar un libro al catálogo.
+     *
+     * @param libro El libro agregado.
+     */
+    default void libroAgregado(Libro libro) {
+    }
+
+    /**
+     * Se llama después de modificar los datos de un libro.
+     *
+     * @param libro    El libro, ya con los valores nuevos.
+     * @param anterior Copia del libro con los valores que tenía antes del cambio.
+     */
+    default void libroModificado(Libro libro, Libro anterior) {
+    }
+
+    /**
+     * Se llama después de eliminar un libro del catálogo. Si el libro estaba prestado, su
+     * préstamo deja de estar activo sin que se genere un evento de devolución.
+     *
+     * @param libro El libro eliminado.
+     */
+    default void libroEliminado(Libro libro) {
+    }
+
+    /**
+     * Se llama después de agregar un miembro.
+     *
+     * @param miembro El miembro agregado.
+     */
+    default void miembroAgregado(Miembro miembro) {
+    }
+
+    /**
+     * Se llama después de modificar los datos de un miembro.
+     *
+     * @param miembro  El miembro, ya con los valores nuevos.
+     * @param anterior Copia del miembro con los valores que tenía antes del cambio.
+     */
+    default void miembroModificado(Miembro miembro, Miembro anterior) {
+    }
+
+    /**
+     * Se llama después de eliminar un miembro.
+     *
+     * @param miembro El miembro eliminado.
+     */
+    default void miembroEliminado(Miembro miembro) {
+    }
+
+    /**
+     * Se llama después de registrar un préstamo.
+     *
+     * @param prestamo El préstamo registrado.
+     */
+    default void prestamoRegistrado(Prestamo prestamo) {
+    }
+
+    /**
+     * Se llama después de devolver un préstamo; su fecha de devolución real ya está asignada.
+     *
+     * @param prestamo El préstamo devuelto.
+     */
+    default void prestamoDevuelto(Prestamo prestamo) {
+    }
+}
@@ -0,0 +1,390 @@
+package biblioteca.datos;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escritura diferida (write-behind) de los registros del {@link Diario}.
+ *
+ * Los registros se encolan en memoria y el llamador sigue de inmediato; un hilo en segundo
+ * plano los escribe por grupos con una sola escritura y una sola sincronización con el disco
+ * (group commit). Un grupo se escribe cuando junta {@value #MAXIMO_GRUPO} registros o cuando el
+ * primero lleva {@value #ESPERA_MAXIMA_MS} ms esperando, lo que ocurra antes. Cada registro
+ * devuelve una tarea que termina cuando quedó en disco, para los casos en que hay que
+ * confirmarlo antes de seguir.
+ *
+ * Los registros de estado ({@link #registrarEstado}) guardan la fila completa, así que una
+ * modificación de una fila reemplaza en la cola a la anterior de la misma fila, siempre que
+ * ningún otro registro pendiente haya tocado esa fila en medio. Los demás registros
+ * ({@link #registrarEvento}), como los préstamos o las eliminaciones, se escriben todos y en
+ * orden.
+ *
+ * Si una escritura falla, los registros vuelven al principio de la cola para reintentarse,
+ * porque los cambios ya están aplicados en memoria, y sus tareas siguen sin terminar hasta que
+ * el reintento los escriba. Al cerrar se escriben todos los registros pendientes antes de
+ * cerrar el diario; solo si esa última escritura falla las tareas terminan con el error.
+ *
+ * La rotación del diario ({@link #rotar(Path)}) también se encola: la hace el hilo escritor
+ * después de escribir los registros anteriores, sin que el llamador espere el disco.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public final class PersistenciaDiferida implements Closeable {
+
+    private static final int MAXIMO_GRUPO = 256; // Registros pendientes que se escriben sin esperar más
+    private static final long ESPERA_MAXIMA_MS = 10; // Tiempo máximo que espera un registro antes de escribirse
+    private static final long ESPERA_REINTENTO_MS = 1000; // Espera antes de reintentar una escritura fallida
+
+    private final Diario diario; // Diario donde se escriben los registros
+    private final Thread escritor; // Hilo que escribe los grupos
+
+    // Estado compartido con el hilo escritor, protegido por el monitor de esta instancia
+    private final List<Pendiente> pendientes = new ArrayList<>(); // Registros por escribir, en orden
+    private final Map<String, Integer> ultimoPorFila = new HashMap<>(); // Fila -> posición del último pendiente que la toca
+    private long inicioEspera; // Momento (System.nanoTime) en que llegó el primer pendiente
+    private boolean escribiendo; // Indica si el hilo escritor está escribiendo un grupo
+    private int vaciados; // Llamadas en curso que esperan a que se escriba todo
+    private int rotaciones; // Rotaciones encoladas que el hilo escritor todavía no hizo
+    private int fallos; // Escrituras fallidas desde que se abrió
+    private IOException ultimoError; // Error de la última escritura fallida
+    private int registros; // Registros que ya tenía el diario al abrirse más los encolados, hasta la próxima rotación
+    private boolean cerrado; // Indica si ya no se aceptan registros
+
+    /**
+     * Crea la escritura diferida sobre un diario abierto e inicia el hilo escritor.
+     *
+     * @param diario El diario donde se escriben los registros.
+     */
+    public PersistenciaDiferida(Diario diario) {
+        this.diario = diario;
+        this.registros = diario.getRegistros();
+        escritor = new Thread(this::escribirGrupos, "persistencia-diario");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    /**
+     * Encola un registro con el estado completo de una fila. Si el último registro pendiente
+     * que toca la fila es también su estado, se reemplaza por este en lugar de agregar otro.
+     *
+     * @param fila   Clave de la fila, única entre todas las tablas.
+     * @param campos Campos del registro; el primero es el tipo de operación.
+     * @return Una tarea que termina cuando el registro (o uno posterior que lo reemplazó) está en disco.
+     * @throws IllegalStateException Si la persistencia ya se cerró.
+     */
+    public synchronized CompletableFuture<Void> registrarEstado(String fila, String... campos) {
+        Integer posicion = ultimoPorFila.get(fila);
+        if (posicion != null && fila.equals(pendientes.get(posicion).fila)) {
+            Pendiente anterior = pendientes.get(posicion);
+            anterior.campos = campos;
+            return anterior.guardado;
+        }
+        return encolar(new Pendiente(fila, campos), List.of(fila));
+    }
+
+    /**
+     * Encola un registro que no reemplaza a ningún otro, como un préstamo o una eliminación.
+     *
+     * @param filas  Claves de las filas que toca el registro.
+     * @param campos Campos del registro; el primero es el tipo de operación.
+     * @return Una tarea que termina cuando el registro está en disco.
+     * @throws IllegalStateException Si la persistencia ya se cerró.
+     */
+    public synchronized CompletableFuture<Void> registrarEvento(Collection<String> filas, String... campos) {
+        return encolar(new Pendiente(null, campos), filas);
+    }
+
+    /**
+     * Agrega un registro al final de la cola y despierta al hilo escritor si hace falta.
+     *
+     * @param pendiente El registro.
+     * @param filas     Claves de las filas que toca el registro.
+     * @return La tarea del registro.
+     * @throws IllegalStateException Si la persistencia ya se cerró.
+     */
+    private CompletableFuture<Void> encolar(Pendiente pendiente, Collection<String> filas) {
+        if (cerrado) {
+            throw new IllegalStateException("El diario ya está cerrado");
+        }
+        if (pendientes.isEmpty()) {
+            inicioEspera = System.nanoTime();
+        }
+        for (String fila : filas) {
+            ultimoPorFila.put(fila, pendientes.size());
+        }
+        pendientes.add(pendiente);
+        registros++;
+        if (pendientes.size() == 1 || pendientes.size() >= MAXIMO_GRUPO) {
+            notifyAll();
+        }
+        return pendiente.guardado;
+    }
+
+    /**
+     * Obtiene la cantidad de registros del diario, escritos o no: los que ya tenía al abrirse
+     * más los encolados, o solo los encolados desde la última rotación. Los registros que
+     * reemplazaron a otro no se cuentan.
+     *
+     * @return La cantidad de registros.
+     */
+    public synchronized int getRegistros() {
+        return registros;
+    }
+
+    /**
+     * Espera a que todos los registros encolados hasta ahora estén en disco.
+     *
+     * @throws IOException Si una escritura falla mientras se espera.
+     */
+    public synchronized void vaciar() throws IOException {
+        int fallosAntes = fallos;
+        vaciados++;
+        notifyAll();
+        try {
+            while (!pendientes.isEmpty() || escribiendo) {
+                if (fallos != fallosAntes) {
+                    throw new IOException("No se pudo escribir el diario", ultimoError);
+                }
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrumpido mientras se escribía el diario", e);
+        } finally {
+            vaciados--;
+        }
+    }
+
+    /**
+     * Encola la rotación del diario (ver {@link Diario#rotar(Path)}): el hilo escritor la hace en
+     * cuanto termina de escribir los registros encolados hasta ahora, y los que lleguen después
+     * van al diario nuevo. Ningún registro posterior reemplaza a uno anterior a la rotación.
+     *
+     * @param destino Ruta a la que se mueve el diario actual.
+     * @return Una tarea que termina cuando el diario quedó rotado, o con el error si la rotación
+     *         falla; en ese caso los registros siguen yendo al diario actual.
+     * @throws IllegalStateException Si la persistencia ya se cerró.
+     */
+    public synchronized CompletableFuture<Void> rotar(Path destino) {
+        Pendiente rotacion = new Pendiente(null, null);
+        rotacion.destino = destino;
+        rotacion.registrosPrevios = registros;
+        CompletableFuture<Void> rotada = encolar(rotacion, List.of());
+        ultimoPorFila.clear(); // Los registros anteriores van al diario rotado
+        registros = 0;
+        rotaciones++;
+        notifyAll();
+        return rotada;
+    }
+
+    /**
+     * Deja de aceptar registros, espera a que se escriban todos los pendientes y cierra el
+     * diario. Las llamadas posteriores no hacen nada.
+     *
+     * @throws IOException Si ocurre un error al cerrar el diario.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            cerrado = true;
+            notifyAll();
+        }
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrumpido mientras se cerraba el diario", e);
+        }
+        diario.close();
+    }
+
+    /**
+     * Ciclo del hilo escritor: espera registros, junta un grupo y lo escribe. Termina cuando la
+     * persistencia está cerrada y no quedan pendientes.
+     */
+    private void escribirGrupos() {
+        while (true) {
+            Pendiente rotacion;
+            List<Pendiente> grupo;
+            List<String[]> lote;
+            synchronized (this) {
+                esperarGrupo();
+                if (pendientes.isEmpty()) {
+                    return;
+                }
+                escribiendo = true;
+                if (pendientes.get(0).destino != null) {
+                    rotacion = pendientes.remove(0);
+                    ultimoPorFila.replaceAll((fila, posicion) -> posicion - 1);
+                    grupo = null;
+                    lote = null;
+                } else {
+                    rotacion = null;
+                    int fin = 0;
+                    while (fin < pendientes.size() && pendientes.get(fin).destino == null) {
+                        fin++; // El grupo llega hasta la siguiente rotación
+                    }
+                    List<Pendiente> tomados = pendientes.subList(0, fin);
+                    grupo = new ArrayList<>(tomados);
+                    lote = new ArrayList<>(grupo.size());
+                    for (Pendiente pendiente : grupo) {
+                        lote.add(pendiente.campos); // Fuera de la cola, ningún registro nuevo los reemplaza
+                    }
+                    tomados.clear();
+                    int cantidad = grupo.size();
+                    ultimoPorFila.replaceAll((fila, posicion) -> posicion - cantidad);
+                    ultimoPorFila.values().removeIf(posicion -> posicion < 0);
+                }
+            }
+            if (rotacion != null) {
+                rotar(rotacion);
+                continue;
+            }
+
+            IOException error = null;
+            try {
+                diario.registrarTodos(lote);
+            } catch (IOException e) {
+                error = e;
+            }
+
+            boolean descartados = false;
+            synchronized (this) {
+                escribiendo = false;
+                if (error != null) {
+                    fallos++;
+                    ultimoError = error;
+                    System.out.println("Error al escribir el diario: " + error.getMessage());
+                    if (cerrado) {
+                        System.out.println("Se descartan " + grupo.size() + " registros sin escribir al cerrar");
+                        descartados = true;
+                    } else {
+                        devolverACola(grupo);
+                    }
+                }
+                notifyAll();
+            }
+            if (error == null) {
+                for (Pendiente pendiente : grupo) {
+                    pendiente.guardado.complete(null);
+                }
+            } else if (descartados) {
+                for (Pendiente pendiente : grupo) {
+                    pendiente.guardado.completeExceptionally(error);
+                }
+            }
+        }
+    }
+
+    /**
+     * Hace una rotación tomada de la cola. Los registros que se encolen mientras tanto los
+     * escribe después este mismo hilo, ya en el diario nuevo. Si la rotación falla, los
+     * registros siguen yendo al diario actual y vuelven a contarse como suyos.
+     *
+     * @param rotacion La rotación tomada de la cola.
+     */
+    private void rotar(Pendiente rotacion) {
+        IOException error = null;
+        try {
+            diario.rotar(rotacion.destino);
+        } catch (IOException e) {
+            error = e;
+        }
+        synchronized (this) {
+            if (error != null) {
+                System.out.println("Error al rotar el diario: " + error.getMessage());
+                registros += rotacion.registrosPrevios;
+            }
+            rotaciones--;
+            escribiendo = false;
+            notifyAll();
+        }
+        if (error == null) {
+            rotacion.guardado.complete(null);
+        } else {
+            rotacion.guardado.completeExceptionally(error);
+        }
+    }
+
+    /**
+     * Espera, con el monitor tomado, hasta que haya un grupo para escribir: al menos
+     * {@value #MAXIMO_GRUPO} pendientes, un pendiente que ya esperó el máximo, alguien
+     * esperando en {@link #vaciar()}, una rotación encolada o la persistencia cerrada. Después
+     * de una escritura fallida espera además {@value #ESPERA_REINTENTO_MS} ms antes de
+     * reintentar, aunque haya una rotación encolada.
+     */
+    private void esperarGrupo() {
+        try {
+            while (pendientes.isEmpty() && !cerrado) {
+                wait();
+            }
+            boolean reintento = ultimoError != null && !pendientes.isEmpty() && pendientes.get(0).reintento;
+            long espera = reintento
+                    ? TimeUnit.MILLISECONDS.toNanos(ESPERA_REINTENTO_MS)
+                    : TimeUnit.MILLISECONDS.toNanos(ESPERA_MAXIMA_MS);
+            long restante;
+            while (!pendientes.isEmpty() && pendientes.size() < MAXIMO_GRUPO && vaciados == 0
+                    && (rotaciones == 0 || reintento) && !cerrado
+                    && (restante = espera - (System.nanoTime() - inicioEspera)) > 0) {
+                TimeUnit.NANOSECONDS.timedWait(this, restante);
+            }
+        } catch (InterruptedException e) {
+            // El hilo escritor no se interrumpe; si ocurre, se escribe lo que haya
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Vuelve a poner al principio de la cola un grupo que no se pudo escribir, con sus mismas
+     * tareas, que terminan cuando el reintento lo escriba.
+     *
+     * @param grupo Los registros que no se pudieron escribir.
+     */
+    private void devolverACola(List<Pendiente> grupo) {
+        List<Pendiente> cola = new ArrayList<>(grupo.size() + pendientes.size());
+        for (Pendiente pendiente : grupo) {
+            pendiente.reintento = true;
+            cola.add(pendiente);
+        }
+        cola.addAll(pendientes);
+        pendientes.clear();
+        pendientes.addAll(cola);
+        ultimoPorFila.clear(); // Sin posiciones conocidas, los registros nuevos no reemplazan a los devueltos
+        inicioEspera = System.nanoTime();
+    }
+
+    /**
+     * Registro que espera en la cola, o una rotación del diario.
+     */
+    private static final class Pendiente {
+
+        private final String fila; // Fila cuyo estado guarda el registro, o null si no es de estado
+        private String[] campos; // Campos del registro; cambian si otro registro lo reemplaza
+        private final CompletableFuture<Void> guardado = new CompletableFuture<>(); // Termina al quedar en disco
+        private boolean reintento; // Indica si el registro vuelve a la cola tras una escritura fallida
+        private Path destino; // Ruta del diario rotado si es una rotación y no un registro, o null
+        private int registrosPrevios; // En una rotación, registros del diario que se rota
+
+        /**
+         * Crea un registro pendiente.
+         *
+         * @param fila   Fila cuyo estado guarda el registro, o null si no es de estado.
+         * @param campos Campos del registro.
+         */
+        private Pendiente(String fila, String[] campos) {
+            this.fila = fila;
+            this.campos = campos;
+        }
+    }
+}
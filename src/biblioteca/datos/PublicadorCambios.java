@@ -0,0 +1,119 @@
+package biblioteca.datos;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javafx.application.Platform;
+
+/**
+ * Agrupa los cambios sobre las listas observables del repositorio para que cada lista avise a
+ * sus oyentes una sola vez por grupo, en lugar de una vez por fila.
+ *
+ * Los cambios publicados con {@link #publicar(Runnable)} pueden venir de cualquier hilo: se
+ * encolan y se aplican juntos en el hilo de JavaFX en la siguiente vuelta de su cola de eventos,
+ * dentro de un mismo grupo. Así, los lotes de una carga o de una importación que llegan mientras
+ * la interfaz dibuja un cuadro producen un solo aviso por lista, y la tabla se reacomoda una vez.
+ *
+ * Los cambios hechos en el hilo de JavaFX que deben verse de inmediato, como reproducir el
+ * diario, se agrupan con {@link #agrupar(Cambio)}.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public final class PublicadorCambios {
+
+    private final List<ListaPublicada<?>> listas; // Listas cuyos avisos se agrupan
+    private final ConcurrentLinkedQueue<Runnable> pendientes = new ConcurrentLinkedQueue<>(); // Cambios por aplicar
+    private final AtomicBoolean programado = new AtomicBoolean(); // Indica si ya se pidió aplicar los pendientes
+
+    /**
+     * Crea un publicador para las listas indicadas.
+     *
+     * @param listas Las listas cuyos avisos se agrupan.
+     */
+    public PublicadorCambios(ListaPublicada<?>... listas) {
+        this.listas = List.of(listas);
+    }
+
+    /**
+     * Encola un cambio para aplicarlo en el hilo de JavaFX junto con los demás cambios que
+     * lleguen antes de que este lo atienda. Puede llamarse desde cualquier hilo.
+     *
+     * @param cambio Acción que modifica las listas.
+     */
+    public void publicar(Runnable cambio) {
+        pendientes.add(cambio);
+        if (programado.compareAndSet(false, true)) {
+            Platform.runLater(this::aplicarPendientes);
+        }
+    }
+
+    /**
+     * Aplica en un solo grupo todos los cambios encolados. Debe llamarse desde el hilo de
+     * JavaFX; un cambio que falla se informa y no impide aplicar los siguientes.
+     */
+    public void aplicarPendientes() {
+        programado.set(false); // Los cambios que lleguen desde ahora piden otra vuelta
+        if (pendientes.isEmpty()) {
+            return;
+        }
+        abrirGrupo();
+        try {
+            Runnable cambio;
+            while ((cambio = pendientes.poll()) != null) {
+                try {
+                    cambio.run();
+                } catch (RuntimeException e) {
+                    System.out.println("Error al aplicar un cambio en las listas: " + e.getMessage());
+                }
+            }
+        } finally {
+            cerrarGrupo();
+        }
+    }
+
+    /**
+     * Ejecuta de inmediato una acción que modifica las listas, avisando a los oyentes de cada
+     * lista una sola vez al terminar. Debe llamarse desde el hilo de JavaFX, o antes de que
+     * las listas se muestren.
+     *
+     * @param cambio Acción que modifica las listas.
+     * @throws IOException Si la acción falla; los cambios hechos hasta ese momento se avisan igual.
+     */
+    public void agrupar(Cambio cambio) throws IOException {
+        abrirGrupo();
+        try {
+            cambio.aplicar();
+        } finally {
+            cerrarGrupo();
+        }
+    }
+
+    /**
+     * Abre un grupo en todas las listas.
+     */
+    private void abrirGrupo() {
+        for (ListaPublicada<?> lista : listas) {
+            lista.abrirGrupo();
+        }
+    }
+
+    /**
+     * Cierra el grupo en todas las listas, en el orden en que se abrió.
+     */
+    private void cerrarGrupo() {
+        for (ListaPublicada<?> lista : listas) {
+            lista.cerrarGrupo();
+        }
+    }
+
+    /**
+     * Acción que modifica las listas dentro de un grupo.
+     */
+    public interface Cambio {
+        void aplicar() throws IOException;
+    }
+}
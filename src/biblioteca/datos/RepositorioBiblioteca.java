@@ -0,0 +1,1049 @@
+package biblioteca.datos;
+
+import biblioteca.controllers.CsvController;
+import biblioteca.models.Libro;
+import biblioteca.models.Miembro;
+import biblioteca.models.Prestamo;
+import biblioteca.models.Sucursal;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
+
+/**
+ * Repositorio en memoria compartido por todos los controladores de la aplicación.
+ *
+ * Los datos de libros, miembros, préstamos y sucursales se cargan una sola vez desde
+ * el almacén y todas las pestañas trabajan sobre las mismas instancias. El almacén se usa
+ * únicamente para persistir los cambios que pasan por este repositorio.
+ *
+ * Cada cambio se anexa como un registro a un {@link Diario} de escritura anticipada en lugar
+ * de reescribir el CSV completo. Cuando el diario acumula {@value #UMBRAL_COMPACTACION}
+ * registros se compacta en segundo plano, escribiendo la instantánea de cada tabla. Al iniciar
+ * se carga la instantánea y se reproduce el diario.
+ *
+ * Las tablas se guardan en un {@link AlmacenBiblioteca}, que se elige por configuración: CSV por
+ * segmentos ({@link AlmacenCsv}, por omisión) o una base de datos embebida ({@link AlmacenJdbc}).
+ * Cada tabla se reparte en una {@link TablaSegmentada}: las listas avisan qué filas cambian, así
+ * que al compactar solo se copian y guardan los segmentos con filas modificadas, y el costo
+ * depende de los cambios y no del tamaño de la tabla. El almacén también resuelve consultas por
+ * clave, rango y filtro sin cargar las tablas ({@link #getAlmacen()}).
+ *
+ * Los registros se escriben en segundo plano con {@link PersistenciaDiferida}: cada operación
+ * aplica el cambio en memoria y devuelve de inmediato una tarea que termina cuando el registro
+ * está en disco, para quien necesite confirmarlo. Al cerrar se escriben los pendientes. En la
+ * interfaz la carga se hace en segundo plano con {@link #iniciarCarga()}, publicando las filas
+ * por lotes en el hilo de JavaFX.
+ *
+ * Las listas son {@link ListaPublicada} y sus avisos se agrupan con un {@link PublicadorCambios}:
+ * los lotes de la carga y los registros del diario se avisan una vez por lista y no una vez por
+ * fila, y al modificar un libro, un miembro o un préstamo se avisa solo el cambio de su fila.
+ *
+ * Mantiene además índices por ISBN y por ID de miembro que se actualizan automáticamente
+ * cuando se agregan o eliminan elementos de las listas, de modo que las búsquedas por
+ * clave son de tiempo constante.
+ *
+ * El índice de préstamos activos relaciona cada libro con su préstamo sin devolver y es la
+ * única fuente de verdad para la disponibilidad de los libros: {@link Libro#isDisponible()}
+ * se recalcula a partir de él al cargar y se actualiza al registrar o devolver un préstamo.
+ *
+ * Los componentes que mantienen datos derivados (por ejemplo, las estadísticas) se registran
+ * como {@link OyenteBiblioteca} y reciben un evento por cada cambio en lugar de releer los datos.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public class RepositorioBiblioteca {
+
+    public static final String DIRECTORIO_DATOS = "src/biblioteca/db"; // Directorio del almacén y de su configuración
+    public static final String RUTA_DIARIO = "src/biblioteca/db/biblioteca.diario";
+
+    private static final String SUFIJO_COMPACTANDO = ".compactando"; // Diario rotado durante una compactación
+    private static final int UMBRAL_COMPACTACION = 10000; // Registros del diario antes de compactar
+    private static final int TAMANIO_LOTE = 5000; // Filas por lote publicado en el hilo de JavaFX
+    private static final int LOTES_EN_ESPERA = 2; // Lotes que pueden esperar en la cola del hilo de JavaFX
+    private static final int PASOS_CARGA = 8; // Lectura y publicación de cada una de las cuatro tablas
+
+    // Tipos de registro del diario
+    private static final String LIBRO_GUARDAR = "LIBRO_GUARDAR";
+    private static final String LIBRO_ELIMINAR = "LIBRO_ELIMINAR";
+    private static final String MIEMBRO_GUARDAR = "MIEMBRO_GUARDAR";
+    private static final String MIEMBRO_ELIMINAR = "MIEMBRO_ELIMINAR";
+    private static final String SUCURSAL_GUARDAR = "SUCURSAL_GUARDAR";
+    private static final String SUCURSAL_ELIMINAR = "SUCURSAL_ELIMINAR";
+    private static final String PRESTAMO_REGISTRAR = "PRESTAMO_REGISTRAR";
+    private static final String PRESTAMO_DEVOLVER = "PRESTAMO_DEVOLVER";
+
+    private static RepositorioBiblioteca instancia; // Instancia única del repositorio
+
+    // Índices por clave, sincronizados con las listas observables al agregar y quitar elementos
+    private final Map<String, Libro> librosPorISBN = new HashMap<>();
+    private final Map<String, Miembro> miembrosPorId = new HashMap<>();
+
+    private final ListaPublicada<Libro> libros = new ListaPublicada<>(
+            libro -> librosPorISBN.putIfAbsent(libro.getISBNValor(), libro),
+            libro -> librosPorISBN.remove(libro.getISBNValor(), libro));
+    private final ListaPublicada<Miembro> miembros = new ListaPublicada<>(
+            miembro -> miembrosPorId.putIfAbsent(miembro.getIdValor(), miembro),
+            miembro -> miembrosPorId.remove(miembro.getIdValor(), miembro));
+    private final ListaPublicada<Prestamo> prestamos = new ListaPublicada<>();
+    private final ListaPublicada<Sucursal> sucursales = new ListaPublicada<>();
+    private final PublicadorCambios publicador = new PublicadorCambios(libros, miembros, prestamos, sucursales); // Agrupa los avisos de las listas
+    private final Map<Libro, Prestamo> prestamosActivos = new HashMap<>(); // Libro -> préstamo sin devolver
+    private final Map<Prestamo, Integer> posicionesActivos = new IdentityHashMap<>(); // Préstamo sin devolver -> su posición en la lista
+
+    // Segmentos de cada tabla, con los modificados desde la última compactación
+    private final TablaSegmentada<Libro> tablaLibros = new TablaSegmentada<>();
+    private final TablaSegmentada<Miembro> tablaMiembros = new TablaSegmentada<>();
+    private final TablaSegmentada<Prestamo> tablaPrestamos = new TablaSegmentada<>();
+    private final TablaSegmentada<Sucursal> tablaSucursales = new TablaSegmentada<>();
+    private volatile AlmacenBiblioteca almacen; // Almacén configurado, abierto al cargar
+
+    private final List<OyenteBiblioteca> oyentes = new ArrayList<>(); // Oyentes de los cambios
+
+    private volatile boolean cargado; // Indica si los datos ya fueron cargados desde los archivos
+    private Task<Void> tareaCarga; // Carga en segundo plano, si se inició
+    private PersistenciaDiferida persistencia; // Escritura diferida del diario donde se anexan los cambios
+    private volatile boolean compactando; // Indica si hay una compactación en curso
+    private final ExecutorService compactador = Executors.newSingleThreadExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "compactador-diario");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    /**
+     * Constructor privado; se debe usar {@link #getInstancia()}.
+     */
+    private RepositorioBiblioteca() {
+    }
+
+    /**
+     * Obtiene la instancia única del repositorio.
+     *
+     * @return El repositorio compartido por toda la aplicación.
+     */
+    public static synchronized RepositorioBiblioteca getInstancia() {
+        if (instancia == null) {
+            instancia = new RepositorioBiblioteca();
+        }
+        return instancia;
+    }
+
+    /**
+     * Carga la instantánea desde el almacén y reproduce el diario si todavía no se
+     * han cargado los datos, bloqueando el hilo actual hasta terminar. Las llamadas posteriores
+     * no vuelven a leer los archivos. La interfaz usa {@link #iniciarCarga()} en su lugar.
+     *
+     * @throws IOException Si ocurre un error al leer alguno de los archivos.
+     */
+    public synchronized void cargar() throws IOException {
+        if (cargado || tareaCarga != null) {
+            return;
+        }
+        Map<Prestamo, Integer> activos;
+        try {
+            activos = leerInstantanea(new Publicacion() {
+                @Override
+                public <T> void publicar(ObservableList<T> destino, List<T> datos) {
+                    destino.setAll(datos);
+                }
+
+                @Override
+                public void avanzar(String mensaje, int paso, double fraccion) {
+                    // La carga directa no informa progreso
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Carga interrumpida");
+        }
+        completarCarga(activos);
+    }
+
+    /**
+     * Inicia la carga de los datos en un hilo en segundo plano, si todavía no se ha iniciado.
+     * Los archivos se leen fuera del hilo de JavaFX y las filas se agregan a las listas
+     * observables por lotes, de modo que las tablas muestran los datos a medida que llegan
+     * sin bloquear la interfaz. El diario se reproduce al final, en el hilo de JavaFX.
+     *
+     * Debe llamarse desde el hilo de JavaFX. Las llamadas posteriores devuelven la misma tarea.
+     *
+     * @return La tarea de carga, con su progreso y mensaje de estado.
+     */
+    public synchronized Task<Void> iniciarCarga() {
+        if (tareaCarga == null) {
+            tareaCarga = new TareaCarga();
+            if (cargado) {
+                tareaCarga.run(); // Los datos ya estaban cargados: la tarea termina de inmediato
+            } else {
+                Thread hilo = new Thread(tareaCarga, "carga-biblioteca");
+                hilo.setDaemon(true);
+                hilo.start();
+            }
+        }
+        return tareaCarga;
+    }
+
+    /**
+     * Lee la instantánea de cada tabla y la entrega a la publicación indicada. Solo usa datos
+     * locales, por lo que puede ejecutarse en segundo plano: los préstamos se resuelven con
+     * índices propios en lugar de los del repositorio, que pertenecen al hilo de JavaFX.
+     *
+     * @param publicacion Destino de los datos leídos y del progreso.
+     * @return Los préstamos activos de la instantánea, con su posición en la lista.
+     * @throws IOException Si ocurre un error al leer alguno de los archivos.
+     * @throws InterruptedException Si se cancela la carga mientras espera para publicar.
+     */
+    private Map<Prestamo, Integer> leerInstantanea(Publicacion publicacion) throws IOException, InterruptedException {
+        if (almacen == null) {
+            almacen = AlmacenBiblioteca.abrir(DIRECTORIO_DATOS);
+        }
+        publicacion.avanzar("Cargando libros...", 0, 0);
+        List<Libro> listaLibros = almacen.cargarLibros(tablaLibros);
+        publicacion.publicar(libros, listaLibros);
+
+        publicacion.avanzar("Cargando miembros...", 2, 0);
+        List<Miembro> listaMiembros = almacen.cargarMiembros(tablaMiembros);
+        publicacion.publicar(miembros, listaMiembros);
+
+        publicacion.avanzar("Cargando préstamos...", 4, 0);
+        Map<String, Libro> indiceLibros = CsvController.indexarLibros(listaLibros);
+        Map<String, Miembro> indiceMiembros = CsvController.indexarMiembros(listaMiembros);
+        List<Prestamo> listaPrestamos = almacen.cargarPrestamos(tablaPrestamos, indiceLibros, indiceMiembros);
+        Map<Prestamo, Integer> activos = calcularPrestamosActivos(listaLibros, listaPrestamos);
+        publicacion.publicar(prestamos, listaPrestamos);
+
+        publicacion.avanzar("Cargando sucursales...", 6, 0);
+        publicacion.publicar(sucursales, almacen.cargarSucursales(tablaSucursales));
+        return activos;
+    }
+
+    /**
+     * Termina la carga una vez que las listas tienen la instantánea: instala los préstamos
+     * activos, empieza a seguir los segmentos modificados, reproduce los diarios y abre el
+     * diario para los cambios nuevos. Compacta de inmediato si alguna tabla se cargó de su CSV
+     * único anterior, para escribirla en segmentos; si quedó el diario de una compactación
+     * interrumpida, para consolidarlo; o si el diario ya superó el umbral con los registros de
+     * sesiones anteriores.
+     *
+     * @param activos Préstamos activos de la instantánea, con su posición en la lista.
+     * @throws IOException Si ocurre un error al leer o abrir el diario.
+     */
+    private synchronized void completarCarga(Map<Prestamo, Integer> activos) throws IOException {
+        prestamosActivos.clear();
+        for (Prestamo prestamo : activos.keySet()) {
+            prestamosActivos.put(prestamo.getLibro(), prestamo);
+        }
+        posicionesActivos.clear();
+        posicionesActivos.putAll(activos);
+
+        // Cambios posteriores a la instantánea: primero un diario de una compactación
+        // interrumpida (si existe) y luego el diario actual, con un solo aviso por lista
+        publicador.aplicarPendientes();
+        tablaLibros.seguir(libros);
+        tablaMiembros.seguir(miembros);
+        tablaPrestamos.seguir(prestamos);
+        tablaSucursales.seguir(sucursales);
+        Path rutaCompactando = Paths.get(RUTA_DIARIO + SUFIJO_COMPACTANDO);
+        boolean interrumpida = Files.exists(rutaCompactando);
+        publicador.agrupar(() -> {
+            Diario.reproducir(rutaCompactando, campos -> reproducir(campos, true));
+            Diario.reproducir(Paths.get(RUTA_DIARIO), campos -> reproducir(campos, false));
+        });
+        persistencia = new PersistenciaDiferida(new Diario(Paths.get(RUTA_DIARIO)));
+        Runtime.getRuntime().addShutdownHook(new Thread(this::cerrar, "cierre-repositorio"));
+        if (interrumpida || persistencia.getRegistros() >= UMBRAL_COMPACTACION
+                || tablaLibros.isCompletoPendiente() || tablaMiembros.isCompletoPendiente()
+                || tablaPrestamos.isCompletoPendiente() || tablaSucursales.isCompletoPendiente()) {
+            compactar();
+        }
+        cargado = true;
+        for (OyenteBiblioteca oyente : new ArrayList<>(oyentes)) {
+            oyente.datosCargados(this);
+        }
+    }
+
+    /**
+     * Destino de los datos leídos durante la carga.
+     */
+    private interface Publicacion {
+
+        /**
+         * Agrega los datos leídos de una tabla a su lista observable.
+         *
+         * @param <T>     Tipo de los elementos.
+         * @param destino Lista observable del repositorio.
+         * @param datos   Datos leídos del archivo.
+         * @throws InterruptedException Si se cancela la carga mientras espera para publicar.
+         */
+        <T> void publicar(ObservableList<T> destino, List<T> datos) throws InterruptedException;
+
+        /**
+         * Informa el avance de la carga.
+         *
+         * @param mensaje  Descripción del paso actual.
+         * @param paso     Paso actual, de 0 a {@value #PASOS_CARGA} - 1 (lectura y publicación de cada tabla).
+         * @param fraccion Avance dentro del paso, entre 0 y 1.
+         */
+        void avanzar(String mensaje, int paso, double fraccion);
+    }
+
+    /**
+     * Tarea que carga los datos en segundo plano y los publica en el hilo de JavaFX por lotes
+     * de {@value #TAMANIO_LOTE} filas. Como mucho hay {@value #LOTES_EN_ESPERA} lotes esperando
+     * en la cola del hilo de JavaFX, para que este siga atendiendo la interfaz entre lotes.
+     */
+    private final class TareaCarga extends Task<Void> implements Publicacion {
+
+        private final Semaphore lotesEnEspera = new Semaphore(LOTES_EN_ESPERA); // Lotes enviados y no aplicados
+        private String mensaje = ""; // Descripción del paso actual
+        private int paso; // Paso actual
+
+        @Override
+        protected Void call() throws Exception {
+            if (cargado) {
+                updateProgress(1, 1);
+                return null;
+            }
+            Map<Prestamo, Integer> activos = leerInstantanea(this);
+            updateMessage("Aplicando cambios pendientes...");
+            // Se ejecuta después de los lotes ya enviados, porque la cola del hilo de JavaFX es FIFO
+            FutureTask<Void> fin = new FutureTask<>(() -> {
+                completarCarga(activos);
+                return null;
+            });
+            Platform.runLater(fin);
+            try {
+                fin.get();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+            updateMessage("Datos cargados");
+            updateProgress(1, 1);
+            return null;
+        }
+
+        @Override
+        public <T> void publicar(ObservableList<T> destino, List<T> datos) throws InterruptedException {
+            int paso = this.paso + 1; // El paso siguiente a la lectura de la tabla
+            avanzar(mensaje, paso, 0);
+            for (int desde = 0; desde < datos.size(); desde += TAMANIO_LOTE) {
+                List<T> lote = datos.subList(desde, Math.min(desde + TAMANIO_LOTE, datos.size()));
+                lotesEnEspera.acquire();
+                publicador.publicar(() -> {
+                    try {
+                        destino.addAll(lote);
+                    } finally {
+                        lotesEnEspera.release();
+                    }
+                });
+                avanzar(mensaje, paso, (double) (desde + lote.size()) / datos.size());
+            }
+        }
+
+        @Override
+        public void avanzar(String mensaje, int paso, double fraccion) {
+            this.mensaje = mensaje;
+            this.paso = paso;
+            updateMessage(mensaje);
+            updateProgress(paso + fraccion, PASOS_CARGA);
+        }
+    }
+
+    /**
+     * Calcula los préstamos activos a partir del historial de préstamos y ajusta la
+     * disponibilidad de cada libro en consecuencia. Solo usa las listas recibidas, por lo
+     * que puede ejecutarse en segundo plano durante la carga.
+     *
+     * @param listaLibros    Libros cargados.
+     * @param listaPrestamos Préstamos cargados.
+     * @return Mapa de cada préstamo sin devolver a su posición en el historial; si un libro
+     *         tiene varios, solo el último.
+     */
+    private static Map<Prestamo, Integer> calcularPrestamosActivos(List<Libro> listaLibros, List<Prestamo> listaPrestamos) {
+        Map<Libro, Integer> porLibro = new HashMap<>();
+        for (Libro libro : listaLibros) {
+            libro.setDisponible(true);
+        }
+        for (int i = 0; i < listaPrestamos.size(); i++) {
+            Prestamo prestamo = listaPrestamos.get(i);
+            if (prestamo.getFechaDevolucionRealValor() == null) {
+                porLibro.put(prestamo.getLibro(), i);
+                prestamo.getLibro().setDisponible(false);
+            }
+        }
+        Map<Prestamo, Integer> activos = new IdentityHashMap<>();
+        for (int posicion : porLibro.values()) {
+            activos.put(listaPrestamos.get(posicion), posicion);
+        }
+        return activos;
+    }
+
+    /**
+     * Obtiene el almacén de los datos, para consultas por clave, rango o filtro que no
+     * necesitan las tablas en memoria. Sus resultados reflejan la última compactación, sin los
+     * cambios que todavía están solo en el diario.
+     *
+     * @return El almacén, o null si los datos todavía no se empezaron a cargar.
+     */
+    public AlmacenBiblioteca getAlmacen() {
+        return almacen;
+    }
+
+    /**
+     * Obtiene la lista observable de libros.
+     *
+     * @return La lista de libros compartida.
+     */
+    public ObservableList<Libro> getLibros() {
+        return libros;
+    }
+
+    /**
+     * Obtiene la lista observable de miembros.
+     *
+     * @return La lista de miembros compartida.
+     */
+    public ObservableList<Miembro> getMiembros() {
+        return miembros;
+    }
+
+    /**
+     * Obtiene la lista observable de préstamos.
+     *
+     * @return La lista de préstamos compartida.
+     */
+    public ObservableList<Prestamo> getPrestamos() {
+        return prestamos;
+    }
+
+    /**
+     * Obtiene la lista observable de sucursales.
+     *
+     * @return La lista de sucursales compartida.
+     */
+    public ObservableList<Sucursal> getSucursales() {
+        return sucursales;
+    }
+
+    /**
+     * Registra un oyente de los cambios. Si los datos ya están cargados, se le avisa de
+     * inmediato con {@link OyenteBiblioteca#datosCargados}; si no, al terminar la carga.
+     *
+     * @param oyente El oyente a registrar.
+     */
+    public synchronized void agregarOyente(OyenteBiblioteca oyente) {
+        oyentes.add(oyente);
+        if (cargado) {
+            oyente.datosCargados(this);
+        }
+    }
+
+    /**
+     * Quita un oyente registrado con {@link #agregarOyente}.
+     *
+     * @param oyente El oyente a quitar.
+     */
+    public synchronized void quitarOyente(OyenteBiblioteca oyente) {
+        oyentes.remove(oyente);
+    }
+
+    /**
+     * Agrega un libro al catálogo y registra el cambio en el diario.
+     *
+     * @param libro El libro a agregar.
+     * @return Una tarea que termina cuando el cambio queda escrito en el diario.
+     * @throws IOException Si los datos todavía se están cargando o no se puede compactar el diario.
+     * @throws IllegalArgumentException Si ya existe un libro con el mismo ISBN.
+     */
+    public CompletableFuture<Void> agregarLibro(Libro libro) throws IOException {
+        if (librosPorISBN.containsKey(libro.getISBNValor())) {
+            throw new IllegalArgumentException("Ya existe un libro con el ISBN " + libro.getISBNValor());
+        }
+        CompletableFuture<Void> guardado = registrarEstado(filaLibro(libro.getISBNValor()), LIBRO_GUARDAR, libro.getISBNValor(),
+                libro.getTituloValor(), libro.getAutorValor(), String.valueOf(libro.getAnioPublicacionValor()),
+                libro.getGeneroValor(), libro.getSucursalValor());
+        libros.add(libro);
+        for (OyenteBiblioteca oyente : oyentes) {
+            oyente.libroAgregado(libro);
+        }
+        return guardado;
+    }
+
+    /**
+     * Actualiza los datos de un libro existente y registra el cambio en el diario.
+     *
+     * @param libro  El libro a modificar.
+     * @param titulo El nuevo título.
+     * @param autor  El nuevo autor.
+     * @param anio   El nuevo año de publicación.
+     * @param genero El nuevo género.
+     * @param sucursal El nombre de la nueva sucursal (vacío si no tiene).
+     * @return Una tarea que termina cuando el cambio queda escrito en el diario.
+     * @throws IOException Si los datos todavía se están cargando o no se puede compactar el diario.
+     */
+    public CompletableFuture<Void> actualizarLibro(Libro libro, String titulo, String autor, int anio, String genero, String sucursal) throws IOException {
+        CompletableFuture<Void> guardado = registrarEstado(filaLibro(libro.getISBNValor()), LIBRO_GUARDAR, libro.getISBNValor(),
+                titulo, autor, String.valueOf(anio), genero, sucursal);
+        Libro anterior = new Libro(libro.getISBNValor(), libro.getTituloValor(), libro.getAutorValor(),
+                libro.getAnioPublicacionValor(), libro.getGeneroValor(), libro.getSucursalValor());
+        aplicarDatosLibro(libro, titulo, autor, anio, genero, sucursal);
+        for (OyenteBiblioteca oyente : oyentes) {
+            oyente.libroModificado(libro, anterior);
+        }
+        return guardado;
+    }
+
+    /**
+     * Elimina un libro del catálogo y registra el cambio en el diario.
+     *
+     * @param libro El libro a eliminar.
+     * @return Una tarea que termina cuando el cambio queda escrito en el diario.
+     * @throws IOException Si los datos todavía se están cargando o no se puede compactar el diario.
+     */
+    public CompletableFuture<Void> eliminarLibro(Libro libro) throws IOException {
+        CompletableFuture<Void> guardado = registrarEvento(List.of(filaLibro(libro.getISBNValor())), LIBRO_ELIMINAR, libro.getISBNValor());
+        aplicarEliminarLibro(libro);
+        for (OyenteBiblioteca oyente : oyentes) {
+            oyente.libroEliminado(libro);
+        }
+        return guardado;
+    }
+
+    /**
+     * Agrega un miembro y registra el cambio en el diario.
+     *
+     * @param miembro El miembro a agregar.
+     * @return Una tarea que termina cuando el cambio queda escrito en el diario.
+     * @throws IOException Si los datos todavía se están cargando o no se puede compactar el diario.
+     * @throws IllegalArgumentException Si ya existe un miembro con el mismo ID.
+     */
+    public CompletableFuture<Void> agregarMiembro(Miembro miembro) throws IOException {
+        if (miembrosPorId.containsKey(miembro.getIdValor())) {
+            throw new IllegalArgumentException("Ya existe un miembro con el ID " + miembro.getIdValor());
+        }
+        CompletableFuture<Void> guardado = registrarEstado(filaMiembro(miembro.getIdValor()), MIEMBRO_GUARDAR, miembro.getIdValor(),
+                miembro.getNombreValor(), miembro.getEmailValor(), miembro.getTelefonoValor());
+        miembros.add(miembro);
+        for (OyenteBiblioteca oyente : oyentes) {
+            oyente.miembroAgregado(miembro);
+        }
+        return guardado;
+    }
+
+    /**
+     * Actualiza los datos de un miembro existente y registra el cambio en el diario.
+     *
+     * @param miembro  El miembro a modificar.
+     * @param nombre   El nuevo nombre.
+     * @param email    El nuevo correo electrónico.
+     * @param telefono El nuevo teléfono.
+     * @return Una tarea que termina cuando el cambio queda escrito en el diario.
+     * @throws IOException Si los datos todavía se están cargando o no se puede compactar el diario.
+     */
+    public CompletableFuture<Void> actualizarMiembro(Miembro miembro, String nombre, String email, String telefono) throws IOException {
+        CompletableFuture<Void> guardado = registrarEstado(filaMiembro(miembro.getIdValor()), MIEMBRO_GUARDAR, miembro.getIdValor(),
+                nombre, email, telefono);
+        Miembro anterior = new Miembro(miembro.getIdValor(), miembro.getNombreValor(), miembro.getEmailValor(),
+                miembro.getTelefonoValor());
+        aplicarDatosMiembro(miembro, nombre, email, telefono);
+        for (OyenteBiblioteca oyente : oyentes) {
+            oyente.miembroModificado(miembro, anterior);
+        }
+        return guardado;
+    }
+
+    /**
+     * Elimina un miembro y registra el cambio en el diario.
+     *
+     * @param miembro El miembro a eliminar.
+     * @return Una tarea que termina cuando el cambio queda escrito en el diario.
+     * @throws IOException Si los datos todavía se están cargando o no se puede compactar el diario.
+     */
+    public CompletableFuture<Void> eliminarMiembro(Miembro miembro) throws IOException {
+        CompletableFuture<Void> guardado = registrarEvento(List.of(filaMiembro(miembro.getIdValor())), MIEMBRO_ELIMINAR, miembro.getIdValor());
+        miembros.remove(miembro);
+        for (OyenteBiblioteca oyente : oyentes) {
+            oyente.miembroEliminado(miembro);
+        }
+        return guardado;
+    }
+
+    /**
+     * Agrega una sucursal y registra el cambio en el diario.
+     *
+     * @param sucursal La sucursal a agregar.
+     * @return Una tarea que termina cuando el cambio queda escrito en el diario.
+     * @throws IOException Si los datos todavía se están cargando o no se puede compactar el diario.
+     * @throws IllegalArgumentException Si ya existe una sucursal con el mismo nombre.
+     */
+    public CompletableFuture<Void> agregarSucursal(Sucursal sucursal) throws IOException {
+        if (buscarSucursal(sucursal.getNombre().get()) != null) {
+            throw new IllegalArgumentException("Ya existe una sucursal con el nombre " + sucursal.getNombre().get());
+        }
+        CompletableFuture<Void> guardado = registrarEstado(filaSucursal(sucursal.getNombre().get()), SUCURSAL_GUARDAR,
+                sucursal.getNombre().get(), sucursal.getDireccion().get());
+        sucursales.add(sucursal);
+        return guardado;
+    }
+
+    /**
+     * Elimina una sucursal y registra el cambio en el diario.
+     *
+     * @param sucursal La sucursal a eliminar.
+     * @return Una tarea que termina cuando el cambio queda escrito en el diario.
+     * @throws IOException Si los datos todavía se están cargando o no se puede compactar el diario.
+     */
+    public CompletableFuture<Void> eliminarSucursal(Sucursal sucursal) throws IOException {
+        CompletableFuture<Void> guardado = registrarEvento(List.of(filaSucursal(sucursal.getNombre().get())), SUCURSAL_ELIMINAR,
+                sucursal.getNombre().get());
+        sucursales.remove(sucursal);
+        return guardado;
+    }
+
+    /**
+     * Registra un nuevo préstamo, lo agrega al índice de préstamos activos, marca el libro
+     * como no disponible y registra el cambio en el diario.
+     *
+     * @param prestamo El préstamo a registrar.
+     * @return Una tarea que termina cuando el cambio queda escrito en el diario.
+     * @throws IOException Si los datos todavía se están cargando o no se puede compactar el diario.
+     * @throws IllegalStateException Si el libro ya tiene un préstamo activo.
+     */
+    public CompletableFuture<Void> registrarPrestamo(Prestamo prestamo) throws IOException {
+        Libro libro = prestamo.getLibro();
+        if (prestamosActivos.containsKey(libro)) {
+            throw new IllegalStateException("El libro ya está en préstamo: " + libro.getISBNValor());
+        }
+        CompletableFuture<Void> guardado = registrarEvento(
+                List.of(filaLibro(libro.getISBNValor()), filaMiembro(prestamo.getMiembro().getIdValor())),
+                PRESTAMO_REGISTRAR, libro.getISBNValor(), prestamo.getMiembro().getIdValor(),
+                String.valueOf(prestamo.getFechaPrestamoValor()), String.valueOf(prestamo.getFechaDevolucionEsperadaValor()));
+        aplicarRegistrarPrestamo(prestamo);
+        for (OyenteBiblioteca oyente : oyentes) {
+            oyente.prestamoRegistrado(prestamo);
+        }
+        return guardado;
+    }
+
+    /**
+     * Marca un préstamo como devuelto en la fecha indicada, lo quita del índice de
+     * préstamos activos y registra el cambio en el diario.
+     *
+     * @param prestamo El préstamo que se devuelve.
+     * @param fecha    La fecha real de devolución.
+     * @return Una tarea que termina cuando el cambio queda escrito en el diario.
+     * @throws IOException Si los datos todavía se están cargando o no se puede compactar el diario.
+     */
+    public CompletableFuture<Void> devolverPrestamo(Prestamo prestamo, LocalDate fecha) throws IOException {
+        CompletableFuture<Void> guardado = registrarEvento(List.of(filaLibro(prestamo.getLibro().getISBNValor())),
+                PRESTAMO_DEVOLVER, prestamo.getLibro().getISBNValor(), fecha.toString());
+        aplicarDevolverPrestamo(prestamo, fecha);
+        for (OyenteBiblioteca oyente : oyentes) {
+            oyente.prestamoDevuelto(prestamo);
+        }
+        return guardado;
+    }
+
+    /**
+     * Cierra el repositorio: espera a que termine una compactación en curso, escribe los
+     * registros pendientes y cierra el diario y el almacén. Se debe llamar al salir de la
+     * aplicación; si no, se llama al terminar la máquina virtual. Las llamadas posteriores no
+     * hacen nada.
+     */
+    public synchronized void cerrar() {
+        compactador.shutdown();
+        try {
+            compactador.awaitTermination(1, TimeUnit.MINUTES);
+            if (persistencia != null) {
+                persistencia.close();
+            }
+        } catch (IOException | InterruptedException e) {
+            System.out.println("Error al cerrar el diario: " + e.getMessage());
+        }
+        if (almacen != null) {
+            try {
+                almacen.close();
+            } catch (IOException e) {
+                System.out.println("Error al cerrar el almacén: " + e.getMessage());
+            }
+        }
+    }
+
+    // ----- Aplicación de cambios en memoria (compartida por las operaciones y la reproducción del diario) -----
+
+    /**
+     * Escribe los valores de un libro en sus propiedades y avisa el cambio de su fila.
+     *
+     * @param libro  El libro a modificar.
+     * @param titulo El nuevo título.
+     * @param autor  El nuevo autor.
+     * @param anio   El nuevo año de publicación.
+     * @param genero El nuevo género.
+     * @param sucursal El nombre de la nueva sucursal, o null para conservar la actual
+     *                 (registros del diario anteriores a que los libros tuvieran sucursal).
+     */
+    private void aplicarDatosLibro(Libro libro, String titulo, String autor, int anio, String genero, String sucursal) {
+        libro.setTituloValor(titulo);
+        libro.setAutorValor(autor);
+        libro.setAnioPublicacionValor(anio);
+        libro.setGeneroValor(genero);
+        if (sucursal != null) {
+            libro.setSucursalValor(sucursal);
+        }
+        libros.actualizado(libro);
+    }
+
+    /**
+     * Quita un libro del catálogo y de los índices.
+     *
+     * @param libro El libro a eliminar.
+     */
+    private void aplicarEliminarLibro(Libro libro) {
+        libros.remove(libro);
+        Prestamo activo = prestamosActivos.remove(libro);
+        if (activo != null) {
+            posicionesActivos.remove(activo);
+        }
+    }
+
+    /**
+     * Escribe los valores de un miembro en sus propiedades y avisa el cambio de su fila.
+     *
+     * @param miembro  El miembro a modificar.
+     * @param nombre   El nuevo nombre.
+     * @param email    El nuevo correo electrónico.
+     * @param telefono El nuevo teléfono.
+     */
+    private void aplicarDatosMiembro(Miembro miembro, String nombre, String email, String telefono) {
+        miembro.setNombreValor(nombre);
+        miembro.setEmailValor(email);
+        miembro.setTelefonoValor(telefono);
+        miembros.actualizado(miembro);
+    }
+
+    /**
+     * Agrega un préstamo al historial y al índice de préstamos activos.
+     *
+     * @param prestamo El préstamo a agregar.
+     */
+    private void aplicarRegistrarPrestamo(Prestamo prestamo) {
+        Prestamo anterior = prestamosActivos.put(prestamo.getLibro(), prestamo);
+        if (anterior != null) {
+            posicionesActivos.remove(anterior);
+        }
+        posicionesActivos.put(prestamo, prestamos.size()); // El historial solo crece: la posición no cambia
+        prestamos.add(prestamo);
+        prestamo.getLibro().setDisponible(false);
+        libros.actualizado(prestamo.getLibro());
+    }
+
+    /**
+     * Cierra un préstamo y libera el libro, avisando el cambio de ambas filas. La fila del
+     * préstamo se avisa con la posición guardada al registrarlo, sin buscarla en el historial.
+     *
+     * @param prestamo El préstamo que se devuelve.
+     * @param fecha    La fecha real de devolución.
+     */
+    private void aplicarDevolverPrestamo(Prestamo prestamo, LocalDate fecha) {
+        prestamo.setFechaDevolucionReal(fecha);
+        prestamosActivos.remove(prestamo.getLibro(), prestamo);
+        Integer posicion = posicionesActivos.remove(prestamo);
+        prestamo.getLibro().setDisponible(true);
+        prestamos.actualizado(prestamo, posicion != null ? posicion : -1);
+        libros.actualizado(prestamo.getLibro());
+    }
+
+    // ----- Diario y compactación -----
+
+    /**
+     * Reproduce un registro del diario sobre los datos en memoria.
+     *
+     * @param campos       Campos del registro; el primero es el tipo de operación.
+     * @param recuperacion true si el registro proviene de una compactación interrumpida y
+     *                     puede estar ya incluido en la instantánea.
+     */
+    private void reproducir(String[] campos, boolean recuperacion) {
+        try {
+            switch (campos[0]) {
+                case LIBRO_GUARDAR: {
+                    int anio = Integer.parseInt(campos[4]);
+                    String sucursal = campos.length > 6 ? campos[6] : null;
+                    Libro libro = librosPorISBN.get(campos[1]);
+                    if (libro == null) {
+                        libros.add(new Libro(campos[1], campos[2], campos[3], anio, campos[5], sucursal));
+                    } else {
+                        aplicarDatosLibro(libro, campos[2], campos[3], anio, campos[5], sucursal);
+                    }
+                    break;
+                }
+                case LIBRO_ELIMINAR: {
+                    Libro libro = librosPorISBN.get(campos[1]);
+                    if (libro != null) {
+                        aplicarEliminarLibro(libro);
+                    }
+                    break;
+                }
+                case MIEMBRO_GUARDAR: {
+                    Miembro miembro = miembrosPorId.get(campos[1]);
+                    if (miembro == null) {
+                        miembros.add(new Miembro(campos[1], campos[2], campos[3], campos[4]));
+                    } else {
+                        aplicarDatosMiembro(miembro, campos[2], campos[3], campos[4]);
+                    }
+                    break;
+                }
+                case MIEMBRO_ELIMINAR: {
+                    Miembro miembro = miembrosPorId.get(campos[1]);
+                    if (miembro != null) {
+                        miembros.remove(miembro);
+                    }
+                    break;
+                }
+                case SUCURSAL_GUARDAR:
+                    if (buscarSucursal(campos[1]) == null) {
+                        sucursales.add(new Sucursal(campos[1], campos[2]));
+                    }
+                    break;
+                case SUCURSAL_ELIMINAR: {
+                    Sucursal sucursal = buscarSucursal(campos[1]);
+                    if (sucursal != null) {
+                        sucursales.remove(sucursal);
+                    }
+                    break;
+                }
+                case PRESTAMO_REGISTRAR: {
+                    Libro libro = librosPorISBN.get(campos[1]);
+                    Miembro miembro = miembrosPorId.get(campos[2]);
+                    LocalDate fechaPrestamo = LocalDate.parse(campos[3]);
+                    if (libro == null || miembro == null || prestamosActivos.containsKey(libro)
+                            || (recuperacion && existePrestamo(libro, miembro, fechaPrestamo))) {
+                        break;
+                    }
+                    aplicarRegistrarPrestamo(new Prestamo(libro, miembro, fechaPrestamo, LocalDate.parse(campos[4])));
+                    break;
+                }
+                case PRESTAMO_DEVOLVER: {
+                    Libro libro = librosPorISBN.get(campos[1]);
+                    Prestamo prestamo = libro != null ? prestamosActivos.get(libro) : null;
+                    if (prestamo != null) {
+                        aplicarDevolverPrestamo(prestamo, LocalDate.parse(campos[2]));
+                    }
+                    break;
+                }
+                default:
+                    System.out.println("Registro desconocido en el diario: " + String.join(",", campos));
+            }
+        } catch (RuntimeException e) {
+            System.out.println("Registro inválido en el diario: " + String.join(",", campos));
+        }
+    }
+
+    /**
+     * Verifica si el historial ya contiene un préstamo idéntico. Solo se usa al recuperar
+     * una compactación interrumpida, por lo que el recorrido lineal es aceptable.
+     *
+     * @param libro         El libro del préstamo.
+     * @param miembro       El miembro del préstamo.
+     * @param fechaPrestamo La fecha del préstamo.
+     * @return true si el préstamo ya está en el historial.
+     */
+    private boolean existePrestamo(Libro libro, Miembro miembro, LocalDate fechaPrestamo) {
+        for (Prestamo prestamo : prestamos) {
+            if (prestamo.getLibro() == libro && prestamo.getMiembro() == miembro
+                    && fechaPrestamo.equals(prestamo.getFechaPrestamoValor())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Busca una sucursal por su nombre.
+     *
+     * @param nombre El nombre de la sucursal.
+     * @return La sucursal correspondiente, o null si no se encuentra.
+     */
+    private Sucursal buscarSucursal(String nombre) {
+        for (Sucursal sucursal : sucursales) {
+            if (sucursal.getNombre().get().equals(nombre)) {
+                return sucursal;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Encola en el diario un registro con el estado completo de una fila; si la fila ya tiene
+     * un registro de estado pendiente, este lo reemplaza (ver {@link PersistenciaDiferida}).
+     *
+     * @param fila   Clave de la fila, obtenida con {@link #filaLibro}, {@link #filaMiembro} o {@link #filaSucursal}.
+     * @param campos Campos del registro.
+     * @return Una tarea que termina cuando el registro queda escrito en el diario.
+     * @throws IOException Si la carga no ha terminado o no se puede compactar el diario.
+     */
+    private CompletableFuture<Void> registrarEstado(String fila, String... campos) throws IOException {
+        prepararRegistro();
+        return persistencia.registrarEstado(fila, campos);
+    }
+
+    /**
+     * Encola en el diario un registro que no reemplaza a otros, como un préstamo o una eliminación.
+     *
+     * @param filas  Claves de las filas que toca el registro.
+     * @param campos Campos del registro.
+     * @return Una tarea que termina cuando el registro queda escrito en el diario.
+     * @throws IOException Si la carga no ha terminado o no se puede compactar el diario.
+     */
+    private CompletableFuture<Void> registrarEvento(List<String> filas, String... campos) throws IOException {
+        prepararRegistro();
+        return persistencia.registrarEvento(filas, campos);
+    }
+
+    /**
+     * Verifica que se puedan registrar cambios y, si el diario superó el umbral configurado,
+     * lanza una compactación en segundo plano. Se hace antes de encolar el registro nuevo y de
+     * aplicar su cambio, para que la instantánea y el diario rotado contengan exactamente los
+     * cambios anteriores.
+     *
+     * @throws IOException Si la carga no ha terminado o no se puede compactar el diario.
+     */
+    private void prepararRegistro() throws IOException {
+        if (!cargado) {
+            throw new IOException("Los datos todavía se están cargando; intente de nuevo en unos segundos.");
+        }
+        if (persistencia.getRegistros() >= UMBRAL_COMPACTACION && !compactando) {
+            compactar();
+        }
+    }
+
+    /**
+     * Obtiene la clave de la fila de un libro para la escritura diferida.
+     *
+     * @param isbn El ISBN del libro.
+     * @return La clave de la fila.
+     */
+    private static String filaLibro(String isbn) {
+        return "libro:" + isbn;
+    }
+
+    /**
+     * Obtiene la clave de la fila de un miembro para la escritura diferida.
+     *
+     * @param id El ID del miembro.
+     * @return La clave de la fila.
+     */
+    private static String filaMiembro(String id) {
+        return "miembro:" + id;
+    }
+
+    /**
+     * Obtiene la clave de la fila de una sucursal para la escritura diferida.
+     *
+     * @param nombre El nombre de la sucursal.
+     * @return La clave de la fila.
+     */
+    private static String filaSucursal(String nombre) {
+        return "sucursal:" + nombre;
+    }
+
+    /**
+     * Inicia la compactación: copia las filas de los segmentos modificados desde la compactación
+     * anterior y encola la rotación del diario en el mismo instante, y en un hilo en segundo
+     * plano espera la rotación y guarda las copias en el almacén. Los cambios que lleguen
+     * mientras tanto se anexan al diario nuevo. Si la rotación o la escritura fallan, los
+     * segmentos copiados vuelven a quedar pendientes (ver {@link Compactacion}).
+     */
+    private void compactar() {
+        // Copias independientes de los segmentos modificados, tomadas en el mismo instante que la rotación
+        Compactacion compactacion = new Compactacion(Platform::runLater);
+        TablaSegmentada.Guardado<Libro> cambiosLibros = compactacion.tomarCambios(tablaLibros, libros, RepositorioBiblioteca::copiarLibro);
+        TablaSegmentada.Guardado<Miembro> cambiosMiembros = compactacion.tomarCambios(tablaMiembros, miembros,
+                miembro -> new Miembro(miembro.getIdValor(), miembro.getNombreValor(), miembro.getEmailValor(), miembro.getTelefonoValor()));
+        Map<Libro, Libro> copiaPorLibro = new HashMap<>();
+        TablaSegmentada.Guardado<Prestamo> cambiosPrestamos = compactacion.tomarCambios(tablaPrestamos, prestamos,
+                prestamo -> new Prestamo(copiaPorLibro.computeIfAbsent(prestamo.getLibro(), RepositorioBiblioteca::copiarLibro),
+                        prestamo.getMiembro(), prestamo.getFechaPrestamoValor(),
+                        prestamo.getFechaDevolucionEsperadaValor(), prestamo.getFechaDevolucionRealValor()));
+        TablaSegmentada.Guardado<Sucursal> cambiosSucursales = compactacion.tomarCambios(tablaSucursales, sucursales,
+                sucursal -> new Sucursal(sucursal.getNombre().get(), sucursal.getDireccion().get()));
+
+        Path rutaCompactando = Paths.get(RUTA_DIARIO + SUFIJO_COMPACTANDO);
+        // El hilo escritor rota después de escribir los registros pendientes; la compactación lo espera
+        CompletableFuture<Void> rotacion = persistencia.rotar(rutaCompactando);
+        compactando = true;
+        compactador.execute(() -> compactacion.escribir(rotacion,
+                () -> almacen.guardar(cambiosLibros, cambiosMiembros, cambiosPrestamos, cambiosSucursales),
+                rutaCompactando, () -> compactando = false));
+    }
+
+    /**
+     * Crea una copia independiente de un libro, que se puede escribir desde otro hilo.
+     *
+     * @param libro El libro a copiar.
+     * @return Un libro nuevo con los mismos valores.
+     */
+    private static Libro copiarLibro(Libro libro) {
+        return new Libro(libro.getISBNValor(), libro.getTituloValor(), libro.getAutorValor(),
+                libro.getAnioPublicacionValor(), libro.getGeneroValor(), libro.getSucursalValor());
+    }
+
+    /**
+     * Busca un libro por su ISBN usando el índice por clave.
+     *
+     * @param isbn El ISBN del libro a buscar.
+     * @return El libro correspondiente, o null si no se encuentra.
+     */
+    public Libro buscarLibroPorISBN(String isbn) {
+        return librosPorISBN.get(isbn);
+    }
+
+    /**
+     * Busca un miembro por su ID usando el índice por clave.
+     *
+     * @param id El ID del miembro a buscar.
+     * @return El miembro correspondiente, o null si no se encuentra.
+     */
+    public Miembro buscarMiembroPorID(String id) {
+        return miembrosPorId.get(id);
+    }
+
+    /**
+     * Obtiene el préstamo sin devolver de un libro.
+     *
+     * @param libro El libro a consultar.
+     * @return El préstamo activo del libro, o null si el libro está disponible.
+     */
+    public Prestamo getPrestamoActivo(Libro libro) {
+        return prestamosActivos.get(libro);
+    }
+
+    /**
+     * Verifica si un libro tiene un préstamo sin devolver.
+     *
+     * @param libro El libro a consultar.
+     * @return true si el libro está en préstamo; false en caso contrario.
+     */
+    public boolean estaEnPrestamo(Libro libro) {
+        return prestamosActivos.containsKey(libro);
+    }
+}
@@ -0,0 +1,358 @@
+package biblioteca.datos;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+/**
+ * Reparto de una tabla en segmentos, para que guardar los cambios reescriba solo los segmentos
+ * que contienen filas modificadas.
+ *
+ * La tabla se parte por rangos de posiciones: cada segmento guarda un tramo contiguo de la
+ * lista, en orden, así que al cargar los segmentos uno tras otro, por número, la lista queda
+ * igual que al guardarla. Las filas nuevas se agregan al último segmento hasta que tiene
+ * {@value #TAMANIO_SEGMENTO} filas y luego a uno nuevo, con el número siguiente; una fila
+ * eliminada solo achica su segmento, sin mover las de los siguientes.
+ *
+ * Los segmentos modificados se detectan con los avisos de cambio de la lista que se sigue con
+ * {@link #seguir(ObservableList)}: altas, bajas y actualizaciones, que el repositorio avisa al
+ * cambiar los datos de un elemento. {@link #tomarCambios} copia las filas de los segmentos
+ * modificados para que el {@link AlmacenBiblioteca} los escriba en segundo plano: un archivo por
+ * segmento en {@link AlmacenCsv}, las filas con ese número de segmento en {@link AlmacenJdbc}.
+ *
+ * Salvo la preparación durante la carga, se usa desde el hilo de JavaFX.
+ *
+ * @param <T> Tipo de las filas de la tabla.
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public final class TablaSegmentada<T> {
+
+    private static final int TAMANIO_SEGMENTO = 16384; // Filas de un segmento lleno
+
+    private final List<Segmento> segmentos = new ArrayList<>(); // Segmentos en el orden de la lista
+    private final List<Integer> obsoletos = new ArrayList<>(); // Segmentos vaciados que hay que borrar
+    private int filas; // Filas de la lista repartidas en los segmentos
+    private int siguienteNumero; // Número del próximo segmento nuevo
+    private boolean completoPendiente; // Indica si hay que escribir la tabla completa
+
+    /**
+     * Prepara los segmentos tal como están guardados, sin cambios pendientes. Se llama durante
+     * la carga, antes de {@link #seguir(ObservableList)}.
+     *
+     * @param numeros Números de los segmentos guardados, en orden.
+     * @param filas   Filas cargadas de cada segmento.
+     */
+    public void iniciar(List<Integer> numeros, List<Integer> filas) {
+        reiniciar();
+        for (int i = 0; i < numeros.size(); i++) {
+            Segmento segmento = new Segmento(numeros.get(i));
+            segmento.filas = filas.get(i);
+            segmentos.add(segmento);
+            this.filas += segmento.filas;
+            siguienteNumero = Math.max(siguienteNumero, segmento.numero + 1);
+        }
+    }
+
+    /**
+     * Reparte en segmentos nuevos las filas de una tabla que todavía no está guardada en
+     * segmentos en el almacén, por ejemplo al convertir un CSV único o al pasar de un almacén a
+     * otro. Todos los segmentos quedan por escribir y el próximo guardado reemplaza la tabla
+     * completa.
+     *
+     * @param filas Filas cargadas de la tabla.
+     */
+    public void iniciarPendiente(int filas) {
+        reiniciar();
+        agregar(0, filas);
+        completoPendiente = true;
+    }
+
+    /**
+     * Descarta los segmentos y los cambios pendientes.
+     */
+    private void reiniciar() {
+        segmentos.clear();
+        obsoletos.clear();
+        filas = 0;
+        siguienteNumero = 0;
+        completoPendiente = false;
+    }
+
+    /**
+     * Empieza a seguir los cambios de la lista cargada, marcando los segmentos que tocan. Se
+     * llama cuando la lista tiene exactamente las filas cargadas.
+     *
+     * @param lista La lista observable con las filas de la tabla.
+     */
+    public void seguir(ObservableList<T> lista) {
+        lista.addListener(this::listaCambiada);
+    }
+
+    /**
+     * Indica si la tabla todavía no está guardada en segmentos en el almacén.
+     *
+     * @return true si el próximo guardado debe escribir la tabla completa.
+     */
+    public boolean isCompletoPendiente() {
+        return completoPendiente;
+    }
+
+    /**
+     * Aplica un cambio de la lista a los segmentos. Los cambios de un aviso se aplican en orden,
+     * cada uno sobre la lista ya modificada por los anteriores.
+     *
+     * @param cambio El cambio de la lista.
+     */
+    private void listaCambiada(ListChangeListener.Change<? extends T> cambio) {
+        while (cambio.next()) {
+            if (cambio.wasPermutated() || cambio.wasUpdated()) {
+                marcar(cambio.getFrom(), cambio.getTo());
+                continue;
+            }
+            if (cambio.wasRemoved()) {
+                quitar(cambio.getFrom(), cambio.getRemovedSize());
+            }
+            if (cambio.wasAdded()) {
+                agregar(cambio.getFrom(), cambio.getAddedSize());
+            }
+        }
+    }
+
+    /**
+     * Marca como modificados los segmentos que contienen un rango de posiciones.
+     *
+     * @param desde Primera posición del rango.
+     * @param hasta Posición siguiente a la última del rango.
+     */
+    private void marcar(int desde, int hasta) {
+        int inicio = 0;
+        for (Segmento segmento : segmentos) {
+            if (inicio >= hasta) {
+                break;
+            }
+            int fin = inicio + segmento.filas;
+            if (fin > desde) {
+                segmento.sucio = true;
+            }
+            inicio = fin;
+        }
+    }
+
+    /**
+     * Quita filas de los segmentos que las contienen. Los segmentos que quedan vacíos se
+     * descartan al tomar los cambios.
+     *
+     * @param desde    Posición de la primera fila quitada.
+     * @param cantidad Cantidad de filas quitadas.
+     */
+    private void quitar(int desde, int cantidad) {
+        int inicio = 0;
+        for (Segmento segmento : segmentos) {
+            if (cantidad == 0) {
+                break;
+            }
+            int fin = inicio + segmento.filas;
+            if (fin > desde) {
+                int quitadas = Math.min(cantidad, fin - desde);
+                segmento.filas -= quitadas;
+                segmento.sucio = true;
+                cantidad -= quitadas;
+                filas -= quitadas;
+                fin -= quitadas;
+            }
+            inicio = fin;
+        }
+    }
+
+    /**
+     * Agrega filas a los segmentos. Las filas agregadas al final llenan el último segmento y
+     * luego segmentos nuevos; las insertadas en medio van al segmento de su posición.
+     *
+     * @param desde    Posición de la primera fila agregada.
+     * @param cantidad Cantidad de filas agregadas.
+     */
+    private void agregar(int desde, int cantidad) {
+        if (desde < filas) {
+            int inicio = 0;
+            for (Segmento segmento : segmentos) {
+                int fin = inicio + segmento.filas;
+                if (desde < fin) {
+                    segmento.filas += cantidad;
+                    segmento.sucio = true;
+                    filas += cantidad;
+                    return;
+                }
+                inicio = fin;
+            }
+        }
+        Segmento ultimo = segmentos.isEmpty() ? null : segmentos.get(segmentos.size() - 1);
+        while (cantidad > 0) {
+            if (ultimo == null || ultimo.filas >= TAMANIO_SEGMENTO) {
+                ultimo = new Segmento(siguienteNumero++);
+                segmentos.add(ultimo);
+            }
+            int agregadas = Math.min(cantidad, TAMANIO_SEGMENTO - ultimo.filas);
+            ultimo.filas += agregadas;
+            ultimo.sucio = true;
+            cantidad -= agregadas;
+            filas += agregadas;
+        }
+    }
+
+    /**
+     * Copia las filas de los segmentos modificados y los marca como guardados. Se llama en el
+     * hilo de JavaFX en el mismo instante en que se encola la rotación del diario, para que la
+     * copia contenga exactamente los cambios del diario rotado.
+     *
+     * @param lista  La lista con las filas de la tabla.
+     * @param copiar Copia independiente de una fila, que se pueda escribir desde otro hilo.
+     * @return Los segmentos por escribir, para pasarlos a {@link AlmacenBiblioteca#guardar}.
+     */
+    public Guardado<T> tomarCambios(List<T> lista, UnaryOperator<T> copiar) {
+        Guardado<T> guardado = new Guardado<>();
+        int inicio = 0;
+        for (Iterator<Segmento> iterador = segmentos.iterator(); iterador.hasNext();) {
+            Segmento segmento = iterador.next();
+            if (segmento.filas == 0) {
+                iterador.remove();
+                obsoletos.add(segmento.numero);
+                continue;
+            }
+            if (segmento.sucio) {
+                List<T> copia = new ArrayList<>(segmento.filas);
+                for (int i = inicio; i < inicio + segmento.filas; i++) {
+                    copia.add(copiar.apply(lista.get(i)));
+                }
+                guardado.segmentos.add(segmento);
+                guardado.numeros.add(segmento.numero);
+                guardado.datos.add(copia);
+                segmento.sucio = false;
+            }
+            inicio += segmento.filas;
+        }
+        for (Segmento segmento : segmentos) {
+            guardado.vigentes.add(segmento.numero);
+        }
+        guardado.obsoletos.addAll(obsoletos);
+        obsoletos.clear();
+        guardado.completo = completoPendiente;
+        completoPendiente = false;
+        return guardado;
+    }
+
+    /**
+     * Vuelve a marcar como pendientes los segmentos de un guardado que no se pudo escribir,
+     * para que la próxima compactación los incluya. Se llama en el hilo de JavaFX.
+     *
+     * @param guardado El guardado fallido.
+     */
+    public void restaurar(Guardado<T> guardado) {
+        for (Segmento segmento : guardado.segmentos) {
+            segmento.sucio = true; // Si el segmento se vació desde entonces, ya no está en la lista
+        }
+        obsoletos.addAll(guardado.obsoletos);
+        completoPendiente |= guardado.completo;
+    }
+
+    /**
+     * Segmentos modificados de una tabla, con la copia de sus filas, y los segmentos vigentes
+     * después de guardarlos.
+     *
+     * @param <T> Tipo de las filas.
+     */
+    public static final class Guardado<T> {
+
+        private final List<Segmento> segmentos = new ArrayList<>(); // Segmentos por escribir
+        private final List<Integer> numeros = new ArrayList<>(); // Número de cada segmento por escribir
+        private final List<List<T>> datos = new ArrayList<>(); // Copia de las filas de cada segmento
+        private final List<Integer> vigentes = new ArrayList<>(); // Segmentos vigentes, en orden
+        private final List<Integer> obsoletos = new ArrayList<>(); // Segmentos vaciados que hay que borrar
+        private boolean completo; // Indica si el guardado reemplaza la tabla completa
+
+        /**
+         * Constructor privado; se obtiene con {@link TablaSegmentada#tomarCambios}.
+         */
+        private Guardado() {
+        }
+
+        /**
+         * Obtiene los números de los segmentos por escribir.
+         *
+         * @return Los números, en el orden de la tabla.
+         */
+        public List<Integer> getNumeros() {
+            return numeros;
+        }
+
+        /**
+         * Obtiene la copia de las filas de cada segmento por escribir.
+         *
+         * @return Las filas de cada segmento, en el orden de {@link #getNumeros()}.
+         */
+        public List<List<T>> getDatos() {
+            return datos;
+        }
+
+        /**
+         * Obtiene los segmentos vigentes después del guardado.
+         *
+         * @return Los números de los segmentos, en el orden de la tabla.
+         */
+        public List<Integer> getVigentes() {
+            return vigentes;
+        }
+
+        /**
+         * Obtiene los segmentos que quedaron vacíos y hay que borrar.
+         *
+         * @return Los números de los segmentos.
+         */
+        public List<Integer> getObsoletos() {
+            return obsoletos;
+        }
+
+        /**
+         * Indica si el guardado reemplaza la tabla completa: el almacén debe descartar lo que
+         * tenga de la tabla que no esté en los segmentos vigentes.
+         *
+         * @return true si es el primer guardado de la tabla en segmentos.
+         */
+        public boolean isCompleto() {
+            return completo;
+        }
+
+        /**
+         * Indica si el guardado no tiene nada que escribir.
+         *
+         * @return true si ningún segmento cambió desde el guardado anterior.
+         */
+        public boolean estaVacio() {
+            return segmentos.isEmpty() && obsoletos.isEmpty() && !completo;
+        }
+    }
+
+    /**
+     * Tramo contiguo de la tabla.
+     */
+    private static final class Segmento {
+
+        private final int numero; // Número del segmento, creciente en el orden de la tabla
+        private int filas; // Filas del tramo
+        private boolean sucio; // Indica si el tramo cambió desde que se guardó
+
+        /**
+         * Crea un segmento vacío.
+         *
+         * @param numero Número del segmento.
+         */
+        private Segmento(int numero) {
+            this.numero = numero;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package biblioteca.estadisticas;
+
+import java.util.Collection;
+
+/**
+ * Boceto de cuantiles con error relativo acotado, al estilo de DDSketch, para la duración de
+ * los préstamos en días.
+ *
+ * Cada valor positivo se cuenta en la cubeta {@code ceil(log(x) / log(gamma))}, con
+ * {@code gamma = (1 + a) / (1 - a)} y {@code a} = {@value #PRECISION_RELATIVA}; cualquier
+ * cuantil se estima con un error relativo de como mucho {@code a}. Las cubetas se guardan en
+ * un arreglo denso a partir de la menor usada; si el rango supera {@value #MAXIMO_CUBETAS}
+ * cubetas, las más bajas se unen en una, de modo que la memoria está acotada sin importar
+ * cuántos valores se agreguen.
+ *
+ * Dos bocetos con la misma precisión se combinan sumando sus cubetas, por lo que se pueden
+ * mantener bocetos por género o por sucursal y unirlos para cualquier agrupación.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public final class BocetoCuantiles {
+
+    /** Error relativo máximo de los cuantiles estimados. */
+    public static final double PRECISION_RELATIVA = 0.01;
+
+    private static final double GAMMA = (1 + PRECISION_RELATIVA) / (1 - PRECISION_RELATIVA);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final int MAXIMO_CUBETAS = 2048; // Límite de cubetas de un boceto
+    private static final int CUBETAS_INICIALES = 64; // Tamaño inicial del arreglo de cubetas
+    private static final int[] INDICE_DIAS = new int[1024]; // Cubeta de cada duración pequeña, precalculada
+
+    static {
+        for (int dias = 1; dias < INDICE_DIAS.length; dias++) {
+            INDICE_DIAS[dias] = (int) Math.ceil(Math.log(dias) / LOG_GAMMA);
+        }
+    }
+
+    private long[] contadores = new long[0]; // Cantidad de valores por cubeta
+    private int desplazamiento; // Índice de la cubeta guardada en contadores[0]
+    private long ceros; // Valores iguales a cero (o negativos, por datos inválidos)
+    private long cantidad; // Total de valores
+    private long minimo = Long.MAX_VALUE; // Menor valor agregado
+    private long maximo = Long.MIN_VALUE; // Mayor valor agregado
+
+    /**
+     * Agrega un valor al boceto.
+     *
+     * @param dias La duración en días.
+     */
+    public void agregar(long dias) {
+        cantidad++;
+        minimo = Math.min(minimo, dias);
+        maximo = Math.max(maximo, dias);
+        if (dias <= 0) {
+            ceros++;
+        } else {
+            sumarEnCubeta(indice(dias), 1);
+        }
+    }
+
+    /**
+     * Suma a este boceto los valores de otro.
+     *
+     * @param otro El boceto a combinar.
+     */
+    public void combinar(BocetoCuantiles otro) {
+        if (otro.cantidad == 0) {
+            return;
+        }
+        cantidad += otro.cantidad;
+        ceros += otro.ceros;
+        minimo = Math.min(minimo, otro.minimo);
+        maximo = Math.max(maximo, otro.maximo);
+        for (int i = 0; i < otro.contadores.length; i++) {
+            if (otro.contadores[i] != 0) {
+                sumarEnCubeta(otro.desplazamiento + i, otro.contadores[i]);
+            }
+        }
+    }
+
+    /**
+     * Crea un boceto con los valores de varios bocetos.
+     *
+     * @param bocetos Los bocetos a combinar.
+     * @return Un boceto nuevo con todos los valores.
+     */
+    public static BocetoCuantiles combinar(Collection<BocetoCuantiles> bocetos) {
+        BocetoCuantiles resultado = new BocetoCuantiles();
+        for (BocetoCuantiles boceto : bocetos) {
+            resultado.combinar(boceto);
+        }
+        return resultado;
+    }
+
+    /**
+     * Estima un cuantil de los valores agregados.
+     *
+     * @param q El cuantil, entre 0 y 1 (por ejemplo, 0.9 para el percentil 90).
+     * @return El valor estimado, o NaN si el boceto está vacío.
+     */
+    public double cuantil(double q) {
+        if (cantidad == 0) {
+            return Double.NaN;
+        }
+        long rango = (long) (q * (cantidad - 1)); // Posición del valor buscado, desde 0
+        if (rango < ceros) {
+            return Math.max(minimo, 0);
+        }
+        long acumulado = ceros;
+        for (int i = 0; i < contadores.length; i++) {
+            acumulado += contadores[i];
+            if (acumulado > rango) {
+                double estimado = 2 * Math.pow(GAMMA, desplazamiento + i) / (GAMMA + 1);
+                return Math.max(minimo, Math.min(maximo, estimado));
+            }
+        }
+        return maximo;
+    }
+
+    /**
+     * Obtiene la cantidad de valores agregados.
+     *
+     * @return La cantidad de valores.
+     */
+    public long getCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Obtiene la cubeta de un valor positivo.
+     *
+     * @param dias El valor.
+     * @return El índice de su cubeta.
+     */
+    private static int indice(long dias) {
+        return dias < INDICE_DIAS.length ? INDICE_DIAS[(int) dias] : (int) Math.ceil(Math.log(dias) / LOG_GAMMA);
+    }
+
+    /**
+     * Suma una cantidad a una cubeta, ampliando el arreglo si hace falta.
+     *
+     * @param indice La cubeta.
+     * @param cuenta La cantidad a sumar.
+     */
+    private void sumarEnCubeta(int indice, long cuenta) {
+        if (contadores.length == 0) {
+            contadores = new long[CUBETAS_INICIALES];
+            desplazamiento = indice;
+        } else if (indice < desplazamiento || indice >= desplazamiento + contadores.length) {
+            redimensionar(indice);
+        }
+        // Si las cubetas más bajas se unieron, el valor cae en la menor que queda
+        contadores[Math.max(indice, desplazamiento) - desplazamiento] += cuenta;
+    }
+
+    /**
+     * Cambia el arreglo de cubetas para que cubra una cubeta nueva además de las usadas. El
+     * espacio de más queda del lado hacia el que se creció; si el rango supera el límite de
+     * cubetas, las más bajas se suman en la menor que se conserva.
+     *
+     * @param indice La cubeta nueva.
+     */
+    private void redimensionar(int indice) {
+        // Solo cuenta el rango de cubetas usadas, no el espacio libre del arreglo actual
+        int desde = indice;
+        int hasta = indice;
+        for (int i = 0; i < contadores.length; i++) {
+            if (contadores[i] != 0) {
+                desde = Math.min(desde, desplazamiento + i);
+                break;
+            }
+        }
+        for (int i = contadores.length - 1; i >= 0; i--) {
+            if (contadores[i] != 0) {
+                hasta = Math.max(hasta, desplazamiento + i);
+                break;
+            }
+        }
+        if (hasta - desde + 1 > MAXIMO_CUBETAS) {
+            desde = hasta - MAXIMO_CUBETAS + 1;
+        }
+        int longitud = Math.min(MAXIMO_CUBETAS, Math.max(hasta - desde + 1, contadores.length * 2));
+        int nuevoDesplazamiento = indice < desplazamiento ? hasta - longitud + 1 : desde;
+        long[] nuevos = new long[longitud];
+        for (int i = 0; i < contadores.length; i++) {
+            if (contadores[i] != 0) {
+                nuevos[Math.max(desplazamiento + i, nuevoDesplazamiento) - nuevoDesplazamiento] += contadores[i];
+            }
+        }
+        contadores = nuevos;
+        desplazamiento = nuevoDesplazamiento;
+    }
+}
@@ -0,0 +1,79 @@
+package biblioteca.estadisticas;
+
+import biblioteca.models.Prestamo;
+
+/**
+ * Criterio por el que se cuentan los préstamos en las clasificaciones de "más prestados"
+ * de {@link MotorEstadisticas}.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public enum Clasificacion {
+
+    /** Libros más prestados, por título. */
+    TITULO("Títulos"),
+    /** Autores más prestados. */
+    AUTOR("Autores"),
+    /** Géneros más prestados. */
+    GENERO("Géneros"),
+    /** Miembros con más préstamos, por ID. */
+    MIEMBRO("Miembros");
+
+    private final String nombre; // Nombre que se muestra en la interfaz
+
+    /**
+     * Crea un criterio de clasificación.
+     *
+     * @param nombre Nombre que se muestra en la interfaz.
+     */
+    Clasificacion(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /**
+     * Obtiene el elemento en que se cuenta un préstamo según este criterio.
+     *
+     * @param prestamo El préstamo.
+     * @return El título, autor o género del libro, o el ID del miembro.
+     */
+    public String clave(Prestamo prestamo) {
+        return clave(prestamo.getLibro().getTituloValor(), prestamo.getLibro().getAutorValor(),
+                prestamo.getLibro().getGeneroValor(), prestamo.getMiembro().getIdValor());
+    }
+
+    /**
+     * Obtiene el elemento en que se cuenta un préstamo según este criterio, a partir de valores
+     * ya copiados del libro y del miembro.
+     *
+     * @param titulo  El título del libro.
+     * @param autor   El autor del libro.
+     * @param genero  El género del libro.
+     * @param miembro El ID del miembro.
+     * @return El valor que corresponde a este criterio.
+     */
+    public String clave(String titulo, String autor, String genero, String miembro) {
+        switch (this) {
+            case AUTOR:
+                return autor;
+            case GENERO:
+                return genero;
+            case MIEMBRO:
+                return miembro;
+            default:
+                return titulo;
+        }
+    }
+
+    /**
+     * Devuelve el nombre que se muestra en la interfaz.
+     *
+     * @return El nombre del criterio.
+     */
+    @Override
+    public String toString() {
+        return nombre;
+    }
+}
@@ -0,0 +1,80 @@
+package biblioteca.estadisticas;
+
+import biblioteca.models.Prestamo;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consultas ad hoc sobre el historial completo de préstamos que no mantiene
+ * {@link MotorEstadisticas}. Se calculan al pedirlas con {@link ConsultaParalela}.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public enum ConsultaHistorial {
+
+    /** Préstamos por década de publicación del libro. */
+    DECADA_PUBLICACION("Década de publicación"),
+    /** Préstamos por dominio del correo del miembro. */
+    DOMINIO_CORREO("Dominio de correo");
+
+    private final String nombre; // Nombre que se muestra en la interfaz
+
+    /**
+     * Crea una consulta.
+     *
+     * @param nombre Nombre que se muestra en la interfaz.
+     */
+    ConsultaHistorial(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /**
+     * Cuenta los préstamos de un historial según esta consulta.
+     *
+     * @param prestamos El historial de préstamos.
+     * @return Cantidad de préstamos por grupo; las décadas en orden cronológico y los dominios
+     *         de mayor a menor cantidad.
+     */
+    public Map<String, Long> ejecutar(List<Prestamo> prestamos) {
+        if (this == DOMINIO_CORREO) {
+            return ConsultaParalela.contarPor(prestamos, prestamo -> dominio(prestamo.getMiembro().getEmailValor()));
+        }
+        Map<Integer, Long> porDecada = new TreeMap<>(ConsultaParalela.contarPor(prestamos,
+                prestamo -> Math.floorDiv(prestamo.getLibro().getAnioPublicacionValor(), 10) * 10));
+        Map<String, Long> resultado = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Long> decada : porDecada.entrySet()) {
+            resultado.put(decada.getKey() + "s", decada.getValue());
+        }
+        return resultado;
+    }
+
+    /**
+     * Obtiene el dominio de un correo electrónico.
+     *
+     * @param email El correo.
+     * @return El dominio en minúsculas, o "(sin dominio)" si el correo no tiene.
+     */
+    private static String dominio(String email) {
+        int arroba = email != null ? email.lastIndexOf('@') : -1;
+        if (arroba < 0 || arroba == email.length() - 1) {
+            return "(sin dominio)";
+        }
+        return email.substring(arroba + 1).trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Devuelve el nombre que se muestra en la interfaz.
+     *
+     * @return El nombre de la consulta.
+     */
+    @Override
+    public String toString() {
+        return nombre;
+    }
+}
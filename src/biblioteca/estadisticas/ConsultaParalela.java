@@ -0,0 +1,167 @@
+package biblioteca.estadisticas;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Agregaciones ad hoc sobre colecciones completas en memoria, repartidas entre todos los
+ * núcleos con un {@link ForkJoinPool}.
+ *
+ * La lista se divide en tramos; cada tramo se acumula en un agregado parcial propio, sin
+ * compartir estado entre hilos, y los parciales se combinan de a pares al terminar. Sirve
+ * para preguntas que {@link MotorEstadisticas} no mantiene precalculadas, como los préstamos
+ * por década de publicación o por dominio de correo del miembro.
+ *
+ * La consulta bloquea al hilo que la llama hasta tener el resultado, por lo que la interfaz
+ * la ejecuta en segundo plano sobre una copia de la lista: el hilo de JavaFX puede seguir
+ * modificando la original mientras se recorre la copia.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public final class ConsultaParalela {
+
+    private static final int TRAMO_MINIMO = 10000; // Elementos por debajo de los cuales no se divide
+    private static final int TRAMOS_POR_HILO = 8; // Tramos por hilo, para repartir bien la carga
+
+    /**
+     * Constructor privado; la clase solo tiene métodos estáticos.
+     */
+    private ConsultaParalela() {
+    }
+
+    /**
+     * Agrega los elementos de una lista en paralelo.
+     *
+     * @param <T>       Tipo de los elementos.
+     * @param <A>       Tipo del agregado.
+     * @param elementos Lista a recorrer; debe permitir acceso por posición eficiente.
+     * @param crear     Crea un agregado vacío para cada tramo.
+     * @param acumular  Suma un elemento a un agregado.
+     * @param combinar  Une dos agregados parciales; puede devolver uno de ellos modificado.
+     * @return El agregado de todos los elementos.
+     */
+    public static <T, A> A agregar(List<? extends T> elementos, Supplier<A> crear,
+            BiConsumer<A, ? super T> acumular, BinaryOperator<A> combinar) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int tramo = Math.max(TRAMO_MINIMO, elementos.size() / (pool.getParallelism() * TRAMOS_POR_HILO));
+        return pool.invoke(new Tarea<>(elementos, 0, elementos.size(), tramo, crear, acumular, combinar));
+    }
+
+    /**
+     * Cuenta los elementos de una lista según una clave, en paralelo.
+     *
+     * @param <T>       Tipo de los elementos.
+     * @param <K>       Tipo de la clave.
+     * @param elementos Lista a recorrer.
+     * @param clave     Obtiene la clave de cada elemento.
+     * @return Cantidad de elementos por clave, de mayor a menor cantidad.
+     */
+    public static <T, K> Map<K, Long> contarPor(List<? extends T> elementos, Function<? super T, ? extends K> clave) {
+        Map<K, long[]> cuentas = ConsultaParalela.<T, Map<K, long[]>>agregar(elementos, HashMap::new,
+                (parcial, elemento) -> parcial.computeIfAbsent(clave.apply(elemento), k -> new long[1])[0]++,
+                ConsultaParalela::sumarCuentas);
+
+        List<Map.Entry<K, long[]>> ordenadas = new ArrayList<>(cuentas.entrySet());
+        ordenadas.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+        Map<K, Long> resultado = new LinkedHashMap<>();
+        for (Map.Entry<K, long[]> cuenta : ordenadas) {
+            resultado.put(cuenta.getKey(), cuenta.getValue()[0]);
+        }
+        return resultado;
+    }
+
+    /**
+     * Suma las cuentas de un parcial en el otro, recorriendo el menor.
+     *
+     * @param <K> Tipo de la clave.
+     * @param a   Un parcial.
+     * @param b   El otro parcial.
+     * @return El parcial con la suma de ambos.
+     */
+    private static <K> Map<K, long[]> sumarCuentas(Map<K, long[]> a, Map<K, long[]> b) {
+        Map<K, long[]> mayor = a.size() >= b.size() ? a : b;
+        Map<K, long[]> menor = mayor == a ? b : a;
+        for (Map.Entry<K, long[]> cuenta : menor.entrySet()) {
+            long[] existente = mayor.putIfAbsent(cuenta.getKey(), cuenta.getValue());
+            if (existente != null) {
+                existente[0] += cuenta.getValue()[0];
+            }
+        }
+        return mayor;
+    }
+
+    /**
+     * Tarea que agrega un tramo de la lista, dividiéndolo en dos mientras sea grande.
+     *
+     * @param <T> Tipo de los elementos.
+     * @param <A> Tipo del agregado.
+     */
+    private static final class Tarea<T, A> extends RecursiveTask<A> {
+
+        private static final long serialVersionUID = 1L; // Versión de la forma serializada heredada
+
+        private final transient List<? extends T> elementos; // Lista completa; la tarea nunca se serializa
+        private final int desde; // Primera posición del tramo
+        private final int hasta; // Posición siguiente a la última del tramo
+        private final int tramo; // Tamaño por debajo del cual se recorre sin dividir
+        private final transient Supplier<A> crear; // Crea agregados vacíos
+        private final transient BiConsumer<A, ? super T> acumular; // Suma un elemento a un agregado
+        private final transient BinaryOperator<A> combinar; // Une dos agregados
+
+        /**
+         * Crea la tarea de un tramo.
+         *
+         * @param elementos Lista completa.
+         * @param desde     Primera posición del tramo.
+         * @param hasta     Posición siguiente a la última del tramo.
+         * @param tramo     Tamaño por debajo del cual se recorre sin dividir.
+         * @param crear     Crea agregados vacíos.
+         * @param acumular  Suma un elemento a un agregado.
+         * @param combinar  Une dos agregados.
+         */
+        private Tarea(List<? extends T> elementos, int desde, int hasta, int tramo, Supplier<A> crear,
+                BiConsumer<A, ? super T> acumular, BinaryOperator<A> combinar) {
+            this.elementos = elementos;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.tramo = tramo;
+            this.crear = crear;
+            this.acumular = acumular;
+            this.combinar = combinar;
+        }
+
+        /**
+         * Agrega el tramo directamente, o lo divide y combina los resultados de las mitades.
+         *
+         * @return El agregado del tramo.
+         */
+        @Override
+        protected A compute() {
+            if (hasta - desde <= tramo) {
+                A parcial = crear.get();
+                for (int i = desde; i < hasta; i++) {
+                    acumular.accept(parcial, elementos.get(i));
+                }
+                return parcial;
+            }
+            int medio = (desde + hasta) >>> 1;
+            Tarea<T, A> izquierda = new Tarea<>(elementos, desde, medio, tramo, crear, acumular, combinar);
+            Tarea<T, A> derecha = new Tarea<>(elementos, medio, hasta, tramo, crear, acumular, combinar);
+            izquierda.fork();
+            A resultadoDerecha = derecha.compute();
+            return combinar.apply(izquierda.join(), resultadoDerecha);
+        }
+    }
+}
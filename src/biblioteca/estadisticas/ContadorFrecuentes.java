@@ -0,0 +1,215 @@
+package biblioteca.estadisticas;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contador de los elementos más frecuentes de un flujo con memoria acotada, según el
+ * algoritmo Space-Saving.
+ *
+ * Se guardan como mucho {@code capacidad} contadores. Un elemento ya contado suma en su
+ * contador; uno nuevo con los contadores llenos reemplaza al de menor cuenta y hereda esa
+ * cuenta como error. Así, todo elemento que aparece más de {@code total / capacidad} veces
+ * está en el contador, y la cuenta de cada elemento excede a la real en como mucho su error.
+ *
+ * Los contadores forman un montículo de mínimos indexado, por lo que cada actualización cuesta
+ * O(log capacidad) y encontrar el menor cuesta O(1).
+ *
+ * @param <K> Tipo de los elementos contados.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public final class ContadorFrecuentes<K> {
+
+    private final int capacidad; // Cantidad máxima de contadores
+    private final Map<K, Entrada<K>> entradas; // Elemento -> su contador
+    private final List<Entrada<K>> monticulo; // Contadores ordenados como montículo de mínimos
+    private long total; // Total de apariciones contadas
+
+    /**
+     * Crea un contador vacío.
+     *
+     * @param capacidad Cantidad máxima de elementos que se siguen a la vez.
+     */
+    public ContadorFrecuentes(int capacidad) {
+        this.capacidad = capacidad;
+        this.entradas = new HashMap<>(capacidad * 2);
+        this.monticulo = new ArrayList<>(capacidad);
+    }
+
+    /**
+     * Cuenta una aparición de un elemento.
+     *
+     * @param clave El elemento.
+     */
+    public void agregar(K clave) {
+        total++;
+        Entrada<K> entrada = entradas.get(clave);
+        if (entrada != null) {
+            entrada.cuenta++;
+            bajar(entrada.posicion);
+        } else if (monticulo.size() < capacidad) {
+            entrada = new Entrada<>(clave, 1, 0);
+            entrada.posicion = monticulo.size();
+            monticulo.add(entrada);
+            entradas.put(clave, entrada);
+            subir(entrada.posicion);
+        } else {
+            // Reemplazar el contador con menor cuenta; el nuevo elemento hereda su cuenta como error
+            Entrada<K> menor = monticulo.get(0);
+            entradas.remove(menor.clave);
+            menor.error = menor.cuenta;
+            menor.cuenta++;
+            menor.clave = clave;
+            entradas.put(clave, menor);
+            bajar(0);
+        }
+    }
+
+    /**
+     * Obtiene los elementos con mayor cuenta, de mayor a menor.
+     *
+     * @param limite Cantidad máxima de elementos.
+     * @return Copias de los contadores de los elementos más frecuentes.
+     */
+    public List<Entrada<K>> getMasFrecuentes(int limite) {
+        List<Entrada<K>> copia = new ArrayList<>(monticulo.size());
+        for (Entrada<K> entrada : monticulo) {
+            copia.add(new Entrada<>(entrada.clave, entrada.cuenta, entrada.error));
+        }
+        copia.sort((a, b) -> Long.compare(b.cuenta, a.cuenta));
+        return copia.size() > limite ? copia.subList(0, limite) : copia;
+    }
+
+    /**
+     * Obtiene el total de apariciones contadas.
+     *
+     * @return El total.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Vacía el contador.
+     */
+    public void limpiar() {
+        entradas.clear();
+        monticulo.clear();
+        total = 0;
+    }
+
+    /**
+     * Mueve un contador hacia la raíz mientras sea menor que su padre.
+     *
+     * @param posicion Posición del contador en el montículo.
+     */
+    private void subir(int posicion) {
+        while (posicion > 0) {
+            int padre = (posicion - 1) / 2;
+            if (monticulo.get(padre).cuenta <= monticulo.get(posicion).cuenta) {
+                return;
+            }
+            intercambiar(posicion, padre);
+            posicion = padre;
+        }
+    }
+
+    /**
+     * Mueve un contador hacia las hojas mientras sea mayor que alguno de sus hijos.
+     *
+     * @param posicion Posición del contador en el montículo.
+     */
+    private void bajar(int posicion) {
+        int tamanio = monticulo.size();
+        while (true) {
+            int menor = posicion;
+            int izquierdo = 2 * posicion + 1;
+            int derecho = izquierdo + 1;
+            if (izquierdo < tamanio && monticulo.get(izquierdo).cuenta < monticulo.get(menor).cuenta) {
+                menor = izquierdo;
+            }
+            if (derecho < tamanio && monticulo.get(derecho).cuenta < monticulo.get(menor).cuenta) {
+                menor = derecho;
+            }
+            if (menor == posicion) {
+                return;
+            }
+            intercambiar(posicion, menor);
+            posicion = menor;
+        }
+    }
+
+    /**
+     * Intercambia dos contadores del montículo y actualiza sus posiciones.
+     *
+     * @param i Posición del primero.
+     * @param j Posición del segundo.
+     */
+    private void intercambiar(int i, int j) {
+        Entrada<K> a = monticulo.get(i);
+        Entrada<K> b = monticulo.get(j);
+        monticulo.set(i, b);
+        monticulo.set(j, a);
+        a.posicion = j;
+        b.posicion = i;
+    }
+
+    /**
+     * Contador de un elemento.
+     *
+     * @param <K> Tipo del elemento.
+     */
+    public static final class Entrada<K> {
+
+        private K clave; // Elemento contado
+        private long cuenta; // Cuenta estimada (nunca menor que la real)
+        private long error; // Cuánto puede exceder la cuenta a la real
+        private int posicion; // Posición en el montículo
+
+        /**
+         * Crea un contador.
+         *
+         * @param clave  El elemento.
+         * @param cuenta La cuenta.
+         * @param error  El error máximo de la cuenta.
+         */
+        private Entrada(K clave, long cuenta, long error) {
+            this.clave = clave;
+            this.cuenta = cuenta;
+            this.error = error;
+        }
+
+        /**
+         * Obtiene el elemento contado.
+         *
+         * @return El elemento.
+         */
+        public K getClave() {
+            return clave;
+        }
+
+        /**
+         * Obtiene la cuenta estimada, que nunca es menor que la real.
+         *
+         * @return La cuenta.
+         */
+        public long getCuenta() {
+            return cuenta;
+        }
+
+        /**
+         * Obtiene cuánto puede exceder la cuenta a la real.
+         *
+         * @return El error máximo.
+         */
+        public long getError() {
+            return error;
+        }
+    }
+}
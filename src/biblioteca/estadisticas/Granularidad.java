@@ -0,0 +1,117 @@
+package biblioteca.estadisticas;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.IsoFields;
+
+/**
+ * Tamaño de los periodos en que se agrupan los préstamos de {@link SerieTemporalPrestamos}.
+ * Cada periodo se identifica por su primer día.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public enum Granularidad {
+
+    /** Un periodo por día. */
+    DIA("Día"),
+    /** Un periodo por semana, de lunes a domingo. */
+    SEMANA("Semana"),
+    /** Un periodo por mes calendario. */
+    MES("Mes");
+
+    private static final DateTimeFormatter FORMATO_MES = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    private final String nombre; // Nombre que se muestra en la interfaz
+
+    /**
+     * Crea una granularidad.
+     *
+     * @param nombre Nombre que se muestra en la interfaz.
+     */
+    Granularidad(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /**
+     * Obtiene el primer día del periodo que contiene una fecha.
+     *
+     * @param fecha La fecha.
+     * @return El inicio de su periodo.
+     */
+    public LocalDate inicio(LocalDate fecha) {
+        switch (this) {
+            case SEMANA:
+                return fecha.with(DayOfWeek.MONDAY);
+            case MES:
+                return fecha.withDayOfMonth(1);
+            default:
+                return fecha;
+        }
+    }
+
+    /**
+     * Obtiene el primer día del periodo siguiente.
+     *
+     * @param inicio Inicio de un periodo.
+     * @return El inicio del periodo siguiente.
+     */
+    public LocalDate siguiente(LocalDate inicio) {
+        switch (this) {
+            case SEMANA:
+                return inicio.plusWeeks(1);
+            case MES:
+                return inicio.plusMonths(1);
+            default:
+                return inicio.plusDays(1);
+        }
+    }
+
+    /**
+     * Obtiene el inicio del periodo que está una cantidad de periodos antes.
+     *
+     * @param inicio    Inicio de un periodo.
+     * @param periodos  Cantidad de periodos a retroceder.
+     * @return El inicio del periodo anterior indicado.
+     */
+    public LocalDate retroceder(LocalDate inicio, long periodos) {
+        switch (this) {
+            case SEMANA:
+                return inicio.minusWeeks(periodos);
+            case MES:
+                return inicio.minusMonths(periodos);
+            default:
+                return inicio.minusDays(periodos);
+        }
+    }
+
+    /**
+     * Obtiene la etiqueta con que se muestra un periodo en un gráfico.
+     *
+     * @param inicio Inicio del periodo.
+     * @return La etiqueta del periodo.
+     */
+    public String etiqueta(LocalDate inicio) {
+        switch (this) {
+            case SEMANA:
+                return inicio.get(IsoFields.WEEK_BASED_YEAR) + "-S" + inicio.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR);
+            case MES:
+                return inicio.format(FORMATO_MES);
+            default:
+                return inicio.toString();
+        }
+    }
+
+    /**
+     * Devuelve el nombre que se muestra en la interfaz.
+     *
+     * @return El nombre de la granularidad.
+     */
+    @Override
+    public String toString() {
+        return nombre;
+    }
+}
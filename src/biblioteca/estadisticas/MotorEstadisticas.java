@@ -0,0 +1,589 @@
+package biblioteca.estadisticas;
+
+import biblioteca.datos.OyenteBiblioteca;
+import biblioteca.datos.RepositorioBiblioteca;
+import biblioteca.models.Libro;
+import biblioteca.models.Prestamo;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import javafx.application.Platform;
+
+/**
+ * Motor de estadísticas que mantiene los agregados de la biblioteca al día a partir de los
+ * eventos de {@link RepositorioBiblioteca}.
+ *
+ * Al terminar la carga recorre una sola vez los libros y préstamos para calcular el estado
+ * inicial, en un hilo aparte y sobre una copia de los valores que pueden cambiar; los eventos
+ * que lleguen mientras tanto se guardan y se aplican al publicar ese estado. Después cada alta,
+ * modificación o baja de un libro y cada préstamo registrado o devuelto ajusta solo los
+ * contadores afectados. Las vistas leen los valores ya calculados,
+ * cuyo costo depende de la cantidad de categorías y no de la cantidad de préstamos.
+ *
+ * Los préstamos activos se guardan ordenados por fecha de préstamo, de modo que los que llevan
+ * más días prestados se obtienen desde el inicio del conjunto sin recorrerlo completo. El
+ * historial completo se resume además en una {@link SerieTemporalPrestamos} por día, semana y mes,
+ * y la duración de los préstamos devueltos en un {@link BocetoCuantiles} por género y otro por
+ * sucursal. Cada devolución se asigna al género y la sucursal que tiene el libro al devolverse.
+ * Los títulos, autores, géneros y miembros con más préstamos se cuentan con un
+ * {@link ContadorFrecuentes} por {@link Clasificacion}, con memoria acotada.
+ *
+ * Se usa desde el hilo de JavaFX, que es donde el repositorio entrega los eventos. Cada evento
+ * copia al recibirse los valores que usa, para aplicarlos igual si se guarda hasta publicar el
+ * estado inicial.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public final class MotorEstadisticas implements OyenteBiblioteca {
+
+    // Orden de los préstamos activos: primero los más antiguos (los que no tienen fecha al final); el ISBN desempata
+    private static final Comparator<Prestamo> POR_ANTIGUEDAD = Comparator
+            .comparing(Prestamo::getFechaPrestamoValor, Comparator.nullsLast(Comparator.<LocalDate>naturalOrder()))
+            .thenComparing(prestamo -> prestamo.getLibro().getISBNValor());
+
+    private static final int CAPACIDAD_CLASIFICACION = 1024; // Contadores de cada clasificación de más prestados
+
+    // Posiciones de los valores copiados de un libro
+    private static final int TITULO = 0;
+    private static final int AUTOR = 1;
+    private static final int GENERO = 2;
+    private static final int SUCURSAL = 3;
+
+    private static MotorEstadisticas instancia; // Instancia única del motor
+
+    private Map<String, Integer> librosPorGenero = new TreeMap<>(); // Género -> cantidad de libros
+    private Map<String, Integer> activosPorGenero = new TreeMap<>(); // Género -> préstamos activos
+    private Map<Libro, Prestamo> activos = new HashMap<>(); // Libro -> préstamo sin devolver
+    private TreeSet<Prestamo> activosPorAntiguedad = new TreeSet<>(POR_ANTIGUEDAD); // Préstamos activos ordenados
+    private Map<String, BocetoCuantiles> duracionPorGenero = new TreeMap<>(); // Género -> duraciones
+    private Map<String, BocetoCuantiles> duracionPorSucursal = new TreeMap<>(); // Sucursal -> duraciones
+    private Map<Clasificacion, ContadorFrecuentes<String>> masPrestados = new EnumMap<>(Clasificacion.class); // Más prestados por criterio
+    private SerieTemporalPrestamos serie = new SerieTemporalPrestamos(); // Préstamos por periodo
+    private final List<Runnable> oyentesCambio = new ArrayList<>(); // Vistas a avisar tras cada cambio
+
+    private int totalLibros; // Libros en el catálogo
+    private long totalPrestamos; // Préstamos registrados en el historial
+    private long prestamosDevueltos; // Préstamos con fecha de devolución real
+    private long diasDevueltos; // Suma de la duración de los préstamos devueltos
+    private boolean cargado; // Indica si ya se calculó el estado inicial
+    private List<Runnable> pendientes; // Eventos recibidos durante el cálculo inicial, o null si no hay uno en curso
+    private int construccion; // Número del último cálculo inicial, para descartar los reemplazados
+
+    /**
+     * Constructor privado; se debe usar {@link #getInstancia()}.
+     */
+    private MotorEstadisticas() {
+        for (Clasificacion clasificacion : Clasificacion.values()) {
+            masPrestados.put(clasificacion, new ContadorFrecuentes<>(CAPACIDAD_CLASIFICACION));
+        }
+    }
+
+    /**
+     * Obtiene la instancia única del motor, registrándola en el repositorio la primera vez.
+     *
+     * @return El motor compartido por toda la aplicación.
+     */
+    public static synchronized MotorEstadisticas getInstancia() {
+        if (instancia == null) {
+            instancia = new MotorEstadisticas();
+            RepositorioBiblioteca.getInstancia().agregarOyente(instancia);
+        }
+        return instancia;
+    }
+
+    /**
+     * Registra una acción que se ejecuta después de cada cambio en los agregados, para que
+     * las vistas se actualicen.
+     *
+     * @param oyente La acción a ejecutar.
+     */
+    public void agregarOyenteCambio(Runnable oyente) {
+        oyentesCambio.add(oyente);
+    }
+
+    // ----- Eventos del repositorio -----
+
+    /**
+     * Calcula el estado inicial en un hilo aparte, recorriendo los libros y el historial de
+     * préstamos. Se copian aquí los valores que el hilo de JavaFX puede cambiar mientras tanto:
+     * los datos de cada libro, la fecha de devolución real de cada préstamo y cuáles están
+     * activos; los eventos que lleguen antes de publicar el estado se guardan en
+     * {@link #pendientes}.
+     *
+     * @param repositorio El repositorio con los datos cargados.
+     */
+    @Override
+    public void datosCargados(RepositorioBiblioteca repositorio) {
+        cargado = false;
+        pendientes = new ArrayList<>();
+        int numeroConstruccion = ++construccion;
+        Libro[] libros = repositorio.getLibros().toArray(new Libro[0]);
+        String[][] valoresLibros = new String[libros.length][];
+        for (int i = 0; i < libros.length; i++) {
+            valoresLibros[i] = valores(libros[i]);
+        }
+        Prestamo[] prestamos = repositorio.getPrestamos().toArray(new Prestamo[0]);
+        LocalDate[] devoluciones = new LocalDate[prestamos.length];
+        boolean[] activosCopia = new boolean[prestamos.length];
+        for (int i = 0; i < prestamos.length; i++) {
+            devoluciones[i] = prestamos[i].getFechaDevolucionRealValor();
+            activosCopia[i] = devoluciones[i] == null && repositorio.getPrestamoActivo(prestamos[i].getLibro()) == prestamos[i];
+        }
+
+        Thread hilo = new Thread(() -> {
+            MotorEstadisticas nuevo = new MotorEstadisticas();
+            Map<Libro, Integer> numeros = new HashMap<>(libros.length * 2);
+            for (int i = 0; i < libros.length; i++) {
+                numeros.put(libros[i], i);
+                nuevo.contarLibro(valoresLibros[i][GENERO], 1);
+            }
+            for (int i = 0; i < prestamos.length; i++) {
+                Prestamo prestamo = prestamos[i];
+                Integer numero = numeros.get(prestamo.getLibro());
+                // Un libro que ya no está en el catálogo no se puede modificar: se leen sus valores
+                String[] valores = numero != null ? valoresLibros[numero] : valores(prestamo.getLibro());
+                nuevo.totalPrestamos++;
+                nuevo.contarPrestamo(valores, prestamo.getMiembro().getIdValor());
+                if (devoluciones[i] != null) {
+                    nuevo.sumarDevolucion(prestamo.getFechaPrestamoValor(), devoluciones[i], valores);
+                } else if (activosCopia[i]) {
+                    nuevo.agregarActivo(prestamo, valores[GENERO]);
+                }
+            }
+            nuevo.serie.cargar(prestamos, devoluciones);
+            Platform.runLater(() -> publicar(numeroConstruccion, nuevo));
+        }, "estadisticas-carga");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Cuenta un libro nuevo en su género.
+     *
+     * @param libro El libro agregado.
+     */
+    @Override
+    public void libroAgregado(Libro libro) {
+        String genero = libro.getGeneroValor();
+        aplicar(() -> contarLibro(genero, 1));
+    }
+
+    /**
+     * Mueve el libro de género si este cambió, junto con su préstamo activo.
+     *
+     * @param libro    El libro con los valores nuevos.
+     * @param anterior Copia con los valores anteriores.
+     */
+    @Override
+    public void libroModificado(Libro libro, Libro anterior) {
+        String generoAnterior = anterior.getGeneroValor();
+        String generoNuevo = libro.getGeneroValor();
+        if (generoAnterior == null ? generoNuevo == null : generoAnterior.equals(generoNuevo)) {
+            return;
+        }
+        aplicar(() -> {
+            sumar(librosPorGenero, generoAnterior, -1);
+            sumar(librosPorGenero, generoNuevo, 1);
+            if (activos.containsKey(libro)) {
+                sumar(activosPorGenero, generoAnterior, -1);
+                sumar(activosPorGenero, generoNuevo, 1);
+            }
+        });
+    }
+
+    /**
+     * Descuenta un libro eliminado y su préstamo activo, si lo tenía.
+     *
+     * @param libro El libro eliminado.
+     */
+    @Override
+    public void libroEliminado(Libro libro) {
+        String genero = libro.getGeneroValor();
+        aplicar(() -> {
+            contarLibro(genero, -1);
+            Prestamo activo = quitarActivo(libro, genero);
+            if (activo != null) {
+                serie.quitarPendiente(activo);
+            }
+        });
+    }
+
+    /**
+     * Cuenta un préstamo nuevo como activo.
+     *
+     * @param prestamo El préstamo registrado.
+     */
+    @Override
+    public void prestamoRegistrado(Prestamo prestamo) {
+        String[] valores = valores(prestamo.getLibro());
+        String miembro = prestamo.getMiembro().getIdValor();
+        Prestamo fechas = copiarFechas(prestamo);
+        aplicar(() -> {
+            totalPrestamos++;
+            contarPrestamo(valores, miembro);
+            agregarActivo(prestamo, valores[GENERO]);
+            serie.agregarPrestamo(fechas);
+        });
+    }
+
+    /**
+     * Pasa un préstamo de activo a devuelto y suma su duración.
+     *
+     * @param prestamo El préstamo devuelto.
+     */
+    @Override
+    public void prestamoDevuelto(Prestamo prestamo) {
+        String[] valores = valores(prestamo.getLibro());
+        Prestamo fechas = copiarFechas(prestamo);
+        aplicar(() -> {
+            quitarActivo(prestamo.getLibro(), valores[GENERO]);
+            sumarDevolucion(fechas.getFechaPrestamoValor(), fechas.getFechaDevolucionRealValor(), valores);
+            serie.agregarDevolucion(fechas);
+        });
+    }
+
+    /**
+     * Pasa a esta instancia el estado calculado en segundo plano y le aplica los eventos
+     * recibidos mientras se calculaba. Se ejecuta en el hilo de JavaFX.
+     *
+     * @param numeroConstruccion Número del cálculo que terminó.
+     * @param nuevo              Instancia con el estado de los datos cargados.
+     */
+    private void publicar(int numeroConstruccion, MotorEstadisticas nuevo) {
+        if (numeroConstruccion != construccion) {
+            return;
+        }
+        librosPorGenero = nuevo.librosPorGenero;
+        activosPorGenero = nuevo.activosPorGenero;
+        activos = nuevo.activos;
+        activosPorAntiguedad = nuevo.activosPorAntiguedad;
+        duracionPorGenero = nuevo.duracionPorGenero;
+        duracionPorSucursal = nuevo.duracionPorSucursal;
+        masPrestados = nuevo.masPrestados;
+        serie = nuevo.serie;
+        totalLibros = nuevo.totalLibros;
+        totalPrestamos = nuevo.totalPrestamos;
+        prestamosDevueltos = nuevo.prestamosDevueltos;
+        diasDevueltos = nuevo.diasDevueltos;
+
+        List<Runnable> recibidos = pendientes;
+        pendientes = null;
+        for (Runnable evento : recibidos) {
+            evento.run();
+        }
+        cargado = true;
+        avisarCambio();
+    }
+
+    /**
+     * Aplica un evento a los agregados y avisa a las vistas, o lo guarda si el cálculo
+     * inicial está en curso.
+     *
+     * @param evento El evento, con los valores copiados al recibirlo.
+     */
+    private void aplicar(Runnable evento) {
+        if (pendientes != null) {
+            pendientes.add(evento);
+            return;
+        }
+        evento.run();
+        avisarCambio();
+    }
+
+    // ----- Consultas -----
+
+    /**
+     * Indica si ya se calculó el estado inicial.
+     *
+     * @return true si los datos ya se cargaron.
+     */
+    public boolean isCargado() {
+        return cargado;
+    }
+
+    /**
+     * Obtiene la cantidad de libros por género, ordenada por género.
+     *
+     * @return Vista de solo lectura del conteo por género.
+     */
+    public Map<String, Integer> getLibrosPorGenero() {
+        return Collections.unmodifiableMap(librosPorGenero);
+    }
+
+    /**
+     * Obtiene la cantidad de préstamos activos por género del libro, ordenada por género.
+     *
+     * @return Vista de solo lectura del conteo por género.
+     */
+    public Map<String, Integer> getActivosPorGenero() {
+        return Collections.unmodifiableMap(activosPorGenero);
+    }
+
+    /**
+     * Obtiene la cantidad de libros del catálogo.
+     *
+     * @return La cantidad de libros.
+     */
+    public int getTotalLibros() {
+        return totalLibros;
+    }
+
+    /**
+     * Obtiene la cantidad de préstamos del historial.
+     *
+     * @return La cantidad de préstamos.
+     */
+    public long getTotalPrestamos() {
+        return totalPrestamos;
+    }
+
+    /**
+     * Obtiene la cantidad de préstamos sin devolver.
+     *
+     * @return La cantidad de préstamos activos.
+     */
+    public int getPrestamosActivos() {
+        return activos.size();
+    }
+
+    /**
+     * Obtiene la cantidad de préstamos devueltos.
+     *
+     * @return La cantidad de préstamos devueltos.
+     */
+    public long getPrestamosDevueltos() {
+        return prestamosDevueltos;
+    }
+
+    /**
+     * Obtiene la duración promedio de los préstamos devueltos.
+     *
+     * @return El promedio en días, o 0 si no hay préstamos devueltos.
+     */
+    public double getDuracionPromedioDevueltos() {
+        return prestamosDevueltos == 0 ? 0 : (double) diasDevueltos / prestamosDevueltos;
+    }
+
+    /**
+     * Obtiene los bocetos de duración de los préstamos devueltos por género, ordenados por género.
+     *
+     * @return Vista de solo lectura de los bocetos por género.
+     */
+    public Map<String, BocetoCuantiles> getDuracionPorGenero() {
+        return Collections.unmodifiableMap(duracionPorGenero);
+    }
+
+    /**
+     * Obtiene los bocetos de duración de los préstamos devueltos por sucursal del libro,
+     * ordenados por sucursal (la cadena vacía agrupa los libros sin sucursal).
+     *
+     * @return Vista de solo lectura de los bocetos por sucursal.
+     */
+    public Map<String, BocetoCuantiles> getDuracionPorSucursal() {
+        return Collections.unmodifiableMap(duracionPorSucursal);
+    }
+
+    /**
+     * Obtiene los elementos con más préstamos según un criterio, de mayor a menor. Las cuentas
+     * son estimaciones de {@link ContadorFrecuentes}: nunca menores que las reales. Cada
+     * clasificación se cuenta al recorrer el historial en la carga y se mantiene con cada
+     * préstamo registrado, por lo que la consulta no recorre los préstamos.
+     *
+     * @param clasificacion Criterio de clasificación.
+     * @param limite        Cantidad máxima de elementos.
+     * @return Los elementos con su cuenta de préstamos.
+     */
+    public List<ContadorFrecuentes.Entrada<String>> getMasPrestados(Clasificacion clasificacion, int limite) {
+        if (!cargado) {
+            return Collections.emptyList();
+        }
+        return masPrestados.get(clasificacion).getMasFrecuentes(limite);
+    }
+
+    /**
+     * Obtiene la serie temporal del historial de préstamos.
+     *
+     * @return La serie por día, semana y mes.
+     */
+    public SerieTemporalPrestamos getSerie() {
+        return serie;
+    }
+
+    /**
+     * Obtiene los días que lleva prestado cada libro, empezando por los préstamos más antiguos.
+     * Solo recorre los préstamos que devuelve.
+     *
+     * @param limite Cantidad máxima de libros.
+     * @return Mapa ordenado de cada libro a los días que lleva prestado.
+     */
+    public Map<Libro, Long> getDiasPrestadoMasAntiguos(int limite) {
+        Map<Libro, Long> resultado = new LinkedHashMap<>();
+        LocalDate hoy = LocalDate.now();
+        Iterator<Prestamo> iterador = activosPorAntiguedad.iterator();
+        while (iterador.hasNext() && resultado.size() < limite) {
+            Prestamo prestamo = iterador.next();
+            if (prestamo.getFechaPrestamoValor() == null) {
+                break;
+            }
+            resultado.put(prestamo.getLibro(), ChronoUnit.DAYS.between(prestamo.getFechaPrestamoValor(), hoy));
+        }
+        return resultado;
+    }
+
+    // ----- Auxiliares -----
+
+    /**
+     * Copia los valores de un libro que usan los agregados.
+     *
+     * @param libro El libro.
+     * @return El título, el autor, el género y la sucursal, en las posiciones {@link #TITULO},
+     *         {@link #AUTOR}, {@link #GENERO} y {@link #SUCURSAL}.
+     */
+    private static String[] valores(Libro libro) {
+        return new String[]{libro.getTituloValor(), libro.getAutorValor(), libro.getGeneroValor(), libro.getSucursalValor()};
+    }
+
+    /**
+     * Copia las fechas de un préstamo, para sumarlo en la serie con las que tenía al recibir
+     * el evento.
+     *
+     * @param prestamo El préstamo.
+     * @return Un préstamo con el mismo libro, miembro y fechas.
+     */
+    private static Prestamo copiarFechas(Prestamo prestamo) {
+        return new Prestamo(prestamo.getLibro(), prestamo.getMiembro(), prestamo.getFechaPrestamoValor(),
+                prestamo.getFechaDevolucionEsperadaValor(), prestamo.getFechaDevolucionRealValor());
+    }
+
+    /**
+     * Suma o resta un libro del catálogo en su género.
+     *
+     * @param genero   El género del libro.
+     * @param cantidad 1 al agregarlo o -1 al quitarlo.
+     */
+    private void contarLibro(String genero, int cantidad) {
+        totalLibros += cantidad;
+        sumar(librosPorGenero, genero, cantidad);
+    }
+
+    /**
+     * Cuenta un préstamo en cada clasificación de más prestados.
+     *
+     * @param valores Valores del libro prestado (ver {@link #valores(Libro)}).
+     * @param miembro El ID del miembro.
+     */
+    private void contarPrestamo(String[] valores, String miembro) {
+        for (Map.Entry<Clasificacion, ContadorFrecuentes<String>> entrada : masPrestados.entrySet()) {
+            String clave = entrada.getKey().clave(valores[TITULO], valores[AUTOR], valores[GENERO], miembro);
+            entrada.getValue().agregar(claveClasificacion(clave));
+        }
+    }
+
+    /**
+     * Normaliza el elemento en que se cuenta un préstamo para una clasificación.
+     *
+     * @param clave El título, autor, género o ID del miembro.
+     * @return La clave, o una cadena vacía si es nula.
+     */
+    private static String claveClasificacion(String clave) {
+        return clave != null ? clave : "";
+    }
+
+    /**
+     * Agrega un préstamo a los préstamos activos.
+     *
+     * @param prestamo El préstamo activo.
+     * @param genero   El género de su libro.
+     */
+    private void agregarActivo(Prestamo prestamo, String genero) {
+        Prestamo anterior = activos.put(prestamo.getLibro(), prestamo);
+        if (anterior != null) {
+            activosPorAntiguedad.remove(anterior);
+        } else {
+            sumar(activosPorGenero, genero, 1);
+        }
+        activosPorAntiguedad.add(prestamo);
+    }
+
+    /**
+     * Quita el préstamo activo de un libro, si lo tiene.
+     *
+     * @param libro  El libro.
+     * @param genero El género del libro.
+     * @return El préstamo quitado, o null si el libro no estaba prestado.
+     */
+    private Prestamo quitarActivo(Libro libro, String genero) {
+        Prestamo prestamo = activos.remove(libro);
+        if (prestamo != null) {
+            activosPorAntiguedad.remove(prestamo);
+            sumar(activosPorGenero, genero, -1);
+        }
+        return prestamo;
+    }
+
+    /**
+     * Suma la duración de un préstamo devuelto al total. Los préstamos sin fecha de préstamo
+     * no tienen duración y no se cuentan.
+     *
+     * @param fechaPrestamo La fecha del préstamo.
+     * @param devolucion    La fecha de devolución real.
+     * @param valores       Valores del libro (ver {@link #valores(Libro)}).
+     */
+    private void sumarDevolucion(LocalDate fechaPrestamo, LocalDate devolucion, String[] valores) {
+        if (fechaPrestamo == null) {
+            return;
+        }
+        long dias = ChronoUnit.DAYS.between(fechaPrestamo, devolucion);
+        prestamosDevueltos++;
+        diasDevueltos += dias;
+        boceto(duracionPorGenero, valores[GENERO]).agregar(dias);
+        boceto(duracionPorSucursal, valores[SUCURSAL]).agregar(dias);
+    }
+
+    /**
+     * Obtiene el boceto de duraciones de una categoría, creándolo si no existe.
+     *
+     * @param bocetos   Mapa de categoría a boceto.
+     * @param categoria La categoría (un valor nulo se trata como vacío).
+     * @return El boceto de la categoría.
+     */
+    private static BocetoCuantiles boceto(Map<String, BocetoCuantiles> bocetos, String categoria) {
+        return bocetos.computeIfAbsent(categoria != null ? categoria : "", clave -> new BocetoCuantiles());
+    }
+
+    /**
+     * Suma una cantidad al contador de una categoría y la quita del mapa si llega a cero.
+     *
+     * @param conteo    Mapa de categoría a cantidad.
+     * @param categoria La categoría (un género nulo se cuenta como vacío).
+     * @param cantidad  La cantidad a sumar, positiva o negativa.
+     */
+    private static void sumar(Map<String, Integer> conteo, String categoria, int cantidad) {
+        conteo.merge(categoria != null ? categoria : "", cantidad, (a, b) -> a + b == 0 ? null : a + b);
+    }
+
+    /**
+     * Avisa a las vistas registradas que los agregados cambiaron, si ya se cargaron los datos.
+     */
+    private void avisarCambio() {
+        if (!cargado) {
+            return;
+        }
+        for (Runnable oyente : oyentesCambio) {
+            oyente.run();
+        }
+    }
+}
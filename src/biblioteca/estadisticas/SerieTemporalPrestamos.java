@@ -0,0 +1,342 @@
+package biblioteca.estadisticas;
+
+import biblioteca.models.Prestamo;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Serie temporal del historial de préstamos, agregada por día, semana y mes.
+ *
+ * Cada préstamo suma en la cubeta del periodo que corresponde a cada una de sus fechas: el
+ * préstamo en la de su fecha de préstamo, la devolución y su duración en la de su fecha de
+ * devolución real, y el vencimiento en la de su fecha de devolución esperada. Las tres
+ * granularidades se mantienen a la vez, de modo que una consulta sobre cualquier rango de
+ * fechas suma meses completos, luego semanas completas y solo los días sueltos de los bordes,
+ * sin recorrer los préstamos.
+ *
+ * Un préstamo cuenta como vencido en el periodo de su fecha de devolución esperada si se
+ * devolvió después de esa fecha o si sigue sin devolverse y la fecha ya pasó.
+ *
+ * Se usa desde el hilo de JavaFX a través de {@link MotorEstadisticas}.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public final class SerieTemporalPrestamos {
+
+    // Cubetas de cada granularidad, por fecha de inicio del periodo
+    private final Map<Granularidad, TreeMap<LocalDate, Cubeta>> cubetas = new EnumMap<>(Granularidad.class);
+
+    /**
+     * Crea una serie vacía.
+     */
+    public SerieTemporalPrestamos() {
+        for (Granularidad granularidad : Granularidad.values()) {
+            cubetas.put(granularidad, new TreeMap<>());
+        }
+    }
+
+    /**
+     * Reemplaza el contenido de la serie por el de un historial completo. Primero se llenan
+     * las cubetas diarias en un mapa de dispersión y después se ordenan y se acumulan en
+     * semanas y meses, en lugar de actualizar los tres árboles por cada préstamo.
+     *
+     * Las fechas de devolución real se reciben aparte, copiadas en el hilo de JavaFX, para
+     * poder cargar la serie en otro hilo mientras se devuelven préstamos.
+     *
+     * @param prestamos    El historial de préstamos.
+     * @param devoluciones La fecha de devolución real de cada préstamo, o null si no se devolvió.
+     */
+    public void cargar(Prestamo[] prestamos, LocalDate[] devoluciones) {
+        for (TreeMap<LocalDate, Cubeta> nivel : cubetas.values()) {
+            nivel.clear();
+        }
+        Map<LocalDate, Cubeta> porDia = new HashMap<>();
+        for (int i = 0; i < prestamos.length; i++) {
+            sumarPrestamo(prestamos[i].getFechaPrestamoValor(), prestamos[i].getFechaDevolucionEsperadaValor(),
+                    devoluciones[i], porDia, Granularidad.DIA);
+        }
+        TreeMap<LocalDate, Cubeta> dias = cubetas.get(Granularidad.DIA);
+        dias.putAll(porDia);
+        for (Map.Entry<LocalDate, Cubeta> entrada : dias.entrySet()) {
+            for (Granularidad granularidad : new Granularidad[] {Granularidad.SEMANA, Granularidad.MES}) {
+                cubetas.get(granularidad)
+                        .computeIfAbsent(granularidad.inicio(entrada.getKey()), inicio -> new Cubeta())
+                        .acumular(entrada.getValue());
+            }
+        }
+    }
+
+    /**
+     * Agrega un préstamo nuevo a la serie.
+     *
+     * @param prestamo El préstamo registrado.
+     */
+    public void agregarPrestamo(Prestamo prestamo) {
+        for (Granularidad granularidad : Granularidad.values()) {
+            sumarPrestamo(prestamo.getFechaPrestamoValor(), prestamo.getFechaDevolucionEsperadaValor(),
+                    prestamo.getFechaDevolucionRealValor(), cubetas.get(granularidad), granularidad);
+        }
+    }
+
+    /**
+     * Pasa un préstamo de pendiente a devuelto. Debe llamarse después de asignar su fecha de
+     * devolución real.
+     *
+     * @param prestamo El préstamo devuelto.
+     */
+    public void agregarDevolucion(Prestamo prestamo) {
+        for (Granularidad granularidad : Granularidad.values()) {
+            TreeMap<LocalDate, Cubeta> nivel = cubetas.get(granularidad);
+            LocalDate esperada = prestamo.getFechaDevolucionEsperadaValor();
+            if (esperada != null) {
+                cubeta(nivel, granularidad, esperada).pendientes--;
+            }
+            sumarDevolucion(prestamo.getFechaPrestamoValor(), esperada, prestamo.getFechaDevolucionRealValor(),
+                    nivel, granularidad);
+        }
+    }
+
+    /**
+     * Quita el vencimiento pendiente de un préstamo activo que deja de existir sin devolverse
+     * (por ejemplo, porque se eliminó su libro).
+     *
+     * @param prestamo El préstamo activo.
+     */
+    public void quitarPendiente(Prestamo prestamo) {
+        LocalDate esperada = prestamo.getFechaDevolucionEsperadaValor();
+        if (esperada == null) {
+            return;
+        }
+        for (Granularidad granularidad : Granularidad.values()) {
+            cubeta(cubetas.get(granularidad), granularidad, esperada).pendientes--;
+        }
+    }
+
+    /**
+     * Obtiene los totales de un rango de fechas. Usa la cubeta mensual de cada mes completo
+     * del rango, la semanal de cada semana completa y la diaria de los demás días.
+     *
+     * @param desde Primer día del rango.
+     * @param hasta Último día del rango (incluido).
+     * @return Los totales del rango.
+     */
+    public Cubeta resumen(LocalDate desde, LocalDate hasta) {
+        LocalDate hoy = LocalDate.now();
+        LocalDate limite = hasta.plusDays(1);
+        Cubeta total = new Cubeta();
+        LocalDate cursor = desde;
+        while (cursor.isBefore(limite)) {
+            Granularidad granularidad = Granularidad.DIA;
+            if (cursor.getDayOfMonth() == 1 && !Granularidad.MES.siguiente(cursor).isAfter(limite)) {
+                granularidad = Granularidad.MES;
+            } else if (cursor.getDayOfWeek() == DayOfWeek.MONDAY && !Granularidad.SEMANA.siguiente(cursor).isAfter(limite)) {
+                granularidad = Granularidad.SEMANA;
+            }
+            Cubeta cubeta = cubetas.get(granularidad).get(cursor);
+            if (cubeta != null) {
+                total.acumular(cubeta);
+                total.vencidos += cubeta.tardios + pendientesVencidos(granularidad, cursor, cubeta, hoy);
+            }
+            cursor = granularidad.siguiente(cursor);
+        }
+        return total;
+    }
+
+    /**
+     * Obtiene la serie de un rango de fechas con una cubeta por periodo, incluidos los
+     * periodos sin préstamos.
+     *
+     * @param granularidad Tamaño de los periodos.
+     * @param desde        Primer día del rango.
+     * @param hasta        Último día del rango (incluido).
+     * @return Mapa ordenado del inicio de cada periodo a sus totales.
+     */
+    public Map<LocalDate, Cubeta> serie(Granularidad granularidad, LocalDate desde, LocalDate hasta) {
+        LocalDate hoy = LocalDate.now();
+        TreeMap<LocalDate, Cubeta> nivel = cubetas.get(granularidad);
+        Map<LocalDate, Cubeta> resultado = new LinkedHashMap<>();
+        for (LocalDate inicio = granularidad.inicio(desde); !inicio.isAfter(hasta); inicio = granularidad.siguiente(inicio)) {
+            Cubeta periodo = new Cubeta();
+            Cubeta cubeta = nivel.get(inicio);
+            if (cubeta != null) {
+                periodo.acumular(cubeta);
+                periodo.vencidos = cubeta.tardios + pendientesVencidos(granularidad, inicio, cubeta, hoy);
+            }
+            resultado.put(inicio, periodo);
+        }
+        return resultado;
+    }
+
+    /**
+     * Obtiene la primera fecha con datos en la serie.
+     *
+     * @return La primera fecha, o null si la serie está vacía.
+     */
+    public LocalDate getPrimeraFecha() {
+        TreeMap<LocalDate, Cubeta> dias = cubetas.get(Granularidad.DIA);
+        return dias.isEmpty() ? null : dias.firstKey();
+    }
+
+    /**
+     * Obtiene la última fecha con datos en la serie.
+     *
+     * @return La última fecha, o null si la serie está vacía.
+     */
+    public LocalDate getUltimaFecha() {
+        TreeMap<LocalDate, Cubeta> dias = cubetas.get(Granularidad.DIA);
+        return dias.isEmpty() ? null : dias.lastKey();
+    }
+
+    /**
+     * Suma un préstamo en las cubetas de una granularidad: su inicio, su vencimiento y, si
+     * ya se devolvió, su devolución.
+     *
+     * @param fechaPrestamo La fecha del préstamo, o null.
+     * @param esperada      La fecha de devolución esperada, o null.
+     * @param real          La fecha de devolución real, o null si no se devolvió.
+     * @param nivel         Cubetas de la granularidad.
+     * @param granularidad  La granularidad.
+     */
+    private static void sumarPrestamo(LocalDate fechaPrestamo, LocalDate esperada, LocalDate real,
+            Map<LocalDate, Cubeta> nivel, Granularidad granularidad) {
+        if (fechaPrestamo != null) {
+            cubeta(nivel, granularidad, fechaPrestamo).prestamos++;
+        }
+        if (real != null) {
+            sumarDevolucion(fechaPrestamo, esperada, real, nivel, granularidad);
+        } else if (esperada != null) {
+            cubeta(nivel, granularidad, esperada).pendientes++;
+        }
+    }
+
+    /**
+     * Suma la devolución de un préstamo en las cubetas de una granularidad.
+     *
+     * @param fechaPrestamo La fecha del préstamo, o null.
+     * @param esperada      La fecha de devolución esperada, o null.
+     * @param real          La fecha de devolución real.
+     * @param nivel         Cubetas de la granularidad.
+     * @param granularidad  La granularidad.
+     */
+    private static void sumarDevolucion(LocalDate fechaPrestamo, LocalDate esperada, LocalDate real,
+            Map<LocalDate, Cubeta> nivel, Granularidad granularidad) {
+        Cubeta devolucion = cubeta(nivel, granularidad, real);
+        devolucion.devoluciones++;
+        if (fechaPrestamo != null) {
+            devolucion.conDuracion++;
+            devolucion.diasDevueltos += ChronoUnit.DAYS.between(fechaPrestamo, real);
+        }
+        if (esperada != null && real.isAfter(esperada)) {
+            cubeta(nivel, granularidad, esperada).tardios++;
+        }
+    }
+
+    /**
+     * Obtiene la cubeta del periodo que contiene una fecha, creándola si no existe.
+     *
+     * @param nivel        Cubetas de la granularidad.
+     * @param granularidad La granularidad.
+     * @param fecha        La fecha.
+     * @return La cubeta del periodo.
+     */
+    private static Cubeta cubeta(Map<LocalDate, Cubeta> nivel, Granularidad granularidad, LocalDate fecha) {
+        return nivel.computeIfAbsent(granularidad.inicio(fecha), inicio -> new Cubeta());
+    }
+
+    /**
+     * Cuenta los préstamos sin devolver de una cubeta cuyo vencimiento ya pasó. Si el periodo
+     * contiene el día de hoy, se suman los días del periodo anteriores a hoy.
+     *
+     * @param granularidad Granularidad de la cubeta.
+     * @param inicio       Inicio del periodo.
+     * @param cubeta       La cubeta.
+     * @param hoy          La fecha actual.
+     * @return Los préstamos pendientes ya vencidos.
+     */
+    private long pendientesVencidos(Granularidad granularidad, LocalDate inicio, Cubeta cubeta, LocalDate hoy) {
+        if (!granularidad.siguiente(inicio).isAfter(hoy)) {
+            return cubeta.pendientes;
+        }
+        if (!inicio.isBefore(hoy)) {
+            return 0;
+        }
+        long vencidos = 0;
+        for (Cubeta dia : cubetas.get(Granularidad.DIA).subMap(inicio, hoy).values()) {
+            vencidos += dia.pendientes;
+        }
+        return vencidos;
+    }
+
+    /**
+     * Totales de préstamos de un periodo.
+     */
+    public static final class Cubeta {
+
+        private long prestamos; // Préstamos iniciados en el periodo
+        private long devoluciones; // Préstamos devueltos en el periodo
+        private long conDuracion; // Devoluciones con fecha de préstamo conocida
+        private long diasDevueltos; // Suma de la duración de esas devoluciones
+        private long tardios; // Préstamos que vencían en el periodo y se devolvieron tarde
+        private long pendientes; // Préstamos que vencen en el periodo y siguen sin devolver
+        private long vencidos; // Solo en los resultados: tardíos más pendientes ya vencidos
+
+        /**
+         * Suma los contadores de otra cubeta a esta.
+         *
+         * @param otra La cubeta a sumar.
+         */
+        private void acumular(Cubeta otra) {
+            prestamos += otra.prestamos;
+            devoluciones += otra.devoluciones;
+            conDuracion += otra.conDuracion;
+            diasDevueltos += otra.diasDevueltos;
+            tardios += otra.tardios;
+            pendientes += otra.pendientes;
+        }
+
+        /**
+         * Obtiene la cantidad de préstamos iniciados en el periodo.
+         *
+         * @return La cantidad de préstamos.
+         */
+        public long getPrestamos() {
+            return prestamos;
+        }
+
+        /**
+         * Obtiene la cantidad de préstamos devueltos en el periodo.
+         *
+         * @return La cantidad de devoluciones.
+         */
+        public long getDevoluciones() {
+            return devoluciones;
+        }
+
+        /**
+         * Obtiene la cantidad de préstamos que vencían en el periodo y no se devolvieron a tiempo.
+         *
+         * @return La cantidad de préstamos vencidos.
+         */
+        public long getVencidos() {
+            return vencidos;
+        }
+
+        /**
+         * Obtiene la duración promedio de los préstamos devueltos en el periodo.
+         *
+         * @return El promedio en días, o 0 si no hubo devoluciones.
+         */
+        public double getDuracionPromedio() {
+            return conDuracion == 0 ? 0 : (double) diasDevueltos / conDuracion;
+        }
+    }
+}
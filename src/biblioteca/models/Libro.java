@@ -6,27 +6,39 @@ import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 
 /**
- * Representa un libro en la biblioteca con propiedades como ISBN, título, autor, 
- * año de publicación, género y disponibilidad.
- * 
+ * Representa un libro en la biblioteca con propiedades como ISBN, título, autor,
+ * año de publicación, género, sucursal y disponibilidad.
+ *
  * Esta clase utiliza propiedades de JavaFX para la integración con la interfaz gráfica.
- * 
+ * Los valores se guardan en campos simples y cada propiedad se crea solo la primera vez
+ * que se solicita (por ejemplo, desde una columna de una tabla). A partir de ese momento la
+ * propiedad es la que guarda el valor. Para leer o cambiar valores sin crear propiedades se
+ * usan los métodos terminados en {@code Valor}.
+ *
  * Autor: Angel Sanabria y Javier Alvarado
  * Fecha de creación: 04/09/2024
  * Fecha de última modificación: 06/09/2024
  */
 public class Libro {
 
-    private StringProperty ISBN;
+    private String isbnValor; // Valores mientras no se haya creado la propiedad
+    private String tituloValor;
+    private String autorValor;
+    private int anioPublicacionValor;
+    private String generoValor;
+    private String sucursalValor; // Nombre de la sucursal donde está el libro (vacío si no tiene)
+
+    private StringProperty ISBN; // Propiedades, creadas al solicitarlas
     private StringProperty titulo;
     private StringProperty autor;
     private IntegerProperty anioPublicacion;
     private StringProperty genero;
+    private StringProperty sucursal;
     private boolean disponible;
 
     /**
      * Crea una nueva instancia de Libro con los detalles especificados.
-     * 
+     *
      * @param ISBN          El ISBN del libro.
      * @param titulo        El título del libro.
      * @param autor         El autor del libro.
@@ -34,125 +46,228 @@ public class Libro {
      * @param genero        El género del libro.
      */
     public Libro(String ISBN, String titulo, String autor, int anioPublicacion, String genero) {
-        this.ISBN = new SimpleStringProperty(ISBN);
-        this.titulo = new SimpleStringProperty(titulo);
-        this.autor = new SimpleStringProperty(autor);
-        this.anioPublicacion = new SimpleIntegerProperty(anioPublicacion);
-        this.genero = new SimpleStringProperty(genero);
+        this(ISBN, titulo, autor, anioPublicacion, genero, "");
+    }
+
+    /**
+     * Crea una nueva instancia de Libro asignada a una sucursal.
+     *
+     * @param ISBN          El ISBN del libro.
+     * @param titulo        El título del libro.
+     * @param autor         El autor del libro.
+     * @param anioPublicacion El año de publicación del libro.
+     * @param genero        El género del libro.
+     * @param sucursal      El nombre de la sucursal del libro (vacío si no tiene).
+     */
+    public Libro(String ISBN, String titulo, String autor, int anioPublicacion, String genero, String sucursal) {
+        this.isbnValor = ISBN;
+        this.tituloValor = titulo;
+        this.autorValor = autor;
+        this.anioPublicacionValor = anioPublicacion;
+        this.generoValor = genero;
+        this.sucursalValor = sucursal != null ? sucursal : "";
         this.disponible = true;
     }
 
     /**
-     * Obtiene la propiedad de ISBN del libro.
-     * 
+     * Obtiene la propiedad de ISBN del libro, creándola si todavía no existe.
+     *
      * @return La propiedad de ISBN.
      */
     public StringProperty ISBNProperty() {
+        if (ISBN == null) {
+            ISBN = new SimpleStringProperty(this, "ISBN", isbnValor);
+            isbnValor = null;
+        }
         return ISBN;
     }
 
     /**
-     * Obtiene la propiedad de título del libro.
-     * 
+     * Obtiene la propiedad de título del libro, creándola si todavía no existe.
+     *
      * @return La propiedad de título.
      */
     public StringProperty tituloProperty() {
+        if (titulo == null) {
+            titulo = new SimpleStringProperty(this, "titulo", tituloValor);
+            tituloValor = null;
+        }
         return titulo;
     }
 
     /**
-     * Obtiene la propiedad de autor del libro.
-     * 
+     * Obtiene la propiedad de autor del libro, creándola si todavía no existe.
+     *
      * @return La propiedad de autor.
      */
     public StringProperty autorProperty() {
+        if (autor == null) {
+            autor = new SimpleStringProperty(this, "autor", autorValor);
+            autorValor = null;
+        }
         return autor;
     }
 
     /**
-     * Obtiene la propiedad de año de publicación del libro.
-     * 
+     * Obtiene la propiedad de año de publicación del libro, creándola si todavía no existe.
+     *
      * @return La propiedad de año de publicación.
      */
     public IntegerProperty anioPublicacionProperty() {
+        if (anioPublicacion == null) {
+            anioPublicacion = new SimpleIntegerProperty(this, "anioPublicacion", anioPublicacionValor);
+        }
         return anioPublicacion;
     }
 
     /**
-     * Obtiene la propiedad de género del libro.
-     * 
+     * Obtiene la propiedad de género del libro, creándola si todavía no existe.
+     *
      * @return La propiedad de género.
      */
     public StringProperty generoProperty() {
+        if (genero == null) {
+            genero = new SimpleStringProperty(this, "genero", generoValor);
+            generoValor = null;
+        }
         return genero;
     }
 
     /**
-     * Obtiene el ISBN del libro.
-     * 
-     * @return El ISBN del libro.
+     * Obtiene la propiedad de sucursal del libro, creándola si todavía no existe.
+     *
+     * @return La propiedad de sucursal.
+     */
+    public StringProperty sucursalProperty() {
+        if (sucursal == null) {
+            sucursal = new SimpleStringProperty(this, "sucursal", sucursalValor);
+            sucursalValor = null;
+        }
+        return sucursal;
+    }
+
+    /**
+     * Obtiene la propiedad de ISBN del libro.
+     *
+     * @return La propiedad de ISBN.
      */
     public StringProperty getISBN() {
-        return ISBN;
+        return ISBNProperty();
     }
 
     /**
      * Establece el ISBN del libro.
-     * 
+     *
      * @param ISBN La nueva propiedad de ISBN.
      */
     public void setISBN(StringProperty ISBN) {
         this.ISBN = ISBN;
+        this.isbnValor = null;
     }
 
     /**
-     * Obtiene el título del libro.
-     * 
-     * @return El título del libro.
+     * Obtiene el valor del ISBN sin crear la propiedad.
+     *
+     * @return El ISBN del libro.
+     */
+    public String getISBNValor() {
+        return ISBN != null ? ISBN.get() : isbnValor;
+    }
+
+    /**
+     * Obtiene la propiedad de título del libro.
+     *
+     * @return La propiedad de título.
      */
     public StringProperty getTitulo() {
-        return titulo;
+        return tituloProperty();
     }
 
     /**
      * Establece el título del libro.
-     * 
+     *
      * @param titulo La nueva propiedad de título.
      */
     public void setTitulo(StringProperty titulo) {
         this.titulo = titulo;
+        this.tituloValor = null;
     }
 
     /**
-     * Obtiene el autor del libro.
-     * 
-     * @return El autor del libro.
+     * Obtiene el valor del título sin crear la propiedad.
+     *
+     * @return El título del libro.
+     */
+    public String getTituloValor() {
+        return titulo != null ? titulo.get() : tituloValor;
+    }
+
+    /**
+     * Cambia el título del libro sin crear la propiedad.
+     *
+     * @param titulo El nuevo título.
+     */
+    public void setTituloValor(String titulo) {
+        if (this.titulo != null) {
+            this.titulo.set(titulo);
+        } else {
+            this.tituloValor = titulo;
+        }
+    }
+
+    /**
+     * Obtiene la propiedad de autor del libro.
+     *
+     * @return La propiedad de autor.
      */
     public StringProperty getAutor() {
-        return autor;
+        return autorProperty();
     }
 
     /**
      * Establece el autor del libro.
-     * 
+     *
      * @param autor La nueva propiedad de autor.
      */
     public void setAutor(StringProperty autor) {
         this.autor = autor;
+        this.autorValor = null;
     }
 
     /**
-     * Obtiene el año de publicación del libro.
-     * 
-     * @return El año de publicación del libro.
+     * Obtiene el valor del autor sin crear la propiedad.
+     *
+     * @return El autor del libro.
+     */
+    public String getAutorValor() {
+        return autor != null ? autor.get() : autorValor;
+    }
+
+    /**
+     * Cambia el autor del libro sin crear la propiedad.
+     *
+     * @param autor El nuevo autor.
+     */
+    public void setAutorValor(String autor) {
+        if (this.autor != null) {
+            this.autor.set(autor);
+        } else {
+            this.autorValor = autor;
+        }
+    }
+
+    /**
+     * Obtiene la propiedad de año de publicación del libro.
+     *
+     * @return La propiedad de año de publicación.
      */
     public IntegerProperty getAnioPublicacion() {
-        return anioPublicacion;
+        return anioPublicacionProperty();
     }
 
     /**
      * Establece el año de publicación del libro.
-     * 
+     *
      * @param anioPublicacion La nueva propiedad de año de publicación.
      */
     public void setAnioPublicacion(IntegerProperty anioPublicacion) {
@@ -160,26 +275,94 @@ public class Libro {
     }
 
     /**
-     * Obtiene el género del libro.
-     * 
-     * @return El género del libro.
+     * Obtiene el valor del año de publicación sin crear la propiedad.
+     *
+     * @return El año de publicación del libro.
+     */
+    public int getAnioPublicacionValor() {
+        return anioPublicacion != null ? anioPublicacion.get() : anioPublicacionValor;
+    }
+
+    /**
+     * Cambia el año de publicación del libro sin crear la propiedad.
+     *
+     * @param anioPublicacion El nuevo año de publicación.
+     */
+    public void setAnioPublicacionValor(int anioPublicacion) {
+        if (this.anioPublicacion != null) {
+            this.anioPublicacion.set(anioPublicacion);
+        } else {
+            this.anioPublicacionValor = anioPublicacion;
+        }
+    }
+
+    /**
+     * Obtiene la propiedad de género del libro.
+     *
+     * @return La propiedad de género.
      */
     public StringProperty getGenero() {
-        return genero;
+        return generoProperty();
     }
 
     /**
      * Establece el género del libro.
-     * 
+     *
      * @param genero La nueva propiedad de género.
      */
     public void setGenero(StringProperty genero) {
         this.genero = genero;
+        this.generoValor = null;
+    }
+
+    /**
+     * Obtiene el valor del género sin crear la propiedad.
+     *
+     * @return El género del libro.
+     */
+    public String getGeneroValor() {
+        return genero != null ? genero.get() : generoValor;
+    }
+
+    /**
+     * Cambia el género del libro sin crear la propiedad.
+     *
+     * @param genero El nuevo género.
+     */
+    public void setGeneroValor(String genero) {
+        if (this.genero != null) {
+            this.genero.set(genero);
+        } else {
+            this.generoValor = genero;
+        }
+    }
+
+    /**
+     * Obtiene el nombre de la sucursal sin crear la propiedad.
+     *
+     * @return El nombre de la sucursal del libro (vacío si no tiene).
+     */
+    public String getSucursalValor() {
+        return sucursal != null ? sucursal.get() : sucursalValor;
+    }
+
+    /**
+     * Cambia la sucursal del libro sin crear la propiedad.
+     *
+     * @param sucursal El nombre de la nueva sucursal (vacío si no tiene).
+     */
+    public void setSucursalValor(String sucursal) {
+        String valor = sucursal != null ? sucursal : "";
+        if (this.sucursal != null) {
+            this.sucursal.set(valor);
+        } else {
+            this.sucursalValor = valor;
+        }
     }
 
     /**
      * Obtiene la disponibilidad del libro.
-     * 
+     *
      * @return Verdadero si el libro está disponible, falso en caso contrario.
      */
     public boolean isDisponible() {
@@ -188,7 +371,7 @@ public class Libro {
 
     /**
      * Establece la disponibilidad del libro.
-     * 
+     *
      * @param disponible La nueva disponibilidad del libro.
      */
     public void setDisponible(boolean disponible) {
@@ -197,17 +380,18 @@ public class Libro {
 
     /**
      * Devuelve una representación en cadena del libro.
-     * 
+     *
      * @return Una cadena con la representación del libro.
      */
     @Override
     public String toString() {
         return "Libro{" +
-                "ISBN=" + ISBN.get() +
-                ", titulo=" + titulo.get() +
-                ", autor=" + autor.get() +
-                ", anioPublicacion=" + anioPublicacion.get() +
-                ", genero=" + genero.get() +
+                "ISBN=" + getISBNValor() +
+                ", titulo=" + getTituloValor() +
+                ", autor=" + getAutorValor() +
+                ", anioPublicacion=" + getAnioPublicacionValor() +
+                ", genero=" + getGeneroValor() +
+                ", sucursal=" + getSucursalValor() +
                 ", disponible=" + disponible +
                 '}';
     }
@@ -4,123 +4,261 @@ import javafx.beans.property.StringProperty;
 import javafx.beans.property.SimpleStringProperty;
 
 /**
- * Representa un miembro de la biblioteca con propiedades como ID, nombre, 
+ * Representa un miembro de la biblioteca con propiedades como ID, nombre,
  * correo electrónico y teléfono.
- * 
+ *
  * Esta clase utiliza propiedades de JavaFX para la integración con la interfaz gráfica.
- * 
+ * Igual que en {@link Libro}, los valores se guardan en campos simples y cada propiedad se
+ * crea la primera vez que se solicita; los métodos terminados en {@code Valor} no la crean.
+ *
  * Autor: Angel Sanabria, Javier Alvarado
  * Fecha de creación: 06/09/2024
  * Fecha de última modificación: 06/09/2024
  */
 public class Miembro {
 
-    private StringProperty id;
+    private String idValor; // Valores mientras no se haya creado la propiedad
+    private String nombreValor;
+    private String emailValor;
+    private String telefonoValor;
+
+    private StringProperty id; // Propiedades, creadas al solicitarlas
     private StringProperty nombre;
     private StringProperty email;
-    private StringProperty telefono; 
+    private StringProperty telefono;
 
     /**
      * Crea una nueva instancia de Miembro con los detalles especificados.
-     * 
+     *
      * @param id       El ID del miembro.
      * @param nombre   El nombre del miembro.
      * @param email    El correo electrónico del miembro.
      * @param telefono El teléfono del miembro.
      */
     public Miembro(String id, String nombre, String email, String telefono) {
-        this.id = new SimpleStringProperty(id);
-        this.nombre = new SimpleStringProperty(nombre);
-        this.email = new SimpleStringProperty(email);
-        this.telefono = new SimpleStringProperty(telefono);
+        this.idValor = id;
+        this.nombreValor = nombre;
+        this.emailValor = email;
+        this.telefonoValor = telefono;
+    }
+
+    /**
+     * Obtiene la propiedad de ID del miembro, creándola si todavía no existe.
+     *
+     * @return La propiedad de ID.
+     */
+    public StringProperty idProperty() {
+        if (id == null) {
+            id = new SimpleStringProperty(this, "id", idValor);
+            idValor = null;
+        }
+        return id;
+    }
+
+    /**
+     * Obtiene la propiedad de nombre del miembro, creándola si todavía no existe.
+     *
+     * @return La propiedad de nombre.
+     */
+    public StringProperty nombreProperty() {
+        if (nombre == null) {
+            nombre = new SimpleStringProperty(this, "nombre", nombreValor);
+            nombreValor = null;
+        }
+        return nombre;
+    }
+
+    /**
+     * Obtiene la propiedad de correo electrónico del miembro, creándola si todavía no existe.
+     *
+     * @return La propiedad de correo electrónico.
+     */
+    public StringProperty emailProperty() {
+        if (email == null) {
+            email = new SimpleStringProperty(this, "email", emailValor);
+            emailValor = null;
+        }
+        return email;
+    }
+
+    /**
+     * Obtiene la propiedad de teléfono del miembro, creándola si todavía no existe.
+     *
+     * @return La propiedad de teléfono.
+     */
+    public StringProperty telefonoProperty() {
+        if (telefono == null) {
+            telefono = new SimpleStringProperty(this, "telefono", telefonoValor);
+            telefonoValor = null;
+        }
+        return telefono;
     }
 
     /**
      * Obtiene la propiedad de ID del miembro.
-     * 
+     *
      * @return La propiedad de ID.
      */
     public StringProperty getId() {
-        return id;
+        return idProperty();
     }
 
     /**
      * Establece el ID del miembro.
-     * 
+     *
      * @param id La nueva propiedad de ID.
      */
     public void setId(StringProperty id) {
         this.id = id;
+        this.idValor = null;
+    }
+
+    /**
+     * Obtiene el valor del ID sin crear la propiedad.
+     *
+     * @return El ID del miembro.
+     */
+    public String getIdValor() {
+        return id != null ? id.get() : idValor;
     }
 
     /**
      * Obtiene la propiedad de nombre del miembro.
-     * 
+     *
      * @return La propiedad de nombre.
      */
     public StringProperty getNombre() {
-        return nombre;
+        return nombreProperty();
     }
 
     /**
      * Establece el nombre del miembro.
-     * 
+     *
      * @param nombre La nueva propiedad de nombre.
      */
     public void setNombre(StringProperty nombre) {
         this.nombre = nombre;
+        this.nombreValor = null;
+    }
+
+    /**
+     * Obtiene el valor del nombre sin crear la propiedad.
+     *
+     * @return El nombre del miembro.
+     */
+    public String getNombreValor() {
+        return nombre != null ? nombre.get() : nombreValor;
+    }
+
+    /**
+     * Cambia el nombre del miembro sin crear la propiedad.
+     *
+     * @param nombre El nuevo nombre.
+     */
+    public void setNombreValor(String nombre) {
+        if (this.nombre != null) {
+            this.nombre.set(nombre);
+        } else {
+            this.nombreValor = nombre;
+        }
     }
 
     /**
      * Obtiene la propiedad de correo electrónico del miembro.
-     * 
+     *
      * @return La propiedad de correo electrónico.
      */
     public StringProperty getEmail() {
-        return email;
+        return emailProperty();
     }
 
     /**
      * Establece el correo electrónico del miembro.
-     * 
+     *
      * @param email La nueva propiedad de correo electrónico.
      */
     public void setEmail(StringProperty email) {
         this.email = email;
+        this.emailValor = null;
+    }
+
+    /**
+     * Obtiene el valor del correo electrónico sin crear la propiedad.
+     *
+     * @return El correo electrónico del miembro.
+     */
+    public String getEmailValor() {
+        return email != null ? email.get() : emailValor;
+    }
+
+    /**
+     * Cambia el correo electrónico del miembro sin crear la propiedad.
+     *
+     * @param email El nuevo correo electrónico.
+     */
+    public void setEmailValor(String email) {
+        if (this.email != null) {
+            this.email.set(email);
+        } else {
+            this.emailValor = email;
+        }
     }
 
     /**
      * Obtiene la propiedad de teléfono del miembro.
-     * 
+     *
      * @return La propiedad de teléfono.
      */
     public StringProperty getTelefono() {
-        return telefono;
+        return telefonoProperty();
     }
 
     /**
      * Establece el teléfono del miembro.
-     * 
+     *
      * @param telefono La nueva propiedad de teléfono.
      */
     public void setTelefono(StringProperty telefono) {
         this.telefono = telefono;
+        this.telefonoValor = null;
+    }
+
+    /**
+     * Obtiene el valor del teléfono sin crear la propiedad.
+     *
+     * @return El teléfono del miembro.
+     */
+    public String getTelefonoValor() {
+        return telefono != null ? telefono.get() : telefonoValor;
+    }
+
+    /**
+     * Cambia el teléfono del miembro sin crear la propiedad.
+     *
+     * @param telefono El nuevo teléfono.
+     */
+    public void setTelefonoValor(String telefono) {
+        if (this.telefono != null) {
+            this.telefono.set(telefono);
+        } else {
+            this.telefonoValor = telefono;
+        }
     }
 
     /**
      * Devuelve una representación en cadena del miembro.
-     * 
+     *
      * @return Una cadena con la representación del miembro.
      */
     @Override
     public String toString() {
         return "Miembro{" +
-                "id=" + id.get() +
-                ", nombre=" + nombre.get() +
-                ", email=" + email.get() +
-                ", telefono=" + telefono.get() +
+                "id=" + getIdValor() +
+                ", nombre=" + getNombreValor() +
+                ", email=" + getEmailValor() +
+                ", telefono=" + getTelefonoValor() +
                 '}';
     }
 
-    
+
 }
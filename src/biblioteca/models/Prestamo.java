@@ -10,6 +10,9 @@ import javafx.beans.property.SimpleObjectProperty;
  * Esta clase gestiona la información relacionada con el libro prestado, el miembro que recibe el préstamo,
  * y las fechas asociadas al préstamo, incluyendo la fecha real de devolución si está disponible.
  * 
+ * Las fechas se guardan en campos simples y cada propiedad se crea la primera vez que se solicita,
+ * igual que en {@link Libro}; los métodos terminados en {@code Valor} no la crean.
+ * 
  * Autor: Angel Sanabria, Javier Alvarado
  * Fecha de creación: 06/09/2024
  * Fecha de última modificación: 06/09/2024
@@ -18,7 +21,11 @@ public class Prestamo {
 
     private Libro libro;
     private Miembro miembro;
-    private ObjectProperty<LocalDate> fechaPrestamo;
+    private LocalDate fechaPrestamoValor; // Valores mientras no se haya creado la propiedad
+    private LocalDate fechaDevolucionEsperadaValor;
+    private LocalDate fechaDevolucionRealValor;
+
+    private ObjectProperty<LocalDate> fechaPrestamo; // Propiedades, creadas al solicitarlas
     private ObjectProperty<LocalDate> fechaDevolucionEsperada;
     private ObjectProperty<LocalDate> fechaDevolucionReal;
 
@@ -34,11 +41,9 @@ public class Prestamo {
     public Prestamo(Libro libro, Miembro miembro, LocalDate fechaPrestamo, LocalDate fechaDevolucionEsperada, LocalDate fechaDevolucionReal) {
         this.libro = libro;
         this.miembro = miembro;
-        this.fechaPrestamo = new SimpleObjectProperty<>(fechaPrestamo);
-        this.fechaDevolucionEsperada = new SimpleObjectProperty<>(fechaDevolucionEsperada);
-        this.fechaDevolucionReal = (fechaDevolucionReal != null) 
-            ? new SimpleObjectProperty<>(fechaDevolucionReal) 
-            : new SimpleObjectProperty<>();
+        this.fechaPrestamoValor = fechaPrestamo;
+        this.fechaDevolucionEsperadaValor = fechaDevolucionEsperada;
+        this.fechaDevolucionRealValor = fechaDevolucionReal;
     }
 
     /**
@@ -95,9 +100,31 @@ public class Prestamo {
      * @return La propiedad de la fecha de préstamo.
      */
     public ObjectProperty<LocalDate> getFechaPrestamo() {
+        return fechaPrestamoProperty();
+    }
+
+    /**
+     * Obtiene la propiedad de la fecha de préstamo, creándola si todavía no existe.
+     * 
+     * @return La propiedad de la fecha de préstamo.
+     */
+    public ObjectProperty<LocalDate> fechaPrestamoProperty() {
+        if (fechaPrestamo == null) {
+            fechaPrestamo = new SimpleObjectProperty<>(this, "fechaPrestamo", fechaPrestamoValor);
+            fechaPrestamoValor = null;
+        }
         return fechaPrestamo;
     }
 
+    /**
+     * Obtiene la fecha de préstamo sin crear la propiedad.
+     * 
+     * @return La fecha de préstamo.
+     */
+    public LocalDate getFechaPrestamoValor() {
+        return fechaPrestamo != null ? fechaPrestamo.get() : fechaPrestamoValor;
+    }
+
     /**
      * Establece la propiedad de la fecha en la que se realizó el préstamo.
      * 
@@ -105,6 +132,7 @@ public class Prestamo {
      */
     public void setFechaPrestamo(ObjectProperty<LocalDate> fechaPrestamo) {
         this.fechaPrestamo = fechaPrestamo;
+        this.fechaPrestamoValor = null;
     }
 
     /**
@@ -113,9 +141,31 @@ public class Prestamo {
      * @return La propiedad de la fecha de devolución esperada.
      */
     public ObjectProperty<LocalDate> getFechaDevolucionEsperada() {
+        return fechaDevolucionEsperadaProperty();
+    }
+
+    /**
+     * Obtiene la propiedad de la fecha de devolución esperada, creándola si todavía no existe.
+     * 
+     * @return La propiedad de la fecha de devolución esperada.
+     */
+    public ObjectProperty<LocalDate> fechaDevolucionEsperadaProperty() {
+        if (fechaDevolucionEsperada == null) {
+            fechaDevolucionEsperada = new SimpleObjectProperty<>(this, "fechaDevolucionEsperada", fechaDevolucionEsperadaValor);
+            fechaDevolucionEsperadaValor = null;
+        }
         return fechaDevolucionEsperada;
     }
 
+    /**
+     * Obtiene la fecha de devolución esperada sin crear la propiedad.
+     * 
+     * @return La fecha de devolución esperada.
+     */
+    public LocalDate getFechaDevolucionEsperadaValor() {
+        return fechaDevolucionEsperada != null ? fechaDevolucionEsperada.get() : fechaDevolucionEsperadaValor;
+    }
+
     /**
      * Establece la propiedad de la fecha en la que se espera que el libro sea devuelto.
      * 
@@ -123,6 +173,7 @@ public class Prestamo {
      */
     public void setFechaDevolucionEsperada(ObjectProperty<LocalDate> fechaDevolucionEsperada) {
         this.fechaDevolucionEsperada = fechaDevolucionEsperada;
+        this.fechaDevolucionEsperadaValor = null;
     }
 
     /**
@@ -131,16 +182,42 @@ public class Prestamo {
      * @return La propiedad de la fecha de devolución real.
      */
     public ObjectProperty<LocalDate> getFechaDevolucionReal() {
+        return fechaDevolucionRealProperty();
+    }
+
+    /**
+     * Obtiene la propiedad de la fecha de devolución real, creándola si todavía no existe.
+     * 
+     * @return La propiedad de la fecha de devolución real.
+     */
+    public ObjectProperty<LocalDate> fechaDevolucionRealProperty() {
+        if (fechaDevolucionReal == null) {
+            fechaDevolucionReal = new SimpleObjectProperty<>(this, "fechaDevolucionReal", fechaDevolucionRealValor);
+            fechaDevolucionRealValor = null;
+        }
         return fechaDevolucionReal;
     }
 
+    /**
+     * Obtiene la fecha de devolución real sin crear la propiedad.
+     * 
+     * @return La fecha de devolución real, o null si el libro no se ha devuelto.
+     */
+    public LocalDate getFechaDevolucionRealValor() {
+        return fechaDevolucionReal != null ? fechaDevolucionReal.get() : fechaDevolucionRealValor;
+    }
+
     /**
      * Establece la fecha real en la que el libro fue devuelto.
      * 
      * @param fechaDevolucionReal La nueva fecha de devolución real.
      */
     public void setFechaDevolucionReal(LocalDate fechaDevolucionReal) {
-        this.fechaDevolucionReal.set(fechaDevolucionReal);
+        if (this.fechaDevolucionReal != null) {
+            this.fechaDevolucionReal.set(fechaDevolucionReal);
+        } else {
+            this.fechaDevolucionRealValor = fechaDevolucionReal;
+        }
     }
 
     /**
@@ -153,9 +230,9 @@ public class Prestamo {
         return "Prestamo{" +
                 "libro=" + libro +
                 ", miembro=" + miembro +
-                ", fechaPrestamo=" + fechaPrestamo.get() +
-                ", fechaDevolucionEsperada=" + fechaDevolucionEsperada.get() +
-                ", fechaDevolucionReal=" + fechaDevolucionReal.get() +
+                ", fechaPrestamo=" + getFechaPrestamoValor() +
+                ", fechaDevolucionEsperada=" + getFechaDevolucionEsperadaValor() +
+                ", fechaDevolucionReal=" + getFechaDevolucionRealValor() +
                 '}';
     }
 }
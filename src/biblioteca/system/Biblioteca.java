@@ -1,5 +1,6 @@
 package biblioteca.system;
 
+import biblioteca.datos.RepositorioBiblioteca;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -53,6 +54,15 @@ public class Biblioteca extends Application {
         }
     }
 
+    /**
+     * Cierra el repositorio al salir de la aplicación para que el diario quede cerrado
+     * correctamente y termine cualquier compactación en curso.
+     */
+    @Override
+    public void stop() {
+        RepositorioBiblioteca.getInstancia().cerrar();
+    }
+
     /**
      * Método principal que inicia la aplicación.
      * 
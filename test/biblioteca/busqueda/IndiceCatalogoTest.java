@@ -0,0 +1,119 @@
+package biblioteca.busqueda;
+
+import biblioteca.models.Libro;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Pruebas de {@link IndiceCatalogo}: intersección de filtros después de modificar, eliminar y
+ * volver a agregar libros.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public class IndiceCatalogoTest {
+
+    private IndiceCatalogo indice; // Índice alimentado con los eventos de cada prueba
+    private final List<Libro> libros = new ArrayList<>(); // Libros agregados, en orden
+
+    /**
+     * Crea un índice vacío.
+     */
+    @Before
+    public void crear() {
+        indice = new IndiceCatalogo();
+    }
+
+    /**
+     * Agrega un libro disponible al índice.
+     *
+     * @param libro El libro.
+     * @return El libro agregado.
+     */
+    private Libro agregar(Libro libro) {
+        libro.setDisponible(true);
+        libros.add(libro);
+        indice.libroAgregado(libro);
+        return libro;
+    }
+
+    /**
+     * Modifica un libro y entrega el evento con una copia de sus valores previos.
+     *
+     * @param libro  El libro.
+     * @param genero El género nuevo.
+     * @param anio   El año de publicación nuevo.
+     */
+    private void modificar(Libro libro, String genero, int anio) {
+        Libro anterior = new Libro(libro.getISBNValor(), libro.getTituloValor(), libro.getAutorValor(),
+                libro.getAnioPublicacionValor(), libro.getGeneroValor(), libro.getSucursalValor());
+        libro.setGeneroValor(genero);
+        libro.setAnioPublicacionValor(anio);
+        indice.libroModificado(libro, anterior);
+    }
+
+    /**
+     * Elimina un libro del índice.
+     *
+     * @param libro El libro.
+     */
+    private void eliminar(Libro libro) {
+        libros.remove(libro);
+        indice.libroEliminado(libro);
+    }
+
+    /**
+     * Obtiene los libros que cumplen un filtro, en el orden en que se agregaron.
+     *
+     * @param resultado El resultado del filtro.
+     * @return Los libros que cumplen.
+     */
+    private List<Libro> cumplen(IndiceCatalogo.Resultado resultado) {
+        List<Libro> cumplen = new ArrayList<>();
+        for (Libro libro : libros) {
+            if (resultado.contiene(libro)) {
+                cumplen.add(libro);
+            }
+        }
+        assertEquals(cumplen.size(), resultado.getCantidad());
+        return cumplen;
+    }
+
+    /**
+     * El filtro por género, sucursal y años sigue las modificaciones y bajas de los libros, y
+     * una fila liberada no arrastra las condiciones del libro anterior.
+     */
+    @Test
+    public void intersectaTrasModificarYEliminar() {
+        Libro primera = agregar(new Libro("L1", "Primera", "Ana", 2001, "Novela", "Centro"));
+        agregar(new Libro("L2", "Segunda", "Luis", 2005, "Novela", "Norte"));
+        Libro tercera = agregar(new Libro("L3", "Tercera", "Ana", 2001, "Ensayo", "Centro"));
+        Libro cuarta = agregar(new Libro("L4", "Cuarta", "Eva", 1999, "Novela", "Centro"));
+
+        assertNull(indice.filtrar(null, null, null, null, null, false));
+        assertEquals(List.of(primera), cumplen(indice.filtrar("novela", "centro", null, 2000, 2010, false)));
+
+        modificar(cuarta, "Novela", 2003);
+        assertEquals(List.of(primera, cuarta), cumplen(indice.filtrar("Novela", "Centro", null, 2000, 2010, false)));
+        modificar(primera, "Ensayo", 2001);
+        assertEquals(List.of(cuarta), cumplen(indice.filtrar("Novela", "Centro", null, 2000, 2010, false)));
+        assertEquals(List.of(primera, tercera), cumplen(indice.filtrar("ensayo", null, "ana", 2001, 2001, false)));
+
+        eliminar(cuarta);
+        assertEquals(List.of(), cumplen(indice.filtrar("Novela", "Centro", null, 2000, 2010, false)));
+        assertFalse(indice.filtrar("Novela", null, null, null, null, false).contiene(cuarta));
+
+        Libro quinta = agregar(new Libro("L5", "Quinta", "Eva", 2004, "Ficción", "Centro"));
+        assertEquals(List.of(quinta), cumplen(indice.filtrar("ficcion", "centro", null, 2000, 2010, false)));
+        assertEquals(List.of(), cumplen(indice.filtrar("Novela", "Centro", null, 2000, 2010, false)));
+        assertEquals(List.of(quinta), cumplen(indice.filtrar(null, null, "eva", null, null, false)));
+    }
+}
@@ -0,0 +1,84 @@
+package biblioteca.busqueda;
+
+import biblioteca.models.Miembro;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Pruebas de {@link IndiceMiembros}: búsqueda aproximada dentro de los errores de tipeo
+ * permitidos por palabra, y reindexado tras modificar un miembro.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public class IndiceMiembrosTest {
+
+    private static final int LIMITE = 10; // Miembros por búsqueda
+
+    private IndiceMiembros indice; // Índice alimentado con los eventos de cada prueba
+    private Miembro maria; // Miembro con nombre y correo largos
+    private Miembro mario; // Miembro de nombre parecido
+    private Miembro ana; // Miembro de nombre corto
+
+    /**
+     * Crea un índice con tres miembros.
+     */
+    @Before
+    public void crear() {
+        indice = new IndiceMiembros();
+        maria = new Miembro("M1", "María González", "maria.gonzalez@correo.com", "555-0001");
+        mario = new Miembro("M2", "Mario Gómez", "mgomez@correo.com", "555-0002");
+        ana = new Miembro("M3", "Ana Ruiz", "ana@correo.com", "555-0003");
+        indice.miembroAgregado(maria);
+        indice.miembroAgregado(mario);
+        indice.miembroAgregado(ana);
+    }
+
+    /**
+     * Encuentra a un miembro con errores de tipeo dentro de los permitidos: uno en palabras de
+     * 4 a 6 letras y dos en las más largas, sin distinguir acentos.
+     */
+    @Test
+    public void encuentraDentroDeLosErroresPermitidos() {
+        assertEquals(List.of(maria), indice.buscar("gonzales", LIMITE));
+        assertEquals(List.of(maria), indice.buscar("Gonsales", LIMITE));
+        assertEquals(List.of(maria), indice.buscar("mria gonzalez", LIMITE));
+        assertEquals(List.of(ana), indice.buscar("ruix", LIMITE));
+        assertEquals(maria, indice.buscar("maria", LIMITE).get(0));
+        assertTrue(indice.buscar("maria", LIMITE).contains(mario));
+        assertEquals(List.of(mario), indice.buscar("gomes", LIMITE));
+    }
+
+    /**
+     * No encuentra a un miembro cuando los errores superan los permitidos: ninguno en palabras
+     * de hasta 3 letras, uno hasta 6 y dos en las más largas.
+     */
+    @Test
+    public void descartaFueraDeLosErroresPermitidos() {
+        assertEquals(List.of(), indice.buscar("ane", LIMITE));
+        assertEquals(List.of(), indice.buscar("rhiq", LIMITE));
+        assertEquals(List.of(), indice.buscar("gomsalex", LIMITE));
+        assertEquals(List.of(), indice.buscar("gonzalez ruiz", LIMITE));
+    }
+
+    /**
+     * Tras modificar el nombre de un miembro se encuentra por el nuevo y no por el anterior.
+     */
+    @Test
+    public void buscaPorLosValoresModificados() {
+        Miembro anterior = new Miembro(ana.getIdValor(), ana.getNombreValor(), ana.getEmailValor(),
+                ana.getTelefonoValor());
+        ana.setNombreValor("Ana Fernández");
+        ana.setEmailValor("afernandez@correo.com");
+        indice.miembroModificado(ana, anterior);
+
+        assertEquals(List.of(), indice.buscar("ruiz", LIMITE));
+        assertEquals(List.of(ana), indice.buscar("fernandes", LIMITE));
+    }
+}
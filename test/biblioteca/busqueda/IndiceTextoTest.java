@@ -0,0 +1,100 @@
+package biblioteca.busqueda;
+
+import biblioteca.models.Libro;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Pruebas de {@link IndiceTexto}: búsqueda por prefijo sin distinguir acentos ni mayúsculas, y
+ * búsqueda con un filtro del catálogo.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public class IndiceTextoTest {
+
+    private static final int LIMITE = 500; // Resultados por búsqueda, como en la vista de libros
+
+    private IndiceTexto indice; // Índice alimentado con los eventos de cada prueba
+    private IndiceCatalogo catalogo; // Índice del catálogo con los mismos libros
+
+    /**
+     * Crea índices vacíos.
+     */
+    @Before
+    public void crear() {
+        indice = new IndiceTexto();
+        catalogo = new IndiceCatalogo();
+    }
+
+    /**
+     * Agrega un libro a ambos índices.
+     *
+     * @param libro El libro.
+     * @return El libro agregado.
+     */
+    private Libro agregar(Libro libro) {
+        libro.setDisponible(true);
+        indice.libroAgregado(libro);
+        catalogo.libroAgregado(libro);
+        return libro;
+    }
+
+    /**
+     * Cada palabra de la consulta es un prefijo que se compara sin acentos ni mayúsculas, en
+     * ambos sentidos; un libro debe tener todas las palabras en su título o autor.
+     */
+    @Test
+    public void buscaPrefijosSinAcentos() {
+        Libro cien = agregar(new Libro("L1", "Cien años de soledad", "Gabriel García Márquez", 1967, "Novela", "Centro"));
+        Libro cancion = agregar(new Libro("L2", "Canción de hielo", "Núñez", 1996, "Novela", "Centro"));
+        Libro cantico = agregar(new Libro("L3", "Cántico", "Jorge Guillén", 1928, "Poesía", "Norte"));
+
+        assertEquals(List.of(cien), indice.buscar("anos", LIMITE).getLibros());
+        assertEquals(List.of(cien), indice.buscar("AÑO", LIMITE).getLibros());
+        assertEquals(List.of(cien), indice.buscar("garcia MARQ", LIMITE).getLibros());
+        assertEquals(List.of(cancion), indice.buscar("canc", LIMITE).getLibros());
+        assertEquals(List.of(cancion), indice.buscar("nunez hie", LIMITE).getLibros());
+        assertEquals(2, indice.buscar("cán", LIMITE).getCoincidencias());
+        assertTrue(indice.buscar("can", LIMITE).getLibros().containsAll(List.of(cancion, cantico)));
+        assertEquals(List.of(cantico), indice.buscar("guillen c", LIMITE).getLibros());
+        assertEquals(0, indice.buscar("cien hielo", LIMITE).getCoincidencias());
+        assertEquals(0, indice.buscar("soledades", LIMITE).getCoincidencias());
+    }
+
+    /**
+     * Con una palabra común, el filtro se aplica antes de elegir las mejores coincidencias:
+     * aparecen los libros que cumplen aunque haya más de {@value #LIMITE} coincidencias mejor
+     * ubicadas que no cumplen, y la cantidad cuenta solo los que cumplen.
+     */
+    @Test
+    public void filtraAntesDeElegirLasMejores() {
+        for (int i = 0; i < 600; i++) {
+            agregar(new Libro("E" + i, "Historia del mundo " + i, "Autor " + i, 1990, "Ensayo", "Centro"));
+        }
+        Libro primera = agregar(new Libro("N1", "Historia breve", "Ana", 2001, "Novela", "Centro"));
+        Libro segunda = agregar(new Libro("N2", "Otra historia", "Luis", 2002, "Novela", "Norte"));
+        agregar(new Libro("N3", "Cuentos", "Eva", 2003, "Novela", "Centro"));
+
+        IndiceTexto.Resultado sinFiltro = indice.buscar("historia", LIMITE);
+        assertEquals(602, sinFiltro.getCoincidencias());
+        assertEquals(LIMITE, sinFiltro.getLibros().size());
+        assertFalse(sinFiltro.getLibros().contains(primera));
+
+        IndiceCatalogo.Resultado novelas = catalogo.filtrar("novela", null, null, null, null, false);
+        IndiceTexto.Resultado filtrado = indice.buscar("historia", LIMITE, novelas::contiene);
+        assertEquals(2, filtrado.getCoincidencias());
+        assertEquals(List.of(primera, segunda), filtrado.getLibros());
+
+        IndiceCatalogo.Resultado norte = catalogo.filtrar("Novela", "norte", null, 2000, null, false);
+        assertEquals(List.of(segunda), indice.buscar("hist", LIMITE, norte::contiene).getLibros());
+        assertEquals(0, indice.buscar("cuentos", LIMITE, norte::contiene).getCoincidencias());
+    }
+}
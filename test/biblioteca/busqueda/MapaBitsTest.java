@@ -0,0 +1,167 @@
+package biblioteca.busqueda;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Pruebas de {@link MapaBits} comparadas con un {@link BitSet}: conversión entre arreglo y mapa
+ * de bits, operaciones entre contenedores de distinto tipo y contenedores que quedan vacíos.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public class MapaBitsTest {
+
+    /**
+     * Comprueba que un conjunto tiene exactamente los valores esperados, en orden.
+     *
+     * @param esperado Los valores esperados.
+     * @param mapa     El conjunto.
+     */
+    private static void comparar(BitSet esperado, MapaBits mapa) {
+        BitSet recorrido = new BitSet();
+        int[] anterior = {-1};
+        mapa.recorrer(valor -> {
+            assertTrue("Recorrido fuera de orden en " + valor, valor > anterior[0]);
+            anterior[0] = valor;
+            recorrido.set(valor);
+        });
+        assertEquals(esperado, recorrido);
+        assertEquals(esperado.cardinality(), mapa.cardinalidad());
+        assertEquals(esperado.isEmpty(), mapa.estaVacio());
+    }
+
+    /**
+     * Crea un conjunto con valores al azar en cuatro contenedores de distinto tipo.
+     *
+     * @param azar       Generador de valores.
+     * @param esperado   Conjunto de referencia donde también se agregan los valores.
+     * @param cantidades Cantidad de valores de cada contenedor; más de 4096 lo vuelve mapa de bits.
+     * @return El conjunto.
+     */
+    private static MapaBits crear(Random azar, BitSet esperado, int... cantidades) {
+        MapaBits mapa = new MapaBits();
+        for (int contenedor = 0; contenedor < cantidades.length; contenedor++) {
+            BitSet valores = new BitSet();
+            while (valores.cardinality() < cantidades[contenedor]) {
+                valores.set(azar.nextInt(65536));
+            }
+            int base = contenedor << 16;
+            valores.stream().forEach(valor -> {
+                mapa.agregar(base + valor);
+                esperado.set(base + valor);
+            });
+        }
+        return mapa;
+    }
+
+    /**
+     * Al pasar de 4096 valores un contenedor cambia a mapa de bits y al bajar vuelve a ser
+     * arreglo, sin perder valores.
+     */
+    @Test
+    public void cruzaElLimiteEntreArregloYBits() {
+        MapaBits mapa = new MapaBits();
+        BitSet esperado = new BitSet();
+        for (int i = 0; i < 4096; i++) {
+            assertTrue(mapa.agregar(i * 7));
+            esperado.set(i * 7);
+        }
+        comparar(esperado, mapa);
+        assertFalse(mapa.agregar(7));
+
+        assertTrue(mapa.agregar(1));
+        esperado.set(1);
+        comparar(esperado, mapa);
+        assertTrue(mapa.contiene(4095 * 7));
+        assertFalse(mapa.contiene(2));
+
+        assertTrue(mapa.quitar(0));
+        assertFalse(mapa.quitar(0));
+        esperado.clear(0);
+        comparar(esperado, mapa);
+        assertTrue(mapa.quitar(1));
+        esperado.clear(1);
+        comparar(esperado, mapa);
+        assertTrue(mapa.agregar(3));
+        esperado.set(3);
+        comparar(esperado, mapa);
+    }
+
+    /**
+     * La intersección, la unión, la diferencia y el conteo coinciden con los de {@link BitSet}
+     * entre contenedores arreglo-arreglo, arreglo-bits, bits-arreglo y bits-bits, y con
+     * contenedores que solo están en uno de los conjuntos.
+     */
+    @Test
+    public void operacionesConContenedoresMixtos() {
+        Random azar = new Random(20261017);
+        BitSet esperadoA = new BitSet();
+        BitSet esperadoB = new BitSet();
+        MapaBits a = crear(azar, esperadoA, 300, 300, 20000, 20000, 50, 0, 6000);
+        MapaBits b = crear(azar, esperadoB, 400, 9000, 200, 30000, 0, 70, 5000);
+
+        BitSet y = (BitSet) esperadoA.clone();
+        y.and(esperadoB);
+        comparar(y, MapaBits.y(a, b));
+        assertEquals(y.cardinality(), MapaBits.contarY(a, b));
+        assertEquals(y.cardinality(), MapaBits.contarY(b, a));
+
+        BitSet o = (BitSet) esperadoA.clone();
+        o.or(esperadoB);
+        comparar(o, MapaBits.o(a, b));
+        comparar(o, MapaBits.o(List.of(a, b)));
+
+        BitSet aNoB = (BitSet) esperadoA.clone();
+        aNoB.andNot(esperadoB);
+        comparar(aNoB, MapaBits.yNo(a, b));
+        BitSet bNoA = (BitSet) esperadoB.clone();
+        bNoA.andNot(esperadoA);
+        comparar(bNoA, MapaBits.yNo(b, a));
+
+        comparar(esperadoA, a);
+        comparar(esperadoB, b);
+        comparar(new BitSet(), MapaBits.yNo(a, a));
+    }
+
+    /**
+     * Al quitar el último valor de un contenedor este desaparece: no queda en el recorrido ni en
+     * las operaciones, y se puede volver a crear.
+     */
+    @Test
+    public void quitaElUltimoValorDeUnContenedor() {
+        MapaBits mapa = new MapaBits();
+        mapa.agregar(5);
+        mapa.agregar(70000);
+        mapa.agregar(200000);
+        MapaBits otro = new MapaBits();
+        otro.agregar(70000);
+
+        assertTrue(mapa.quitar(70000));
+        assertFalse(mapa.contiene(70000));
+        BitSet esperado = new BitSet();
+        esperado.set(5);
+        esperado.set(200000);
+        comparar(esperado, mapa);
+        assertTrue(MapaBits.y(mapa, otro).estaVacio());
+        assertEquals(0, MapaBits.contarY(mapa, otro));
+
+        assertTrue(mapa.quitar(5));
+        assertTrue(mapa.quitar(200000));
+        comparar(new BitSet(), mapa);
+
+        assertTrue(mapa.agregar(70001));
+        esperado.clear();
+        esperado.set(70001);
+        comparar(esperado, mapa);
+        comparar(esperado, MapaBits.yNo(mapa, otro));
+    }
+}
@@ -0,0 +1,25 @@
+package biblioteca.datos;
+
+import java.nio.file.Path;
+
+/**
+ * Pruebas de {@link AlmacenCsv} con las pruebas comunes de {@link PruebasAlmacen}.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public class AlmacenCsvTest extends PruebasAlmacen {
+
+    /**
+     * Abre un almacén CSV sobre el directorio.
+     *
+     * @param directorio El directorio de los datos.
+     * @return El almacén.
+     */
+    @Override
+    protected AlmacenBiblioteca crear(Path directorio) {
+        return new AlmacenCsv(directorio.toString());
+    }
+}
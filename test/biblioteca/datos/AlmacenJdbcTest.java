@@ -0,0 +1,47 @@
+package biblioteca.datos;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import org.junit.Assume;
+import org.junit.Before;
+
+/**
+ * Pruebas de {@link AlmacenJdbc} sobre una base H2 en archivo, con las pruebas comunes de
+ * {@link PruebasAlmacen}. Se omiten si el controlador de H2 no está en el classpath.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public class AlmacenJdbcTest extends PruebasAlmacen {
+
+    /**
+     * Omite las pruebas si no está el controlador de H2.
+     */
+    @Before
+    public void verificarControlador() {
+        boolean disponible;
+        try {
+            Class.forName("org.h2.Driver");
+            disponible = true;
+        } catch (ClassNotFoundException e) {
+            disponible = false;
+        }
+        Assume.assumeTrue("Controlador de H2 no disponible", disponible);
+    }
+
+    /**
+     * Abre un almacén sobre una base H2 en el directorio; las tablas nunca guardadas se
+     * importan de un almacén CSV vacío.
+     *
+     * @param directorio El directorio de los datos.
+     * @return El almacén.
+     * @throws IOException Si no se puede abrir la base de datos.
+     */
+    @Override
+    protected AlmacenBiblioteca crear(Path directorio) throws IOException {
+        return new AlmacenJdbc("jdbc:h2:file:" + directorio.resolve("biblioteca").toAbsolutePath(), "sa", "",
+                new AlmacenCsv(directorio.resolve("importacion").toString()));
+    }
+}
@@ -0,0 +1,78 @@
+package biblioteca.datos;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Pruebas de {@link CargadorCsv}: la carga paralela de un archivo con un campo de varias líneas
+ * vuelve a la lectura secuencial sin haber procesado ninguna fila dos veces.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public class CargadorCsvTest {
+
+    @Rule
+    public TemporaryFolder carpeta = new TemporaryFolder(); // Carpeta de los archivos de cada prueba
+
+    /**
+     * Un campo entre comillas de varios megabytes contiene algún límite de bloque; cada fila se
+     * procesa una sola vez y el campo se lee completo.
+     *
+     * @throws IOException Si falla la escritura o la lectura.
+     */
+    @Test
+    public void procesaCadaFilaUnaVezConSaltosEntreComillas() throws IOException {
+        assumeTrue(ForkJoinPool.getCommonPoolParallelism() > 1);
+        Path archivo = carpeta.getRoot().toPath().resolve("libros.csv");
+        int filas = 0;
+        try (Writer writer = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8)) {
+            writer.write("ISBN,Título\n");
+            while (filas < 100000) {
+                writer.write("ISBN-" + filas + ",Título " + filas + "\n");
+                filas++;
+            }
+            writer.write("ISBN-" + filas + ",\"Inicio");
+            for (int i = 0; i < 100000; i++) {
+                writer.write("\nlínea \"\"" + i + "\"\" del campo");
+            }
+            writer.write("\"\n");
+            filas++;
+            while (Files.size(archivo) < CargadorCsv.UMBRAL_PARALELO + 1024 * 1024 || filas < 300000) {
+                writer.write("ISBN-" + filas + ",Título " + filas + "\n");
+                filas++;
+                if (filas % 10000 == 0) {
+                    writer.flush();
+                }
+            }
+        }
+
+        AtomicInteger llamadas = new AtomicInteger();
+        List<String> titulos = CargadorCsv.cargar(archivo.toString(), (fila, salida) -> {
+            llamadas.incrementAndGet();
+            salida.add(fila.texto(1));
+        });
+
+        assertEquals(filas, llamadas.get());
+        assertEquals(filas, titulos.size());
+        assertEquals("Título 99999", titulos.get(99999));
+        String campo = titulos.get(100000);
+        assertEquals(true, campo.startsWith("Inicio\nlínea \"0\" del campo"));
+        assertEquals(true, campo.endsWith("línea \"99999\" del campo"));
+        assertEquals("Título " + (filas - 1), titulos.get(filas - 1));
+    }
+}
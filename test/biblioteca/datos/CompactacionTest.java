@@ -0,0 +1,136 @@
+package biblioteca.datos;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.UnaryOperator;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Pruebas de {@link Compactacion}: los segmentos tomados vuelven a quedar pendientes si falla
+ * la rotación del diario o la escritura, y el diario rotado se conserva.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public class CompactacionTest {
+
+    private static final UnaryOperator<String> COPIA = fila -> fila; // Las cadenas no cambian
+
+    @Rule
+    public TemporaryFolder carpeta = new TemporaryFolder(); // Carpeta del diario rotado
+
+    private ObservableList<String> libros; // Filas de la primera tabla
+    private ObservableList<String> miembros; // Filas de la segunda tabla
+    private TablaSegmentada<String> tablaLibros; // Segmentos de la primera tabla
+    private TablaSegmentada<String> tablaMiembros; // Segmentos de la segunda tabla
+    private Path diarioRotado; // Ruta del diario rotado
+    private boolean escrito; // Indica si se llamó a la escritura
+    private boolean terminada; // Indica si se avisó el final de la compactación
+
+    /**
+     * Prepara dos tablas guardadas, con un cambio pendiente en cada una.
+     */
+    @Before
+    public void preparar() {
+        libros = FXCollections.observableArrayList("l0", "l1", "l2", "l3");
+        miembros = FXCollections.observableArrayList("m0", "m1");
+        tablaLibros = new TablaSegmentada<>();
+        tablaLibros.iniciar(List.of(0, 1), List.of(2, 2));
+        tablaLibros.seguir(libros);
+        tablaMiembros = new TablaSegmentada<>();
+        tablaMiembros.iniciar(List.of(0), List.of(2));
+        tablaMiembros.seguir(miembros);
+        libros.set(3, "L3");
+        miembros.add("m2");
+        diarioRotado = carpeta.getRoot().toPath().resolve("biblioteca.diario.compactando");
+    }
+
+    /**
+     * Toma los cambios de ambas tablas en una compactación que restaura en el mismo hilo.
+     *
+     * @return La compactación.
+     */
+    private Compactacion tomar() {
+        Compactacion compactacion = new Compactacion(Runnable::run);
+        compactacion.tomarCambios(tablaLibros, libros, COPIA);
+        compactacion.tomarCambios(tablaMiembros, miembros, COPIA);
+        assertTrue(tablaLibros.tomarCambios(libros, COPIA).estaVacio());
+        assertTrue(tablaMiembros.tomarCambios(miembros, COPIA).estaVacio());
+        return compactacion;
+    }
+
+    /**
+     * Verifica que los segmentos cambiados de ambas tablas vuelvan a estar pendientes.
+     */
+    private void verificarPendientes() {
+        assertEquals(List.of(1), tablaLibros.tomarCambios(libros, COPIA).getNumeros());
+        assertEquals(List.of(0), tablaMiembros.tomarCambios(miembros, COPIA).getNumeros());
+    }
+
+    /**
+     * Si la rotación del diario falla, no se escribe nada y los segmentos siguen pendientes.
+     */
+    @Test
+    public void rotacionFallidaDejaLosSegmentosPendientes() {
+        Compactacion compactacion = tomar();
+        compactacion.escribir(CompletableFuture.failedFuture(new IOException("Sin permiso")),
+                () -> escrito = true, diarioRotado, () -> terminada = true);
+
+        assertFalse(escrito);
+        assertTrue(terminada);
+        verificarPendientes();
+    }
+
+    /**
+     * Si la escritura falla, los segmentos siguen pendientes y el diario rotado se conserva
+     * para reproducirse en el próximo inicio.
+     *
+     * @throws IOException Si no se puede crear el diario rotado.
+     */
+    @Test
+    public void escrituraFallidaConservaElDiarioRotado() throws IOException {
+        Files.writeString(diarioRotado, "registro\n");
+        Compactacion compactacion = tomar();
+        compactacion.escribir(CompletableFuture.completedFuture(null),
+                () -> {
+                    throw new IOException("Disco lleno");
+                }, diarioRotado, () -> terminada = true);
+
+        assertTrue(terminada);
+        assertTrue(Files.exists(diarioRotado));
+        verificarPendientes();
+    }
+
+    /**
+     * Con la rotación y la escritura correctas se borra el diario rotado y no queda nada
+     * pendiente.
+     *
+     * @throws IOException Si no se puede crear el diario rotado.
+     */
+    @Test
+    public void compactacionCorrectaBorraElDiarioRotado() throws IOException {
+        Files.writeString(diarioRotado, "registro\n");
+        Compactacion compactacion = tomar();
+        compactacion.escribir(CompletableFuture.completedFuture(null),
+                () -> escrito = true, diarioRotado, () -> terminada = true);
+
+        assertTrue(escrito);
+        assertTrue(terminada);
+        assertFalse(Files.exists(diarioRotado));
+        assertTrue(tablaLibros.tomarCambios(libros, COPIA).estaVacio());
+    }
+}
@@ -0,0 +1,152 @@
+package biblioteca.datos;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Pruebas de {@link Diario}: reproducción de los registros con campos escapados, registros
+ * incompletos al final y rotación.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public class DiarioTest {
+
+    @Rule
+    public TemporaryFolder carpeta = new TemporaryFolder(); // Carpeta de los diarios de cada prueba
+
+    /**
+     * Lee todos los registros de un diario.
+     *
+     * @param archivo Ruta del diario.
+     * @return Los campos de cada registro, en orden.
+     * @throws IOException Si no se puede leer el archivo.
+     */
+    private static List<String[]> leer(Path archivo) throws IOException {
+        List<String[]> registros = new ArrayList<>();
+        Diario.reproducir(archivo, registros::add);
+        return registros;
+    }
+
+    /**
+     * Los campos con tabuladores, saltos de línea y barras invertidas se reproducen tal cual, y
+     * un campo nulo vuelve como cadena vacía.
+     *
+     * @throws IOException Si falla la escritura o la lectura.
+     */
+    @Test
+    public void reproduceCamposEscapados() throws IOException {
+        Path ruta = carpeta.getRoot().toPath().resolve("diario");
+        try (Diario diario = new Diario(ruta)) {
+            diario.registrar("LIBRO_GUARDAR", "978-1", "Título\tcon\ttabs", "Línea 1\nLínea 2\r", "C:\\ruta\\");
+            diario.registrarTodos(List.of(new String[] {"LIBRO_ELIMINAR", "978-1"}, new String[] {"X", null}));
+            assertEquals(3, diario.getRegistros());
+        }
+
+        List<String[]> registros = leer(ruta);
+        assertEquals(3, registros.size());
+        assertArrayEquals(new String[] {"LIBRO_GUARDAR", "978-1", "Título\tcon\ttabs", "Línea 1\nLínea 2\r", "C:\\ruta\\"},
+                registros.get(0));
+        assertArrayEquals(new String[] {"LIBRO_ELIMINAR", "978-1"}, registros.get(1));
+        assertArrayEquals(new String[] {"X", ""}, registros.get(2));
+    }
+
+    /**
+     * Al reabrir un diario se anexan registros a los existentes y se cuentan, y una última
+     * línea sin salto de línea, como la que deja una caída durante la escritura, se ignora.
+     *
+     * @throws IOException Si falla la escritura o la lectura.
+     */
+    @Test
+    public void ignoraRegistroIncompletoAlFinal() throws IOException {
+        Path ruta = carpeta.getRoot().toPath().resolve("diario");
+        try (Diario diario = new Diario(ruta)) {
+            diario.registrar("A", "1");
+        }
+        try (Diario diario = new Diario(ruta)) {
+            diario.registrar("B", "2");
+        }
+        Files.write(ruta, "C\t3".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        List<String[]> registros = leer(ruta);
+        assertEquals(2, registros.size());
+        assertArrayEquals(new String[] {"B", "2"}, registros.get(1));
+        try (Diario diario = new Diario(ruta)) {
+            assertEquals(2, diario.getRegistros()); // Cuenta los anteriores, sin el incompleto
+        }
+    }
+
+    /**
+     * Un diario que no existe no tiene registros.
+     *
+     * @throws IOException Si falla la lectura.
+     */
+    @Test
+    public void diarioInexistenteNoTieneRegistros() throws IOException {
+        assertEquals(0, Diario.reproducir(carpeta.getRoot().toPath().resolve("nada"), campos -> { }));
+    }
+
+    /**
+     * La rotación mueve los registros al destino, o los anexa si el destino ya existe, y deja
+     * un diario vacío que sigue aceptando registros.
+     *
+     * @throws IOException Si falla la escritura, la rotación o la lectura.
+     */
+    @Test
+    public void rotaYAnexaAlDiarioRotado() throws IOException {
+        Path ruta = carpeta.getRoot().toPath().resolve("diario");
+        Path rotado = carpeta.getRoot().toPath().resolve("diario.compactando");
+        try (Diario diario = new Diario(ruta)) {
+            diario.registrar("A", "1");
+            diario.rotar(rotado);
+            diario.registrar("B", "2");
+            diario.rotar(rotado); // Como tras una compactación fallida
+            assertEquals(0, diario.getRegistros());
+            diario.registrar("C", "3");
+            assertEquals(1, diario.getRegistros());
+        }
+
+        List<String[]> rotados = leer(rotado);
+        assertEquals(2, rotados.size());
+        assertArrayEquals(new String[] {"A", "1"}, rotados.get(0));
+        assertArrayEquals(new String[] {"B", "2"}, rotados.get(1));
+        List<String[]> actuales = leer(ruta);
+        assertEquals(1, actuales.size());
+        assertArrayEquals(new String[] {"C", "3"}, actuales.get(0));
+    }
+
+    /**
+     * Si no se puede mover el diario, el actual sigue abierto y acepta registros.
+     *
+     * @throws IOException Si falla la escritura o la lectura.
+     */
+    @Test
+    public void rotacionFallidaSigueEnElDiarioActual() throws IOException {
+        Path ruta = carpeta.getRoot().toPath().resolve("diario");
+        try (Diario diario = new Diario(ruta)) {
+            diario.registrar("A", "1");
+            try {
+                diario.rotar(carpeta.getRoot().toPath().resolve("no-existe").resolve("diario.compactando"));
+            } catch (IOException e) {
+                // Esperado: la carpeta del destino no existe
+            }
+            diario.registrar("B", "2");
+            assertEquals(2, diario.getRegistros());
+        }
+
+        assertEquals(2, leer(ruta).size());
+    }
+}
@@ -0,0 +1,241 @@
+package biblioteca.datos;
+
+import biblioteca.models.Libro;
+import biblioteca.models.Miembro;
+import biblioteca.models.Prestamo;
+import biblioteca.models.Sucursal;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Pruebas de {@link InstantaneaBinaria}: ida y vuelta de cada tabla y rechazo de archivos
+ * dañados o de otra versión.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public class InstantaneaBinariaTest {
+
+    @Rule
+    public TemporaryFolder carpeta = new TemporaryFolder(); // Directorio temporal de cada prueba
+
+    /**
+     * Los libros guardados se cargan con los mismos valores y comparten los repetidos.
+     *
+     * @throws IOException Si falla la escritura o la lectura.
+     */
+    @Test
+    public void librosIdaYVuelta() throws IOException {
+        List<Libro> libros = Arrays.asList(
+                new Libro("I1", "Rayuela", "Cortázar", 1963, "Novela", "Centro"),
+                new Libro("I2", "Bestiario", "Cortázar", 1951, "Cuento", ""),
+                new Libro("I3", "Ñandú, \"el\" ave", "Anónimo", 2001, "Novela", "Norte"));
+        String archivo = ruta("libros.bin");
+        InstantaneaBinaria.guardarLibros(libros, archivo);
+
+        List<Libro> cargados = InstantaneaBinaria.cargarLibros(archivo);
+        assertEquals(libros.size(), cargados.size());
+        for (int i = 0; i < libros.size(); i++) {
+            assertEquals(libros.get(i).getISBNValor(), cargados.get(i).getISBNValor());
+            assertEquals(libros.get(i).getTituloValor(), cargados.get(i).getTituloValor());
+            assertEquals(libros.get(i).getAutorValor(), cargados.get(i).getAutorValor());
+            assertEquals(libros.get(i).getAnioPublicacionValor(), cargados.get(i).getAnioPublicacionValor());
+            assertEquals(libros.get(i).getGeneroValor(), cargados.get(i).getGeneroValor());
+            assertEquals(libros.get(i).getSucursalValor(), cargados.get(i).getSucursalValor());
+        }
+        assertSame(cargados.get(0).getAutorValor(), cargados.get(1).getAutorValor());
+        assertSame(cargados.get(0).getGeneroValor(), cargados.get(2).getGeneroValor());
+    }
+
+    /**
+     * Los miembros y las sucursales guardados se cargan con los mismos valores.
+     *
+     * @throws IOException Si falla la escritura o la lectura.
+     */
+    @Test
+    public void miembrosYSucursalesIdaYVuelta() throws IOException {
+        String archivoMiembros = ruta("miembros.bin");
+        InstantaneaBinaria.guardarMiembros(Arrays.asList(
+                new Miembro("M1", "Ana", "ana@correo.com", "555-0101"),
+                new Miembro("M2", "Luis", "", "")), archivoMiembros);
+        List<Miembro> miembros = InstantaneaBinaria.cargarMiembros(archivoMiembros);
+        assertEquals(2, miembros.size());
+        assertEquals("M1", miembros.get(0).getIdValor());
+        assertEquals("ana@correo.com", miembros.get(0).getEmailValor());
+        assertEquals("Luis", miembros.get(1).getNombreValor());
+
+        String archivoSucursales = ruta("sucursales.bin");
+        InstantaneaBinaria.guardarSucursales(Arrays.asList(new Sucursal("Centro", "Calle 1")), archivoSucursales);
+        List<Sucursal> sucursales = InstantaneaBinaria.cargarSucursales(archivoSucursales);
+        assertEquals(1, sucursales.size());
+        assertEquals("Calle 1", sucursales.get(0).getDireccion().get());
+    }
+
+    /**
+     * Los préstamos se resuelven contra los índices recibidos, conservan las fechas ausentes y
+     * se omiten los que apuntan a un libro que ya no existe.
+     *
+     * @throws IOException Si falla la escritura o la lectura.
+     */
+    @Test
+    public void prestamosResuelvenLibroYMiembro() throws IOException {
+        Libro libro = new Libro("I1", "Rayuela", "Cortázar", 1963, "Novela");
+        Libro otro = new Libro("I2", "Bestiario", "Cortázar", 1951, "Cuento");
+        Miembro miembro = new Miembro("M1", "Ana", "", "");
+        LocalDate inicio = LocalDate.of(2026, 3, 1);
+        String archivo = ruta("prestamos.bin");
+        InstantaneaBinaria.guardarPrestamos(Arrays.asList(
+                new Prestamo(libro, miembro, inicio, inicio.plusDays(14), inicio.plusDays(10)),
+                new Prestamo(otro, miembro, inicio, inicio.plusDays(14)),
+                new Prestamo(libro, miembro, inicio.plusDays(20), inicio.plusDays(34))), archivo);
+
+        Map<String, Libro> libros = new HashMap<>();
+        libros.put("I1", libro);
+        Map<String, Miembro> miembros = new HashMap<>();
+        miembros.put("M1", miembro);
+        List<Prestamo> cargados = InstantaneaBinaria.cargarPrestamos(archivo, libros, miembros);
+
+        assertEquals(2, cargados.size());
+        assertSame(libro, cargados.get(0).getLibro());
+        assertSame(miembro, cargados.get(0).getMiembro());
+        assertEquals(inicio.plusDays(10), cargados.get(0).getFechaDevolucionRealValor());
+        assertEquals(inicio.plusDays(20), cargados.get(1).getFechaPrestamoValor());
+        assertNull(cargados.get(1).getFechaDevolucionRealValor());
+    }
+
+    /**
+     * Un byte alterado en los datos hace fallar la suma de verificación.
+     *
+     * @throws IOException Si falla la escritura.
+     */
+    @Test
+    public void rechazaDatosDaniados() throws IOException {
+        String archivo = ruta("miembros.bin");
+        InstantaneaBinaria.guardarMiembros(Arrays.asList(new Miembro("M1", "Ana", "a@b.c", "1")), archivo);
+        alterar(archivo, 12, (byte) 'X'); // Dentro del nombre, después del encabezado y la cantidad
+
+        esperarFallo(() -> InstantaneaBinaria.cargarMiembros(archivo), "Suma de verificación");
+    }
+
+    /**
+     * Una instantánea de otra versión del formato se rechaza antes de leer los datos.
+     *
+     * @throws IOException Si falla la escritura.
+     */
+    @Test
+    public void rechazaOtraVersion() throws IOException {
+        String archivo = ruta("miembros.bin");
+        InstantaneaBinaria.guardarMiembros(Arrays.asList(new Miembro("M1", "Ana", "", "")), archivo);
+        alterar(archivo, 5, (byte) 1); // Byte bajo de la versión, después del número mágico
+
+        esperarFallo(() -> InstantaneaBinaria.cargarMiembros(archivo), "Versión o tipo");
+    }
+
+    /**
+     * Una instantánea de otra tabla, o un archivo que no es instantánea, se rechaza.
+     *
+     * @throws IOException Si falla la escritura.
+     */
+    @Test
+    public void rechazaOtraTablaYArchivosAjenos() throws IOException {
+        String archivo = ruta("miembros.bin");
+        InstantaneaBinaria.guardarMiembros(Arrays.asList(new Miembro("M1", "Ana", "", "")), archivo);
+        esperarFallo(() -> InstantaneaBinaria.cargarSucursales(archivo), "Versión o tipo");
+
+        alterar(archivo, 0, (byte) 0);
+        esperarFallo(() -> InstantaneaBinaria.cargarMiembros(archivo), "No es una instantánea");
+    }
+
+    /**
+     * La instantánea solo está vigente si existe y no es más antigua que el CSV.
+     *
+     * @throws IOException Si falla la escritura.
+     */
+    @Test
+    public void vigenciaSegunFechaDelCsv() throws IOException {
+        File csv = carpeta.newFile("miembros.csv");
+        String archivoCsv = csv.getPath();
+        assertEquals(false, InstantaneaBinaria.estaVigente(archivoCsv));
+
+        InstantaneaBinaria.guardarMiembros(Arrays.asList(new Miembro("M1", "Ana", "", "")),
+                InstantaneaBinaria.rutaPara(archivoCsv));
+        File bin = new File(InstantaneaBinaria.rutaPara(archivoCsv));
+        csv.setLastModified(1_000_000_000_000L);
+        bin.setLastModified(1_000_000_000_000L);
+        assertEquals(true, InstantaneaBinaria.estaVigente(archivoCsv));
+
+        csv.setLastModified(1_000_000_005_000L);
+        assertEquals(false, InstantaneaBinaria.estaVigente(archivoCsv));
+    }
+
+    // ----- Auxiliares -----
+
+    /**
+     * Obtiene la ruta de un archivo dentro del directorio temporal.
+     *
+     * @param nombre Nombre del archivo.
+     * @return La ruta completa.
+     */
+    private String ruta(String nombre) {
+        return new File(carpeta.getRoot(), nombre).getPath();
+    }
+
+    /**
+     * Reemplaza un byte de un archivo.
+     *
+     * @param archivo  Ruta del archivo.
+     * @param posicion Posición del byte.
+     * @param valor    Valor nuevo.
+     * @throws IOException Si falla la escritura.
+     */
+    private static void alterar(String archivo, long posicion, byte valor) throws IOException {
+        try (RandomAccessFile acceso = new RandomAccessFile(archivo, "rw")) {
+            acceso.seek(posicion);
+            acceso.write(valor);
+        }
+    }
+
+    /**
+     * Comprueba que una carga falla con un mensaje que empieza con el texto esperado.
+     *
+     * @param carga    La carga a ejecutar.
+     * @param esperado Comienzo del mensaje de error.
+     */
+    private static void esperarFallo(Carga carga, String esperado) {
+        try {
+            carga.ejecutar();
+            fail("Se esperaba un error: " + esperado);
+        } catch (IOException e) {
+            assertEquals(true, e.getMessage().startsWith(esperado));
+        }
+    }
+
+    /**
+     * Carga que puede fallar con una excepción de entrada y salida.
+     */
+    private interface Carga {
+
+        /**
+         * Ejecuta la carga.
+         *
+         * @throws IOException Si la carga falla.
+         */
+        void ejecutar() throws IOException;
+    }
+}
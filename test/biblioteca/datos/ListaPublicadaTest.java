@@ -0,0 +1,148 @@
+package biblioteca.datos;
+
+import java.util.ArrayList;
+import java.util.List;
+import javafx.collections.ListChangeListener;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Pruebas de {@link ListaPublicada}: posición de los elementos actualizados tras cambios en
+ * cualquier lugar de la lista, y agrupación de avisos.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public class ListaPublicadaTest {
+
+    private ListaPublicada<String> lista; // Lista bajo prueba
+    private List<Integer> actualizadas; // Posiciones avisadas como actualizadas
+    private int avisos; // Cantidad de avisos recibidos
+
+    /**
+     * Crea una lista con cien elementos y un oyente que registra las actualizaciones.
+     */
+    @Before
+    public void preparar() {
+        lista = new ListaPublicada<>();
+        for (int i = 0; i < 100; i++) {
+            lista.add(new String("e" + i)); // Instancias distintas, como los modelos del repositorio
+        }
+        actualizadas = new ArrayList<>();
+        lista.addListener((ListChangeListener<String>) cambio -> {
+            avisos++;
+            while (cambio.next()) {
+                if (cambio.wasUpdated()) {
+                    for (int i = cambio.getFrom(); i < cambio.getTo(); i++) {
+                        actualizadas.add(i);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * La actualización de un elemento se avisa en su posición, también para los agregados al
+     * final después de crear la tabla de posiciones.
+     */
+    @Test
+    public void avisaLaPosicionDelElemento() {
+        lista.actualizado(lista.get(37));
+        String nuevo = new String("nuevo");
+        lista.add(nuevo);
+        lista.actualizado(nuevo);
+
+        assertEquals(List.of(37, 100), actualizadas);
+    }
+
+    /**
+     * Después de quitar, insertar o reemplazar en medio de la lista, las posiciones avisadas son
+     * las nuevas.
+     */
+    @Test
+    public void posicionesTrasCambiosEnMedio() {
+        String e50 = lista.get(50);
+        String e99 = lista.get(99);
+        lista.remove(10);
+        lista.actualizado(e50);
+        lista.add(0, new String("primero"));
+        lista.actualizado(e99);
+        String reemplazo = new String("reemplazo");
+        lista.set(20, reemplazo);
+        lista.actualizado(reemplazo);
+        lista.actualizado(e50);
+
+        assertEquals(List.of(49, 99, 20, 50), actualizadas);
+    }
+
+    /**
+     * Un elemento que ya no está en la lista, o que es igual pero no idéntico a uno que está,
+     * no genera aviso de actualización.
+     */
+    @Test
+    public void ignoraElementosAusentes() {
+        String quitado = lista.remove(5);
+        lista.actualizado(quitado);
+        lista.actualizado(new String("e6"));
+
+        assertEquals(List.of(), actualizadas);
+    }
+
+    /**
+     * Con un grupo abierto, varias actualizaciones se avisan juntas al cerrarlo, una vez por
+     * elemento.
+     */
+    @Test
+    public void agrupaActualizaciones() {
+        lista.abrirGrupo();
+        lista.actualizado(lista.get(3));
+        lista.actualizado(lista.get(80));
+        lista.actualizado(lista.get(3));
+        assertEquals(0, avisos);
+        lista.cerrarGrupo();
+
+        assertEquals(1, avisos);
+        actualizadas.sort(null);
+        assertEquals(List.of(3, 80), actualizadas);
+    }
+
+    /**
+     * La tabla de posiciones crece con la lista sin perder elementos.
+     */
+    @Test
+    public void creceConLaLista() {
+        lista.actualizado(lista.get(0)); // Arma la tabla antes de agregar
+        List<String> agregados = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            String elemento = new String("x" + i);
+            agregados.add(elemento);
+            lista.add(elemento);
+        }
+        lista.actualizado(agregados.get(0));
+        lista.actualizado(agregados.get(9_999));
+        lista.clear();
+        lista.addAll(agregados);
+        lista.actualizado(agregados.get(1234));
+
+        assertEquals(List.of(0, 100, 10_099, 1234), actualizadas);
+    }
+
+    /**
+     * La posición indicada por quien avisa se usa tal cual; si ya no corresponde al elemento,
+     * se busca la correcta.
+     */
+    @Test
+    public void usaLaPosicionIndicada() {
+        lista.actualizado(lista.get(42), 42);
+        String e60 = lista.get(60);
+        lista.remove(0);
+        lista.actualizado(e60, 60);
+        lista.actualizado(new String("ajeno"), 7);
+
+        assertEquals(List.of(42, 59), actualizadas);
+    }
+}
@@ -0,0 +1,213 @@
+package biblioteca.datos;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Pruebas de {@link PersistenciaDiferida}: reemplazo de registros de estado, orden de los
+ * eventos, rotación encolada y reintento de escrituras fallidas.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public class PersistenciaDiferidaTest {
+
+    @Rule
+    public TemporaryFolder carpeta = new TemporaryFolder(); // Carpeta de los diarios de cada prueba
+
+    /**
+     * Diario cuyas escrituras y rotaciones pueden fallar a pedido.
+     */
+    private static final class DiarioFallido extends Diario {
+
+        private volatile int escriturasFallidas; // Escrituras que todavía deben fallar
+        private volatile boolean rotacionFallida; // Indica si la próxima rotación debe fallar
+
+        /**
+         * Abre el diario en la ruta indicada.
+         *
+         * @param archivo Ruta del archivo del diario.
+         * @throws IOException Si no se puede abrir el archivo.
+         */
+        private DiarioFallido(Path archivo) throws IOException {
+            super(archivo);
+        }
+
+        @Override
+        public synchronized void registrarTodos(List<String[]> lote) throws IOException {
+            if (escriturasFallidas > 0) {
+                escriturasFallidas--;
+                throw new IOException("Disco lleno");
+            }
+            super.registrarTodos(lote);
+        }
+
+        @Override
+        public synchronized void rotar(Path destino) throws IOException {
+            if (rotacionFallida) {
+                rotacionFallida = false;
+                throw new IOException("Sin permiso");
+            }
+            super.rotar(destino);
+        }
+    }
+
+    /**
+     * Lee los registros de un diario.
+     *
+     * @param archivo Ruta del diario.
+     * @return El primer campo y el último de cada registro, separados por ':'.
+     * @throws IOException Si no se puede leer el archivo.
+     */
+    private static List<String> leer(Path archivo) throws IOException {
+        List<String> registros = new ArrayList<>();
+        Diario.reproducir(archivo, campos -> registros.add(campos[0] + ":" + campos[campos.length - 1]));
+        return registros;
+    }
+
+    /**
+     * Varios estados seguidos de una fila se escriben como uno solo, el último; los eventos se
+     * escriben todos y en orden, y un estado posterior a un evento sobre la fila no lo saltea.
+     *
+     * @throws Exception Si falla la escritura.
+     */
+    @Test
+    public void reemplazaEstadosYConservaEventos() throws Exception {
+        Path ruta = carpeta.getRoot().toPath().resolve("diario");
+        PersistenciaDiferida persistencia = new PersistenciaDiferida(new Diario(ruta));
+        persistencia.registrarEstado("libro:1", "LIBRO", "A");
+        persistencia.registrarEstado("libro:1", "LIBRO", "B");
+        persistencia.registrarEvento(List.of("libro:1"), "PRESTAMO", "1");
+        persistencia.registrarEstado("libro:1", "LIBRO", "C");
+        persistencia.close();
+
+        assertEquals(List.of("LIBRO:B", "PRESTAMO:1", "LIBRO:C"), leer(ruta));
+    }
+
+    /**
+     * Al reiniciar, la cuenta de registros incluye los que dejó la sesión anterior, para que
+     * el umbral de compactación se alcance aunque cada sesión haga pocos cambios.
+     *
+     * @throws Exception Si falla la escritura.
+     */
+    @Test
+    public void cuentaLosRegistrosDeSesionesAnteriores() throws Exception {
+        Path ruta = carpeta.getRoot().toPath().resolve("diario");
+        PersistenciaDiferida anterior = new PersistenciaDiferida(new Diario(ruta));
+        anterior.registrarEstado("libro:1", "LIBRO", "A");
+        anterior.registrarEvento(List.of("libro:1"), "PRESTAMO", "1");
+        anterior.close();
+
+        PersistenciaDiferida persistencia = new PersistenciaDiferida(new Diario(ruta));
+        assertEquals(2, persistencia.getRegistros());
+        persistencia.registrarEvento(List.of("libro:1"), "PRESTAMO", "2");
+        assertEquals(3, persistencia.getRegistros());
+        persistencia.close();
+    }
+
+    /**
+     * La rotación se hace después de escribir los registros anteriores, sin esperar al llamar,
+     * y los posteriores van al diario nuevo aunque toquen la misma fila.
+     *
+     * @throws Exception Si falla la escritura o la rotación.
+     */
+    @Test
+    public void rotaEnElHiloEscritor() throws Exception {
+        Path ruta = carpeta.getRoot().toPath().resolve("diario");
+        Path rotado = carpeta.getRoot().toPath().resolve("diario.compactando");
+        PersistenciaDiferida persistencia = new PersistenciaDiferida(new Diario(ruta));
+        persistencia.registrarEstado("libro:1", "LIBRO", "A");
+        CompletableFuture<Void> rotacion = persistencia.rotar(rotado);
+        assertEquals(0, persistencia.getRegistros());
+        persistencia.registrarEstado("libro:1", "LIBRO", "B");
+        rotacion.get(5, TimeUnit.SECONDS);
+        persistencia.close();
+
+        assertEquals(List.of("LIBRO:A"), leer(rotado));
+        assertEquals(List.of("LIBRO:B"), leer(ruta));
+    }
+
+    /**
+     * Si la rotación falla, su tarea termina con el error y los registros siguen en el diario
+     * actual, contados como suyos.
+     *
+     * @throws Exception Si falla la escritura.
+     */
+    @Test
+    public void rotacionFallidaConservaElDiario() throws Exception {
+        Path ruta = carpeta.getRoot().toPath().resolve("diario");
+        DiarioFallido diario = new DiarioFallido(ruta);
+        diario.rotacionFallida = true;
+        PersistenciaDiferida persistencia = new PersistenciaDiferida(diario);
+        persistencia.registrarEstado("libro:1", "LIBRO", "A");
+        CompletableFuture<Void> rotacion = persistencia.rotar(carpeta.getRoot().toPath().resolve("diario.compactando"));
+        try {
+            rotacion.get(5, TimeUnit.SECONDS);
+            fail("La rotación debía fallar");
+        } catch (ExecutionException e) {
+            assertEquals("Sin permiso", e.getCause().getMessage());
+        }
+        persistencia.registrarEstado("libro:2", "LIBRO", "B");
+        assertEquals(2, persistencia.getRegistros());
+        persistencia.close();
+
+        assertEquals(List.of("LIBRO:A", "LIBRO:B"), leer(ruta));
+    }
+
+    /**
+     * Una escritura fallida deja las tareas sin terminar y el reintento las completa sin error.
+     *
+     * @throws Exception Si falla la escritura.
+     */
+    @Test
+    public void reintentaSinFallarLasTareas() throws Exception {
+        Path ruta = carpeta.getRoot().toPath().resolve("diario");
+        DiarioFallido diario = new DiarioFallido(ruta);
+        diario.escriturasFallidas = 1;
+        PersistenciaDiferida persistencia = new PersistenciaDiferida(diario);
+        CompletableFuture<Void> guardado = persistencia.registrarEvento(List.of("libro:1"), "PRESTAMO", "1");
+        while (diario.escriturasFallidas > 0) {
+            Thread.sleep(1);
+        }
+        assertFalse(guardado.isDone()); // El reintento espera un segundo
+        guardado.get(5, TimeUnit.SECONDS);
+        assertTrue(guardado.isDone() && !guardado.isCompletedExceptionally());
+        persistencia.close();
+
+        assertEquals(List.of("PRESTAMO:1"), leer(ruta));
+    }
+
+    /**
+     * Si la escritura falla también al cerrar, los registros se descartan y sus tareas terminan
+     * con el error.
+     *
+     * @throws Exception Si falla la preparación.
+     */
+    @Test
+    public void alCerrarFallanLasTareasSinEscribir() throws Exception {
+        Path ruta = carpeta.getRoot().toPath().resolve("diario");
+        DiarioFallido diario = new DiarioFallido(ruta);
+        diario.escriturasFallidas = Integer.MAX_VALUE;
+        PersistenciaDiferida persistencia = new PersistenciaDiferida(diario);
+        CompletableFuture<Void> guardado = persistencia.registrarEvento(List.of("libro:1"), "PRESTAMO", "1");
+        persistencia.close();
+
+        assertTrue(guardado.isCompletedExceptionally());
+        assertEquals(List.of(), leer(ruta));
+    }
+}
@@ -0,0 +1,262 @@
+package biblioteca.datos;
+
+import biblioteca.models.Libro;
+import biblioteca.models.Miembro;
+import biblioteca.models.Prestamo;
+import biblioteca.models.Sucursal;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Pruebas comunes a las implementaciones de {@link AlmacenBiblioteca}: guardar las tablas,
+ * volver a cargarlas en otra instancia y consultarlas por clave, rango y filtro, también después
+ * de guardar cambios.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public abstract class PruebasAlmacen {
+
+    @Rule
+    public TemporaryFolder carpeta = new TemporaryFolder(); // Carpeta de los datos de cada prueba
+
+    private final List<AlmacenBiblioteca> abiertos = new ArrayList<>(); // Almacenes que se cierran al terminar
+
+    /**
+     * Abre el almacén bajo prueba sobre un directorio.
+     *
+     * @param directorio El directorio de los datos.
+     * @return El almacén.
+     * @throws IOException Si no se puede abrir.
+     */
+    protected abstract AlmacenBiblioteca crear(Path directorio) throws IOException;
+
+    /**
+     * Abre un almacén y lo registra para cerrarlo al terminar la prueba.
+     *
+     * @return El almacén.
+     * @throws IOException Si no se puede abrir.
+     */
+    private AlmacenBiblioteca abrir() throws IOException {
+        AlmacenBiblioteca almacen = crear(carpeta.getRoot().toPath());
+        abiertos.add(almacen);
+        return almacen;
+    }
+
+    /**
+     * Cierra los almacenes abiertos por la prueba.
+     *
+     * @throws IOException Si no se puede cerrar alguno.
+     */
+    @After
+    public void cerrar() throws IOException {
+        for (AlmacenBiblioteca almacen : abiertos) {
+            almacen.close();
+        }
+    }
+
+    /**
+     * Tablas de la biblioteca con su reparto en segmentos.
+     */
+    private static final class Tablas {
+
+        private final ObservableList<Libro> libros = FXCollections.observableArrayList(); // Libros
+        private final ObservableList<Miembro> miembros = FXCollections.observableArrayList(); // Miembros
+        private final ObservableList<Prestamo> prestamos = FXCollections.observableArrayList(); // Préstamos
+        private final ObservableList<Sucursal> sucursales = FXCollections.observableArrayList(); // Sucursales
+        private final TablaSegmentada<Libro> tablaLibros = new TablaSegmentada<>(); // Segmentos de libros
+        private final TablaSegmentada<Miembro> tablaMiembros = new TablaSegmentada<>(); // Segmentos de miembros
+        private final TablaSegmentada<Prestamo> tablaPrestamos = new TablaSegmentada<>(); // Segmentos de préstamos
+        private final TablaSegmentada<Sucursal> tablaSucursales = new TablaSegmentada<>(); // Segmentos de sucursales
+
+        /**
+         * Empieza a seguir los cambios de las listas, que ya tienen las filas cargadas.
+         */
+        private void seguir() {
+            tablaLibros.seguir(libros);
+            tablaMiembros.seguir(miembros);
+            tablaPrestamos.seguir(prestamos);
+            tablaSucursales.seguir(sucursales);
+        }
+
+        /**
+         * Guarda en un almacén los segmentos modificados de las cuatro tablas.
+         *
+         * @param almacen El almacén.
+         * @throws IOException Si falla la escritura.
+         */
+        private void guardar(AlmacenBiblioteca almacen) throws IOException {
+            UnaryOperator<Libro> copiaLibro = libro -> new Libro(libro.getISBNValor(), libro.getTituloValor(),
+                    libro.getAutorValor(), libro.getAnioPublicacionValor(), libro.getGeneroValor(), libro.getSucursalValor());
+            almacen.guardar(tablaLibros.tomarCambios(libros, copiaLibro),
+                    tablaMiembros.tomarCambios(miembros, UnaryOperator.identity()),
+                    tablaPrestamos.tomarCambios(prestamos, UnaryOperator.identity()),
+                    tablaSucursales.tomarCambios(sucursales, UnaryOperator.identity()));
+        }
+    }
+
+    /**
+     * Crea tablas nuevas, por escribir completas: 40 libros de dos géneros, 10 miembros, un
+     * préstamo por libro con fechas consecutivas y una sucursal.
+     *
+     * @return Las tablas.
+     */
+    private static Tablas tablasNuevas() {
+        Tablas tablas = new Tablas();
+        for (int i = 0; i < 10; i++) {
+            tablas.miembros.add(new Miembro("M" + i, "Miembro " + i, "m" + i + "@correo.com", "555-000" + i));
+        }
+        for (int i = 0; i < 40; i++) {
+            Libro libro = new Libro("ISBN-" + i, "Título, \"" + i + "\"", "Autor " + (i % 3), 1990 + i,
+                    i % 2 == 0 ? "Novela" : "Ensayo", "Centro");
+            tablas.libros.add(libro);
+            LocalDate fecha = LocalDate.of(2024, 1, 1).plusDays(i);
+            tablas.prestamos.add(new Prestamo(libro, tablas.miembros.get(i % 10), fecha, fecha.plusDays(14),
+                    i % 4 == 0 ? null : fecha.plusDays(7)));
+        }
+        tablas.sucursales.add(new Sucursal("Centro", "Calle 1"));
+        tablas.tablaLibros.iniciarPendiente(tablas.libros.size());
+        tablas.tablaMiembros.iniciarPendiente(tablas.miembros.size());
+        tablas.tablaPrestamos.iniciarPendiente(tablas.prestamos.size());
+        tablas.tablaSucursales.iniciarPendiente(tablas.sucursales.size());
+        tablas.seguir();
+        return tablas;
+    }
+
+    /**
+     * Carga las cuatro tablas de un almacén.
+     *
+     * @param almacen El almacén.
+     * @return Las tablas cargadas, ya seguidas.
+     * @throws IOException Si falla la lectura.
+     */
+    private static Tablas cargar(AlmacenBiblioteca almacen) throws IOException {
+        Tablas tablas = new Tablas();
+        tablas.libros.setAll(almacen.cargarLibros(tablas.tablaLibros));
+        tablas.miembros.setAll(almacen.cargarMiembros(tablas.tablaMiembros));
+        Map<String, Libro> librosPorISBN = new HashMap<>();
+        tablas.libros.forEach(libro -> librosPorISBN.put(libro.getISBNValor(), libro));
+        Map<String, Miembro> miembrosPorId = new HashMap<>();
+        tablas.miembros.forEach(miembro -> miembrosPorId.put(miembro.getIdValor(), miembro));
+        tablas.prestamos.setAll(almacen.cargarPrestamos(tablas.tablaPrestamos, librosPorISBN, miembrosPorId));
+        tablas.sucursales.setAll(almacen.cargarSucursales(tablas.tablaSucursales));
+        tablas.seguir();
+        return tablas;
+    }
+
+    /**
+     * Describe un préstamo con sus claves y fechas.
+     *
+     * @param prestamo El préstamo.
+     * @return El texto.
+     */
+    private static String describir(Prestamo prestamo) {
+        return prestamo.getLibro().getISBNValor() + "/" + prestamo.getMiembro().getIdValor() + "/"
+                + prestamo.getFechaPrestamoValor() + "/" + prestamo.getFechaDevolucionEsperadaValor() + "/"
+                + prestamo.getFechaDevolucionRealValor();
+    }
+
+    /**
+     * Las tablas guardadas se cargan iguales en otra instancia del almacén.
+     *
+     * @throws IOException Si falla la escritura o la lectura.
+     */
+    @Test
+    public void cargaLoGuardado() throws IOException {
+        Tablas originales = tablasNuevas();
+        originales.guardar(abrir());
+
+        Tablas cargadas = cargar(abrir());
+        assertEquals(originales.libros.stream().map(Libro::toString).collect(Collectors.toList()),
+                cargadas.libros.stream().map(Libro::toString).collect(Collectors.toList()));
+        assertEquals(originales.miembros.stream().map(Miembro::toString).collect(Collectors.toList()),
+                cargadas.miembros.stream().map(Miembro::toString).collect(Collectors.toList()));
+        assertEquals(originales.prestamos.stream().map(PruebasAlmacen::describir).collect(Collectors.toList()),
+                cargadas.prestamos.stream().map(PruebasAlmacen::describir).collect(Collectors.toList()));
+        assertEquals(1, cargadas.sucursales.size());
+        assertEquals("Calle 1", cargadas.sucursales.get(0).getDireccion().get());
+    }
+
+    /**
+     * Las búsquedas por clave, filtro y rango devuelven lo guardado.
+     *
+     * @throws IOException Si falla la escritura o la lectura.
+     */
+    @Test
+    public void consultaLoGuardado() throws IOException {
+        tablasNuevas().guardar(abrir());
+        AlmacenBiblioteca almacen = abrir();
+
+        assertEquals("Título, \"17\"", almacen.buscarLibro("ISBN-17").getTituloValor());
+        assertNull(almacen.buscarLibro("ISBN-99"));
+        assertEquals("Miembro 3", almacen.buscarMiembro("M3").getNombreValor());
+        assertNull(almacen.buscarMiembro("M99"));
+
+        List<Libro> filtrados = almacen.buscarLibros(new FiltroLibros("Novela", null, null, 2000, 2009));
+        assertEquals(List.of("ISBN-10", "ISBN-12", "ISBN-14", "ISBN-16", "ISBN-18"),
+                filtrados.stream().map(Libro::getISBNValor).collect(Collectors.toList()));
+
+        List<Prestamo> rango = almacen.buscarPrestamos(LocalDate.of(2024, 1, 11), LocalDate.of(2024, 1, 13));
+        assertEquals(List.of("ISBN-10/M0/2024-01-11/2024-01-25/2024-01-18", "ISBN-11/M1/2024-01-12/2024-01-26/2024-01-19",
+                "ISBN-12/M2/2024-01-13/2024-01-27/null"),
+                rango.stream().map(PruebasAlmacen::describir).collect(Collectors.toList()));
+    }
+
+    /**
+     * Los préstamos de un mismo libro o miembro en un rango comparten la instancia.
+     *
+     * @throws IOException Si falla la escritura o la lectura.
+     */
+    @Test
+    public void rangoCompartePorClave() throws IOException {
+        tablasNuevas().guardar(abrir());
+
+        List<Prestamo> rango = abrir().buscarPrestamos(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 21));
+        assertEquals(21, rango.size());
+        assertSame(rango.get(0).getMiembro(), rango.get(10).getMiembro());
+    }
+
+    /**
+     * Después de guardar una modificación, un alta y una baja, las búsquedas por clave hechas
+     * antes y después del guardado reflejan los cambios.
+     *
+     * @throws IOException Si falla la escritura o la lectura.
+     */
+    @Test
+    public void consultaTrasGuardarCambios() throws IOException {
+        tablasNuevas().guardar(abrir());
+        AlmacenBiblioteca almacen = abrir();
+        Tablas tablas = cargar(almacen);
+        assertEquals("Miembro 4", almacen.buscarMiembro("M4").getNombreValor()); // Antes del guardado
+
+        tablas.miembros.set(4, new Miembro("M4", "Otro nombre", "m4@correo.com", "555-0004"));
+        tablas.miembros.add(new Miembro("M10", "Nuevo", "m10@correo.com", "555-0010"));
+        tablas.libros.remove(5);
+        tablas.guardar(almacen);
+
+        assertEquals("Otro nombre", almacen.buscarMiembro("M4").getNombreValor());
+        assertEquals("Nuevo", almacen.buscarMiembro("M10").getNombreValor());
+        assertNull(almacen.buscarLibro("ISBN-5"));
+        assertEquals("Otro nombre", abrir().buscarMiembro("M4").getNombreValor());
+        assertEquals(39, cargar(abrir()).libros.size());
+    }
+}
@@ -0,0 +1,151 @@
+package biblioteca.datos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Pruebas de {@link TablaSegmentada}: reparto de las filas en segmentos, segmentos modificados
+ * por altas, bajas y reemplazos, y restauración de un guardado fallido.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public class TablaSegmentadaTest {
+
+    private static final int TAMANIO_SEGMENTO = 16384; // Filas de un segmento lleno, como en la tabla
+    private static final UnaryOperator<String> COPIA = fila -> fila; // Las cadenas no cambian
+
+    /**
+     * Crea una lista con filas numeradas.
+     *
+     * @param cantidad Cantidad de filas.
+     * @return La lista observable.
+     */
+    private static ObservableList<String> filas(int cantidad) {
+        List<String> filas = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            filas.add("f" + i);
+        }
+        return FXCollections.observableArrayList(filas);
+    }
+
+    /**
+     * Obtiene la cantidad de filas de cada segmento por escribir.
+     *
+     * @param guardado El guardado.
+     * @return El tamaño de cada segmento, en orden.
+     */
+    private static List<Integer> tamanios(TablaSegmentada.Guardado<String> guardado) {
+        List<Integer> tamanios = new ArrayList<>();
+        for (List<String> datos : guardado.getDatos()) {
+            tamanios.add(datos.size());
+        }
+        return tamanios;
+    }
+
+    /**
+     * Una tabla que no estaba en segmentos se reparte en segmentos llenos, se escribe completa
+     * una vez y después no queda nada pendiente.
+     */
+    @Test
+    public void repartePendienteEnSegmentosLlenos() {
+        ObservableList<String> lista = filas(TAMANIO_SEGMENTO * 2 + 5);
+        TablaSegmentada<String> tabla = new TablaSegmentada<>();
+        tabla.iniciarPendiente(lista.size());
+        tabla.seguir(lista);
+
+        TablaSegmentada.Guardado<String> guardado = tabla.tomarCambios(lista, COPIA);
+        assertTrue(guardado.isCompleto());
+        assertEquals(List.of(0, 1, 2), guardado.getNumeros());
+        assertEquals(List.of(TAMANIO_SEGMENTO, TAMANIO_SEGMENTO, 5), tamanios(guardado));
+        assertEquals("f" + TAMANIO_SEGMENTO, guardado.getDatos().get(1).get(0));
+        assertTrue(tabla.tomarCambios(lista, COPIA).estaVacio());
+    }
+
+    /**
+     * Las filas agregadas al final llenan el último segmento y siguen en uno nuevo.
+     */
+    @Test
+    public void agregaAlFinalYAbreSegmentos() {
+        ObservableList<String> lista = filas(TAMANIO_SEGMENTO - 2);
+        TablaSegmentada<String> tabla = new TablaSegmentada<>();
+        tabla.iniciar(List.of(0), List.of(lista.size()));
+        tabla.seguir(lista);
+        lista.addAll(List.of("a", "b", "c", "d"));
+
+        TablaSegmentada.Guardado<String> guardado = tabla.tomarCambios(lista, COPIA);
+        assertFalse(guardado.isCompleto());
+        assertEquals(List.of(0, 1), guardado.getNumeros());
+        assertEquals(List.of(TAMANIO_SEGMENTO, 2), tamanios(guardado));
+        assertEquals(List.of("c", "d"), guardado.getDatos().get(1));
+        assertEquals(List.of(0, 1), guardado.getVigentes());
+    }
+
+    /**
+     * Un reemplazo o una inserción en medio marcan solo el segmento de su posición.
+     */
+    @Test
+    public void cambiosEnMedioMarcanSuSegmento() {
+        ObservableList<String> lista = filas(9);
+        TablaSegmentada<String> tabla = new TablaSegmentada<>();
+        tabla.iniciar(List.of(0, 1, 2), List.of(3, 3, 3));
+        tabla.seguir(lista);
+        lista.set(4, "x");
+        lista.add(5, "y"); // Dentro del segmento 1, que pasa a tener cuatro filas
+
+        TablaSegmentada.Guardado<String> guardado = tabla.tomarCambios(lista, COPIA);
+        assertEquals(List.of(1), guardado.getNumeros());
+        assertEquals(List.of(List.of("f3", "x", "y", "f5")), guardado.getDatos());
+        assertEquals(List.of(0, 1, 2), guardado.getVigentes());
+    }
+
+    /**
+     * Un segmento que se vacía deja de estar vigente y queda para borrar.
+     */
+    @Test
+    public void segmentoVaciadoQuedaObsoleto() {
+        ObservableList<String> lista = filas(9);
+        TablaSegmentada<String> tabla = new TablaSegmentada<>();
+        tabla.iniciar(List.of(0, 1, 2), List.of(3, 3, 3));
+        tabla.seguir(lista);
+        lista.remove(3, 6);
+
+        TablaSegmentada.Guardado<String> guardado = tabla.tomarCambios(lista, COPIA);
+        assertEquals(List.of(), guardado.getNumeros());
+        assertEquals(List.of(1), guardado.getObsoletos());
+        assertEquals(List.of(0, 2), guardado.getVigentes());
+        assertFalse(guardado.estaVacio());
+    }
+
+    /**
+     * Restaurar un guardado fallido vuelve a dejar pendientes sus segmentos, los obsoletos y la
+     * escritura completa, con los datos actuales de la lista.
+     */
+    @Test
+    public void restaurarVuelveAMarcarPendientes() {
+        ObservableList<String> lista = filas(9);
+        TablaSegmentada<String> tabla = new TablaSegmentada<>();
+        tabla.iniciarPendiente(lista.size());
+        tabla.seguir(lista);
+        lista.remove(0);
+        TablaSegmentada.Guardado<String> fallido = tabla.tomarCambios(lista, COPIA);
+        lista.set(0, "z"); // Cambio posterior a la toma
+
+        tabla.restaurar(fallido);
+        TablaSegmentada.Guardado<String> guardado = tabla.tomarCambios(lista, COPIA);
+        assertTrue(guardado.isCompleto());
+        assertEquals(List.of(0), guardado.getNumeros());
+        assertEquals("z", guardado.getDatos().get(0).get(0));
+        assertEquals(8, guardado.getDatos().get(0).size());
+    }
+}
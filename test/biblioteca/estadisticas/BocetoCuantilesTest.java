@@ -0,0 +1,146 @@
+package biblioteca.estadisticas;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Pruebas de {@link BocetoCuantiles}: cota del error relativo, combinación y límite de cubetas.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public class BocetoCuantilesTest {
+
+    private static final double[] CUANTILES = {0, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99, 0.999, 1};
+
+    /**
+     * Con duraciones uniformes, cada cuantil queda dentro del error relativo prometido.
+     */
+    @Test
+    public void errorRelativoConValoresUniformes() {
+        Random azar = new Random(7);
+        long[] valores = new long[100_000];
+        for (int i = 0; i < valores.length; i++) {
+            valores[i] = 1 + azar.nextInt(365);
+        }
+        verificarCotas(valores);
+    }
+
+    /**
+     * Con una distribución de cola larga, que abarca muchas cubetas, la cota se mantiene.
+     */
+    @Test
+    public void errorRelativoConColaLarga() {
+        Random azar = new Random(11);
+        long[] valores = new long[100_000];
+        for (int i = 0; i < valores.length; i++) {
+            valores[i] = 1 + (long) Math.exp(azar.nextGaussian() * 3 + 3);
+        }
+        verificarCotas(valores);
+    }
+
+    /**
+     * Los ceros se cuentan aparte y el cuantil que cae en ellos vale exactamente cero.
+     */
+    @Test
+    public void cerosYVacio() {
+        BocetoCuantiles boceto = new BocetoCuantiles();
+        assertTrue(Double.isNaN(boceto.cuantil(0.5)));
+
+        for (int i = 0; i < 60; i++) {
+            boceto.agregar(0);
+        }
+        for (int i = 0; i < 40; i++) {
+            boceto.agregar(10);
+        }
+        assertEquals(100, boceto.getCantidad());
+        assertEquals(0, boceto.cuantil(0.5), 0);
+        assertEquals(10, boceto.cuantil(0.9), 10 * BocetoCuantiles.PRECISION_RELATIVA);
+        assertEquals(10, boceto.cuantil(1), 0);
+    }
+
+    /**
+     * Combinar bocetos parciales da los mismos cuantiles que un boceto con todos los valores.
+     */
+    @Test
+    public void combinarEquivaleAAgregarTodo() {
+        Random azar = new Random(3);
+        BocetoCuantiles total = new BocetoCuantiles();
+        BocetoCuantiles[] partes = {new BocetoCuantiles(), new BocetoCuantiles(), new BocetoCuantiles()};
+        for (int i = 0; i < 30_000; i++) {
+            // Cada parte cubre un rango distinto para forzar el cambio de desplazamiento
+            int parte = i % 3;
+            long valor = 1 + azar.nextInt(parte == 0 ? 10 : parte == 1 ? 1_000 : 100_000);
+            total.agregar(valor);
+            partes[parte].agregar(valor);
+        }
+        BocetoCuantiles combinado = BocetoCuantiles.combinar(Arrays.asList(partes));
+
+        assertEquals(total.getCantidad(), combinado.getCantidad());
+        for (double q : CUANTILES) {
+            assertEquals(total.cuantil(q), combinado.cuantil(q), 0);
+        }
+    }
+
+    /**
+     * Con un rango mayor al límite de cubetas, solo pierden precisión los valores más bajos:
+     * los cuantiles altos siguen dentro de la cota.
+     */
+    @Test
+    public void limiteDeCubetasConservaLosCuantilesAltos() {
+        BocetoCuantiles boceto = new BocetoCuantiles();
+        long[] valores = new long[1_000];
+        for (int i = 0; i < valores.length; i++) {
+            valores[i] = i < 10 ? 1 + i : (long) Math.pow(10, 15 + 3.0 * i / valores.length);
+            boceto.agregar(valores[i]);
+        }
+        Arrays.sort(valores);
+
+        for (double q : new double[]{0.5, 0.9, 0.99, 1}) {
+            double exacto = valores[(int) (q * (valores.length - 1))];
+            assertEquals(exacto, boceto.cuantil(q), exacto * BocetoCuantiles.PRECISION_RELATIVA);
+        }
+        assertTrue(boceto.cuantil(0) >= 1);
+    }
+
+    /**
+     * Los valores bajos que llegan después de muchos altos no se pierden al ampliar el arreglo
+     * hacia abajo, aunque el arreglo anterior tuviera espacio libre arriba.
+     */
+    @Test
+    public void ampliarHaciaAbajoNoUneCubetasUsadas() {
+        BocetoCuantiles boceto = new BocetoCuantiles();
+        for (long dias : new long[]{37, 10, 6, 4, 3, 2, 1}) {
+            boceto.agregar(dias);
+        }
+        assertEquals(1, boceto.cuantil(0), BocetoCuantiles.PRECISION_RELATIVA);
+        assertEquals(2, boceto.cuantil(1.0 / 6), 2 * BocetoCuantiles.PRECISION_RELATIVA);
+    }
+
+    // ----- Auxiliares -----
+
+    /**
+     * Agrega los valores a un boceto y compara cada cuantil con el exacto.
+     *
+     * @param valores Los valores, que se ordenan en el lugar.
+     */
+    private static void verificarCotas(long[] valores) {
+        BocetoCuantiles boceto = new BocetoCuantiles();
+        for (long valor : valores) {
+            boceto.agregar(valor);
+        }
+        Arrays.sort(valores);
+        for (double q : CUANTILES) {
+            double exacto = valores[(int) (q * (valores.length - 1))];
+            double estimado = boceto.cuantil(q);
+            assertTrue("q=" + q + " exacto=" + exacto + " estimado=" + estimado,
+                    Math.abs(estimado - exacto) <= exacto * BocetoCuantiles.PRECISION_RELATIVA + 1e-9);
+        }
+    }
+}
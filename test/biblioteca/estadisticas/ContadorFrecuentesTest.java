@@ -0,0 +1,109 @@
+package biblioteca.estadisticas;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Pruebas de {@link ContadorFrecuentes}: las garantías de Space-Saving sobre un flujo mayor
+ * que la capacidad.
+ *
+ * @author Angel Sanabria, Javier Alvarado
+ * @version 1.0
+ * @since 2026-10-17
+ * @lastModified 2026-10-17
+ */
+public class ContadorFrecuentesTest {
+
+    /**
+     * Mientras los elementos distintos caben en la capacidad, las cuentas son exactas.
+     */
+    @Test
+    public void cuentasExactasSinDesbordar() {
+        ContadorFrecuentes<String> contador = new ContadorFrecuentes<>(8);
+        for (String clave : new String[]{"a", "b", "a", "c", "a", "b"}) {
+            contador.agregar(clave);
+        }
+        List<ContadorFrecuentes.Entrada<String>> mas = contador.getMasFrecuentes(2);
+
+        assertEquals(2, mas.size());
+        assertEquals("a", mas.get(0).getClave());
+        assertEquals(3, mas.get(0).getCuenta());
+        assertEquals(0, mas.get(0).getError());
+        assertEquals("b", mas.get(1).getClave());
+        assertEquals(2, mas.get(1).getCuenta());
+        assertEquals(6, contador.getTotal());
+    }
+
+    /**
+     * Con muchos más elementos distintos que contadores: la cuenta nunca es menor que la real
+     * ni la excede en más que su error, el error no supera total / capacidad, todo elemento
+     * con más apariciones que esa cota está presente y las cuentas suman el total.
+     */
+    @Test
+    public void garantiasConFlujoSesgado() {
+        int capacidad = 64;
+        ContadorFrecuentes<Integer> contador = new ContadorFrecuentes<>(capacidad);
+        Map<Integer, Long> reales = new HashMap<>();
+        Random azar = new Random(5);
+        int total = 200_000;
+        for (int i = 0; i < total; i++) {
+            // Distribución de Zipf aproximada sobre 10 000 elementos
+            int clave = (int) Math.floor(Math.pow(10_000, azar.nextDouble()));
+            contador.agregar(clave);
+            reales.merge(clave, 1L, Long::sum);
+        }
+
+        List<ContadorFrecuentes.Entrada<Integer>> todos = contador.getMasFrecuentes(capacidad);
+        assertEquals(capacidad, todos.size());
+        long suma = 0;
+        Map<Integer, ContadorFrecuentes.Entrada<Integer>> presentes = new HashMap<>();
+        for (ContadorFrecuentes.Entrada<Integer> entrada : todos) {
+            long real = reales.get(entrada.getClave());
+            assertTrue(entrada.getCuenta() >= real);
+            assertTrue(entrada.getCuenta() - entrada.getError() <= real);
+            assertTrue(entrada.getError() <= total / capacidad);
+            suma += entrada.getCuenta();
+            presentes.put(entrada.getClave(), entrada);
+        }
+        assertEquals(total, suma);
+        assertEquals(total, contador.getTotal());
+
+        for (Map.Entry<Integer, Long> real : reales.entrySet()) {
+            if (real.getValue() > total / capacidad) {
+                assertTrue("Falta " + real.getKey(), presentes.containsKey(real.getKey()));
+            }
+        }
+        for (int i = 1; i < todos.size(); i++) {
+            assertTrue(todos.get(i - 1).getCuenta() >= todos.get(i).getCuenta());
+        }
+    }
+
+    /**
+     * Un elemento frecuente que aparece tarde desplaza a los de menor cuenta y queda primero.
+     */
+    @Test
+    public void elementoTardioDesplazaAlMenor() {
+        ContadorFrecuentes<String> contador = new ContadorFrecuentes<>(4);
+        for (int i = 0; i < 100; i++) {
+            contador.agregar("ruido" + i);
+        }
+        for (int i = 0; i < 200; i++) {
+            contador.agregar("tardio");
+        }
+        ContadorFrecuentes.Entrada<String> primero = contador.getMasFrecuentes(1).get(0);
+
+        assertEquals("tardio", primero.getClave());
+        assertTrue(primero.getCuenta() >= 200);
+        assertTrue(primero.getCuenta() - primero.getError() <= 200);
+
+        contador.limpiar();
+        assertEquals(0, contador.getTotal());
+        assertEquals(0, contador.getMasFrecuentes(10).size());
+    }
+}